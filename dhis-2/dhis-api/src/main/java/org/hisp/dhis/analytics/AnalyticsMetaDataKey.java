@@ -40,6 +40,8 @@ public enum AnalyticsMetaDataKey {
   ORG_UNIT_HIERARCHY("ouHierarchy"),
   ORG_UNIT_NAME_HIERARCHY("ouNameHierarchy"),
   ORG_UNIT_ANCESTORS("ouAncestors"),
+  APPROXIMATE("approximate"),
+  NEXT_CURSOR("nextCursor"),
   USER_ORGUNIT("USER_ORGUNIT"),
 
   USER_ORGUNIT_CHILDREN("USER_ORGUNIT_CHILDREN"),
@@ -47,6 +47,8 @@ public interface CacheProvider {
 
   <V> Cache<V> createOutliersCache();
 
+  <V> Cache<V> createAnalyticsSubQueryCache();
+
   <V> Cache<V> createDefaultObjectCache();
 
   <V> Cache<V> createIsDataApprovedCache();
@@ -99,6 +99,9 @@ public class AggregateAnalyticsQueryCriteria {
   /** Skip rounding of data values, i.e. provide full precision. */
   private boolean skipRounding;
 
+  /** Whether to approximate values by sampling analytics table rows. */
+  private boolean approximate;
+
   /** Whether to only show completed events. */
   private boolean completedOnly;
 
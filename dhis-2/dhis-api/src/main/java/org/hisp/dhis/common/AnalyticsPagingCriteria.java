@@ -51,6 +51,23 @@ public class AnalyticsPagingCriteria extends RequestTypeAware {
    */
   private boolean totalPages = true;
 
+  /**
+   * The keyset paging parameter. When set to true rows are paged by identifier instead of by
+   * offset, and the identifier of the last row of each page is returned as cursor for the next
+   * page.
+   */
+  private boolean keysetPaging;
+
+  /** The keyset paging cursor, which is the identifier of the last row of the previous page. */
+  private String cursor;
+
+  /**
+   * The total count parameter. When set to true the total count is estimated by the database query
+   * planner instead of counted, and the pager indicates that the total is estimated. The total is
+   * counted if no estimate is available.
+   */
+  private boolean estimateTotal;
+
   /**
    * Sets the page size, taking the configurable max records limit into account. Note that a value
    * of 0 represents unlimited records.
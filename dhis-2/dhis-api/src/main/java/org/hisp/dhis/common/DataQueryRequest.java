@@ -63,6 +63,8 @@ public class DataQueryRequest {
 
   protected boolean skipRounding;
 
+  protected boolean approximate;
+
   protected boolean completedOnly;
 
   protected boolean hierarchyMeta;
@@ -188,6 +190,11 @@ public class DataQueryRequest {
       return this;
     }
 
+    public DataQueryRequestBuilder approximate(boolean approximate) {
+      this.request.approximate = approximate;
+      return this;
+    }
+
     public DataQueryRequestBuilder completedOnly(boolean completedOnly) {
       this.request.completedOnly = completedOnly;
       return this;
@@ -320,6 +327,7 @@ public class DataQueryRequest {
       this.request.skipData = criteria.isSkipData();
       this.request.skipMeta = criteria.isSkipMeta();
       this.request.skipRounding = criteria.isSkipRounding();
+      this.request.approximate = criteria.isApproximate();
       this.request.startDate = criteria.getStartDate();
       this.request.timeField = criteria.getTimeField();
       this.request.userOrgUnit = criteria.getUserOrgUnit();
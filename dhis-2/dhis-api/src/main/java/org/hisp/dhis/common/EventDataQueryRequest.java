@@ -80,6 +80,8 @@ public class EventDataQueryRequest {
 
   private boolean skipRounding;
 
+  private boolean approximate;
+
   private boolean completedOnly;
 
   private boolean hierarchyMeta;
@@ -142,6 +144,12 @@ public class EventDataQueryRequest {
 
   private boolean totalPages;
 
+  private boolean keysetPaging;
+
+  private String cursor;
+
+  private boolean estimateTotal;
+
   private EndpointItem endpointItem;
 
   private EndpointAction endpointAction;
@@ -173,6 +181,7 @@ public class EventDataQueryRequest {
     queryRequest.skipMeta = this.skipMeta;
     queryRequest.skipData = this.skipData;
     queryRequest.skipRounding = this.skipRounding;
+    queryRequest.approximate = this.approximate;
     queryRequest.completedOnly = this.completedOnly;
     queryRequest.hierarchyMeta = this.hierarchyMeta;
     queryRequest.showHierarchy = this.showHierarchy;
@@ -199,6 +208,9 @@ public class EventDataQueryRequest {
     queryRequest.pageSize = this.pageSize;
     queryRequest.paging = this.paging;
     queryRequest.totalPages = this.totalPages;
+    queryRequest.keysetPaging = this.keysetPaging;
+    queryRequest.cursor = this.cursor;
+    queryRequest.estimateTotal = this.estimateTotal;
     queryRequest.endpointItem = this.endpointItem;
     queryRequest.endpointAction = this.endpointAction;
     queryRequest.enhancedConditions = this.enhancedConditions;
@@ -247,6 +259,7 @@ public class EventDataQueryRequest {
               .relativePeriodDate(criteria.getRelativePeriodDate())
               .showHierarchy(criteria.isShowHierarchy())
               .skipRounding(criteria.isSkipRounding())
+              .approximate(criteria.isApproximate())
               .skipData(criteria.isSkipData())
               .skipMeta(criteria.isSkipMeta())
               .sortOrder(criteria.getSortOrder())
@@ -261,6 +274,9 @@ public class EventDataQueryRequest {
               .coordinatesOnly(criteria.isCoordinatesOnly())
               .defaultCoordinateFallback(criteria.isDefaultCoordinateFallback())
               .totalPages(criteria.isTotalPages())
+              .keysetPaging(criteria.isKeysetPaging())
+              .cursor(criteria.getCursor())
+              .estimateTotal(criteria.isEstimateTotal())
               .endpointItem(criteria.getEndpointItem())
               .endpointAction(criteria.getEndpointAction())
               .enhancedConditions(criteria.isEnhancedConditions())
@@ -339,6 +355,9 @@ public class EventDataQueryRequest {
               .coordinateField(criteria.getCoordinateField())
               .sortOrder(criteria.getSortOrder())
               .totalPages(criteria.isTotalPages())
+              .keysetPaging(criteria.isKeysetPaging())
+              .cursor(criteria.getCursor())
+              .estimateTotal(criteria.isEstimateTotal())
               .endpointItem(criteria.getEndpointItem())
               .endpointAction(criteria.getEndpointAction())
               .enhancedConditions(criteria.isEnhancedConditions())
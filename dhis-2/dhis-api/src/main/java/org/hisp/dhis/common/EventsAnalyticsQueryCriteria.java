@@ -140,6 +140,9 @@ public class EventsAnalyticsQueryCriteria extends AnalyticsPagingCriteria {
   /** Whether to skip rounding of aggregate data values. */
   private boolean skipRounding;
 
+  /** Whether to approximate aggregate values by sampling analytics table rows. */
+  private boolean approximate;
+
   /** Whether to only show completed events. */
   private boolean completedOnly;
 
@@ -50,6 +50,7 @@ import org.hisp.dhis.common.SecondaryMetadataObject;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.metadata.MetadataImportParams;
 import org.hisp.dhis.scheduling.parameters.AggregateDataExchangeJobParameters;
+import org.hisp.dhis.scheduling.parameters.AnalyticsCacheWarmingJobParameters;
 import org.hisp.dhis.scheduling.parameters.AnalyticsJobParameters;
 import org.hisp.dhis.scheduling.parameters.ContinuousAnalyticsJobParameters;
 import org.hisp.dhis.scheduling.parameters.DataIntegrityDetailsJobParameters;
@@ -277,6 +278,9 @@ public class JobConfiguration extends BaseIdentifiableObject implements Secondar
         @JsonSubTypes.Type(
             value = ContinuousAnalyticsJobParameters.class,
             name = "CONTINUOUS_ANALYTICS_TABLE"),
+        @JsonSubTypes.Type(
+            value = AnalyticsCacheWarmingJobParameters.class,
+            name = "ANALYTICS_CACHE_WARMING"),
         @JsonSubTypes.Type(value = MonitoringJobParameters.class, name = "MONITORING"),
         @JsonSubTypes.Type(value = PredictorJobParameters.class, name = "PREDICTOR"),
         @JsonSubTypes.Type(value = PushAnalysisJobParameters.class, name = "PUSH_ANALYSIS"),
@@ -40,6 +40,7 @@ import javax.annotation.Nonnull;
 import lombok.Getter;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.scheduling.parameters.AggregateDataExchangeJobParameters;
+import org.hisp.dhis.scheduling.parameters.AnalyticsCacheWarmingJobParameters;
 import org.hisp.dhis.scheduling.parameters.AnalyticsJobParameters;
 import org.hisp.dhis.scheduling.parameters.ContinuousAnalyticsJobParameters;
 import org.hisp.dhis.scheduling.parameters.DataIntegrityDetailsJobParameters;
@@ -77,6 +78,7 @@ public enum JobType {
   RESOURCE_TABLE(),
   ANALYTICS_TABLE(AnalyticsJobParameters.class),
   CONTINUOUS_ANALYTICS_TABLE(ContinuousAnalyticsJobParameters.class),
+  ANALYTICS_CACHE_WARMING(AnalyticsCacheWarmingJobParameters.class),
   DATA_SYNC(DataSynchronizationJobParameters.class),
   TRACKER_PROGRAMS_DATA_SYNC(TrackerProgramsDataSynchronizationJobParameters.class),
   EVENT_PROGRAMS_DATA_SYNC(EventProgramsDataSynchronizationJobParameters.class),
@@ -57,6 +57,14 @@ public class AnalyticsJobParameters implements JobParameters {
   @JsonProperty private boolean skipResourceTables = false;
   @JsonProperty private boolean skipOutliers = false;
 
+  /**
+   * Update existing table partitions in place with changed data instead of rebuilding them. Changed
+   * data is found by the last updated time of data values, and of events, their enrollments and the
+   * attribute values of their tracked entities. Metadata changes such as moved organisation units
+   * require a regular update.
+   */
+  @JsonProperty private boolean incrementalUpdate = false;
+
   public AnalyticsJobParameters(
       Integer lastYears,
       Set<AnalyticsTableType> skipTableTypes,
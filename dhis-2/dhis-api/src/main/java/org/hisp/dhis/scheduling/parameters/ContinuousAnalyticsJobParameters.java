@@ -55,6 +55,14 @@ public class ContinuousAnalyticsJobParameters implements JobParameters {
   /** Outliers statistics columns of Analytics tables will be skipped. */
   @JsonProperty private Boolean skipOutliers = false;
 
+  /**
+   * Update existing table partitions in place with changed data instead of updating the latest
+   * analytics partition between full analytics table updates. Changed data is found by the last
+   * updated time of data values, and of events, their enrollments and the attribute values of their
+   * tracked entities. Metadata changes are applied by the full updates.
+   */
+  @JsonProperty private Boolean incrementalUpdate = false;
+
   public ContinuousAnalyticsJobParameters(
       Integer fullUpdateHourOfDay,
       Integer lastYears,
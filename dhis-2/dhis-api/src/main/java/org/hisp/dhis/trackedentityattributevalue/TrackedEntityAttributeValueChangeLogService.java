@@ -37,6 +37,16 @@ public interface TrackedEntityAttributeValueChangeLogService {
   void addTrackedEntityAttributeValueChangLog(
       TrackedEntityAttributeValueChangeLog trackedEntityAttributeValueChangeLog);
 
+  /**
+   * Adds the given change logs with a single batch insert. The tracked entities and attributes the
+   * change logs refer to must already be flushed to the database.
+   *
+   * @param trackedEntityAttributeValueChangeLogs the list of {@link
+   *     TrackedEntityAttributeValueChangeLog}.
+   */
+  void addTrackedEntityAttributeValueChangeLogs(
+      List<TrackedEntityAttributeValueChangeLog> trackedEntityAttributeValueChangeLogs);
+
   /**
    * @deprecated use TrackedEntityChangeLogService.getEventChangeLog(UID) instead
    */
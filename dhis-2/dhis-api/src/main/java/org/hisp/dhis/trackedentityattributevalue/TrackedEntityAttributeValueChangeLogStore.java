@@ -37,6 +37,9 @@ public interface TrackedEntityAttributeValueChangeLogStore {
   void addTrackedEntityAttributeValueChangeLog(
       TrackedEntityAttributeValueChangeLog attributeValueChangeLog);
 
+  void addTrackedEntityAttributeValueChangeLogs(
+      List<TrackedEntityAttributeValueChangeLog> attributeValueChangeLogs);
+
   List<TrackedEntityAttributeValueChangeLog> getTrackedEntityAttributeValueChangeLogs(
       TrackedEntityAttributeValueChangeLogQueryParams params);
 
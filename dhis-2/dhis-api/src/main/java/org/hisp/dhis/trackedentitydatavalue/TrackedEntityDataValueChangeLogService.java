@@ -39,6 +39,15 @@ public interface TrackedEntityDataValueChangeLogService {
   void addTrackedEntityDataValueChangeLog(
       TrackedEntityDataValueChangeLog trackedEntityDataValueChangeLog);
 
+  /**
+   * Adds the given change logs with a single batch insert. The events and data elements the change
+   * logs refer to must already be flushed to the database.
+   *
+   * @param trackedEntityDataValueChangeLogs the list of {@link TrackedEntityDataValueChangeLog}.
+   */
+  void addTrackedEntityDataValueChangeLogs(
+      List<TrackedEntityDataValueChangeLog> trackedEntityDataValueChangeLogs);
+
   /**
    * @deprecated use EventChangeLogService.getEventChangeLog(UID) instead
    */
@@ -39,6 +39,9 @@ public interface TrackedEntityDataValueChangeLogStore {
   void addTrackedEntityDataValueChangeLog(
       TrackedEntityDataValueChangeLog trackedEntityDataValueChangeLog);
 
+  void addTrackedEntityDataValueChangeLogs(
+      List<TrackedEntityDataValueChangeLog> trackedEntityDataValueChangeLogs);
+
   List<TrackedEntityDataValueChangeLog> getTrackedEntityDataValueChangeLogs(
       TrackedEntityDataValueChangeLogQueryParams params);
 
@@ -42,8 +42,8 @@ public interface AnalyticsManager {
   /**
    * Retrieves aggregated data values for the given query. The data is returned as a mapping where
    * the key is concatenated from the dimension options for all dimensions separated by "-", and the
-   * value is the data value. This method is invoked asynchronously. The value class can be Double
-   * or String.
+   * value is the data value. The value class can be Double or String. This method executes the
+   * query in the calling thread, concurrency is managed by the caller.
    *
    * @param params the {@link DataQueryParams} to retrieve aggregated data for.
    * @param tableType the {@link AnalyticsTableType}.
@@ -85,6 +85,48 @@ public interface AnalyticsTableManager {
     return false;
   }
 
+  /**
+   * Indicates whether this manager supports incremental update of existing table partitions.
+   *
+   * @return true if incremental update is supported.
+   */
+  default boolean supportsIncrementalUpdate() {
+    return false;
+  }
+
+  /**
+   * Indicates whether the given table can be updated incrementally, i.e. whether the main table and
+   * all its partitions exist with the same columns and a recorded high-water mark.
+   *
+   * @param table the {@link AnalyticsTable}.
+   * @return true if the table can be updated incrementally.
+   */
+  default boolean canUpdateIncrementally(AnalyticsTable table) {
+    return false;
+  }
+
+  /**
+   * Updates the main table partition corresponding to the given partition in place. Data which was
+   * created, updated or deleted after the high-water mark of the partition and before the start
+   * time of this update process is removed from and re-inserted into the partition.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @param partition the {@link AnalyticsTablePartition}.
+   * @return true if the partition had changed data and was updated, false if not.
+   */
+  default boolean updateTableIncrementally(
+      AnalyticsTableUpdateParams params, AnalyticsTablePartition partition) {
+    return false;
+  }
+
+  /**
+   * Records the high-water mark for the main table partition corresponding to the given partition.
+   *
+   * @param partition the {@link AnalyticsTablePartition}.
+   * @param highWaterMark the time up to which data is present in the partition, exclusive.
+   */
+  default void saveHighWaterMark(AnalyticsTablePartition partition, Date highWaterMark) {}
+
   /**
    * Performs work before tables are being created.
    *
@@ -106,6 +148,27 @@ public interface AnalyticsTableManager {
    */
   void createTable(AnalyticsTable table);
 
+  /**
+   * Attempts to drop and then create the given analytics table partition. The master table of the
+   * partition must exist.
+   *
+   * @param partition the {@link AnalyticsTablePartition}.
+   */
+  void createTablePartition(AnalyticsTablePartition partition);
+
+  /**
+   * Indicates whether the staging table or table partition with the given name exists with the
+   * columns and column data types of the given analytics table, i.e. whether it can be reused when
+   * resuming an update which was interrupted.
+   *
+   * @param table the {@link AnalyticsTable}.
+   * @param name the name of the staging table or table partition.
+   * @return true if the staging table or table partition can be reused.
+   */
+  default boolean canReuseStagingTable(AnalyticsTable table, String name) {
+    return false;
+  }
+
   /**
    * Creates single indexes on the given columns of the analytics table with the given name.
    *
@@ -132,6 +195,13 @@ public interface AnalyticsTableManager {
    */
   void populateTable(AnalyticsTableUpdateParams params, AnalyticsTablePartition partition);
 
+  /**
+   * Indicates whether analytics table SQL hooks exist for the table type.
+   *
+   * @return true if analytics table SQL hooks exist.
+   */
+  boolean hasAnalyticsTableSqlHooks();
+
   /**
    * Invokes analytics table SQL hooks for the table type.
    *
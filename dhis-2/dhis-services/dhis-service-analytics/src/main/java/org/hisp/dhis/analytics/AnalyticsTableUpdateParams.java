@@ -63,6 +63,12 @@ public class AnalyticsTableUpdateParams {
   /** Indicates whether to skip update of analytics tables, outliers stats columns. */
   private boolean skipOutliers;
 
+  /**
+   * Indicates whether to update existing table partitions in place based on the data changed since
+   * the last recorded high-water mark of each partition, instead of rebuilding them.
+   */
+  private boolean incrementalUpdate;
+
   /** Analytics table types to skip. */
   private Set<AnalyticsTableType> skipTableTypes = new HashSet<>();
 
@@ -78,6 +84,12 @@ public class AnalyticsTableUpdateParams {
   /** Time of last successful analytics table update. */
   private Date lastSuccessfulUpdate;
 
+  /**
+   * Key of the checkpoints recorded for this update, null if the update is not resumed from and
+   * does not record checkpoints.
+   */
+  private String checkpointKey;
+
   /** Current date, only used for testing */
   private Date today;
 
@@ -128,6 +140,7 @@ public class AnalyticsTableUpdateParams {
         .add("skip table types", skipTableTypes)
         .add("skip programs", skipPrograms)
         .add("skip outliers statistics", skipOutliers)
+        .add("incremental update", incrementalUpdate)
         .add("start time", DateUtils.toLongDate(startTime))
         .toString();
   }
@@ -166,11 +179,13 @@ public class AnalyticsTableUpdateParams {
     params.lastYears = this.lastYears;
     params.skipResourceTables = this.skipResourceTables;
     params.skipOutliers = this.skipOutliers;
+    params.incrementalUpdate = this.incrementalUpdate;
     params.skipTableTypes = new HashSet<>(this.skipTableTypes);
     params.skipPrograms = new HashSet<>(this.skipPrograms);
     params.jobId = this.jobId;
     params.startTime = this.startTime;
     params.lastSuccessfulUpdate = this.lastSuccessfulUpdate;
+    params.checkpointKey = this.checkpointKey;
 
     return this;
   }
@@ -215,6 +230,11 @@ public class AnalyticsTableUpdateParams {
       return this;
     }
 
+    public Builder withIncrementalUpdate(boolean incrementalUpdate) {
+      this.params.incrementalUpdate = incrementalUpdate;
+      return this;
+    }
+
     public Builder withSkipTableTypes(Set<AnalyticsTableType> skipTableTypes) {
       this.params.skipTableTypes = skipTableTypes;
       return this;
@@ -240,6 +260,11 @@ public class AnalyticsTableUpdateParams {
       return this;
     }
 
+    public Builder withCheckpointKey(String checkpointKey) {
+      this.params.checkpointKey = checkpointKey;
+      return this;
+    }
+
     /**
      * This builder property is only used for testing purposes.
      *
@@ -253,6 +253,18 @@ public class DataQueryParams {
   /** Indicates that full precision should be provided for values. */
   protected boolean skipRounding;
 
+  /**
+   * Indicates whether values may be approximated by aggregating a sample of the analytics table
+   * rows, for faster responses during interactive exploration.
+   */
+  protected boolean approximate;
+
+  /**
+   * Indicates whether this query reads a sample of the analytics table rows. Set by the query
+   * planner for planned queries which qualify for approximation.
+   */
+  protected transient boolean sampled;
+
   /** Indicates whether to include completed events only. */
   protected boolean completedOnly;
 
@@ -502,6 +514,8 @@ public class DataQueryParams {
     params.skipData = this.skipData;
     params.skipHeaders = this.skipHeaders;
     params.skipRounding = this.skipRounding;
+    params.approximate = this.approximate;
+    params.sampled = this.sampled;
     params.completedOnly = this.completedOnly;
     params.hierarchyMeta = this.hierarchyMeta;
     params.ignoreLimit = this.ignoreLimit;
@@ -593,6 +607,7 @@ public class DataQueryParams {
         .add("skipData", skipData)
         .add("skipHeaders", skipHeaders)
         .add("skipRounding", skipRounding)
+        .add("approximate", approximate)
         .add("completedOnly", completedOnly)
         .add("hierarchyMeta", hierarchyMeta)
         .add("ignoreLimit", ignoreLimit)
@@ -1968,6 +1983,19 @@ public class DataQueryParams {
     return skipRounding;
   }
 
+  public boolean isApproximate() {
+    return approximate;
+  }
+
+  /**
+   * Indicates whether this query reads a sample of the analytics table rows.
+   *
+   * @return true if the values of this query are approximated.
+   */
+  public boolean isSampled() {
+    return sampled;
+  }
+
   public boolean isCompletedOnly() {
     return completedOnly;
   }
@@ -2808,6 +2836,16 @@ public class DataQueryParams {
       return this;
     }
 
+    public Builder withApproximate(boolean approximate) {
+      this.params.approximate = approximate;
+      return this;
+    }
+
+    public Builder withSampled(boolean sampled) {
+      this.params.sampled = sampled;
+      return this;
+    }
+
     public Builder withCompletedOnly(boolean completedOnly) {
       this.params.completedOnly = completedOnly;
       return this;
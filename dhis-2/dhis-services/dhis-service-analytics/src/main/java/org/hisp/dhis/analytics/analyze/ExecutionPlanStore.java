@@ -67,4 +67,14 @@ public interface ExecutionPlanStore {
    * @param key the unique key associated with {@link ExecutionPlan} objects.
    */
   void removeExecutionPlans(String key);
+
+  /**
+   * Reports the execution time of the given "sql". If the execution time is above the configured
+   * slow query threshold and the query is sampled, the statement is explained asynchronously and
+   * the resulting {@link ExecutionPlan} is logged.
+   *
+   * @param sql the statement which was executed.
+   * @param executionTimeMillis the execution time of the statement in milliseconds.
+   */
+  void addSlowQueryPlan(String sql, long executionTimeMillis);
 }
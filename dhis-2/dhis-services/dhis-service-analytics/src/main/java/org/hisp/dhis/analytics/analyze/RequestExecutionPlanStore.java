@@ -28,25 +28,38 @@
 package org.hisp.dhis.analytics.analyze;
 
 import static org.hisp.dhis.analytics.analyze.RequestExecutionPlanStore.Execution.EXECUTION_TIME;
+import static org.hisp.dhis.analytics.analyze.RequestExecutionPlanStore.Execution.EXPLAIN_BUFFERS_QUERY;
 import static org.hisp.dhis.analytics.analyze.RequestExecutionPlanStore.Execution.EXPLAIN_QUERY;
 import static org.hisp.dhis.analytics.analyze.RequestExecutionPlanStore.Execution.PLAN;
 import static org.hisp.dhis.analytics.analyze.RequestExecutionPlanStore.Execution.PLANNING_TIME;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_SLOW_SAMPLE_RATE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_SLOW_THRESHOLD;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.math3.util.Precision;
 import org.hisp.dhis.analytics.common.SqlQuery;
 import org.hisp.dhis.common.ExecutionPlan;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -60,6 +73,9 @@ import org.springframework.stereotype.Service;
 @Slf4j
 @Service
 public class RequestExecutionPlanStore implements ExecutionPlanStore {
+  /** Max number of slow queries waiting to be explained, further slow queries are dropped. */
+  private static final int MAX_SLOW_QUERY_QUEUE_SIZE = 10;
+
   private final Map<String, List<ExecutionPlan>> executionPlanMap = new HashMap<>();
 
   @Nonnull private final JdbcTemplate jdbcTemplate;
@@ -70,11 +86,69 @@ public class RequestExecutionPlanStore implements ExecutionPlanStore {
 
   @Nonnull private final ScheduledExecutorService executorService;
 
+  @Nonnull private final JdbcTemplate readOnlyJdbcTemplate;
+
+  @Nonnull private final Executor slowQueryExecutor;
+
+  private final long slowQueryThreshold;
+
+  private final double slowQuerySampleRate;
+
+  @Autowired
   public RequestExecutionPlanStore(
-      @Qualifier("executionPlanJdbcTemplate") JdbcTemplate jdbcTemplate) {
+      @Qualifier("executionPlanJdbcTemplate") JdbcTemplate jdbcTemplate,
+      @Qualifier("analyticsReadOnlyJdbcTemplate") JdbcTemplate readOnlyJdbcTemplate,
+      DhisConfigurationProvider config) {
+    this(
+        jdbcTemplate,
+        readOnlyJdbcTemplate,
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_SLOW_QUERY_QUEUE_SIZE),
+            new ThreadFactoryBuilder()
+                .setNameFormat("analytics-slow-query-%d")
+                .setDaemon(true)
+                .build(),
+            new ThreadPoolExecutor.DiscardPolicy()),
+        NumberUtils.toLong(
+            config.getProperty(ANALYTICS_QUERY_SLOW_THRESHOLD),
+            Long.parseLong(ANALYTICS_QUERY_SLOW_THRESHOLD.getDefaultValue())),
+        NumberUtils.toDouble(config.getProperty(ANALYTICS_QUERY_SLOW_SAMPLE_RATE), 0d));
+  }
+
+  /**
+   * @param jdbcTemplate the {@link JdbcTemplate} for explaining analyze requests.
+   * @param readOnlyJdbcTemplate the {@link JdbcTemplate} for explaining slow queries.
+   * @param slowQueryExecutor the {@link Executor} for explaining slow queries.
+   * @param slowQueryThreshold the execution time in milliseconds above which queries are slow, 0
+   *     indicates that slow queries are not explained.
+   * @param slowQuerySampleRate the fraction of slow queries to explain.
+   */
+  RequestExecutionPlanStore(
+      JdbcTemplate jdbcTemplate,
+      JdbcTemplate readOnlyJdbcTemplate,
+      Executor slowQueryExecutor,
+      long slowQueryThreshold,
+      double slowQuerySampleRate) {
     this.jdbcTemplate = jdbcTemplate;
     this.executorService = Executors.newScheduledThreadPool(10);
     this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.readOnlyJdbcTemplate = readOnlyJdbcTemplate;
+    this.slowQueryExecutor = slowQueryExecutor;
+    this.slowQueryThreshold = slowQueryThreshold;
+    this.slowQuerySampleRate = slowQuerySampleRate;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executorService.shutdownNow();
+
+    if (slowQueryExecutor instanceof ExecutorService service) {
+      service.shutdownNow();
+    }
   }
 
   @Override
@@ -115,6 +189,53 @@ public class RequestExecutionPlanStore implements ExecutionPlanStore {
     executorService.schedule(() -> executionPlanMap.remove(key), 2, TimeUnit.SECONDS);
   }
 
+  @Override
+  public void addSlowQueryPlan(String sql, long executionTimeMillis) {
+    if (!isSlowQuerySampled(executionTimeMillis)) {
+      return;
+    }
+
+    slowQueryExecutor.execute(() -> explainSlowQuery(sql, executionTimeMillis));
+  }
+
+  /**
+   * Indicates whether a query with the given execution time is slow and sampled for explaining.
+   *
+   * @param executionTimeMillis the execution time in milliseconds.
+   * @return true if the query should be explained.
+   */
+  boolean isSlowQuerySampled(long executionTimeMillis) {
+    return slowQueryThreshold > 0
+        && executionTimeMillis >= slowQueryThreshold
+        && ThreadLocalRandom.current().nextDouble() < slowQuerySampleRate;
+  }
+
+  /**
+   * Explains the given slow query with analyze and buffers and logs the resulting plan. As the
+   * query is executed once more, this must only be invoked for sampled queries.
+   *
+   * @param sql the slow query.
+   * @param executionTimeMillis the original execution time in milliseconds.
+   * @return the {@link ExecutionPlan}, or null if the query could not be explained.
+   */
+  ExecutionPlan explainSlowQuery(String sql, long executionTimeMillis) {
+    try {
+      SqlRowSet rowSet = readOnlyJdbcTemplate.queryForRowSet(EXPLAIN_BUFFERS_QUERY.value() + sql);
+      ExecutionPlan executionPlan = getExecutionPlan(sql, getJsonFromRowSet(rowSet));
+
+      log.warn(
+          "Slow analytics query took {} ms, plan: '{}', SQL: '{}'",
+          executionTimeMillis,
+          executionPlan.getPlan(),
+          sql);
+
+      return executionPlan;
+    } catch (RuntimeException ex) {
+      log.warn("Failed to explain slow analytics query: '{}'", ex.getMessage());
+      return null;
+    }
+  }
+
   /**
    * Creates an {@link ExecutionPlan} object based on the given input parameters.
    *
@@ -199,6 +320,7 @@ public class RequestExecutionPlanStore implements ExecutionPlanStore {
     EXECUTION_TIME("Execution Time"),
     PLANNING_TIME("Planning Time"),
     EXPLAIN_QUERY("EXPLAIN (ANALYZE true, COSTS true, FORMAT json) "),
+    EXPLAIN_BUFFERS_QUERY("EXPLAIN (ANALYZE true, BUFFERS true, COSTS true, FORMAT json) "),
     PLAN("Plan");
 
     private String value;
@@ -32,7 +32,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.Optional;
 import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.SerializationUtils;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheProvider;
@@ -41,14 +40,16 @@ import org.springframework.stereotype.Component;
 
 /**
  * This is a wrapper class responsible for keeping and isolating all cache definitions related to
- * the analytics.
+ * the analytics. Grids are stored in the compact {@link CachedGrid} representation, and a new
+ * {@link Grid} is decoded for each cache hit, which means that consumers are free to modify the
+ * returned grid.
  */
 @Slf4j
 @Component
 public class AnalyticsCache {
   private final AnalyticsCacheSettings analyticsCacheSettings;
 
-  private Cache<Grid> queryCache;
+  private Cache<CachedGrid> queryCache;
 
   /**
    * Default constructor. Note that a default expiration time is set, as as the TTL will always be
@@ -63,8 +64,14 @@ public class AnalyticsCache {
     this.queryCache = cacheProvider.createAnalyticsCache();
   }
 
+  /**
+   * Returns the {@link Grid} cached for the given key.
+   *
+   * @param key the cache key.
+   * @return an {@link Optional} of {@link Grid}.
+   */
   public Optional<Grid> get(String key) {
-    return getGridClone(queryCache.get(key));
+    return queryCache.get(key).map(CachedGrid::toGrid);
   }
 
   /**
@@ -83,13 +90,13 @@ public class AnalyticsCache {
     Optional<Grid> cachedGrid = get(params.getKey());
 
     if (cachedGrid.isPresent()) {
-      return getGridClone(cachedGrid.get());
+      return cachedGrid.get();
     } else {
       Grid grid = function.apply(params);
 
       put(params, grid);
 
-      return getGridClone(grid);
+      return grid;
     }
   }
 
@@ -124,7 +131,7 @@ public class AnalyticsCache {
    * @param ttlInSeconds the time to live (expiration time) in seconds.
    */
   public void put(String key, Grid grid, long ttlInSeconds) {
-    queryCache.put(key, getGridClone(grid), ttlInSeconds);
+    queryCache.put(key, CachedGrid.of(grid), ttlInSeconds);
   }
 
   /** Clears the current cache by removing all existing entries. */
@@ -137,16 +144,4 @@ public class AnalyticsCache {
   public boolean isEnabled() {
     return analyticsCacheSettings.isCachingEnabled();
   }
-
-  private Grid getGridClone(Grid grid) {
-    if (grid != null) {
-      return SerializationUtils.clone(grid);
-    }
-
-    return null;
-  }
-
-  private Optional<Grid> getGridClone(Optional<Grid> grid) {
-    return grid.map(SerializationUtils::clone);
-  }
 }
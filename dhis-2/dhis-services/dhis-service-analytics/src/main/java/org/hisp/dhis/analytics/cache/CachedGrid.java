@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import lombok.Getter;
+import org.apache.commons.lang3.SerializationUtils;
+import org.hisp.dhis.common.ExecutionPlan;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.PerformanceMetrics;
+import org.hisp.dhis.common.Reference;
+import org.hisp.dhis.system.grid.ListGrid;
+
+/**
+ * Immutable and compact representation of a {@link Grid} for storage in the analytics cache. Rows
+ * are stored column by column, where numeric columns are stored as primitive arrays and text
+ * columns are dictionary encoded. Headers and meta data are stored in serialized form.
+ *
+ * <p>A mutable {@link Grid} is created through {@link #toGrid()}, which is significantly cheaper
+ * than a deep clone of the original grid through serialization. Serialized values are decoded for
+ * each created grid and are never retained by the cached grid, so that grids created from the same
+ * cached grid do not share mutable values.
+ */
+public final class CachedGrid implements Serializable {
+  private final String title;
+
+  private final String subtitle;
+
+  private final String table;
+
+  private final boolean lastDataRow;
+
+  /** Serialized headers, meta data, internal meta data, row context, references and plans. */
+  private final byte[] envelope;
+
+  /** Number of rows. */
+  @Getter private final int height;
+
+  /** Number of columns. */
+  @Getter private final int width;
+
+  /** Columns of values, null if rows are not of uniform width. */
+  private final Column[] columns;
+
+  /** Serialized rows, only used if rows are not of uniform width. */
+  private final byte[] rows;
+
+  private CachedGrid(Grid grid) {
+    this.title = grid.getTitle();
+    this.subtitle = grid.getSubtitle();
+    this.table = grid.getTable();
+    this.lastDataRow = grid.hasLastDataRow();
+    this.envelope = SerializationUtils.serialize(new Envelope(grid));
+
+    List<List<Object>> gridRows = grid.getRows();
+
+    this.height = gridRows.size();
+    this.width = gridRows.isEmpty() ? grid.getHeaders().size() : gridRows.get(0).size();
+
+    if (gridRows.stream().allMatch(row -> row.size() == width)) {
+      this.columns = new Column[width];
+      this.rows = null;
+
+      for (int i = 0; i < width; i++) {
+        this.columns[i] = Column.of(gridRows, i);
+      }
+    } else {
+      this.columns = null;
+      this.rows = SerializationUtils.serialize(new ArrayList<>(gridRows));
+    }
+  }
+
+  /**
+   * Creates a {@link CachedGrid} based on the given {@link Grid}. The cached grid does not refer to
+   * any mutable state of the given grid.
+   *
+   * @param grid the {@link Grid}.
+   * @return a {@link CachedGrid}.
+   */
+  public static CachedGrid of(Grid grid) {
+    return new CachedGrid(grid);
+  }
+
+  /**
+   * Creates a new and mutable {@link Grid} with the content of this cached grid.
+   *
+   * @return a {@link Grid}.
+   */
+  public Grid toGrid() {
+    Envelope env = SerializationUtils.deserialize(envelope);
+
+    ListGrid grid = new ListGrid(env.metaData, env.internalMetaData);
+    grid.setTitle(title);
+    grid.setSubtitle(subtitle);
+    grid.setTable(table);
+    grid.setLastDataRow(lastDataRow);
+    env.headers.forEach(grid::addHeader);
+
+    if (env.rowContext != null) {
+      grid.setRowContext(env.rowContext);
+    }
+
+    if (env.refs != null) {
+      env.refs.forEach(grid::addReference);
+    }
+
+    if (env.executionPlans != null) {
+      grid.addPerformanceMetrics(env.executionPlans);
+    }
+
+    if (columns == null) {
+      List<List<Object>> values = SerializationUtils.deserialize(rows);
+      values.forEach(row -> grid.addRow().addValuesAsList(row));
+      return grid;
+    }
+
+    List<IntFunction<Object>> readers = Arrays.stream(columns).map(Column::reader).toList();
+
+    for (int i = 0; i < height; i++) {
+      Object[] row = new Object[width];
+
+      for (int j = 0; j < width; j++) {
+        row[j] = readers.get(j).apply(i);
+      }
+
+      grid.addRow().addValues(row);
+    }
+
+    return grid;
+  }
+
+  // -------------------------------------------------------------------------
+  // Supportive classes
+  // -------------------------------------------------------------------------
+
+  /** Holder of the parts of a grid which are not rows. */
+  private static class Envelope implements Serializable {
+    private final List<GridHeader> headers;
+
+    private final Map<String, Object> metaData;
+
+    private final Map<String, Object> internalMetaData;
+
+    private final Map<Integer, Map<String, Object>> rowContext;
+
+    private final List<Reference> refs;
+
+    private final List<ExecutionPlan> executionPlans;
+
+    Envelope(Grid grid) {
+      PerformanceMetrics metrics = grid.getPerformanceMetrics();
+
+      this.headers = new ArrayList<>(grid.getHeaders());
+      this.metaData = copyOf(grid.getMetaData());
+      this.internalMetaData = copyOf(grid.getInternalMetaData());
+      this.rowContext = grid.getRowContext() != null ? new TreeMap<>(grid.getRowContext()) : null;
+      this.refs = grid.getRefs() != null ? new ArrayList<>(grid.getRefs()) : null;
+      this.executionPlans =
+          metrics != null && metrics.getExecutionPlans() != null
+              ? new ArrayList<>(metrics.getExecutionPlans())
+              : null;
+    }
+
+    private static Map<String, Object> copyOf(Map<String, Object> map) {
+      return map != null ? new HashMap<>(map) : new HashMap<>();
+    }
+  }
+
+  /** Column of values. */
+  private abstract static class Column implements Serializable {
+    /**
+     * Returns a reader of the values of this column by row index. Serialized values are decoded for
+     * each reader and are not shared with other readers.
+     *
+     * @return a function which returns the value at a row index, which may be null.
+     */
+    abstract IntFunction<Object> reader();
+
+    /**
+     * Creates a column with the most compact representation of the values at the given column index
+     * of the given rows.
+     *
+     * @param rows the rows.
+     * @param columnIndex the column index.
+     * @return a {@link Column}.
+     */
+    static Column of(List<List<Object>> rows, int columnIndex) {
+      Class<?> type = getValueType(rows, columnIndex);
+
+      if (Double.class.equals(type)) {
+        return new DoubleColumn(rows, columnIndex);
+      } else if (Long.class.equals(type) || Integer.class.equals(type)) {
+        return new LongColumn(rows, columnIndex, Integer.class.equals(type));
+      } else if (String.class.equals(type)) {
+        return new StringColumn(rows, columnIndex);
+      }
+
+      return new ObjectColumn(rows, columnIndex);
+    }
+
+    /**
+     * Returns the single type of the non-null values at the given column index of the given rows,
+     * {@link String} if all values are null and {@link Object} if the values are of mixed type.
+     *
+     * @param rows the rows.
+     * @param columnIndex the column index.
+     * @return the value type.
+     */
+    private static Class<?> getValueType(List<List<Object>> rows, int columnIndex) {
+      Class<?> type = null;
+
+      for (List<Object> row : rows) {
+        Object value = row.get(columnIndex);
+
+        if (value != null) {
+          if (type == null) {
+            type = value.getClass();
+          } else if (!type.equals(value.getClass())) {
+            return Object.class;
+          }
+        }
+      }
+
+      return type != null ? type : String.class;
+    }
+  }
+
+  /** Column of double values stored as primitives. */
+  private static class DoubleColumn extends Column {
+    private final double[] values;
+
+    private final BitSet nulls;
+
+    DoubleColumn(List<List<Object>> rows, int columnIndex) {
+      this.values = new double[rows.size()];
+      this.nulls = new BitSet(rows.size());
+
+      for (int i = 0; i < rows.size(); i++) {
+        Object value = rows.get(i).get(columnIndex);
+
+        if (value == null) {
+          nulls.set(i);
+        } else {
+          values[i] = (Double) value;
+        }
+      }
+    }
+
+    @Override
+    IntFunction<Object> reader() {
+      return rowIndex -> nulls.get(rowIndex) ? null : values[rowIndex];
+    }
+  }
+
+  /** Column of integer or long values stored as primitives. */
+  private static class LongColumn extends Column {
+    private final long[] values;
+
+    private final BitSet nulls;
+
+    private final boolean integer;
+
+    LongColumn(List<List<Object>> rows, int columnIndex, boolean integer) {
+      this.values = new long[rows.size()];
+      this.nulls = new BitSet(rows.size());
+      this.integer = integer;
+
+      for (int i = 0; i < rows.size(); i++) {
+        Object value = rows.get(i).get(columnIndex);
+
+        if (value == null) {
+          nulls.set(i);
+        } else {
+          values[i] = ((Number) value).longValue();
+        }
+      }
+    }
+
+    @Override
+    IntFunction<Object> reader() {
+      return rowIndex -> {
+        if (nulls.get(rowIndex)) {
+          return null;
+        }
+
+        return integer ? Integer.valueOf((int) values[rowIndex]) : Long.valueOf(values[rowIndex]);
+      };
+    }
+  }
+
+  /** Column of dictionary encoded text values. */
+  private static class StringColumn extends Column {
+    private final String[] dictionary;
+
+    /** Index of value in dictionary for each row, -1 represents null. */
+    private final int[] codes;
+
+    StringColumn(List<List<Object>> rows, int columnIndex) {
+      Map<String, Integer> index = new HashMap<>();
+      List<String> values = new ArrayList<>();
+
+      this.codes = new int[rows.size()];
+
+      for (int i = 0; i < rows.size(); i++) {
+        String value = (String) rows.get(i).get(columnIndex);
+
+        if (value == null) {
+          codes[i] = -1;
+        } else {
+          codes[i] =
+              index.computeIfAbsent(
+                  value,
+                  v -> {
+                    values.add(v);
+                    return values.size() - 1;
+                  });
+        }
+      }
+
+      this.dictionary = values.toArray(new String[0]);
+    }
+
+    @Override
+    IntFunction<Object> reader() {
+      return rowIndex -> {
+        int code = codes[rowIndex];
+        return code == -1 ? null : dictionary[code];
+      };
+    }
+  }
+
+  /** Column of values of mixed or other types, stored in serialized form. */
+  private static class ObjectColumn extends Column {
+    private final byte[] values;
+
+    ObjectColumn(List<List<Object>> rows, int columnIndex) {
+      Object[] array = new Object[rows.size()];
+
+      for (int i = 0; i < rows.size(); i++) {
+        array[i] = rows.get(i).get(columnIndex);
+      }
+
+      this.values = SerializationUtils.serialize(array);
+    }
+
+    @Override
+    IntFunction<Object> reader() {
+      Object[] array = SerializationUtils.deserialize(values);
+      return rowIndex -> array[rowIndex];
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * This is a wrapper class responsible for keeping and isolating the cache of analytics sub-query
+ * results. A sub-query is one of the partitioned queries which an analytics request is planned
+ * into, and the result is the mapping between dimension keys and values retrieved for the
+ * sub-query. Different analytics requests often plan into identical sub-queries, which allows them
+ * to share results through this cache.
+ */
+@Slf4j
+@Component
+public class SubQueryCache {
+  private final AnalyticsCacheSettings analyticsCacheSettings;
+
+  private final Cache<Map<String, Object>> queryCache;
+
+  /**
+   * Default constructor. Note that a default expiration time is set, as the TTL will always be
+   * overwritten during cache put operations.
+   */
+  public SubQueryCache(CacheProvider cacheProvider, AnalyticsCacheSettings analyticsCacheSettings) {
+    this.analyticsCacheSettings = analyticsCacheSettings;
+    this.queryCache = cacheProvider.createAnalyticsSubQueryCache();
+  }
+
+  /**
+   * Returns a copy of the result cached for the given key.
+   *
+   * @param key the sub-query key.
+   * @return an {@link Optional} of a mapping between dimension keys and values.
+   */
+  public Optional<Map<String, Object>> get(String key) {
+    return queryCache.get(key).map(HashMap::new);
+  }
+
+  /**
+   * This method tries to retrieve, from the cache, the result of the sub-query with the given key.
+   * If the result is not found in the cache, it will be fetched by the supplier provided and
+   * cached. A copy of the result is returned, so that consumers are free to modify it.
+   *
+   * <p>The TTL of the cached object will be set accordingly to the cache settings available at
+   * {@link AnalyticsCacheSettings}.
+   *
+   * @param params the {@link DataQueryParams} of the sub-query.
+   * @param key the sub-query key.
+   * @param supplier the supplier which fetches the result of the sub-query.
+   * @return a mapping between dimension keys and values.
+   */
+  public Map<String, Object> getOrFetch(
+      DataQueryParams params, String key, Supplier<Map<String, Object>> supplier) {
+    Optional<Map<String, Object>> cachedResult = get(key);
+
+    if (cachedResult.isPresent()) {
+      return cachedResult.get();
+    }
+
+    Map<String, Object> result = supplier.get();
+
+    put(params, key, result);
+
+    return new HashMap<>(result);
+  }
+
+  /**
+   * This method will cache the given sub-query result with the given key.
+   *
+   * <p>The TTL of the cached object will be set accordingly to the cache settings available at
+   * {@link AnalyticsCacheSettings}.
+   *
+   * @param params the {@link DataQueryParams} of the sub-query.
+   * @param key the sub-query key.
+   * @param result the mapping between dimension keys and values.
+   */
+  public void put(DataQueryParams params, String key, Map<String, Object> result) {
+    long ttlInSeconds =
+        analyticsCacheSettings.isProgressiveCachingEnabled()
+            ? analyticsCacheSettings.progressiveExpirationTimeOrDefault(params.getLatestEndDate())
+            : analyticsCacheSettings.fixedExpirationTimeOrDefault();
+
+    queryCache.put(key, Collections.unmodifiableMap(new HashMap<>(result)), ttlInSeconds);
+  }
+
+  /** Clears the current cache by removing all existing entries. */
+  public void invalidateAll() {
+    queryCache.invalidateAll();
+
+    log.info("Analytics sub-query cache cleared");
+  }
+
+  public boolean isEnabled() {
+    return analyticsCacheSettings.isCachingEnabled();
+  }
+}
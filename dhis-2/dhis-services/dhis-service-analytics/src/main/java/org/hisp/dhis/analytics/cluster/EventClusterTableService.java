@@ -0,0 +1,697 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cluster;
+
+import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
+import static org.hisp.dhis.commons.util.TextUtils.replace;
+import static org.hisp.dhis.db.model.DataType.BIGINT;
+import static org.hisp.dhis.db.model.DataType.CHARACTER_11;
+import static org.hisp.dhis.db.model.DataType.DOUBLE;
+import static org.hisp.dhis.db.model.DataType.INTEGER;
+import static org.hisp.dhis.db.model.DataType.TEXT;
+import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_STAGE;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.OrgUnitFieldType;
+import org.hisp.dhis.analytics.Rectangle;
+import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.table.model.AnalyticsTable;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.common.FallbackCoordinateFieldType;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.Index;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service which generates event cluster tables and answers event cluster and rectangle queries from
+ * them. An event cluster table holds a pyramid of event counts, coordinate sums and extents for a
+ * program, where each zoom level divides the map into a grid of cells of half the size of the
+ * previous level, and where the finest level is aggregated from the event analytics table and each
+ * coarser level from the next finer level. Queries which cannot be answered exactly by the cluster
+ * table must fall back to the event analytics table.
+ *
+ * <p>Cluster tables are generated in full as part of analytics table updates which regenerate table
+ * partitions, and not for latest partition or incremental updates. Events added by such updates are
+ * not reflected in the cluster tables until the next regular analytics table update.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventClusterTableService {
+  public static final String TABLE_PREFIX = "analytics_cluster_";
+
+  /** Cell size in meters of the coarsest zoom level. */
+  static final long MAX_CELL_SIZE = 1638400;
+
+  /** Min ratio between the requested cluster size and the cell size of the zoom level. */
+  static final int MIN_CLUSTER_CELL_RATIO = 4;
+
+  private static final String COL_LEVEL = "level";
+
+  private static final String COL_COUNT = "count";
+
+  private static final String COL_PSI = "psi";
+
+  private final AnalyticsTableSettings settings;
+
+  private final IdentifiableObjectManager idObjectManager;
+
+  private final OrganisationUnitService organisationUnitService;
+
+  private final SqlBuilder sqlBuilder;
+
+  @Qualifier("analyticsJdbcTemplate")
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Number of zoom levels of the cluster table for each program, 0 if no table exists. */
+  private final Map<String, Integer> clusterTableLevels = new ConcurrentHashMap<>();
+
+  /**
+   * Generates the event cluster tables for all programs with an event analytics table. Does nothing
+   * if no event cluster levels are configured.
+   *
+   * @param progress the {@link JobProgress}.
+   */
+  public void generateEventClusterTables(JobProgress progress) {
+    int levels = settings.getEventClusterLevels();
+
+    if (levels == 0) {
+      return;
+    }
+
+    int orgUnitLevels = organisationUnitService.getNumberOfOrganisationalLevels();
+
+    Map<String, Runnable> generators = new LinkedHashMap<>();
+
+    for (Program program : idObjectManager.getAllNoAcl(Program.class)) {
+      String sourceTable = AnalyticsTable.getTableName(AnalyticsTableType.EVENT, program);
+
+      if (tableExists(sourceTable)) {
+        generators.put(
+            "Generating event cluster table for program: " + program.getUid(),
+            () -> generateEventClusterTable(program, sourceTable, levels, orgUnitLevels));
+      }
+    }
+
+    progress.startingStage("Generating event cluster tables", generators.size(), SKIP_STAGE);
+    progress.runStage(generators);
+
+    clusterTableLevels.clear();
+  }
+
+  /**
+   * Indicates whether the given query can be answered by an event cluster table, which requires
+   * that the table exists for the program and that the query filters on whole years, organisation
+   * unit descendants, program stage and bounding box only.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @return true if the query can be answered by an event cluster table.
+   */
+  public boolean supports(EventQueryParams params) {
+    return settings.getEventClusterLevels() > 0
+        && params.hasProgram()
+        && isSupportedQuery(params)
+        && getLevels(params.getProgram()) > 0;
+  }
+
+  /**
+   * Indicates whether the given cluster query can be answered by an event cluster table, which in
+   * addition to {@link #supports(EventQueryParams)} requires a zoom level with cells small enough
+   * for the requested cluster size.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @return true if the cluster query can be answered by an event cluster table.
+   */
+  public boolean supportsClusters(EventQueryParams params) {
+    return supports(params)
+        && params.getClusterSize() != null
+        && getClusterLevel(getLevels(params.getProgram()), params.getClusterSize()) >= 0;
+  }
+
+  /**
+   * Adds the event clusters for the given query to the given grid, with columns for count, center,
+   * extent and points. Points are only included for clusters with a single event.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @param grid the {@link Grid}.
+   * @return the {@link Grid}.
+   */
+  public Grid getEventClusters(EventQueryParams params, Grid grid) {
+    int level = getClusterLevel(getLevels(params.getProgram()), params.getClusterSize());
+
+    String sql =
+        replace(
+            """
+            select sum(${count}) as count, \
+            cast(ST_MakeBox2D(ST_Point(min(${xmin}),min(${ymin})),ST_Point(max(${xmax}),max(${ymax}))) as text) as extent, \
+            ST_AsGeoJSON(ST_SetSRID(ST_Point(sum(${sumx}) / sum(${count}),sum(${sumy}) / sum(${count})),4326),6) as center, \
+            case when sum(${count}) = 1 then min(${psi}) end as points \
+            from ${table} \
+            ${where} \
+            group by ST_SnapToGrid(ST_Transform(ST_SetSRID(ST_Point(${sumx} / ${count},${sumy} / ${count}),4326),3785),${clusterSize})""",
+            Map.of(
+                "count", sqlBuilder.quote(COL_COUNT),
+                "xmin", sqlBuilder.quote("xmin"),
+                "ymin", sqlBuilder.quote("ymin"),
+                "xmax", sqlBuilder.quote("xmax"),
+                "ymax", sqlBuilder.quote("ymax"),
+                "sumx", sqlBuilder.quote("sumx"),
+                "sumy", sqlBuilder.quote("sumy"),
+                "psi", sqlBuilder.quote(COL_PSI),
+                "table", sqlBuilder.quote(getName(params.getProgram())),
+                "where", getWhereClause(params, level),
+                "clusterSize", String.valueOf(params.getClusterSize())));
+
+    log.debug("Event cluster table SQL: '{}'", sql);
+
+    SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql);
+
+    while (rowSet.next()) {
+      grid.addRow()
+          .addValue(rowSet.getLong("count"))
+          .addValue(rowSet.getString("center"))
+          .addValue(rowSet.getString("extent"))
+          .addValue(rowSet.getString("points"));
+    }
+
+    return grid;
+  }
+
+  /**
+   * Returns the event count and extent for the given query. The coarsest zoom level is used unless
+   * the query has a bounding box, in which case the finest zoom level is used.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @return the {@link Rectangle}.
+   */
+  public Rectangle getRectangle(EventQueryParams params) {
+    int level = params.hasBbox() ? getLevels(params.getProgram()) - 1 : 0;
+
+    String sql =
+        replace(
+            """
+            select sum(${count}) as count, \
+            cast(ST_MakeBox2D(ST_Point(min(${xmin}),min(${ymin})),ST_Point(max(${xmax}),max(${ymax}))) as text) as extent \
+            from ${table} \
+            ${where}""",
+            Map.of(
+                "count", sqlBuilder.quote(COL_COUNT),
+                "xmin", sqlBuilder.quote("xmin"),
+                "ymin", sqlBuilder.quote("ymin"),
+                "xmax", sqlBuilder.quote("xmax"),
+                "ymax", sqlBuilder.quote("ymax"),
+                "table", sqlBuilder.quote(getName(params.getProgram())),
+                "where", getWhereClause(params, level)));
+
+    log.debug("Event cluster table rectangle SQL: '{}'", sql);
+
+    SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql);
+
+    Rectangle rectangle = new Rectangle();
+
+    if (rowSet.next()) {
+      rectangle.setCount(rowSet.getLong("count"));
+      rectangle.setExtent(rowSet.getString("extent"));
+    }
+
+    return rectangle;
+  }
+
+  @EventListener
+  public void handleApplicationCachesCleared(ApplicationCacheClearedEvent event) {
+    clusterTableLevels.clear();
+  }
+
+  // -------------------------------------------------------------------------
+  // Supportive methods
+  // -------------------------------------------------------------------------
+
+  /**
+   * Returns the name of the event cluster table for the given program.
+   *
+   * @param program the {@link Program}.
+   * @return the table name.
+   */
+  public static String getName(Program program) {
+    return TABLE_PREFIX + program.getUid().toLowerCase();
+  }
+
+  /**
+   * Returns the cell size in meters of the given zoom level, where level 0 is the coarsest level.
+   *
+   * @param level the zoom level.
+   * @return the cell size in meters.
+   */
+  static long getCellSize(int level) {
+    return MAX_CELL_SIZE >> level;
+  }
+
+  /**
+   * Returns the coarsest zoom level of which the cell size is small enough for the given cluster
+   * size, to keep the error introduced by clustering cells instead of events small.
+   *
+   * @param levels the number of zoom levels.
+   * @param clusterSize the cluster size in meters.
+   * @return the zoom level, or -1 if no zoom level has cells small enough.
+   */
+  static int getClusterLevel(int levels, long clusterSize) {
+    for (int level = 0; level < levels; level++) {
+      if (getCellSize(level) * MIN_CLUSTER_CELL_RATIO <= clusterSize) {
+        return level;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Indicates whether the filters of the given query are supported by event cluster tables. The
+   * query must use the default coordinate field and organisation unit field, must not have items,
+   * item filters, program indicators or status filters, must not have dimensions other than
+   * organisation units, and must have a date range covering whole years.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @return true if the filters of the query are supported.
+   */
+  static boolean isSupportedQuery(EventQueryParams params) {
+    return !params.isIncludeClusterPoints()
+        && ListUtils.emptyIfNull(params.getCoordinateFields()).stream()
+            .allMatch(EventClusterTableService::isEventGeometry)
+        && params.getItems().isEmpty()
+        && params.getItemFilters().isEmpty()
+        && !params.hasValueDimension()
+        && !params.hasProgramIndicatorDimension()
+        && !params.hasProgramStatus()
+        && !params.hasEventStatus()
+        && !params.isCompletedOnly()
+        && params.getDimensionsAndFilters().stream()
+            .allMatch(d -> DimensionType.ORGANISATION_UNIT == d.getDimensionType())
+        && !params.isOrganisationUnitMode(OrganisationUnitSelectionMode.SELECTED)
+        && !params.isOrganisationUnitMode(OrganisationUnitSelectionMode.CHILDREN)
+        && OrgUnitFieldType.DEFAULT == params.getOrgUnitField().getType()
+        && !params.getAggregationTypeFallback().isFirstOrLastPeriodAggregationType()
+        && !params.hasTimeDateRanges()
+        && !params.hasTimeField()
+        && !params.hasNonDefaultBoundaries()
+        && params.hasStartEndDate()
+        && isWholeYears(params.getStartDate(), params.getEndDate());
+  }
+
+  /**
+   * Indicates whether the given coordinate field refers to the event geometry.
+   *
+   * @param field the coordinate field.
+   * @return true if the field refers to the event geometry.
+   */
+  private static boolean isEventGeometry(String field) {
+    return StringUtils.isBlank(field)
+        || FallbackCoordinateFieldType.PSI_GEOMETRY.getValue().equals(field);
+  }
+
+  /**
+   * Indicates whether the given start and end dates cover whole years, i.e. the start date is the
+   * first day of a year and the end date is the last day of a year.
+   *
+   * @param startDate the start date.
+   * @param endDate the end date.
+   * @return true if the dates cover whole years.
+   */
+  private static boolean isWholeYears(Date startDate, Date endDate) {
+    DateTime start = new DateTime(startDate.getTime());
+    DateTime end = new DateTime(endDate.getTime());
+
+    return start.getDayOfYear() == 1
+        && start.getMillisOfDay() == 0
+        && end.plusDays(1).getDayOfYear() == 1
+        && !end.isBefore(start);
+  }
+
+  /**
+   * Returns the where clause for the given query at the given zoom level.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @param level the zoom level.
+   * @return the where clause.
+   */
+  private String getWhereClause(EventQueryParams params, int level) {
+    List<String> conditions = new ArrayList<>();
+
+    conditions.add(sqlBuilder.quote(COL_LEVEL) + " = " + level);
+
+    int startYear = new DateTime(params.getStartDate().getTime()).getYear();
+    int endYear = new DateTime(params.getEndDate().getTime()).getYear();
+
+    conditions.add(sqlBuilder.quote("year") + " between " + startYear + " and " + endYear);
+
+    if (!params.isSkipPartitioning() && params.hasPartitions()) {
+      conditions.add(
+          sqlBuilder.quote("yearly")
+              + " in ("
+              + sqlBuilder.singleQuotedCommaDelimited(
+                  params.getPartitions().getPartitionsAsString())
+              + ")");
+    }
+
+    if (params.hasProgramStage()) {
+      conditions.add(
+          sqlBuilder.quote("ps")
+              + " = "
+              + sqlBuilder.singleQuote(params.getProgramStage().getUid()));
+    }
+
+    Map<Integer, List<String>> orgUnits =
+        params.getDimensionOrFilterItems(ORGUNIT_DIM_ID).stream()
+            .map(OrganisationUnit.class::cast)
+            .collect(
+                Collectors.groupingBy(
+                    OrganisationUnit::getLevel,
+                    Collectors.mapping(OrganisationUnit::getUid, Collectors.toList())));
+
+    orgUnits.forEach(
+        (orgUnitLevel, uids) ->
+            conditions.add(
+                sqlBuilder.quote("uidlevel" + orgUnitLevel)
+                    + " in ("
+                    + sqlBuilder.singleQuotedCommaDelimited(uids)
+                    + ")"));
+
+    if (params.hasBbox()) {
+      conditions.add(
+          replace(
+              "ST_MakeEnvelope(${xmin},${ymin},${xmax},${ymax},4326) && ST_MakeEnvelope(${bbox},4326)",
+              Map.of(
+                  "xmin", sqlBuilder.quote("xmin"),
+                  "ymin", sqlBuilder.quote("ymin"),
+                  "xmax", sqlBuilder.quote("xmax"),
+                  "ymax", sqlBuilder.quote("ymax"),
+                  "bbox", params.getBbox())));
+    }
+
+    return "where " + String.join(" and ", conditions);
+  }
+
+  /**
+   * Generates the event cluster table for the given program. The finest zoom level is aggregated
+   * from the event analytics table, after which each coarser level is aggregated from the next
+   * finer level. The staging table is swapped with the main table when complete.
+   *
+   * @param program the {@link Program}.
+   * @param sourceTable the event analytics table name.
+   * @param levels the number of zoom levels.
+   * @param orgUnitLevels the number of organisation unit levels.
+   */
+  private void generateEventClusterTable(
+      Program program, String sourceTable, int levels, int orgUnitLevels) {
+    String name = getName(program);
+    Table table = getStagingTable(name, orgUnitLevels);
+
+    jdbcTemplate.execute(sqlBuilder.dropTableIfExists(table));
+    jdbcTemplate.execute(sqlBuilder.createTable(table));
+
+    populateFinestLevel(table, sourceTable, levels - 1, orgUnitLevels);
+
+    for (int level = levels - 2; level >= 0; level--) {
+      populateLevel(table, level, orgUnitLevels);
+    }
+
+    Index index =
+        Index.builder()
+            .name("in_" + name + "_" + CodeGenerator.generateCode(5).toLowerCase())
+            .tableName(table.getName())
+            .columns(List.of(COL_LEVEL, "year"))
+            .build();
+
+    jdbcTemplate.execute(sqlBuilder.createIndex(index));
+    jdbcTemplate.execute(sqlBuilder.analyzeTable(table));
+    jdbcTemplate.execute(sqlBuilder.swapTable(table, name));
+  }
+
+  /**
+   * Populates the finest zoom level of the given table by aggregating the events with geometry of
+   * the given event analytics table into cells. Event coordinates are centroids in EPSG:4326, while
+   * cells are laid out in EPSG:3785 to match the grid of live cluster queries.
+   *
+   * @param table the staging {@link Table}.
+   * @param sourceTable the event analytics table name.
+   * @param level the zoom level.
+   * @param orgUnitLevels the number of organisation unit levels.
+   */
+  private void populateFinestLevel(Table table, String sourceTable, int level, int orgUnitLevels) {
+    String geometry = sqlBuilder.quote(FallbackCoordinateFieldType.PSI_GEOMETRY.getValue());
+    String centroid = "ST_Centroid(" + geometry + ")";
+    String point = "ST_Transform(ST_SetSRID(" + centroid + ",4326),3785)";
+
+    String sql =
+        replace(
+            """
+            insert into ${table} (${dimensions},${level},${cx},${cy},${count},${sumx},${sumy},${xmin},${ymin},${xmax},${ymax},${psi}) \
+            select ${dimensions},${levelValue},${cx},${cy},count(*),sum(${x}),sum(${y}),\
+            min(${xmin}),min(${ymin}),max(${xmax}),max(${ymax}),\
+            case when count(*) = 1 then min(${psi}) end \
+            from (select ${yearly},cast(extract(year from ${occurreddate}) as integer) as ${year},${sourceDimensions},${psi},\
+            ST_X(${centroid}) as ${x},ST_Y(${centroid}) as ${y},\
+            ST_XMin(${geometry}) as ${xmin},ST_YMin(${geometry}) as ${ymin},\
+            ST_XMax(${geometry}) as ${xmax},ST_YMax(${geometry}) as ${ymax},\
+            floor(ST_X(${point}) / ${cellSize}) as ${cx},floor(ST_Y(${point}) / ${cellSize}) as ${cy} \
+            from ${source} \
+            where ${geometry} is not null \
+            and ${occurreddate} is not null) as e \
+            group by ${dimensions},${cx},${cy}""",
+            Map.ofEntries(
+                Map.entry("table", sqlBuilder.quote(table.getName())),
+                Map.entry("dimensions", toQuotedColumns(getDimensionColumns(orgUnitLevels))),
+                Map.entry(
+                    "sourceDimensions", toQuotedColumns(getSourceDimensionColumns(orgUnitLevels))),
+                Map.entry("level", sqlBuilder.quote(COL_LEVEL)),
+                Map.entry("levelValue", String.valueOf(level)),
+                Map.entry("cx", sqlBuilder.quote("cx")),
+                Map.entry("cy", sqlBuilder.quote("cy")),
+                Map.entry("count", sqlBuilder.quote(COL_COUNT)),
+                Map.entry("sumx", sqlBuilder.quote("sumx")),
+                Map.entry("sumy", sqlBuilder.quote("sumy")),
+                Map.entry("x", sqlBuilder.quote("x")),
+                Map.entry("y", sqlBuilder.quote("y")),
+                Map.entry("xmin", sqlBuilder.quote("xmin")),
+                Map.entry("ymin", sqlBuilder.quote("ymin")),
+                Map.entry("xmax", sqlBuilder.quote("xmax")),
+                Map.entry("ymax", sqlBuilder.quote("ymax")),
+                Map.entry("psi", sqlBuilder.quote(COL_PSI)),
+                Map.entry("yearly", sqlBuilder.quote("yearly")),
+                Map.entry("year", sqlBuilder.quote("year")),
+                Map.entry("occurreddate", sqlBuilder.quote("occurreddate")),
+                Map.entry("geometry", geometry),
+                Map.entry("centroid", centroid),
+                Map.entry("point", point),
+                Map.entry("cellSize", String.valueOf(getCellSize(level))),
+                Map.entry("source", sqlBuilder.quote(sourceTable))));
+
+    log.debug("Populate event cluster table SQL: '{}'", sql);
+
+    jdbcTemplate.execute(sql);
+  }
+
+  /**
+   * Populates the given zoom level of the given table by aggregating the next finer zoom level,
+   * where each cell contains four cells of the finer level.
+   *
+   * @param table the staging {@link Table}.
+   * @param level the zoom level.
+   * @param orgUnitLevels the number of organisation unit levels.
+   */
+  private void populateLevel(Table table, int level, int orgUnitLevels) {
+    String sql =
+        replace(
+            """
+            insert into ${table} (${dimensions},${level},${cx},${cy},${count},${sumx},${sumy},${xmin},${ymin},${xmax},${ymax},${psi}) \
+            select ${dimensions},${levelValue},floor(${cx} / 2.0),floor(${cy} / 2.0),\
+            sum(${count}),sum(${sumx}),sum(${sumy}),min(${xmin}),min(${ymin}),max(${xmax}),max(${ymax}),\
+            case when sum(${count}) = 1 then min(${psi}) end \
+            from ${table} \
+            where ${level} = ${finerLevelValue} \
+            group by ${dimensions},floor(${cx} / 2.0),floor(${cy} / 2.0)""",
+            Map.ofEntries(
+                Map.entry("table", sqlBuilder.quote(table.getName())),
+                Map.entry("dimensions", toQuotedColumns(getDimensionColumns(orgUnitLevels))),
+                Map.entry("level", sqlBuilder.quote(COL_LEVEL)),
+                Map.entry("levelValue", String.valueOf(level)),
+                Map.entry("finerLevelValue", String.valueOf(level + 1)),
+                Map.entry("cx", sqlBuilder.quote("cx")),
+                Map.entry("cy", sqlBuilder.quote("cy")),
+                Map.entry("count", sqlBuilder.quote(COL_COUNT)),
+                Map.entry("sumx", sqlBuilder.quote("sumx")),
+                Map.entry("sumy", sqlBuilder.quote("sumy")),
+                Map.entry("xmin", sqlBuilder.quote("xmin")),
+                Map.entry("ymin", sqlBuilder.quote("ymin")),
+                Map.entry("xmax", sqlBuilder.quote("xmax")),
+                Map.entry("ymax", sqlBuilder.quote("ymax")),
+                Map.entry("psi", sqlBuilder.quote(COL_PSI))));
+
+    log.debug("Populate event cluster table level SQL: '{}'", sql);
+
+    jdbcTemplate.execute(sql);
+  }
+
+  /**
+   * Returns the staging table for the event cluster table with the given name.
+   *
+   * @param name the event cluster table name.
+   * @param orgUnitLevels the number of organisation unit levels.
+   * @return the staging {@link Table}.
+   */
+  private Table getStagingTable(String name, int orgUnitLevels) {
+    List<Column> columns = new ArrayList<>();
+
+    columns.add(new Column("yearly", TEXT));
+    columns.add(new Column("year", INTEGER));
+
+    for (String column : getSourceDimensionColumns(orgUnitLevels)) {
+      columns.add(new Column(column, CHARACTER_11));
+    }
+
+    columns.add(new Column(COL_LEVEL, INTEGER));
+    columns.add(new Column("cx", BIGINT));
+    columns.add(new Column("cy", BIGINT));
+    columns.add(new Column(COL_COUNT, BIGINT));
+    columns.add(new Column("sumx", DOUBLE));
+    columns.add(new Column("sumy", DOUBLE));
+    columns.add(new Column("xmin", DOUBLE));
+    columns.add(new Column("ymin", DOUBLE));
+    columns.add(new Column("xmax", DOUBLE));
+    columns.add(new Column("ymax", DOUBLE));
+    columns.add(new Column(COL_PSI, CHARACTER_11));
+
+    return new Table(
+        name + Table.STAGING_TABLE_SUFFIX, columns, List.of(), settings.getTableLogged());
+  }
+
+  /**
+   * Returns the dimension columns of the event cluster table.
+   *
+   * @param orgUnitLevels the number of organisation unit levels.
+   * @return a list of column names.
+   */
+  private List<String> getDimensionColumns(int orgUnitLevels) {
+    List<String> columns = new ArrayList<>(List.of("yearly", "year"));
+    columns.addAll(getSourceDimensionColumns(orgUnitLevels));
+    return columns;
+  }
+
+  /**
+   * Returns the dimension columns of the event cluster table which are copied as is from the event
+   * analytics table.
+   *
+   * @param orgUnitLevels the number of organisation unit levels.
+   * @return a list of column names.
+   */
+  private List<String> getSourceDimensionColumns(int orgUnitLevels) {
+    List<String> columns = new ArrayList<>(List.of("ps"));
+
+    for (int i = 1; i <= orgUnitLevels; i++) {
+      columns.add("uidlevel" + i);
+    }
+
+    return columns;
+  }
+
+  /**
+   * Returns the given column names quoted and comma separated.
+   *
+   * @param columns the column names.
+   * @return a comma separated string of quoted column names.
+   */
+  private String toQuotedColumns(List<String> columns) {
+    return columns.stream().map(sqlBuilder::quote).collect(Collectors.joining(","));
+  }
+
+  /**
+   * Returns the number of zoom levels of the event cluster table of the given program, looking it
+   * up in the database if not yet known.
+   *
+   * @param program the {@link Program}.
+   * @return the number of zoom levels, or 0 if no event cluster table exists.
+   */
+  private int getLevels(Program program) {
+    return clusterTableLevels.computeIfAbsent(program.getUid(), uid -> loadLevels(program));
+  }
+
+  /**
+   * Loads the number of zoom levels of the event cluster table of the given program.
+   *
+   * @param program the {@link Program}.
+   * @return the number of zoom levels, or 0 if no event cluster table exists.
+   */
+  private int loadLevels(Program program) {
+    String name = getName(program);
+
+    if (!tableExists(name)) {
+      return 0;
+    }
+
+    String sql = "select max(" + sqlBuilder.quote(COL_LEVEL) + ") from " + sqlBuilder.quote(name);
+    Integer maxLevel = jdbcTemplate.queryForObject(sql, Integer.class);
+    return maxLevel != null ? maxLevel + 1 : 0;
+  }
+
+  /**
+   * Indicates whether the table with the given name exists.
+   *
+   * @param name the table name.
+   * @return true if the table exists.
+   */
+  private boolean tableExists(String name) {
+    return !jdbcTemplate.queryForList(sqlBuilder.tableExists(name)).isEmpty();
+  }
+}
@@ -101,4 +101,25 @@ public interface ProgramIndicatorSubqueryBuilder {
       AnalyticsType outerSqlEntity,
       Date earliestStartDate,
       Date latestDate);
+
+  /**
+   * Indicates whether values of the given program indicator are materialized as a column in the
+   * event or enrollment analytics table of its program. Only program indicators which are
+   * configured for materialization and whose values do not depend on the reporting period are
+   * materialized.
+   *
+   * @param programIndicator the {@link ProgramIndicator}.
+   * @return true if the program indicator is materialized.
+   */
+  boolean isMaterialized(ProgramIndicator programIndicator);
+
+  /**
+   * Generates the SQL expression which computes the value of the given program indicator for a
+   * single row of the analytics table of the program indicator type, aliased as {@code ax}. Used to
+   * materialize program indicator values during analytics table population.
+   *
+   * @param programIndicator the {@link ProgramIndicator}.
+   * @return a string containing a program indicator value expression.
+   */
+  String getMaterializedClauseForProgramIndicator(ProgramIndicator programIndicator);
 }
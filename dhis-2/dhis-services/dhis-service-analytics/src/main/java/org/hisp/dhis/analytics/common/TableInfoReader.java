@@ -30,11 +30,15 @@ package org.hisp.dhis.analytics.common;
 import static java.util.stream.Collectors.toUnmodifiableSet;
 import static org.springframework.util.Assert.hasText;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
@@ -51,6 +55,9 @@ public class TableInfoReader {
   @Qualifier("analyticsJdbcTemplate")
   private final JdbcTemplate jdbcTemplate;
 
+  /** Column names by table name, cleared when analytics tables are generated. */
+  private final Map<String, Set<String>> columnCache = new ConcurrentHashMap<>();
+
   /**
    * Returns the metadata information for the given table.
    *
@@ -91,6 +98,31 @@ public class TableInfoReader {
         .collect(toUnmodifiableSet());
   }
 
+  /**
+   * Returns the column names of the given table. The column names are read once per table and
+   * cached until {@link #invalidateColumnCache()} is called, which the analytics table generator
+   * does after tables have been replaced.
+   *
+   * @param tableName the name of the table.
+   * @return the set of column names, or empty if the table does not exist.
+   * @throws IllegalArgumentException if the argument 'tableName' is null or blank.
+   */
+  public Set<String> getCachedColumns(@Nonnull String tableName) {
+    hasText(tableName, "Param 'tableName' cannot be null/blank");
+
+    return columnCache.computeIfAbsent(tableName, name -> getInfo(name).getColumns());
+  }
+
+  /** Clears the cached column names of all tables. */
+  public void invalidateColumnCache() {
+    columnCache.clear();
+  }
+
+  @EventListener
+  public void handleApplicationCachesCleared(ApplicationCacheClearedEvent event) {
+    invalidateColumnCache();
+  }
+
   /**
    * Object representing the information related to the meta information of the respective table.
    */
@@ -29,6 +29,8 @@ package org.hisp.dhis.analytics.config;
 
 import org.hisp.dhis.analytics.AnalyticsTableManager;
 import org.hisp.dhis.analytics.AnalyticsTableService;
+import org.hisp.dhis.analytics.table.AnalyticsColumnUsageService;
+import org.hisp.dhis.analytics.table.AnalyticsTableCheckpointService;
 import org.hisp.dhis.analytics.table.DefaultAnalyticsTableService;
 import org.hisp.dhis.dataelement.DataElementService;
 import org.hisp.dhis.db.sql.SqlBuilder;
@@ -58,14 +60,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.TeiEventsAnalyticsTableService")
@@ -76,14 +82,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.TeiEnrollmentsAnalyticsTableService")
@@ -94,14 +104,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.AnalyticsTableService")
@@ -112,14 +126,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.CompletenessTableService")
@@ -130,14 +148,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.CompletenessTargetTableService")
@@ -148,14 +170,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.OrgUnitTargetTableService")
@@ -166,14 +192,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.OwnershipAnalyticsTableService")
@@ -184,14 +214,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.EventAnalyticsTableService")
@@ -202,14 +236,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.ValidationResultTableService")
@@ -220,14 +258,18 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 
   @Bean("org.hisp.dhis.analytics.EnrollmentAnalyticsTableService")
@@ -238,13 +280,17 @@ public class ServiceConfig {
       DataElementService dataElementService,
       ResourceTableService resourceTableService,
       SystemSettingManager systemSettingManager,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      AnalyticsTableCheckpointService checkpointService,
+      AnalyticsColumnUsageService columnUsageService) {
     return new DefaultAnalyticsTableService(
         tableManager,
         organisationUnitService,
         dataElementService,
         resourceTableService,
         systemSettingManager,
-        sqlBuilder);
+        sqlBuilder,
+        checkpointService,
+        columnUsageService);
   }
 }
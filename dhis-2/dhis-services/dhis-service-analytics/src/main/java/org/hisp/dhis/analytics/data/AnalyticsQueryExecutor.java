@@ -0,0 +1,425 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_MAX_CONCURRENCY;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_REQUEST_CONCURRENCY;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_USER_CONCURRENCY;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.user.CurrentUserUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executor for the sub-queries which an analytics request is planned into. Sub-queries are executed
+ * on virtual threads if supported by the runtime, and on a bounded pool of platform threads
+ * otherwise.
+ *
+ * <p>The number of sub-queries executing concurrently is limited across all requests, per user and
+ * per request. Sub-queries waiting for execution are served in order of arrival. When a sub-query
+ * fails or the requesting thread is interrupted, the sibling sub-queries of the request are
+ * cancelled. The permits of a cancelled sub-query are released only when it has finished, as the
+ * database may still be executing it.
+ *
+ * <p>The permits of a user are kept only while the user has a request or sub-query in progress.
+ */
+@Slf4j
+@Component
+public class AnalyticsQueryExecutor {
+  private static final String ANONYMOUS_USER = "";
+
+  private final ExecutorService executor;
+
+  private final Semaphore permits;
+
+  private final Map<String, UserPermits> userPermits = new ConcurrentHashMap<>();
+
+  private final int userConcurrency;
+
+  private final int requestConcurrency;
+
+  private final LongAdder completed = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  private final LongAdder cancelled = new LongAdder();
+
+  private final LongAdder queueWaitNanos = new LongAdder();
+
+  private final LongAdder executionNanos = new LongAdder();
+
+  @Autowired
+  public AnalyticsQueryExecutor(DhisConfigurationProvider config) {
+    this(
+        getIntProperty(config, ANALYTICS_QUERY_MAX_CONCURRENCY),
+        getIntProperty(config, ANALYTICS_QUERY_USER_CONCURRENCY),
+        getIntProperty(config, ANALYTICS_QUERY_REQUEST_CONCURRENCY));
+  }
+
+  /**
+   * @param maxConcurrency the max number of sub-queries executing concurrently.
+   * @param userConcurrency the max number of sub-queries executing concurrently per user.
+   * @param requestConcurrency the max number of sub-queries executing concurrently per request.
+   */
+  AnalyticsQueryExecutor(int maxConcurrency, int userConcurrency, int requestConcurrency) {
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.userConcurrency = userConcurrency;
+    this.requestConcurrency = requestConcurrency;
+    this.executor = createExecutor(maxConcurrency);
+  }
+
+  /**
+   * Executes the given sub-queries of a single request for the current user, and returns the
+   * results in the order of the sub-queries. If a sub-query fails, the remaining sub-queries are
+   * cancelled and the exception of the failed sub-query is thrown.
+   *
+   * @param <T> the result type.
+   * @param tasks the list of sub-queries.
+   * @return the list of results.
+   */
+  public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+    String username = getUserKey(CurrentUserUtil.getCurrentUsername());
+    Semaphore requestPermits = new Semaphore(requestConcurrency);
+    Semaphore currentUserPermits = retainUserPermits(username);
+    QueryContext context = new QueryContext();
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+
+    try {
+      for (Callable<T> task : tasks) {
+        if (context.failure.get()) {
+          break;
+        }
+
+        acquire(requestPermits, currentUserPermits);
+        retainUserPermits(username);
+
+        futures.add(submit(task, context, requestPermits, currentUserPermits, username));
+      }
+
+      List<T> results = new ArrayList<>(futures.size());
+
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+
+      log.debug(
+          "Executed {} analytics queries, queue wait: {} ms, execution: {} ms",
+          results.size(),
+          TimeUnit.NANOSECONDS.toMillis(context.queueWaitNanos.sum()),
+          TimeUnit.NANOSECONDS.toMillis(context.executionNanos.sum()));
+
+      return results;
+    } catch (InterruptedException ex) {
+      cancel(futures);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Analytics query was interrupted", ex);
+    } catch (ExecutionException ex) {
+      cancel(futures);
+
+      if (ex.getCause() instanceof RuntimeException runtimeEx) {
+        throw runtimeEx;
+      }
+
+      throw new IllegalStateException("Error during execution of analytics query", ex.getCause());
+    } catch (RuntimeException ex) {
+      cancel(futures);
+      throw ex;
+    } finally {
+      releaseUserPermits(username);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the metrics of this executor.
+   *
+   * @return the {@link Metrics}.
+   */
+  public Metrics getMetrics() {
+    return new Metrics(
+        completed.sum(),
+        failed.sum(),
+        cancelled.sum(),
+        TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.sum()),
+        TimeUnit.NANOSECONDS.toMillis(executionNanos.sum()));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  // -------------------------------------------------------------------------
+  // Supportive methods
+  // -------------------------------------------------------------------------
+
+  /**
+   * Acquires a permit from the request and user permits, in that order.
+   *
+   * @param requestPermits the request {@link Semaphore}.
+   * @param currentUserPermits the user {@link Semaphore}.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  private void acquire(Semaphore requestPermits, Semaphore currentUserPermits)
+      throws InterruptedException {
+    requestPermits.acquire();
+
+    try {
+      currentUserPermits.acquire();
+    } catch (InterruptedException ex) {
+      requestPermits.release();
+      throw ex;
+    }
+  }
+
+  /**
+   * Submits the given sub-query for execution. The request and user permits are released when the
+   * sub-query has finished, or when it is cancelled before it started.
+   *
+   * @param <T> the result type.
+   * @param task the sub-query.
+   * @param context the {@link QueryContext} of the request.
+   * @param requestPermits the request {@link Semaphore}.
+   * @param currentUserPermits the user {@link Semaphore}.
+   * @param username the key of the user permits.
+   * @return the {@link Future} of the sub-query.
+   */
+  private <T> Future<T> submit(
+      Callable<T> task,
+      QueryContext context,
+      Semaphore requestPermits,
+      Semaphore currentUserPermits,
+      String username) {
+    long submitted = System.nanoTime();
+    AtomicBoolean claimed = new AtomicBoolean();
+    Runnable releasePermits =
+        () -> {
+          currentUserPermits.release();
+          requestPermits.release();
+          releaseUserPermits(username);
+        };
+
+    FutureTask<T> future =
+        new FutureTask<>(
+            () -> {
+              if (!claimed.compareAndSet(false, true)) {
+                return null;
+              }
+
+              try {
+                return execute(task, context, submitted);
+              } finally {
+                releasePermits.run();
+              }
+            }) {
+          @Override
+          protected void done() {
+            if (isCancelled()) {
+              cancelled.increment();
+            }
+
+            if (claimed.compareAndSet(false, true)) {
+              releasePermits.run();
+            }
+          }
+        };
+
+    try {
+      executor.execute(future);
+    } catch (RejectedExecutionException ex) {
+      future.cancel(false);
+      throw ex;
+    }
+
+    return future;
+  }
+
+  /**
+   * Executes the given sub-query when a global permit is available.
+   *
+   * @param <T> the result type.
+   * @param task the sub-query.
+   * @param context the {@link QueryContext} of the request.
+   * @param submitted the time of submission in nanoseconds.
+   * @return the result of the sub-query.
+   * @throws Exception if the sub-query fails.
+   */
+  private <T> T execute(Callable<T> task, QueryContext context, long submitted) throws Exception {
+    permits.acquire();
+
+    long started = System.nanoTime();
+    queueWaitNanos.add(started - submitted);
+    context.queueWaitNanos.add(started - submitted);
+
+    try {
+      T result = task.call();
+      completed.increment();
+      return result;
+    } catch (Exception ex) {
+      failed.increment();
+      context.failure.set(true);
+      throw ex;
+    } finally {
+      long elapsed = System.nanoTime() - started;
+      executionNanos.add(elapsed);
+      context.executionNanos.add(elapsed);
+      permits.release();
+    }
+  }
+
+  /**
+   * Cancels the given futures, interrupting sub-queries which are executing.
+   *
+   * @param futures the list of {@link Future}.
+   */
+  private void cancel(List<? extends Future<?>> futures) {
+    futures.forEach(future -> future.cancel(true));
+  }
+
+  /**
+   * Returns the permits of the user with the given key, creating them if the user has none, and
+   * registers a reference to them. Each reference must be released with {@link
+   * #releaseUserPermits(String)}.
+   *
+   * @param username the key of the user.
+   * @return the user {@link Semaphore}.
+   */
+  private Semaphore retainUserPermits(String username) {
+    return userPermits.compute(
+            username,
+            (key, permits) -> {
+              UserPermits retained =
+                  permits != null ? permits : new UserPermits(new Semaphore(userConcurrency, true));
+              retained.references++;
+              return retained;
+            })
+        .semaphore;
+  }
+
+  /**
+   * Releases a reference to the permits of the user with the given key. The permits are removed
+   * when no reference remains, that is when the user has no request or sub-query in progress.
+   *
+   * @param username the key of the user.
+   */
+  private void releaseUserPermits(String username) {
+    userPermits.computeIfPresent(
+        username, (key, permits) -> --permits.references == 0 ? null : permits);
+  }
+
+  /**
+   * Returns the number of users with permits.
+   *
+   * @return the number of users.
+   */
+  int getUserPermitsCount() {
+    return userPermits.size();
+  }
+
+  private static String getUserKey(String username) {
+    return username != null ? username : ANONYMOUS_USER;
+  }
+
+  /**
+   * Creates an executor using virtual threads if supported by the runtime, otherwise a fixed pool
+   * of platform threads.
+   *
+   * @param maxConcurrency the max number of sub-queries executing concurrently.
+   * @return an {@link ExecutorService}.
+   */
+  private static ExecutorService createExecutor(int maxConcurrency) {
+    try {
+      ExecutorService executor =
+          (ExecutorService)
+              Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      log.info("Analytics queries execute on virtual threads");
+      return executor;
+    } catch (ReflectiveOperationException ex) {
+      log.info("Analytics queries execute on platform thread pool of size: {}", maxConcurrency);
+      return Executors.newFixedThreadPool(
+          maxConcurrency,
+          new ThreadFactoryBuilder().setNameFormat("analytics-query-%d").setDaemon(true).build());
+    }
+  }
+
+  private static int getIntProperty(DhisConfigurationProvider config, ConfigurationKey key) {
+    return Math.max(1, Integer.parseInt(config.getProperty(key)));
+  }
+
+  /**
+   * Permits of a user with the number of references to them. The references are only modified while
+   * holding the lock of the map entry.
+   */
+  @RequiredArgsConstructor
+  private static class UserPermits {
+    private final Semaphore semaphore;
+
+    private int references;
+  }
+
+  /** State of the sub-queries of a single request. */
+  private static class QueryContext {
+    private final AtomicBoolean failure = new AtomicBoolean();
+
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    private final LongAdder executionNanos = new LongAdder();
+  }
+
+  /**
+   * Snapshot of the metrics of the executor.
+   *
+   * @param completed the number of completed sub-queries.
+   * @param failed the number of failed sub-queries.
+   * @param cancelled the number of cancelled sub-queries.
+   * @param queueWaitMillis the total time sub-queries waited for execution in milliseconds.
+   * @param executionMillis the total execution time of sub-queries in milliseconds.
+   */
+  public record Metrics(
+      long completed, long failed, long cancelled, long queueWaitMillis, long executionMillis) {}
+}
@@ -150,6 +150,7 @@ public class DefaultDataQueryService implements DataQueryService {
         .withSkipMeta(request.isSkipMeta())
         .withSkipData(request.isSkipData())
         .withSkipRounding(request.isSkipRounding())
+        .withApproximate(request.isApproximate())
         .withCompletedOnly(request.isCompletedOnly())
         .withIgnoreLimit(request.isIgnoreLimit())
         .withHierarchyMeta(request.isHierarchyMeta())
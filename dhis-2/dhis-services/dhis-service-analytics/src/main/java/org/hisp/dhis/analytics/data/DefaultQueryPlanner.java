@@ -29,19 +29,27 @@ package org.hisp.dhis.analytics.data;
 
 import static org.hisp.dhis.analytics.DataQueryParams.LEVEL_PREFIX;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.throwIllegalQueryEx;
+import static org.hisp.dhis.common.DimensionalObject.ATTRIBUTEOPTIONCOMBO_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.CATEGORYOPTIONCOMBO_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.VALUE_COLUMN_NAME;
 import static org.hisp.dhis.util.DateUtils.getEarliest;
 import static org.hisp.dhis.util.DateUtils.getLatest;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsTableType;
@@ -51,6 +59,8 @@ import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupTable;
+import org.hisp.dhis.analytics.rollup.RollupTableService;
 import org.hisp.dhis.analytics.table.model.Partitions;
 import org.hisp.dhis.analytics.table.util.PartitionUtils;
 import org.hisp.dhis.analytics.util.PeriodOffsetUtils;
@@ -78,8 +88,18 @@ import org.springframework.stereotype.Component;
 @Component("org.hisp.dhis.analytics.QueryPlanner")
 @RequiredArgsConstructor
 public class DefaultQueryPlanner implements QueryPlanner {
+  /** Non period and organisation unit dimensions which are present in rollup tables. */
+  private static final Set<String> ROLLUP_DIMENSIONS =
+      Set.of(DATA_X_DIM_ID, CATEGORYOPTIONCOMBO_DIM_ID, ATTRIBUTEOPTIONCOMBO_DIM_ID);
+
+  /** Aggregation types which can be estimated from a sample of the analytics table rows. */
+  private static final Set<AggregationType> SAMPLED_AGGREGATION_TYPES =
+      Set.of(AggregationType.SUM, AggregationType.COUNT, AggregationType.AVERAGE);
+
   private final PartitionManager partitionManager;
 
+  private final RollupTableService rollupTableService;
+
   // -------------------------------------------------------------------------
   // QueryPlanner implementation
   // -------------------------------------------------------------------------
@@ -117,6 +137,16 @@ public class DefaultQueryPlanner implements QueryPlanner {
       currentQueries.forEach(query -> queries.addAll(grouper.apply(query)));
     }
 
+    // Route queries to rollup tables where possible
+
+    if (rollupTableService.isEnabled()) {
+      queries.replaceAll(query -> withRollupTable(query, plannerParams));
+    }
+
+    // Read a sample of the analytics table rows where approximation is allowed
+
+    queries.replaceAll(this::withSampling);
+
     // Split queries until the optimal number is reached
 
     DataQueryGroups queryGroups = DataQueryGroups.newBuilder().withQueries(queries).build();
@@ -165,6 +195,146 @@ public class DefaultQueryPlanner implements QueryPlanner {
     return DataQueryParams.newBuilder(params).withPartitions(partitions).build();
   }
 
+  // -------------------------------------------------------------------------
+  // Supportive rollup methods
+  // -------------------------------------------------------------------------
+
+  /**
+   * Routes the given query to the smallest rollup table which can answer it. The query is returned
+   * unchanged if the query is not eligible for rollup tables, or if no rollup table contains the
+   * required data elements, organisation unit level and period type. Queries are eligible if they
+   * use sum aggregation of numeric data elements and only refer to the data, category option combo,
+   * attribute option combo, period and organisation unit dimensions.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @param plannerParams the {@link QueryPlannerParams}.
+   * @return a {@link DataQueryParams}.
+   */
+  DataQueryParams withRollupTable(DataQueryParams params, QueryPlannerParams plannerParams) {
+    if (!isRollupEligible(params, plannerParams)) {
+      return params;
+    }
+
+    Set<String> periodTypes = new HashSet<>();
+    int orgUnitLevel = 0;
+
+    for (DimensionalObject dimension : params.getDimensionsAndFilters()) {
+      String name = dimension.getDimensionName();
+
+      if (name == null) {
+        return params;
+      } else if (DimensionType.PERIOD == dimension.getDimensionType()) {
+        periodTypes.add(name);
+      } else if (DimensionType.ORGANISATION_UNIT == dimension.getDimensionType()) {
+        if (!name.startsWith(LEVEL_PREFIX)) {
+          return params;
+        }
+
+        orgUnitLevel =
+            Math.max(orgUnitLevel, Integer.parseInt(StringUtils.removeStart(name, LEVEL_PREFIX)));
+      } else if (!ROLLUP_DIMENSIONS.contains(name)) {
+        return params;
+      }
+    }
+
+    if (periodTypes.size() != 1) {
+      return params;
+    }
+
+    Set<String> dataElements =
+        params.getAllDataDimensionItems().stream()
+            .map(DimensionalItemObject::getUid)
+            .collect(Collectors.toSet());
+
+    Optional<RollupTable> rollupTable =
+        rollupTableService.getRollupTable(
+            periodTypes.iterator().next(), orgUnitLevel, dataElements);
+
+    if (rollupTable.isEmpty()) {
+      return params;
+    }
+
+    log.debug("Routing query to rollup table: '{}'", rollupTable.get().getName());
+
+    return DataQueryParams.newBuilder(params)
+        .withTableName(rollupTable.get().getName())
+        .withPartitions(new Partitions())
+        .build();
+  }
+
+  /**
+   * Indicates whether the given query is eligible for being answered by a rollup table.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @param plannerParams the {@link QueryPlannerParams}.
+   * @return true if the query is eligible for rollup tables.
+   */
+  private boolean isRollupEligible(DataQueryParams params, QueryPlannerParams plannerParams) {
+    AnalyticsAggregationType type = params.getAggregationType();
+
+    boolean sumNumeric =
+        type != null
+            && AggregationType.SUM == type.getAggregationType()
+            && AggregationType.SUM == type.getPeriodAggregationType()
+            && DataType.NUMERIC == type.getDataType()
+            && !type.isDisaggregation();
+
+    return sumNumeric
+        && AnalyticsTableType.DATA_VALUE == plannerParams.getTableType()
+        && VALUE_COLUMN_NAME.equals(params.getValueColumn())
+        && !params.getAllDataDimensionItems().isEmpty()
+        && params.getAllDataDimensionItems().stream()
+            .allMatch(item -> item instanceof DataElement && item.getQueryMods() == null)
+        && !params.hasSubexpressions()
+        && !params.hasPreAggregateMeasureCriteria()
+        && !params.isDataApproval()
+        && !params.hasStartDate()
+        && !params.hasEndDate()
+        && !params.isTimely()
+        && !params.isRestrictByOrgUnitOpeningClosedDate()
+        && !params.isRestrictByCategoryOptionStartEndDate();
+  }
+
+  // -------------------------------------------------------------------------
+  // Supportive sampling methods
+  // -------------------------------------------------------------------------
+
+  /**
+   * Marks the given query as reading a sample of the analytics table rows if it qualifies. The
+   * query is returned unchanged if it does not qualify.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @return a {@link DataQueryParams}.
+   */
+  DataQueryParams withSampling(DataQueryParams params) {
+    if (!isSampleEligible(params)) {
+      return params;
+    }
+
+    return DataQueryParams.newBuilder(params).withSampled(true).build();
+  }
+
+  /**
+   * Indicates whether the given query may read a sample of the analytics table rows. Only
+   * partitioned queries with numeric sum, count and average aggregation are sampled, as these can
+   * be estimated from a sample without bias.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @return true if the query may be sampled.
+   */
+  private boolean isSampleEligible(DataQueryParams params) {
+    AnalyticsAggregationType type = params.getAggregationType();
+
+    return params.isApproximate()
+        && !params.isSkipPartitioning()
+        && params.hasPartitions()
+        && params.isDataType(DataType.NUMERIC)
+        && !params.hasPreAggregateMeasureCriteria()
+        && type != null
+        && SAMPLED_AGGREGATION_TYPES.contains(type.getAggregationType())
+        && type.isPeriodAggregationType(type.getAggregationType());
+  }
+
   // -------------------------------------------------------------------------
   // Supportive split methods
   // -------------------------------------------------------------------------
@@ -52,6 +52,7 @@ import static org.hisp.dhis.util.SqlExceptionUtils.relationDoesNotExist;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
@@ -59,7 +60,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -70,11 +73,14 @@ import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.MeasureFilter;
+import org.hisp.dhis.analytics.QueryKey;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.cache.SubQueryCache;
 import org.hisp.dhis.analytics.table.model.Partitions;
 import org.hisp.dhis.analytics.table.util.PartitionUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
+import org.hisp.dhis.analytics.util.SampleUtils;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
@@ -94,7 +100,6 @@ import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
@@ -140,6 +145,9 @@ public class JdbcAnalyticsManager implements AnalyticsManager {
   private static final Set<AggregationType> SIMPLE_AGGREGATION_TYPES =
       Set.of(COUNT, STDDEV, VARIANCE, MIN, MAX);
 
+  private static final Set<AggregationType> PARTITION_MERGE_AGGREGATION_TYPES =
+      Set.of(SUM, COUNT, MIN, MAX);
+
   private static final Map<MeasureFilter, String> OPERATOR_SQL_MAP =
       Map.of(
           MeasureFilter.EQ, "=",
@@ -157,12 +165,15 @@ public class JdbcAnalyticsManager implements AnalyticsManager {
 
   private final SqlBuilder sqlBuilder;
 
+  private final SubQueryCache subQueryCache;
+
+  private final PartitionQueryExecutor partitionQueryExecutor;
+
   // -------------------------------------------------------------------------
   // AnalyticsManager implementation
   // -------------------------------------------------------------------------
 
   @Override
-  @Async
   public Future<Map<String, Object>> getAggregatedDataValues(
       DataQueryParams params, AnalyticsTableType tableType, int maxLimit) {
     assertQuery(params);
@@ -198,7 +209,8 @@ public class JdbcAnalyticsManager implements AnalyticsManager {
 
       try {
         map =
-            withExceptionHandling(() -> getKeyValueMap(immutableParams, sql, maxLimit))
+            withExceptionHandling(
+                    () -> getCachedKeyValueMap(immutableParams, tableType, sql, maxLimit))
                 .orElse(Map.of());
       } catch (BadSqlGrammarException ex) {
         if (relationDoesNotExist(ex.getSQLException())) {
@@ -393,6 +405,10 @@ public class JdbcAnalyticsManager implements AnalyticsManager {
       sql = "sum(" + valueColumn + ")";
     }
 
+    if (params.isSampled() && !aggType.isAggregationType(AVERAGE)) {
+      sql = SampleUtils.scale(sql);
+    }
+
     return sql;
   }
 
@@ -415,6 +431,8 @@ public class JdbcAnalyticsManager implements AnalyticsManager {
       sql += getMinOrMaxValueSubquerySql(params, tableType);
     } else if (params.hasPreAggregateMeasureCriteria() && params.isDataType(DataType.NUMERIC)) {
       sql += getPreMeasureCriteriaSubquerySql(params);
+    } else if (params.isSampled()) {
+      sql += getSampledFromSourceClause(params);
     } else {
       sql += getFromSourceClause(params);
     }
@@ -422,6 +440,29 @@ public class JdbcAnalyticsManager implements AnalyticsManager {
     return sql + " as " + ANALYTICS_TBL_ALIAS + " ";
   }
 
+  /**
+   * Returns a from source clause which reads a sample of each partition.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @return a SQL from source clause.
+   */
+  private String getSampledFromSourceClause(DataQueryParams params) {
+    String sql = "(";
+
+    for (Integer partition : params.getPartitions().getPartitions()) {
+      String partitionName = PartitionUtils.getPartitionName(params.getTableName(), partition);
+
+      sql +=
+          "select ap.* from "
+              + partitionName
+              + " as ap "
+              + SampleUtils.getTableSampleClause()
+              + " union all ";
+    }
+
+    return TextUtils.removeLast(sql, "union all") + ")";
+  }
+
   /**
    * Returns the query from source clause. Can be any of table name, partition name or inner select
    * union all query.
@@ -926,6 +967,152 @@ public class JdbcAnalyticsManager implements AnalyticsManager {
     return sql;
   }
 
+  /**
+   * Retrieves data from the database based on the given query and SQL and puts into a value key
+   * map. The result is retrieved from the sub-query cache if caching is enabled, where the cache
+   * key is based on the SQL statement and the properties of the query which affect how the result
+   * set is mapped.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @param tableType the type of analytics table.
+   * @param sql the SQL statement.
+   * @param maxLimit the max number of records to retrieve.
+   * @return a map of value keys and values.
+   */
+  private Map<String, Object> getCachedKeyValueMap(
+      DataQueryParams params, AnalyticsTableType tableType, String sql, int maxLimit) {
+    if (!subQueryCache.isEnabled()) {
+      return getPartitionedKeyValueMap(params, tableType, sql, maxLimit);
+    }
+
+    return subQueryCache.getOrFetch(
+        params,
+        getSubQueryKey(params, sql, maxLimit),
+        () -> getPartitionedKeyValueMap(params, tableType, sql, maxLimit));
+  }
+
+  /**
+   * Retrieves data from the database based on the given query and puts into a value key map. If the
+   * query can be scanned by partition, one statement per partition is executed concurrently and the
+   * results are merged, otherwise the given SQL statement is executed.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @param tableType the type of analytics table.
+   * @param sql the SQL statement.
+   * @param maxLimit the max number of records to retrieve.
+   * @return a map of value keys and values.
+   */
+  private Map<String, Object> getPartitionedKeyValueMap(
+      DataQueryParams params, AnalyticsTableType tableType, String sql, int maxLimit) {
+    if (!isPartitionScan(params)) {
+      return getKeyValueMap(params, sql, maxLimit);
+    }
+
+    List<Callable<Map<String, Object>>> tasks = new ArrayList<>();
+
+    for (Integer partition : params.getPartitions().getPartitions()) {
+      DataQueryParams partitionParams =
+          DataQueryParams.newBuilder(params)
+              .withPartitions(new Partitions(Set.of(partition)))
+              .build();
+
+      String partitionSql = getSql(partitionParams, tableType);
+
+      tasks.add(() -> getKeyValueMap(partitionParams, partitionSql, maxLimit));
+    }
+
+    Map<String, Object> map =
+        mergeKeyValueMaps(
+            partitionQueryExecutor.invokeAll(tasks),
+            params.getAggregationType().getAggregationType());
+
+    if (maxLimit > 0 && map.size() > maxLimit) {
+      throwIllegalQueryEx(ErrorCode.E7128, maxLimit);
+    }
+
+    return map;
+  }
+
+  /**
+   * Indicates whether the given query can be executed with one statement per partition and the
+   * results merged. This requires multiple partitions and a numeric aggregation which can be
+   * combined across partitions, that is sum, count, min or max, without measure criteria, sampling
+   * or subexpressions.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @return true if the query can be executed with one statement per partition.
+   */
+  boolean isPartitionScan(DataQueryParams params) {
+    AnalyticsAggregationType aggType = params.getAggregationType();
+
+    return partitionQueryExecutor.isEnabled()
+        && params.isAggregation()
+        && !params.isSkipPartitioning()
+        && params.hasPartitions()
+        && params.getPartitions().hasMultiple()
+        && params.isDataType(DataType.NUMERIC)
+        && !params.hasSubexpressions()
+        && !params.hasMeasureCriteria()
+        && !params.hasPreAggregateMeasureCriteria()
+        && aggType != null
+        && PARTITION_MERGE_AGGREGATION_TYPES.contains(aggType.getAggregationType())
+        && !aggType.isFirstOrLastOrLastInPeriodAggregationType()
+        && !aggType.isMinOrMaxInPeriodAggregationType()
+        && !params.isSampled();
+  }
+
+  /**
+   * Merges the given value key maps of partition statements, where values for the same key are
+   * combined according to the given aggregation type.
+   *
+   * @param maps the list of value key maps.
+   * @param aggregationType the {@link AggregationType}.
+   * @return a merged map of value keys and values.
+   */
+  static Map<String, Object> mergeKeyValueMaps(
+      List<Map<String, Object>> maps, AggregationType aggregationType) {
+    BinaryOperator<Double> combiner =
+        switch (aggregationType) {
+          case MIN -> Math::min;
+          case MAX -> Math::max;
+          default -> Double::sum;
+        };
+
+    Map<String, Object> map = new HashMap<>();
+
+    for (Map<String, Object> partitionMap : maps) {
+      partitionMap.forEach(
+          (key, value) -> map.merge(key, value, (a, b) -> combiner.apply((Double) a, (Double) b)));
+    }
+
+    return map;
+  }
+
+  /**
+   * Returns a key for the sub-query cache based on the given SQL statement and the properties of
+   * the given query which are used when mapping the result set to a value key map.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @param sql the SQL statement.
+   * @param maxLimit the max number of records to retrieve.
+   * @return a sub-query key.
+   */
+  String getSubQueryKey(DataQueryParams params, String sql, int maxLimit) {
+    QueryKey key =
+        new QueryKey()
+            .add("sql", sql)
+            .add("maxLimit", maxLimit)
+            .add("dataType", params.getDataType());
+
+    for (DimensionalObject dim : params.getDimensions()) {
+      key.add("dimension", dim.getDimensionName())
+          .add("fixed", dim.isFixed())
+          .add("queryMods", params.getQueryModsId(dim));
+    }
+
+    return key.build();
+  }
+
   /**
    * Retrieves data from the database based on the given query and SQL and puts into a value key and
    * value mapping.
@@ -939,8 +1126,12 @@ public class JdbcAnalyticsManager implements AnalyticsManager {
 
     log.debug("Analytics query SQL: '{}'", sql);
 
+    long start = System.currentTimeMillis();
+
     SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql);
 
+    executionPlanStore.addSlowQueryPlan(sql, System.currentTimeMillis() - start);
+
     int counter = 0;
 
     while (rowSet.next()) {
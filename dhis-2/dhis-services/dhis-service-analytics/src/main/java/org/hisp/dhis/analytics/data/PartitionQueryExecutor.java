@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_CONNECTION_POOL_MAX_SIZE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_PARTITION_CONCURRENCY;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executor for the per-partition statements of a single analytics sub-query. Statements execute on
+ * a fixed pool of threads shared across all requests, which bounds the number of connections taken
+ * from the analytics connection pool by partition scans. The pool size is limited to half the max
+ * size of the connection pool, so that partition scans cannot starve other analytics queries.
+ *
+ * <p>Tasks of this executor must not submit further tasks to it, as the caller blocks until all
+ * tasks complete.
+ */
+@Slf4j
+@Component
+public class PartitionQueryExecutor {
+  private final int concurrency;
+
+  private final ExecutorService executor;
+
+  @Autowired
+  public PartitionQueryExecutor(DhisConfigurationProvider config) {
+    this(
+        Math.min(
+            NumberUtils.toInt(config.getProperty(ANALYTICS_QUERY_PARTITION_CONCURRENCY), 1),
+            NumberUtils.toInt(config.getProperty(ANALYTICS_CONNECTION_POOL_MAX_SIZE), 2) / 2));
+  }
+
+  /**
+   * @param concurrency the max number of partition statements executing concurrently, where 1 or
+   *     less disables concurrent execution.
+   */
+  PartitionQueryExecutor(int concurrency) {
+    this.concurrency = Math.max(1, concurrency);
+    this.executor =
+        this.concurrency > 1
+            ? Executors.newFixedThreadPool(
+                this.concurrency,
+                new ThreadFactoryBuilder()
+                    .setNameFormat("analytics-partition-%d")
+                    .setDaemon(true)
+                    .build())
+            : null;
+
+    if (this.executor != null) {
+      log.info("Analytics partition queries execute concurrently: {}", this.concurrency);
+    }
+  }
+
+  /**
+   * Indicates whether partition statements are executed concurrently.
+   *
+   * @return true if partition statements are executed concurrently.
+   */
+  public boolean isEnabled() {
+    return executor != null;
+  }
+
+  /**
+   * Executes the given partition statements and returns the results in the order of the statements.
+   * If a statement fails, the remaining statements are cancelled and the exception of the failed
+   * statement is thrown. Statements are executed by the calling thread if concurrent execution is
+   * not enabled.
+   *
+   * @param <T> the result type.
+   * @param tasks the list of partition statements.
+   * @return the list of results.
+   */
+  public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+
+    try {
+      if (!isEnabled()) {
+        List<T> results = new ArrayList<>(tasks.size());
+
+        for (Callable<T> task : tasks) {
+          results.add(task.call());
+        }
+
+        return results;
+      }
+
+      for (Callable<T> task : tasks) {
+        futures.add(executor.submit(task));
+      }
+
+      List<T> results = new ArrayList<>(futures.size());
+
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+
+      return results;
+    } catch (InterruptedException ex) {
+      cancel(futures);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Analytics partition query was interrupted", ex);
+    } catch (ExecutionException ex) {
+      cancel(futures);
+
+      if (ex.getCause() instanceof RuntimeException runtimeEx) {
+        throw runtimeEx;
+      }
+
+      throw new IllegalStateException(
+          "Error during execution of analytics partition query", ex.getCause());
+    } catch (RuntimeException ex) {
+      cancel(futures);
+      throw ex;
+    } catch (Exception ex) {
+      throw new IllegalStateException("Error during execution of analytics partition query", ex);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Cancels the given futures, interrupting statements which are executing.
+   *
+   * @param futures the list of {@link Future}.
+   */
+  private void cancel(List<? extends Future<?>> futures) {
+    futures.forEach(future -> future.cancel(true));
+  }
+}
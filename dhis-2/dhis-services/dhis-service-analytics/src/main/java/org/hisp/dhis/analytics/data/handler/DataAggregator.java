@@ -63,6 +63,17 @@ public class DataAggregator {
    * @return a grid with aggregated data.
    */
   public Grid getAggregatedDataValueGrid(DataQueryParams params) {
+    return getSampledAggregatedDataValueGrid(params).value();
+  }
+
+  /**
+   * Returns a grid with aggregated data, and whether any of the values were approximated from a
+   * sample of the analytics table rows.
+   *
+   * @param params the {@link DataQueryParams}.
+   * @return a grid with aggregated data.
+   */
+  SampledValue<Grid> getSampledAggregatedDataValueGrid(DataQueryParams params) {
     params = preHandleQuery(params);
 
     // ---------------------------------------------------------------------
@@ -77,23 +88,23 @@ public class DataAggregator {
     // Data
     // ---------------------------------------------------------------------
 
-    dataHandler.addIndicatorValues(params, grid);
+    boolean sampled = dataHandler.addIndicatorValues(params, grid);
 
-    dataHandler.addDataElementValues(params, grid);
+    sampled |= dataHandler.addDataElementValues(params, grid);
 
-    dataHandler.addExpressionDimensionItemValues(params, grid);
+    sampled |= dataHandler.addExpressionDimensionItemValues(params, grid);
 
-    dataHandler.addSubexpressionDimensionItemValues(params, grid);
+    sampled |= dataHandler.addSubexpressionDimensionItemValues(params, grid);
 
-    dataHandler.addDataElementOperandValues(params, grid);
+    sampled |= dataHandler.addDataElementOperandValues(params, grid);
 
-    dataHandler.addReportingRates(params, grid);
+    sampled |= dataHandler.addReportingRates(params, grid);
 
     dataHandler.addProgramDataElementAttributeIndicatorValues(params, grid);
 
-    dataHandler.addDynamicDimensionValues(params, grid);
+    sampled |= dataHandler.addDynamicDimensionValues(params, grid);
 
-    dataHandler.addValidationResultValues(params, grid);
+    sampled |= dataHandler.addValidationResultValues(params, grid);
 
     dataHandler.addPerformanceMetrics(params, grid);
 
@@ -101,7 +112,7 @@ public class DataAggregator {
     // Meta-data
     // ---------------------------------------------------------------------
 
-    metaDataHandler.addMetaData(params, grid);
+    metaDataHandler.addMetaData(params, grid, sampled);
 
     metaDataHandler.handleDataValueSet(params, grid);
 
@@ -109,7 +120,7 @@ public class DataAggregator {
 
     postHandleGrid(params, grid);
 
-    return grid;
+    return new SampledValue<>(grid, sampled);
   }
 
   /**
@@ -127,7 +138,7 @@ public class DataAggregator {
 
     dataHandler.addRawData(params, grid);
 
-    metaDataHandler.addMetaData(params, grid);
+    metaDataHandler.addMetaData(params, grid, false);
 
     metaDataHandler.applyIdScheme(params, grid);
 
@@ -46,7 +46,6 @@ import static org.hisp.dhis.analytics.DataQueryParams.COMPLETENESS_DIMENSION_TYP
 import static org.hisp.dhis.analytics.DataQueryParams.DISPLAY_NAME_DATA_X;
 import static org.hisp.dhis.analytics.DataQueryParams.DX_INDEX;
 import static org.hisp.dhis.analytics.DataQueryParams.NUMERATOR_DENOMINATOR_PROPERTIES_COUNT;
-import static org.hisp.dhis.analytics.DataQueryParams.getPermutationDimensionalItemValueMap;
 import static org.hisp.dhis.analytics.DataQueryParams.getPermutationOrgUnitGroupCountMap;
 import static org.hisp.dhis.analytics.DataQueryParams.newBuilder;
 import static org.hisp.dhis.analytics.DimensionItem.asItemKey;
@@ -113,7 +112,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Future;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -129,10 +128,12 @@ import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.RawAnalyticsManager;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.data.AnalyticsQueryExecutor;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.resolver.ExpressionResolver;
 import org.hisp.dhis.analytics.resolver.ExpressionResolvers;
+import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.analytics.util.PeriodOffsetUtils;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionItemObjectValue;
@@ -191,6 +192,8 @@ public class DataHandler {
 
   private final ExecutionPlanStore executionPlanStore;
 
+  private final AnalyticsQueryExecutor queryExecutor;
+
   /**
    * Adds performance metrics.
    *
@@ -214,17 +217,20 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the {@link Grid}.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addIndicatorValues(DataQueryParams params, Grid grid) {
+  public boolean addIndicatorValues(DataQueryParams params, Grid grid) {
     if (!params.getIndicators().isEmpty() && !params.isSkipData()) {
       DataQueryParams dataSourceParams =
           newBuilder(params).retainDataDimension(INDICATOR).withIncludeNumDen(false).build();
 
       List<Indicator> indicators = resolveIndicatorExpressions(dataSourceParams);
 
-      addIndicatorValues(params, dataSourceParams, indicators, grid);
+      return addIndicatorValues(params, dataSourceParams, indicators, grid);
     }
+
+    return false;
   }
 
   /**
@@ -232,9 +238,10 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the {@link Grid}.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addExpressionDimensionItemValues(DataQueryParams params, Grid grid) {
+  public boolean addExpressionDimensionItemValues(DataQueryParams params, Grid grid) {
     if (!params.getExpressionDimensionItems().isEmpty() && !params.isSkipData()) {
       DataQueryParams dataSourceParams =
           newBuilder(params)
@@ -247,8 +254,10 @@ public class DataHandler {
 
       List<Indicator> indicators = expressionDimensionItemsToIndicators(expressionDimensionItems);
 
-      addIndicatorValues(params, dataSourceParams, indicators, grid);
+      return addIndicatorValues(params, dataSourceParams, indicators, grid);
     }
+
+    return false;
   }
 
   /**
@@ -256,9 +265,12 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the {@link Grid}.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addSubexpressionDimensionItemValues(DataQueryParams params, Grid grid) {
+  public boolean addSubexpressionDimensionItemValues(DataQueryParams params, Grid grid) {
+    boolean sampled = false;
+
     if (params.hasSubexpressions() && !params.isSkipData()) {
       // Generate one query per Subexpression
       for (DimensionalItemObject subex : params.getSubexpressions()) {
@@ -268,16 +280,20 @@ public class DataHandler {
                 .withIncludeNumDen(false)
                 .build();
 
-        Map<String, Object> aggregatedDataMap =
+        SampledValue<Map<String, Object>> aggregatedDataMap =
             getAggregatedDataValueMapObjectTyped(dataSourceParams);
 
-        for (Map.Entry<String, Object> entry : aggregatedDataMap.entrySet()) {
+        for (Map.Entry<String, Object> entry : aggregatedDataMap.value().entrySet()) {
           Object value = getRoundedValueObject(params, entry.getValue());
 
           grid.addRow().addValues(entry.getKey().split(DIMENSION_SEP)).addValue(value);
         }
+
+        sampled |= aggregatedDataMap.sampled();
       }
     }
+
+    return sampled;
   }
 
   /**
@@ -292,7 +308,7 @@ public class DataHandler {
     return expressionDimensionItems.stream().map(edi -> edi.toIndicator()).collect(toList());
   }
 
-  private void addIndicatorValues(
+  private boolean addIndicatorValues(
       DataQueryParams dataQueryParams,
       DataQueryParams dataSourceParams,
       List<Indicator> indicators,
@@ -317,9 +333,12 @@ public class DataHandler {
     Map<DimensionalItemId, DimensionalItemObject> itemMap =
         expressionService.getIndicatorDimensionalItemMap(indicators);
 
-    Map<String, List<DimensionItemObjectValue>> permutationDimensionItemValueMap =
+    SampledValue<Map<String, List<DimensionItemObjectValue>>> permutationDimensionItemValues =
         getPermutationDimensionItemValueMap(dataQueryParams, new ArrayList<>(itemMap.values()));
 
+    Map<String, List<DimensionItemObjectValue>> permutationDimensionItemValueMap =
+        permutationDimensionItemValues.value();
+
     handleEmptyDimensionItemPermutations(dimensionItemPermutations);
 
     for (Indicator indicator : indicators) {
@@ -337,6 +356,8 @@ public class DataHandler {
             dataQueryParams, grid, dataSourceParams, indicator, dimensionItems, value);
       }
     }
+
+    return permutationDimensionItemValues.sampled();
   }
 
   /**
@@ -385,17 +406,18 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the grid.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addDataElementValues(DataQueryParams params, Grid grid) {
+  public boolean addDataElementValues(DataQueryParams params, Grid grid) {
     if (!params.getAllDataElements().isEmpty() && (!params.isSkipData() || params.analyzeOnly())) {
       DataQueryParams dataSourceParams =
           newBuilder(params).retainDataDimension(DATA_ELEMENT).withIncludeNumDen(false).build();
 
-      Map<String, Object> aggregatedDataMap =
+      SampledValue<Map<String, Object>> aggregatedDataMap =
           getAggregatedDataValueMapObjectTyped(dataSourceParams);
 
-      for (Map.Entry<String, Object> entry : aggregatedDataMap.entrySet()) {
+      for (Map.Entry<String, Object> entry : aggregatedDataMap.value().entrySet()) {
         Object value = getRoundedValueObject(params, entry.getValue());
 
         grid.addRow().addValues(entry.getKey().split(DIMENSION_SEP)).addValue(value);
@@ -404,7 +426,11 @@ public class DataHandler {
           grid.addNullValues(NUMERATOR_DENOMINATOR_PROPERTIES_COUNT);
         }
       }
+
+      return aggregatedDataMap.sampled();
     }
+
+    return false;
   }
 
   /**
@@ -458,9 +484,12 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the grid.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addReportingRates(DataQueryParams params, Grid grid) {
+  public boolean addReportingRates(DataQueryParams params, Grid grid) {
+    boolean sampled = false;
+
     if (!params.getReportingRates().isEmpty() && !params.isSkipData()) {
       for (ReportingRateMetric metric : ReportingRateMetric.values()) {
         DataQueryParams dataSourceParams =
@@ -471,9 +500,11 @@ public class DataHandler {
                 .withTimely((REPORTING_RATE_ON_TIME == metric || ACTUAL_REPORTS_ON_TIME == metric))
                 .build();
 
-        addReportingRates(dataSourceParams, grid, metric);
+        sampled |= addReportingRates(dataSourceParams, grid, metric);
       }
     }
+
+    return sampled;
   }
 
   /**
@@ -481,17 +512,22 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the grid.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addDataElementOperandValues(DataQueryParams params, Grid grid) {
+  public boolean addDataElementOperandValues(DataQueryParams params, Grid grid) {
+    boolean sampled = false;
+
     if (!params.getAllDataElementOperands().isEmpty() && !params.isSkipData()) {
       DataQueryParams dataSourceParams =
           newBuilder(params).retainDataDimension(DATA_ELEMENT_OPERAND).build();
 
       for (TotalType type : values()) {
-        addDataElementOperandValues(dataSourceParams, grid, type);
+        sampled |= addDataElementOperandValues(dataSourceParams, grid, type);
       }
     }
+
+    return sampled;
   }
 
   /**
@@ -500,15 +536,20 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the grid.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addDynamicDimensionValues(DataQueryParams params, Grid grid) {
+  public boolean addDynamicDimensionValues(DataQueryParams params, Grid grid) {
     if (params.getDataDimensionAndFilterOptions().isEmpty() && !params.isSkipData()) {
-      Map<String, Double> aggregatedDataMap =
+      SampledValue<Map<String, Double>> aggregatedDataMap =
           getAggregatedDataValueMap(newBuilder(params).withIncludeNumDen(false).build());
 
-      fillGridWithAggregatedDataMap(params, grid, aggregatedDataMap);
+      fillGridWithAggregatedDataMap(params, grid, aggregatedDataMap.value());
+
+      return aggregatedDataMap.sampled();
     }
+
+    return false;
   }
 
   /**
@@ -516,9 +557,10 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the grid.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addValidationResultValues(DataQueryParams params, Grid grid) {
+  public boolean addValidationResultValues(DataQueryParams params, Grid grid) {
     if (!params.getAllValidationResults().isEmpty() && !params.isSkipData()) {
       DataQueryParams dataSourceParams =
           newBuilder(params)
@@ -527,11 +569,15 @@ public class DataHandler {
               .withIncludeNumDen(false)
               .build();
 
-      Map<String, Double> aggregatedDataMap =
+      SampledValue<Map<String, Double>> aggregatedDataMap =
           getAggregatedValidationResultMapObjectTyped(dataSourceParams);
 
-      fillGridWithAggregatedDataMap(params, grid, aggregatedDataMap);
+      fillGridWithAggregatedDataMap(params, grid, aggregatedDataMap.value());
+
+      return aggregatedDataMap.sampled();
     }
+
+    return false;
   }
 
   /**
@@ -579,8 +625,10 @@ public class DataHandler {
    * @param params the {@link DataQueryParams}.
    * @return a mapping between validation results and counts of them
    */
-  private Map<String, Double> getAggregatedValidationResultMapObjectTyped(DataQueryParams params) {
-    return getDoubleMap(getAggregatedValueMap(params, VALIDATION_RESULT, newArrayList()));
+  private SampledValue<Map<String, Double>> getAggregatedValidationResultMapObjectTyped(
+      DataQueryParams params) {
+    return getAggregatedValueMap(params, VALIDATION_RESULT, newArrayList())
+        .map(AnalyticsUtils::getDoubleMap);
   }
 
   /**
@@ -613,11 +661,12 @@ public class DataHandler {
    * @param params the {@link DataQueryParams}.
    * @param grid the {@link Grid}.
    * @param metric the reporting rate metric.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
-  private void addReportingRates(DataQueryParams params, Grid grid, ReportingRateMetric metric) {
+  private boolean addReportingRates(DataQueryParams params, Grid grid, ReportingRateMetric metric) {
     if (!params.getReportingRates().isEmpty() && !params.isSkipData()) {
       if (!COMPLETENESS_DIMENSION_TYPES.containsAll(params.getDimensionTypes())) {
-        return;
+        return false;
       }
 
       DataQueryParams targetParams =
@@ -631,8 +680,12 @@ public class DataHandler {
 
       Map<String, Double> targetMap = getAggregatedCompletenessTargetMap(targetParams);
 
-      Map<String, Double> dataMap =
-          metric != EXPECTED_REPORTS ? getAggregatedCompletenessValueMap(params) : new HashMap<>();
+      SampledValue<Map<String, Double>> dataValues =
+          metric != EXPECTED_REPORTS
+              ? getAggregatedCompletenessValueMap(params)
+              : new SampledValue<>(new HashMap<>(), false);
+
+      Map<String, Double> dataMap = dataValues.value();
 
       Integer periodIndex = params.getPeriodDimensionIndex();
       Integer dataSetIndex = DX_INDEX;
@@ -671,7 +724,11 @@ public class DataHandler {
           addReportRateToGrid(params, grid, metric, dataRow, target, actual);
         }
       }
+
+      return dataValues.sampled();
     }
+
+    return false;
   }
 
   /**
@@ -768,8 +825,10 @@ public class DataHandler {
    * @param params the {@link DataQueryParams}.
    * @return a mapping between a dimension key and the aggregated value.
    */
-  private Map<String, Double> getAggregatedCompletenessValueMap(DataQueryParams params) {
-    return getDoubleMap(getAggregatedValueMap(params, COMPLETENESS, newArrayList()));
+  private SampledValue<Map<String, Double>> getAggregatedCompletenessValueMap(
+      DataQueryParams params) {
+    return getAggregatedValueMap(params, COMPLETENESS, newArrayList())
+        .map(AnalyticsUtils::getDoubleMap);
   }
 
   /**
@@ -784,7 +843,9 @@ public class DataHandler {
     List<Function<DataQueryParams, List<DataQueryParams>>> queryGroupers = newArrayList();
     queryGroupers.add(q -> queryPlanner.groupByStartEndDateRestriction(q));
 
-    return getDoubleMap(getAggregatedValueMap(params, COMPLETENESS_TARGET, queryGroupers));
+    // Targets skip partitioning and are never sampled
+
+    return getDoubleMap(getAggregatedValueMap(params, COMPLETENESS_TARGET, queryGroupers).value());
   }
 
   /**
@@ -793,8 +854,10 @@ public class DataHandler {
    * @param params the {@link DataQueryParams}.
    * @param grid the {@link Grid}.
    * @param totalType the operand {@link TotalType}.
+   * @return true if any of the values were approximated from a sample of the analytics table rows.
    */
-  private void addDataElementOperandValues(DataQueryParams params, Grid grid, TotalType totalType) {
+  private boolean addDataElementOperandValues(
+      DataQueryParams params, Grid grid, TotalType totalType) {
     List<DataElementOperand> operands = asTypedList(params.getAllDataElementOperands());
     operands =
         operands.stream()
@@ -802,14 +865,16 @@ public class DataHandler {
             .collect(Collectors.toList());
 
     if (operands.isEmpty()) {
-      return;
+      return false;
     }
 
     DataQueryParams operandParams = getOperandDataQueryParams(params, operands, totalType);
 
-    Map<String, Object> aggregatedDataMap = getAggregatedDataValueMapObjectTyped(operandParams);
+    SampledValue<Map<String, Object>> aggregatedDataValues =
+        getAggregatedDataValueMapObjectTyped(operandParams);
 
-    aggregatedDataMap = convertDxToOperand(aggregatedDataMap, totalType);
+    Map<String, Object> aggregatedDataMap =
+        convertDxToOperand(aggregatedDataValues.value(), totalType);
 
     for (Map.Entry<String, Object> entry : aggregatedDataMap.entrySet()) {
       Object value = getRoundedValueObject(operandParams, entry.getValue());
@@ -820,6 +885,8 @@ public class DataHandler {
         grid.addNullValues(NUMERATOR_DENOMINATOR_PROPERTIES_COUNT);
       }
     }
+
+    return aggregatedDataValues.sampled();
   }
 
   /**
@@ -1052,7 +1119,8 @@ public class DataHandler {
    * @param params the {@link DataQueryParams}.
    * @return a mapping between a dimension key and the aggregated value.
    */
-  private Map<String, Object> getAggregatedDataValueMapObjectTyped(DataQueryParams params) {
+  private SampledValue<Map<String, Object>> getAggregatedDataValueMapObjectTyped(
+      DataQueryParams params) {
     return getAggregatedValueMap(params, DATA_VALUE, newArrayList());
   }
 
@@ -1062,12 +1130,11 @@ public class DataHandler {
    *
    * @param params the {@link DataQueryParams}.
    */
-  private Map<String, List<DimensionItemObjectValue>> getPermutationDimensionItemValueMap(
-      DataQueryParams params, List<DimensionalItemObject> items) {
-    MultiValuedMap<String, DimensionItemObjectValue> aggregatedDataMap =
-        getAggregatedDataValueMap(params, items);
-
-    return getPermutationDimensionalItemValueMap(aggregatedDataMap);
+  private SampledValue<Map<String, List<DimensionItemObjectValue>>>
+      getPermutationDimensionItemValueMap(
+          DataQueryParams params, List<DimensionalItemObject> items) {
+    return getAggregatedDataValueMap(params, items)
+        .map(DataQueryParams::getPermutationDimensionalItemValueMap);
   }
 
   /**
@@ -1138,8 +1205,10 @@ public class DataHandler {
             .withSkipDataDimensionValidation(true)
             .build();
 
+    // Targets skip partitioning and are never sampled
+
     Map<String, Double> orgUnitCountMap =
-        getAggregatedOrganisationUnitTargetMap(orgUnitTargetParams);
+        getAggregatedOrganisationUnitTargetMap(orgUnitTargetParams).value();
 
     return getPermutationOrgUnitGroupCountMap(orgUnitCountMap);
   }
@@ -1153,8 +1222,10 @@ public class DataHandler {
    * @return a mapping between the the data set dimension key and the count of expected data sets to
    *     report.
    */
-  private Map<String, Double> getAggregatedOrganisationUnitTargetMap(DataQueryParams params) {
-    return getDoubleMap(getAggregatedValueMap(params, ORG_UNIT_TARGET, newArrayList()));
+  private SampledValue<Map<String, Double>> getAggregatedOrganisationUnitTargetMap(
+      DataQueryParams params) {
+    return getAggregatedValueMap(params, ORG_UNIT_TARGET, newArrayList())
+        .map(AnalyticsUtils::getDoubleMap);
   }
 
   /**
@@ -1207,10 +1278,10 @@ public class DataHandler {
    * @param items the list of {@link DimensionalItemObject}.
    * @return a dimensional items to aggregate values map.
    */
-  private MultiValuedMap<String, DimensionItemObjectValue> getAggregatedDataValueMap(
+  private SampledValue<MultiValuedMap<String, DimensionItemObjectValue>> getAggregatedDataValueMap(
       DataQueryParams params, List<DimensionalItemObject> items) {
     if (items.isEmpty()) {
-      return new ArrayListValuedHashMap<>();
+      return new SampledValue<>(new ArrayListValuedHashMap<>(), false);
     }
 
     DimensionalObject dimension =
@@ -1226,13 +1297,13 @@ public class DataHandler {
             .withSkipMeta(true)
             .build();
 
-    Grid grid = dataAggregator.getAggregatedDataValueGrid(dataSourceParams);
+    SampledValue<Grid> grid = dataAggregator.getSampledAggregatedDataValueGrid(dataSourceParams);
 
-    if (isEmpty(grid.getRows())) {
-      return new ArrayListValuedHashMap<>();
+    if (isEmpty(grid.value().getRows())) {
+      return new SampledValue<>(new ArrayListValuedHashMap<>(), grid.sampled());
     }
 
-    return getAggregatedValueMapFromGrid(params, items, grid);
+    return grid.map(g -> getAggregatedValueMapFromGrid(params, items, g));
   }
 
   /**
@@ -1412,9 +1483,10 @@ public class DataHandler {
    * @param tableType the {@link AnalyticsTableType}.
    * @param queryGroupers the list of additional query groupers to use for query planning, use empty
    *     list for none.
-   * @return a mapping between a dimension key and aggregated values.
+   * @return a mapping between a dimension key and aggregated values, and whether any of the queries
+   *     read a sample of the analytics table rows.
    */
-  private Map<String, Object> getAggregatedValueMap(
+  private SampledValue<Map<String, Object>> getAggregatedValueMap(
       DataQueryParams params,
       AnalyticsTableType tableType,
       List<Function<DataQueryParams, List<DataQueryParams>>> queryGroupers) {
@@ -1448,11 +1520,13 @@ public class DataHandler {
 
     timer.getTime("Got analytics values");
 
-    return map;
+    boolean sampled = queryGroups.getAllQueries().stream().anyMatch(DataQueryParams::isSampled);
+
+    return new SampledValue<>(map, sampled);
   }
 
   /**
-   * Executes the given list of queries in parallel.
+   * Executes the given list of queries in parallel using the {@link AnalyticsQueryExecutor}.
    *
    * @param tableType the {@link AnalyticsTableType}.
    * @param maxLimit the max limit of records to retrieve.
@@ -1464,30 +1538,21 @@ public class DataHandler {
       int maxLimit,
       Map<String, Object> map,
       List<DataQueryParams> queries) {
-    List<Future<Map<String, Object>>> futures = new ArrayList<>();
+    List<Callable<Map<String, Object>>> tasks = new ArrayList<>();
 
     for (DataQueryParams query : queries) {
-      futures.add(analyticsManager.getAggregatedDataValues(query, tableType, maxLimit));
+      tasks.add(() -> analyticsManager.getAggregatedDataValues(query, tableType, maxLimit).get());
     }
 
-    for (Future<Map<String, Object>> future : futures) {
-      try {
-        Map<String, Object> taskValues = future.get();
-
+    try {
+      for (Map<String, Object> taskValues : queryExecutor.invokeAll(tasks)) {
         if (taskValues != null) {
           map.putAll(taskValues);
         }
-      } catch (Exception ex) {
-        log.error(getStackTrace(ex));
-        log.error(getStackTrace(ex.getCause()));
-
-        if (ex.getCause() instanceof RuntimeException) {
-          // Throw the real exception
-          throw (RuntimeException) ex.getCause();
-        } else {
-          throw new RuntimeException("Error during execution of aggregation query task", ex);
-        }
       }
+    } catch (RuntimeException ex) {
+      log.error(getStackTrace(ex));
+      throw ex;
     }
   }
 
@@ -1511,8 +1576,9 @@ public class DataHandler {
    * @param params the {@link DataQueryParams}.
    * @return a mapping between a dimension key and the aggregated value.
    */
-  private Map<String, Double> getAggregatedDataValueMap(DataQueryParams params) {
-    return getDoubleMap(getAggregatedValueMap(params, DATA_VALUE, newArrayList()));
+  private SampledValue<Map<String, Double>> getAggregatedDataValueMap(DataQueryParams params) {
+    return getAggregatedValueMap(params, DATA_VALUE, newArrayList())
+        .map(AnalyticsUtils::getDoubleMap);
   }
 
   void require(DataAggregator dataAggregator) {
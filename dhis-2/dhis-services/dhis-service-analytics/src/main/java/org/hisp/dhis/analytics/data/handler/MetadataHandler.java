@@ -28,7 +28,7 @@
 package org.hisp.dhis.analytics.data.handler;
 
 import static com.google.common.collect.ImmutableMap.copyOf;
-import static java.util.stream.Collectors.toMap;
+import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.APPROXIMATE;
 import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.DIMENSIONS;
 import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.ITEMS;
 import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.ORG_UNIT_ANCESTORS;
@@ -44,24 +44,27 @@ import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.asTypedList;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getDimensionalItemIds;
-import static org.hisp.dhis.organisationunit.OrganisationUnit.getParentGraphMap;
-import static org.hisp.dhis.organisationunit.OrganisationUnit.getParentNameGraphMap;
 
 import com.google.common.collect.Sets;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataQueryService;
 import org.hisp.dhis.analytics.orgunit.OrgUnitHelper;
+import org.hisp.dhis.analytics.orgunit.OrgUnitHierarchy;
+import org.hisp.dhis.analytics.orgunit.OrgUnitHierarchyService;
 import org.hisp.dhis.analytics.util.AnalyticsOrganisationUnitUtils;
+import org.hisp.dhis.analytics.util.SampleUtils;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.user.CurrentUserUtil;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserService;
+import org.hisp.dhis.user.UserSettingKey;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -75,14 +78,18 @@ public class MetadataHandler {
 
   private final UserService userService;
 
+  private final OrgUnitHierarchyService orgUnitHierarchyService;
+
   /**
    * Adds meta data values to the given grid based on the given data query parameters.
    *
    * @param params the {@link DataQueryParams}.
    * @param grid the {@link Grid}.
+   * @param sampled whether any of the values of the grid were approximated from a sample of the
+   *     analytics table rows.
    */
   @Transactional(readOnly = true)
-  public void addMetaData(DataQueryParams params, Grid grid) {
+  public void addMetaData(DataQueryParams params, Grid grid, boolean sampled) {
     if (!params.isSkipMeta()) {
       Map<String, Object> metaData = new HashMap<>();
       Map<String, Object> internalMetaData = new HashMap<>();
@@ -131,20 +138,33 @@ public class MetadataHandler {
       List<OrganisationUnit> activeOrgUnits =
           OrgUnitHelper.getActiveOrganisationUnits(grid, organisationUnits);
 
-      if (params.isHierarchyMeta()) {
-        metaData.put(ORG_UNIT_HIERARCHY.getKey(), getParentGraphMap(activeOrgUnits, roots));
+      if (params.isHierarchyMeta() || params.isShowHierarchy()) {
+        OrgUnitHierarchy hierarchy = orgUnitHierarchyService.getHierarchy();
+
+        if (params.isHierarchyMeta()) {
+          metaData.put(
+              ORG_UNIT_HIERARCHY.getKey(), hierarchy.getParentGraphMap(activeOrgUnits, roots));
+        }
+
+        if (params.isShowHierarchy()) {
+          Locale locale = CurrentUserUtil.getUserSetting(UserSettingKey.DB_LOCALE);
+
+          internalMetaData.put(
+              ORG_UNIT_ANCESTORS.getKey(),
+              hierarchy.getAncestorNamesMap(
+                  params.isDownload() ? organisationUnits : activeOrgUnits, roots, true, locale));
+          metaData.put(
+              ORG_UNIT_NAME_HIERARCHY.getKey(),
+              hierarchy.getParentNameGraphMap(activeOrgUnits, roots, true));
+        }
       }
 
-      if (params.isShowHierarchy()) {
-        Map<Object, List<?>> ancestorMap =
-            (params.isDownload() ? organisationUnits : activeOrgUnits)
-                .stream()
-                    .collect(
-                        toMap(OrganisationUnit::getUid, ou -> ou.getAncestorNames(roots, true)));
+      // -----------------------------------------------------------------
+      // Approximation
+      // -----------------------------------------------------------------
 
-        internalMetaData.put(ORG_UNIT_ANCESTORS.getKey(), ancestorMap);
-        metaData.put(
-            ORG_UNIT_NAME_HIERARCHY.getKey(), getParentNameGraphMap(activeOrgUnits, roots, true));
+      if (sampled) {
+        metaData.put(APPROXIMATE.getKey(), SampleUtils.getMetaData(null));
       }
 
       grid.setMetaData(copyOf(metaData));
@@ -81,6 +81,17 @@ public interface EventAnalyticsService {
    */
   Grid getEvents(EventQueryParams params);
 
+  /**
+   * Adds the events matching the given query to the given grid. The grid can be a streaming grid
+   * which writes rows as they are read, in which case the query should be streamable as indicated
+   * by {@link EventQueryParams#isStreamable()}.
+   *
+   * @param params the event query parameters.
+   * @param grid the grid to populate.
+   * @return events as a Grid object.
+   */
+  Grid getEvents(EventQueryParams params, Grid grid);
+
   /**
    * Returns a list of event clusters matching the given query.
    *
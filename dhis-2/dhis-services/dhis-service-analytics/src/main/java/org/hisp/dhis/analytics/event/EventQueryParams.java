@@ -41,6 +41,7 @@ import static org.hisp.dhis.common.RequestTypeAware.EndpointAction.QUERY;
 
 import com.google.common.base.MoreObjects;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import org.apache.commons.collections4.MapUtils;
@@ -143,6 +144,21 @@ public class EventQueryParams extends DataQueryParams {
   /** The total pages flag. */
   private boolean totalPages;
 
+  /** The keyset paging flag. */
+  private boolean keysetPaging;
+
+  /** The keyset paging cursor, the identifier of the last row of the previous page. */
+  private String cursor;
+
+  /** The estimate total flag. */
+  private boolean estimateTotal;
+
+  /**
+   * Set when the total of the request was estimated by the query planner. Shared by all queries
+   * copied from the same request, so that the response can tell whether the total is estimated.
+   */
+  private transient AtomicBoolean totalEstimated = new AtomicBoolean();
+
   /** The value sort order. */
   private SortOrder sortOrder;
 
@@ -237,6 +253,7 @@ public class EventQueryParams extends DataQueryParams {
     params.hierarchyMeta = this.hierarchyMeta;
     params.showHierarchy = this.showHierarchy;
     params.skipRounding = this.skipRounding;
+    params.approximate = this.approximate;
     params.startDate = this.startDate;
     params.endDate = this.endDate;
     params.timeField = this.timeField;
@@ -263,6 +280,10 @@ public class EventQueryParams extends DataQueryParams {
     params.pageSize = this.pageSize;
     params.paging = this.paging;
     params.totalPages = this.totalPages;
+    params.keysetPaging = this.keysetPaging;
+    params.cursor = this.cursor;
+    params.estimateTotal = this.estimateTotal;
+    params.totalEstimated = this.totalEstimated;
     params.sortOrder = this.sortOrder;
     params.limit = this.limit;
     params.outputType = this.outputType;
@@ -691,10 +712,74 @@ public class EventQueryParams extends DataQueryParams {
     return paging && (page != null || pageSize != null);
   }
 
+  /**
+   * Indicates whether the rows of the query can be streamed to the response as they are read. This
+   * is the case for unpaged event queries which do not post-process the rows of the grid, as
+   * retaining headers and mapping data identifier schemes do, and whose meta data does not depend
+   * on the rows. The options of items with option sets and the org unit hierarchy are resolved from
+   * the rows of the grid, which are not retained when streaming.
+   *
+   * @return true if the rows of the query can be streamed, false if not.
+   */
+  public boolean isStreamable() {
+    return isComingFromQuery()
+        && !isPaging()
+        && !hasHeaders()
+        && !hasDataIdScheme()
+        && !analyzeOnly()
+        && (isSkipMeta() || !hasRowDependentMetadata());
+  }
+
+  /**
+   * Indicates whether the meta data of the query is derived from the rows of the grid, which is the
+   * case for items or item filters with option sets and for the hierarchy meta data options.
+   */
+  private boolean hasRowDependentMetadata() {
+    return isHierarchyMeta()
+        || isShowHierarchy()
+        || getItemsAndItemFilters().stream().anyMatch(QueryItem::hasOptionSet);
+  }
+
   public boolean isTotalPages() {
     return totalPages;
   }
 
+  /**
+   * Indicates whether rows are paged by identifier instead of by offset. This is the case for paged
+   * queries which request keyset paging or specify a cursor.
+   *
+   * @return true if rows are paged by identifier.
+   */
+  public boolean isKeysetPaging() {
+    return isPaging() && (keysetPaging || hasCursor());
+  }
+
+  public boolean hasCursor() {
+    return !isBlank(cursor);
+  }
+
+  public String getCursor() {
+    return cursor;
+  }
+
+  public boolean isEstimateTotal() {
+    return estimateTotal;
+  }
+
+  /**
+   * Indicates whether the total of the request was estimated by the query planner.
+   *
+   * @return true if the total is estimated.
+   */
+  public boolean isTotalEstimated() {
+    return totalEstimated.get();
+  }
+
+  /** Marks the total of the request as estimated by the query planner. */
+  public void markTotalEstimated() {
+    totalEstimated.set(true);
+  }
+
   public int getPageWithDefault() {
     return page != null && page > 0 ? page : 1;
   }
@@ -765,6 +850,42 @@ public class EventQueryParams extends DataQueryParams {
         && ((ValueTypedDimensionalItemObject) value).getValueType().isText();
   }
 
+  /**
+   * Checks if aggregate event data should be estimated from a sample of the analytics table rows.
+   * Sampling applies to event counts and to numeric value dimensions aggregated by sum, count or
+   * average, as these can be estimated from a sample without bias.
+   *
+   * @return true if the aggregate query should be sampled, false if not.
+   */
+  public boolean isSampledAggregation() {
+    if (!approximate
+        || endpointAction != EndpointAction.AGGREGATE
+        || endpointItem != EndpointItem.EVENT
+        || hasProgramIndicatorDimension()) {
+      return false;
+    }
+
+    if (hasValueDimension()) {
+      AnalyticsAggregationType aggType = getAggregationTypeFallback();
+
+      return hasNumericValueDimension()
+          && aggType.isPeriodAggregationType(aggType.getAggregationType())
+          && Set.of(AggregationType.SUM, AggregationType.COUNT, AggregationType.AVERAGE)
+              .contains(aggType.getAggregationType());
+    }
+
+    return outputType == null || outputType == EventOutputType.EVENT;
+  }
+
+  /**
+   * Checks if the sampled aggregate values are event counts.
+   *
+   * @return true if the sampled aggregate values are event counts, false if not.
+   */
+  public boolean isSampledCount() {
+    return isSampledAggregation() && !hasValueDimension();
+  }
+
   @Override
   public boolean hasProgramIndicatorDimension() {
     return programIndicator != null;
@@ -1169,6 +1290,21 @@ public class EventQueryParams extends DataQueryParams {
       return this;
     }
 
+    public Builder withKeysetPaging(boolean keysetPaging) {
+      this.params.keysetPaging = keysetPaging;
+      return this;
+    }
+
+    public Builder withCursor(String cursor) {
+      this.params.cursor = cursor;
+      return this;
+    }
+
+    public Builder withEstimateTotal(boolean estimateTotal) {
+      this.params.estimateTotal = estimateTotal;
+      return this;
+    }
+
     public Builder withPartitions(Partitions partitions) {
       this.params.partitions = partitions;
       return this;
@@ -1199,6 +1335,11 @@ public class EventQueryParams extends DataQueryParams {
       return this;
     }
 
+    public Builder withApproximate(boolean approximate) {
+      this.params.approximate = approximate;
+      return this;
+    }
+
     public Builder withShowHierarchy(boolean showHierarchy) {
       this.params.showHierarchy = showHierarchy;
       return this;
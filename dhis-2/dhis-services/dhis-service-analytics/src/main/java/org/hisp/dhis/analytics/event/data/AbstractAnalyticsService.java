@@ -35,11 +35,16 @@ import static java.util.stream.Collectors.toList;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.joinWith;
+import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.APPROXIMATE;
 import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.DIMENSIONS;
 import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.ITEMS;
+import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.NEXT_CURSOR;
 import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.ORG_UNIT_HIERARCHY;
 import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.ORG_UNIT_NAME_HIERARCHY;
 import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.PAGER;
+import static org.hisp.dhis.analytics.DataQueryParams.VALUE_ID;
+import static org.hisp.dhis.analytics.common.ColumnHeader.ENROLLMENT;
+import static org.hisp.dhis.analytics.common.ColumnHeader.EVENT;
 import static org.hisp.dhis.analytics.event.data.QueryItemHelper.getItemOptions;
 import static org.hisp.dhis.analytics.event.data.QueryItemHelper.getItemOptionsAsFilter;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
@@ -72,12 +77,14 @@ import org.hisp.dhis.analytics.event.EventQueryValidator;
 import org.hisp.dhis.analytics.orgunit.OrgUnitHelper;
 import org.hisp.dhis.analytics.util.AnalyticsOrganisationUnitUtils;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
+import org.hisp.dhis.analytics.util.SampleUtils;
 import org.hisp.dhis.calendar.Calendar;
 import org.hisp.dhis.common.DimensionItemKeywords;
 import org.hisp.dhis.common.DimensionItemKeywords.Keyword;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.common.EstimatedPager;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
@@ -85,12 +92,14 @@ import org.hisp.dhis.common.MetadataItem;
 import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.RepeatableStageParams;
+import org.hisp.dhis.common.RequestTypeAware.EndpointItem;
 import org.hisp.dhis.common.SlimPager;
 import org.hisp.dhis.common.ValueStatus;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.option.Option;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.system.grid.ListGrid;
 import org.hisp.dhis.user.CurrentUserUtil;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserService;
@@ -117,6 +126,17 @@ public abstract class AbstractAnalyticsService {
    * @return a {@link Grid}.
    */
   protected Grid getGrid(EventQueryParams params) {
+    return getGrid(params, new ListGrid());
+  }
+
+  /**
+   * Populates the given grid based on the given query.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @param grid the {@link Grid} to populate.
+   * @return the {@link Grid}.
+   */
+  protected Grid getGrid(EventQueryParams params, Grid grid) {
     // ---------------------------------------------------------------------
     // Decide access, add constraints and validate
     // ---------------------------------------------------------------------
@@ -146,7 +166,7 @@ public abstract class AbstractAnalyticsService {
     // Headers
     // ---------------------------------------------------------------------
 
-    Grid grid = createGridWithHeaders(params);
+    addGridHeaders(params, grid);
 
     for (DimensionalObject dimension : params.getDimensions()) {
       grid.addHeader(
@@ -313,7 +333,9 @@ public abstract class AbstractAnalyticsService {
   }
 
   /**
-   * Applies paging to the given grid if the given query specifies paging.
+   * Applies paging to the given grid if the given query specifies paging. An {@link EstimatedPager}
+   * is used if the total count was estimated. For keyset paging, the identifier of the last row is
+   * added as cursor for the next page unless this is the last page.
    *
    * @param params the {@link EventQueryParams}.
    * @param totalCount the total count.
@@ -321,16 +343,38 @@ public abstract class AbstractAnalyticsService {
    */
   private void addPaging(EventQueryParams params, long totalCount, Grid grid) {
     if (params.isPaging()) {
-      Pager pager =
-          params.isTotalPages()
-              ? new Pager(params.getPageWithDefault(), totalCount, params.getPageSizeWithDefault())
-              : new SlimPager(
-                  params.getPageWithDefault(),
-                  params.getPageSizeWithDefault(),
-                  grid.hasLastDataRow());
+      Pager pager;
+
+      if (params.isTotalPages() && params.isTotalEstimated()) {
+        pager =
+            new EstimatedPager(
+                params.getPageWithDefault(), totalCount, params.getPageSizeWithDefault());
+      } else if (params.isTotalPages()) {
+        pager = new Pager(params.getPageWithDefault(), totalCount, params.getPageSizeWithDefault());
+      } else {
+        pager =
+            new SlimPager(
+                params.getPageWithDefault(),
+                params.getPageSizeWithDefault(),
+                grid.hasLastDataRow());
+      }
 
       grid.getMetaData().put(PAGER.getKey(), pager);
     }
+
+    if (params.isKeysetPaging() && !grid.hasLastDataRow() && grid.getHeight() > 0) {
+      String keyHeader =
+          EndpointItem.ENROLLMENT == params.getEndpointItem()
+              ? ENROLLMENT.getItem()
+              : EVENT.getItem();
+
+      int index = grid.getIndexOfHeader(keyHeader);
+
+      if (index != -1) {
+        Object cursor = grid.getRow(grid.getHeight() - 1).get(index);
+        grid.getMetaData().put(NEXT_CURSOR.getKey(), cursor);
+      }
+    }
   }
 
   /**
@@ -349,7 +393,7 @@ public abstract class AbstractAnalyticsService {
     return uid;
   }
 
-  protected abstract Grid createGridWithHeaders(EventQueryParams params);
+  protected abstract Grid addGridHeaders(EventQueryParams params, Grid grid);
 
   protected abstract long addData(Grid grid, EventQueryParams params);
 
@@ -422,6 +466,16 @@ public abstract class AbstractAnalyticsService {
 
       maybeAddOrgUnitHierarchyInfo(params, metadata, grid);
 
+      if (params.isSampledAggregation()) {
+        int valueIndex = grid.getIndexOfHeader(VALUE_ID);
+        Double bound =
+            params.isSampledCount() && valueIndex >= 0
+                ? SampleUtils.getRelativeErrorBound(grid, valueIndex)
+                : null;
+
+        metadata.put(APPROXIMATE.getKey(), SampleUtils.getMetaData(bound));
+      }
+
       grid.setMetaData(metadata);
     }
   }
@@ -59,6 +59,7 @@ import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.COMPOSITE_DIM_OBJECT_PLAIN_SEP;
 import static org.hisp.dhis.common.QueryOperator.IN;
 import static org.hisp.dhis.common.RequestTypeAware.EndpointItem.ENROLLMENT;
+import static org.hisp.dhis.commons.jackson.config.JacksonObjectMapperConfig.staticJsonMapper;
 import static org.hisp.dhis.commons.util.TextUtils.getCommaDelimitedString;
 import static org.hisp.dhis.feedback.ErrorCode.E7149;
 import static org.hisp.dhis.system.util.MathUtils.getRounded;
@@ -75,6 +76,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
@@ -93,6 +95,7 @@ import org.hisp.dhis.analytics.MeasureFilter;
 import org.hisp.dhis.analytics.SortOrder;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
+import org.hisp.dhis.analytics.common.TableInfoReader;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.common.*;
@@ -154,6 +157,8 @@ public abstract class AbstractJdbcEventAnalyticsManager {
 
   private final OrganisationUnitResolver organisationUnitResolver;
 
+  private final TableInfoReader tableInfoReader;
+
   /**
    * Returns a SQL paging clause.
    *
@@ -163,7 +168,9 @@ public abstract class AbstractJdbcEventAnalyticsManager {
   private String getPagingClause(EventQueryParams params, int maxLimit) {
     String sql = "";
 
-    if (params.isPaging()) {
+    if (params.isKeysetPaging()) {
+      sql += LIMIT + " " + (params.getPageSizeWithDefault() + 1);
+    } else if (params.isPaging()) {
       int limit =
           params.isTotalPages()
               ? params.getPageSizeWithDefault()
@@ -177,6 +184,33 @@ public abstract class AbstractJdbcEventAnalyticsManager {
     return sql;
   }
 
+  /**
+   * Returns a SQL condition which restricts rows to those after the keyset paging cursor, or an
+   * empty string if the query does not specify a cursor.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @param whereClause the where clause of the query.
+   */
+  private String getKeysetClause(EventQueryParams params, String whereClause) {
+    if (!params.isKeysetPaging() || !params.hasCursor()) {
+      return EMPTY;
+    }
+
+    return (isBlank(whereClause) ? "where " : "and ")
+        + getKeysetColumn()
+        + " > "
+        + sqlBuilder.singleQuote(params.getCursor())
+        + " ";
+  }
+
+  /**
+   * Returns the column which uniquely identifies rows for keyset paging, which is the event
+   * identifier for event queries and the enrollment identifier for enrollment queries.
+   */
+  private String getKeysetColumn() {
+    return quoteAlias(AnalyticsType.EVENT == getAnalyticsType() ? "psi" : "pi");
+  }
+
   /**
    * Returns a SQL sort clause.
    *
@@ -185,7 +219,9 @@ public abstract class AbstractJdbcEventAnalyticsManager {
   private String getSortClause(EventQueryParams params) {
     String sql = "";
 
-    if (params.isSorting()) {
+    if (params.isKeysetPaging()) {
+      sql += "order by " + getKeysetColumn() + " asc ";
+    } else if (params.isSorting()) {
       sql += "order by " + getSortColumns(params, ASC) + getSortColumns(params, DESC);
 
       sql = TextUtils.removeLastComma(sql) + " ";
@@ -430,6 +466,8 @@ public abstract class AbstractJdbcEventAnalyticsManager {
                 getAnalyticsType(),
                 params.getEarliestStartDate(),
                 params.getLatestEndDate());
+      } else if (isMaterialized(in, params)) {
+        programIndicatorSubquery = quoteAlias(in.getUid());
       } else {
         programIndicatorSubquery =
             programIndicatorSubqueryBuilder.getAggregateClauseForProgramIndicator(
@@ -462,6 +500,31 @@ public abstract class AbstractJdbcEventAnalyticsManager {
     }
   }
 
+  /**
+   * Indicates whether values of the given program indicator can be read from a materialized column
+   * of the analytics table being queried, which requires the program indicator to be of the same
+   * analytics type and program as the table, and the column to exist. The column is missing when
+   * the program indicator was configured as materialized after the table was generated. Column
+   * names are cached per table and the cache is cleared when analytics tables are generated.
+   *
+   * <p>This is not used for query items with a relationship type. The materialized column holds the
+   * value computed for the event or enrollment of the row itself, whereas a relationship type asks
+   * for the value aggregated over the related entities of the row, which only the sub-query can
+   * provide.
+   *
+   * @param programIndicator the {@link ProgramIndicator}.
+   * @param params the {@link EventQueryParams}.
+   * @return true if the program indicator values can be read from a materialized column.
+   */
+  private boolean isMaterialized(ProgramIndicator programIndicator, EventQueryParams params) {
+    return programIndicator.getAnalyticsType() == getAnalyticsType()
+        && Objects.equals(programIndicator.getProgram(), params.getProgram())
+        && programIndicatorSubqueryBuilder.isMaterialized(programIndicator)
+        && tableInfoReader
+            .getCachedColumns(params.getTableName())
+            .contains(programIndicator.getUid());
+  }
+
   /**
    * The method create a ColumnAndAlias object for query item with repeatable stage and organization
    * unit value type, will return f.e. select 'w75KJ2mc4zz' from..., '') as 'w75KJ2mc4zz'
@@ -610,8 +673,12 @@ public abstract class AbstractJdbcEventAnalyticsManager {
   private void getAggregatedEventData(Grid grid, EventQueryParams params, String sql) {
     log.debug("Event analytics aggregate SQL: '{}'", sql);
 
+    long start = System.currentTimeMillis();
+
     SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql);
 
+    executionPlanStore.addSlowQueryPlan(sql, System.currentTimeMillis() - start);
+
     while (rowSet.next()) {
       grid.addRow();
 
@@ -925,7 +992,11 @@ public abstract class AbstractJdbcEventAnalyticsManager {
 
     sql += getFromClause(params);
 
-    sql += getWhereClause(params);
+    String whereClause = getWhereClause(params);
+
+    sql += whereClause;
+
+    sql += getKeysetClause(params, whereClause);
 
     sql += getSortClause(params);
 
@@ -1407,10 +1478,53 @@ public abstract class AbstractJdbcEventAnalyticsManager {
   protected boolean isLastRowAfterPageSize(
       EventQueryParams params, boolean unlimitedPaging, int rowsRed) {
     return rowsRed > params.getPageSizeWithDefault()
-        && !params.isTotalPages()
+        && (!params.isTotalPages() || params.isKeysetPaging())
         && !isUnlimitedQuery(params, unlimitedPaging);
   }
 
+  /**
+   * Indicates whether the total count of the given query should be estimated by the database query
+   * planner instead of counted.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @return true if the total count should be estimated.
+   */
+  protected boolean isEstimatedCount(EventQueryParams params) {
+    return params.isEstimateTotal()
+        && !params.analyzeOnly()
+        && sqlBuilder.supportsRowCountEstimates();
+  }
+
+  /**
+   * Returns the number of rows matching the given query as estimated by the database query planner,
+   * which avoids executing a separate count query over the full result. The request is marked as
+   * having an estimated total if an estimate is returned.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @return the estimated number of rows, or empty if the planner did not provide an estimate.
+   */
+  protected OptionalLong getEstimatedCount(EventQueryParams params) {
+    String sql = "explain (format json) select 1 " + getFromClause(params) + getWhereClause(params);
+
+    log.debug("Analytics estimated count SQL: '{}'", sql);
+
+    try {
+      String plan = jdbcTemplate.queryForObject(sql, String.class);
+      JsonNode rows = staticJsonMapper().readTree(plan).path(0).path("Plan").path("Plan Rows");
+
+      if (rows.isNumber()) {
+        params.markTotalEstimated();
+        return OptionalLong.of(rows.asLong());
+      }
+
+      log.warn("Query plan has no row estimate, counting rows instead");
+    } catch (Exception ex) {
+      log.warn("Failed to estimate count, counting rows instead: '{}'", ex.getMessage());
+    }
+
+    return OptionalLong.empty();
+  }
+
   /**
    * Returns true if the given query is unlimited. This is the case when the page size is not set
    * and unlimited paging is enabled.
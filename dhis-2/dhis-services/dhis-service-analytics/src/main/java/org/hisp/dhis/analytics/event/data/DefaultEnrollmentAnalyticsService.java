@@ -66,7 +66,6 @@ import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.common.GridHeader;
 import org.hisp.dhis.common.RequestTypeAware;
-import org.hisp.dhis.system.grid.ListGrid;
 import org.hisp.dhis.user.UserService;
 import org.hisp.dhis.util.Timer;
 import org.springframework.stereotype.Service;
@@ -115,14 +114,12 @@ public class DefaultEnrollmentAnalyticsService extends AbstractAnalyticsService
   }
 
   @Override
-  protected Grid createGridWithHeaders(EventQueryParams params) {
+  protected Grid addGridHeaders(EventQueryParams params, Grid grid) {
     if (params.getEndpointAction() == RequestTypeAware.EndpointAction.AGGREGATE) {
-      return new ListGrid()
-          .addHeader(new GridHeader(VALUE_ID, VALUE_HEADER_NAME, NUMBER, false, false));
+      return grid.addHeader(new GridHeader(VALUE_ID, VALUE_HEADER_NAME, NUMBER, false, false));
     }
 
-    return new ListGrid()
-        .addHeader(
+    return grid.addHeader(
             new GridHeader(
                 ENROLLMENT.getItem(),
                 getEnrollmentLabel(params.getProgram(), ENROLLMENT.getName()),
@@ -90,6 +90,7 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.EventAnalyticsDimensionalItem;
 import org.hisp.dhis.analytics.Rectangle;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.cluster.EventClusterTableService;
 import org.hisp.dhis.analytics.common.ColumnHeader;
 import org.hisp.dhis.analytics.data.handler.SchemeIdResponseMapper;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
@@ -162,6 +163,8 @@ public class DefaultEventAnalyticsService extends AbstractAnalyticsService
 
   private final AnalyticsCache analyticsCache;
 
+  private final EventClusterTableService eventClusterTableService;
+
   public DefaultEventAnalyticsService(
       DataElementService dataElementService,
       TrackedEntityAttributeService trackedEntityAttributeService,
@@ -175,7 +178,8 @@ public class DefaultEventAnalyticsService extends AbstractAnalyticsService
       EnrollmentAnalyticsManager enrollmentAnalyticsManager,
       SchemeIdResponseMapper schemeIdResponseMapper,
       UserService userService,
-      OrganisationUnitResolver organisationUnitResolver) {
+      OrganisationUnitResolver organisationUnitResolver,
+      EventClusterTableService eventClusterTableService) {
     super(
         securityManager,
         queryValidator,
@@ -191,6 +195,7 @@ public class DefaultEventAnalyticsService extends AbstractAnalyticsService
     checkNotNull(databaseInfoProvider);
     checkNotNull(analyticsCache);
     checkNotNull(schemeIdResponseMapper);
+    checkNotNull(eventClusterTableService);
 
     this.dataElementService = dataElementService;
     this.trackedEntityAttributeService = trackedEntityAttributeService;
@@ -200,6 +205,7 @@ public class DefaultEventAnalyticsService extends AbstractAnalyticsService
     this.spatialSupport = databaseInfoProvider.getDatabaseInfo().isSpatialSupport();
     this.analyticsCache = analyticsCache;
     this.enrollmentAnalyticsManager = enrollmentAnalyticsManager;
+    this.eventClusterTableService = eventClusterTableService;
   }
 
   // -------------------------------------------------------------------------
@@ -620,6 +626,11 @@ public class DefaultEventAnalyticsService extends AbstractAnalyticsService
     return getGrid(params);
   }
 
+  @Override
+  public Grid getEvents(EventQueryParams params, Grid grid) {
+    return getGrid(params, grid);
+  }
+
   @Override
   public Grid getEventClusters(EventQueryParams params) {
     if (!spatialSupport) {
@@ -661,7 +672,11 @@ public class DefaultEventAnalyticsService extends AbstractAnalyticsService
 
     params = queryPlanner.planEventQuery(params);
 
-    eventAnalyticsManager.getEventClusters(params, grid, queryValidator.getMaxLimit());
+    if (eventClusterTableService.supportsClusters(params)) {
+      eventClusterTableService.getEventClusters(params, grid);
+    } else {
+      eventAnalyticsManager.getEventClusters(params, grid, queryValidator.getMaxLimit());
+    }
 
     return grid;
   }
@@ -684,18 +699,19 @@ public class DefaultEventAnalyticsService extends AbstractAnalyticsService
 
     params = queryPlanner.planEventQuery(params);
 
-    return eventAnalyticsManager.getRectangle(params);
+    return eventClusterTableService.supports(params)
+        ? eventClusterTableService.getRectangle(params)
+        : eventAnalyticsManager.getRectangle(params);
   }
 
   /**
-   * Creates a grid with headers.
+   * Adds the headers to the given grid.
    *
    * @param params the {@link EventQueryParams}.
+   * @param grid the {@link Grid}.
    */
   @Override
-  protected Grid createGridWithHeaders(EventQueryParams params) {
-    Grid grid = new ListGrid();
-
+  protected Grid addGridHeaders(EventQueryParams params, Grid grid) {
     grid.addHeader(
             new GridHeader(
                 EVENT.getItem(),
@@ -180,6 +180,7 @@ public class DefaultEventDataQueryService implements EventDataQueryService {
         params
             .withValue(getValueDimension(request.getValue()))
             .withSkipRounding(request.isSkipRounding())
+            .withApproximate(request.isApproximate())
             .withShowHierarchy(request.isShowHierarchy())
             .withSortOrder(request.getSortOrder())
             .withLimit(request.getLimit())
@@ -209,6 +210,9 @@ public class DefaultEventDataQueryService implements EventDataQueryService {
             .withPageSize(request.getPageSize())
             .withPaging(request.isPaging())
             .withTotalPages(request.isTotalPages())
+            .withKeysetPaging(request.isKeysetPaging())
+            .withCursor(request.getCursor())
+            .withEstimateTotal(request.isEstimateTotal())
             .withProgramStatuses(request.getProgramStatus())
             .withApiVersion(request.getApiVersion())
             .withLocale(locale)
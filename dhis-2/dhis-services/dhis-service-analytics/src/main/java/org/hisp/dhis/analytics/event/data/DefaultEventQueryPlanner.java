@@ -44,6 +44,7 @@ import org.hisp.dhis.analytics.data.QueryPlannerUtils;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.event.EventQueryPlanner;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.table.AnalyticsColumnUsageService;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
 import org.hisp.dhis.analytics.table.model.Partitions;
 import org.hisp.dhis.analytics.table.util.PartitionUtils;
@@ -64,6 +65,8 @@ public class DefaultEventQueryPlanner implements EventQueryPlanner {
 
   private final PartitionManager partitionManager;
 
+  private final AnalyticsColumnUsageService columnUsageService;
+
   // -------------------------------------------------------------------------
   // EventQueryPlanner implementation
   // -------------------------------------------------------------------------
@@ -97,10 +100,11 @@ public class DefaultEventQueryPlanner implements EventQueryPlanner {
 
   @Override
   public EventQueryParams planEnrollmentQuery(EventQueryParams params) {
-    return new EventQueryParams.Builder(params)
-        .withTableName(
-            AnalyticsTable.getTableName(AnalyticsTableType.ENROLLMENT, params.getProgram()))
-        .build();
+    return withColumnUsage(
+        new EventQueryParams.Builder(params)
+            .withTableName(
+                AnalyticsTable.getTableName(AnalyticsTableType.ENROLLMENT, params.getProgram()))
+            .build());
   }
 
   // -------------------------------------------------------------------------
@@ -130,10 +134,29 @@ public class DefaultEventQueryPlanner implements EventQueryPlanner {
       partitionManager.filterNonExistingPartitions(partitions, tableName);
     }
 
-    return new EventQueryParams.Builder(params)
-        .withTableName(tableName)
-        .withPartitions(partitions)
-        .build();
+    return withColumnUsage(
+        new EventQueryParams.Builder(params)
+            .withTableName(tableName)
+            .withPartitions(partitions)
+            .build());
+  }
+
+  /**
+   * Records the usage of the columns of the analytics table of the given query, i.e. of the query
+   * items and the dimensions which are used as dimensions or filters.
+   *
+   * @param params the event query parameters.
+   * @return the given {@link EventQueryParams}.
+   */
+  private EventQueryParams withColumnUsage(EventQueryParams params) {
+    List<String> columns = new ArrayList<>();
+
+    params.getItemsAndItemFilters().forEach(item -> columns.add(item.getItem().getUid()));
+    params.getDimensionsAndFilters().forEach(dim -> columns.add(dim.getDimensionName()));
+
+    columnUsageService.recordUsage(params.getTableName(), columns);
+
+    return params;
   }
 
   /**
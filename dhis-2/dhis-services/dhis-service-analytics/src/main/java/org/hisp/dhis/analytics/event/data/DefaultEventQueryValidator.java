@@ -42,6 +42,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.event.EventQueryValidator;
+import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
@@ -133,6 +134,12 @@ public class DefaultEventQueryValidator implements EventQueryValidator {
     if ((params.hasBbox() || params.hasClusterSize()) && params.getCoordinateFields() == null) {
       return new ErrorMessage(ErrorCode.E7214);
     }
+    if (params.isKeysetPaging() && params.isSorting()) {
+      return new ErrorMessage(ErrorCode.E7239);
+    }
+    if (params.hasCursor() && !CodeGenerator.isValidUid(params.getCursor())) {
+      return new ErrorMessage(ErrorCode.E7240, params.getCursor());
+    }
 
     for (QueryItem item : params.getItemsAndItemFilters()) {
       if (item.hasLegendSet() && item.hasOptionSet()) {
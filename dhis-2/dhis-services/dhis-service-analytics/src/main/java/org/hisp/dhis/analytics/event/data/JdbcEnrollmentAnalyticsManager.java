@@ -48,10 +48,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
+import org.hisp.dhis.analytics.common.TableInfoReader;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.category.CategoryOption;
@@ -125,14 +127,16 @@ public class JdbcEnrollmentAnalyticsManager extends AbstractJdbcEventAnalyticsMa
       EnrollmentTimeFieldSqlRenderer timeFieldSqlRenderer,
       ExecutionPlanStore executionPlanStore,
       SqlBuilder sqlBuilder,
-      OrganisationUnitResolver organisationUnitResolver) {
+      OrganisationUnitResolver organisationUnitResolver,
+      TableInfoReader tableInfoReader) {
     super(
         jdbcTemplate,
         programIndicatorService,
         programIndicatorSubqueryBuilder,
         executionPlanStore,
         sqlBuilder,
-        organisationUnitResolver);
+        organisationUnitResolver,
+        tableInfoReader);
     this.timeFieldSqlRenderer = timeFieldSqlRenderer;
   }
 
@@ -163,8 +167,12 @@ public class JdbcEnrollmentAnalyticsManager extends AbstractJdbcEventAnalyticsMa
       EventQueryParams params, Grid grid, String sql, boolean unlimitedPaging) {
     log.debug("Analytics enrollment query SQL: '{}'", sql);
 
+    long start = System.currentTimeMillis();
+
     SqlRowSet rowSet = jdbcTemplate.queryForRowSet(sql);
 
+    executionPlanStore.addSlowQueryPlan(sql, System.currentTimeMillis() - start);
+
     int rowsRed = 0;
 
     grid.setLastDataRow(true);
@@ -282,6 +290,14 @@ public class JdbcEnrollmentAnalyticsManager extends AbstractJdbcEventAnalyticsMa
 
   @Override
   public long getEnrollmentCount(EventQueryParams params) {
+    if (isEstimatedCount(params)) {
+      OptionalLong estimatedCount = getEstimatedCount(params);
+
+      if (estimatedCount.isPresent()) {
+        return estimatedCount.getAsLong();
+      }
+    }
+
     String sql = "select count(pi) ";
 
     sql += getFromClause(params);
@@ -49,11 +49,16 @@ import static org.postgresql.util.PSQLState.DIVISION_BY_ZERO;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -64,8 +69,10 @@ import org.hisp.dhis.analytics.Rectangle;
 import org.hisp.dhis.analytics.TimeField;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
 import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
+import org.hisp.dhis.analytics.common.TableInfoReader;
 import org.hisp.dhis.analytics.event.EventAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.analytics.util.SampleUtils;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
@@ -84,11 +91,15 @@ import org.hisp.dhis.db.sql.SqlBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.ProgramIndicatorService;
+import org.hisp.dhis.system.grid.StreamingGrid;
 import org.postgresql.util.PSQLException;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.InvalidResultSetAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
@@ -105,6 +116,9 @@ public class JdbcEventAnalyticsManager extends AbstractJdbcEventAnalyticsManager
     implements EventAnalyticsManager {
   protected static final String OPEN_IN = " in (";
 
+  /** Number of rows to fetch from the database at a time when streaming events. */
+  private static final int STREAMING_FETCH_SIZE = 5000;
+
   private final EventTimeFieldSqlRenderer timeFieldSqlRenderer;
 
   public JdbcEventAnalyticsManager(
@@ -114,14 +128,16 @@ public class JdbcEventAnalyticsManager extends AbstractJdbcEventAnalyticsManager
       EventTimeFieldSqlRenderer timeFieldSqlRenderer,
       ExecutionPlanStore executionPlanStore,
       SqlBuilder sqlBuilder,
-      OrganisationUnitResolver organisationUnitResolver) {
+      OrganisationUnitResolver organisationUnitResolver,
+      TableInfoReader tableInfoReader) {
     super(
         jdbcTemplate,
         programIndicatorService,
         programIndicatorSubqueryBuilder,
         executionPlanStore,
         sqlBuilder,
-        organisationUnitResolver);
+        organisationUnitResolver,
+        tableInfoReader);
     this.timeFieldSqlRenderer = timeFieldSqlRenderer;
   }
 
@@ -150,8 +166,23 @@ public class JdbcEventAnalyticsManager extends AbstractJdbcEventAnalyticsManager
   private void getEvents(EventQueryParams params, Grid grid, String sql, boolean unlimitedPaging) {
     log.debug("Analytics event query SQL: '{}'", sql);
 
-    SqlRowSet rowSet = queryForRows(sql);
+    if (grid instanceof StreamingGrid) {
+      queryForStreamedRows(sql, rowSet -> addEvents(params, grid, rowSet, unlimitedPaging));
+    } else {
+      addEvents(params, grid, queryForRows(sql), unlimitedPaging);
+    }
+  }
 
+  /**
+   * Adds the events of the given row set to the given grid.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @param grid the {@link Grid}.
+   * @param rowSet the {@link SqlRowSet}.
+   * @param unlimitedPaging the analytics unlimited paging setting.
+   */
+  private void addEvents(
+      EventQueryParams params, Grid grid, SqlRowSet rowSet, boolean unlimitedPaging) {
     int rowsRed = 0;
 
     grid.setLastDataRow(true);
@@ -235,6 +266,14 @@ public class JdbcEventAnalyticsManager extends AbstractJdbcEventAnalyticsManager
 
   @Override
   public long getEventCount(EventQueryParams params) {
+    if (isEstimatedCount(params)) {
+      OptionalLong estimatedCount = getEstimatedCount(params);
+
+      if (estimatedCount.isPresent()) {
+        return estimatedCount.getAsLong();
+      }
+    }
+
     String sql = "select count(1) ";
 
     sql += getFromClause(params);
@@ -294,14 +333,76 @@ public class JdbcEventAnalyticsManager extends AbstractJdbcEventAnalyticsManager
     return rectangle;
   }
 
+  /**
+   * Executes the given SQL query and passes the result to the given consumer as a row set which
+   * fetches rows from the database in batches as it is iterated, instead of loading the full result
+   * into memory. The PostgreSQL driver only uses a cursor when auto-commit is disabled and a fetch
+   * size is set.
+   *
+   * <p>The first batch is fetched before the consumer is invoked, so that most errors are raised
+   * before anything is written to the response. Errors raised while iterating are translated the
+   * same way as for {@link #queryForRows(String)}, though the response may then be incomplete.
+   *
+   * @param sql the SQL query.
+   * @param consumer the consumer of the {@link SqlRowSet}.
+   */
+  private void queryForStreamedRows(String sql, Consumer<SqlRowSet> consumer) {
+    withQueryExceptionHandling(
+        sql,
+        () ->
+            jdbcTemplate.execute(
+                (ConnectionCallback<Void>)
+                    connection -> {
+                      boolean autoCommit = connection.getAutoCommit();
+                      connection.setAutoCommit(false);
+
+                      try (Statement statement = connection.createStatement()) {
+                        statement.setFetchSize(STREAMING_FETCH_SIZE);
+
+                        try (ResultSet resultSet = statement.executeQuery(sql)) {
+                          consumer.accept(new ResultSetWrappingSqlRowSet(resultSet));
+                        } catch (InvalidResultSetAccessException ex) {
+                          // rethrown for translation by the template
+                          throw ex.getSQLException();
+                        }
+                      } finally {
+                        if (autoCommit) {
+                          connection.rollback();
+                          connection.setAutoCommit(true);
+                        }
+                      }
+
+                      return null;
+                    }));
+  }
+
   private SqlRowSet queryForRows(String sql) {
+    return withQueryExceptionHandling(sql, () -> jdbcTemplate.queryForRowSet(sql));
+  }
+
+  /**
+   * Executes the given query, reports its execution time for slow query logging and translates
+   * database errors to {@link QueryRuntimeException}.
+   *
+   * @param sql the SQL query.
+   * @param query the execution of the SQL query.
+   * @return the result of the query.
+   */
+  private <T> T withQueryExceptionHandling(String sql, Supplier<T> query) {
     try {
-      return jdbcTemplate.queryForRowSet(sql);
+      long start = System.currentTimeMillis();
+
+      T result = query.get();
+
+      executionPlanStore.addSlowQueryPlan(sql, System.currentTimeMillis() - start);
+
+      return result;
     } catch (DataAccessResourceFailureException ex) {
       log.warn(E7131.getMessage(), ex);
       throw new QueryRuntimeException(E7131);
     } catch (DataIntegrityViolationException ex) {
-      return ExceptionHandler.handle(ex);
+      ExceptionHandler.handle(ex);
+      return null;
     }
   }
 
@@ -352,6 +453,25 @@ public class JdbcEventAnalyticsManager extends AbstractJdbcEventAnalyticsManager
     return "select " + StringUtils.join(selectCols, ",") + " ";
   }
 
+  /**
+   * Returns the aggregate clause, scaled up from the sample to the full table for sampled sums and
+   * counts.
+   *
+   * @param params the {@link EventQueryParams}.
+   */
+  @Override
+  protected String getAggregateClause(EventQueryParams params) {
+    String aggregateClause = super.getAggregateClause(params);
+
+    if (params.isSampledCount()
+        || (params.isSampledAggregation()
+            && !params.getAggregationTypeFallback().isAggregationType(AggregationType.AVERAGE))) {
+      return SampleUtils.scale(aggregateClause);
+    }
+
+    return aggregateClause;
+  }
+
   /**
    * Returns a from SQL clause for the given analytics table partition. If the query has a
    * non-default time field specified, a join with the {@code date period structure} resource table
@@ -371,6 +491,10 @@ public class JdbcEventAnalyticsManager extends AbstractJdbcEventAnalyticsManager
 
     sql += " as " + ANALYTICS_TBL_ALIAS + " ";
 
+    if (params.isSampledAggregation()) {
+      sql += SampleUtils.getTableSampleClause() + " ";
+    }
+
     if (params.hasTimeField()) {
       String joinCol = quoteAlias(params.getTimeFieldAsField());
       sql +=
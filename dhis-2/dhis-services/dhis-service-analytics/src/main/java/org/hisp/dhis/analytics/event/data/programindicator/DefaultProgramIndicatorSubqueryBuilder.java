@@ -40,6 +40,7 @@ import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.ProgramIndicator;
@@ -57,8 +58,12 @@ public class DefaultProgramIndicatorSubqueryBuilder implements ProgramIndicatorS
 
   private static final String SUBQUERY_TABLE_ALIAS = "subax";
 
+  private static final String MATERIALIZED_TABLE_ALIAS = "ax";
+
   private final ProgramIndicatorService programIndicatorService;
 
+  private final AnalyticsTableSettings analyticsTableSettings;
+
   @Override
   public String getAggregateClauseForProgramIndicator(
       ProgramIndicator pi, AnalyticsType outerSqlEntity, Date earliestStartDate, Date latestDate) {
@@ -77,6 +82,63 @@ public class DefaultProgramIndicatorSubqueryBuilder implements ProgramIndicatorS
         programIndicator, relationshipType, outerSqlEntity, earliestStartDate, latestDate);
   }
 
+  @Override
+  public boolean isMaterialized(ProgramIndicator programIndicator) {
+    boolean reportingPeriodIndependent =
+        !programIndicator.hasAnalyticsVariables()
+            && (AnalyticsType.EVENT == programIndicator.getAnalyticsType()
+                || !programIndicator.hasEventBoundary());
+
+    return analyticsTableSettings
+            .getMaterializedProgramIndicators()
+            .contains(programIndicator.getUid())
+        && reportingPeriodIndependent
+        && AggregationType.CUSTOM != programIndicator.getAggregationTypeFallback();
+  }
+
+  /**
+   * Generates an expression which applies the aggregation function of the program indicator to the
+   * single value of the current row, which yields the same value as the sub-query correlated on the
+   * same event or enrollment without scanning the analytics table again.
+   *
+   * @param programIndicator the {@link ProgramIndicator}.
+   * @return a program indicator value expression.
+   */
+  @Override
+  public String getMaterializedClauseForProgramIndicator(ProgramIndicator programIndicator) {
+    String function = programIndicator.getAggregationTypeFallback().getValue();
+
+    String value =
+        programIndicatorService.getAnalyticsSql(
+            programIndicator.getExpression(),
+            NUMERIC,
+            programIndicator,
+            null,
+            null,
+            MATERIALIZED_TABLE_ALIAS);
+
+    String filter =
+        !Strings.isNullOrEmpty(programIndicator.getFilter())
+            ? " where ("
+                + programIndicatorService.getAnalyticsSql(
+                    programIndicator.getFilter(),
+                    BOOLEAN,
+                    programIndicator,
+                    null,
+                    null,
+                    MATERIALIZED_TABLE_ALIAS)
+                + ")"
+            : "";
+
+    return "(select "
+        + function
+        + "(value) from (select "
+        + value
+        + " as value"
+        + filter
+        + ") as mpi)";
+  }
+
   /**
    * Generate a subquery based on the result of a Program Indicator and an (optional) Relationship
    * Type
@@ -30,6 +30,7 @@ package org.hisp.dhis.analytics.orgunit;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -67,16 +68,13 @@ public class OrgUnitHelper {
     if (orgUnitIndex >= 0) {
       final int i = orgUnitIndex;
 
-      List<String> orgUidList =
-          grid.getRows().stream()
-              .map(r -> String.valueOf(r.get(i)))
-              .distinct()
-              .collect(Collectors.toList());
+      Set<String> orgUids =
+          grid.getRows().stream().map(r -> String.valueOf(r.get(i))).collect(Collectors.toSet());
 
       List<OrganisationUnit> activated =
           organisationUnits.stream()
               .distinct()
-              .filter(org -> orgUidList.stream().anyMatch(uid -> org.getUid().equals(uid)))
+              .filter(org -> orgUids.contains(org.getUid()))
               .collect(Collectors.toList());
 
       return activated.isEmpty() ? organisationUnits : activated;
@@ -0,0 +1,451 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.orgunit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+
+/**
+ * Immutable snapshot of the organisation unit hierarchy. Organisation units are held in arrays
+ * sorted by UID, so that they can be located through binary search, and refer to their parent by
+ * array index. Resolving ancestor paths and names is hence done in memory, without loading ancestor
+ * entities.
+ *
+ * <p>The map methods accept organisation unit entities and fall back to the entity for units which
+ * are not part of the snapshot, e.g. units created after the snapshot was taken.
+ */
+public final class OrgUnitHierarchy {
+  public static final OrgUnitHierarchy EMPTY = new Builder().build();
+
+  private static final String PATH_SEP = "/";
+
+  private static final int NONE = -1;
+
+  /** Organisation unit UIDs, sorted. */
+  private final String[] uids;
+
+  /** Index of the parent organisation unit, or {@link #NONE} for roots. */
+  private final int[] parents;
+
+  /** Hierarchy level, starting at 1 for roots. */
+  private final int[] levels;
+
+  /** Organisation unit names. */
+  private final String[] names;
+
+  /** Translated names by locale, with null elements where no translation exists. */
+  private final Map<String, String[]> localeNames;
+
+  private OrgUnitHierarchy(
+      String[] uids,
+      int[] parents,
+      int[] levels,
+      String[] names,
+      Map<String, String[]> localeNames) {
+    this.uids = uids;
+    this.parents = parents;
+    this.levels = levels;
+    this.names = names;
+    this.localeNames = localeNames;
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  // -------------------------------------------------------------------------
+  // Lookup methods
+  // -------------------------------------------------------------------------
+
+  /** Returns the number of organisation units in this hierarchy. */
+  public int size() {
+    return uids.length;
+  }
+
+  /**
+   * Indicates whether the organisation unit with the given UID is part of this hierarchy.
+   *
+   * @param uid the organisation unit UID.
+   */
+  public boolean contains(String uid) {
+    return indexOf(uid) != NONE;
+  }
+
+  /**
+   * Returns the hierarchy level of the organisation unit with the given UID, or -1 if not present.
+   *
+   * @param uid the organisation unit UID.
+   */
+  public int getLevel(String uid) {
+    int index = indexOf(uid);
+    return index != NONE ? levels[index] : NONE;
+  }
+
+  /**
+   * Returns the UID of the parent of the organisation unit with the given UID, or null if not
+   * present or a root.
+   *
+   * @param uid the organisation unit UID.
+   */
+  public String getParentUid(String uid) {
+    int index = indexOf(uid);
+    return index != NONE && parents[index] != NONE ? uids[parents[index]] : null;
+  }
+
+  /**
+   * Returns the UIDs of the ancestors up to any of the given roots of the organisation unit with
+   * the given UID, delimited by "/" and ordered by root first. Matches {@link
+   * OrganisationUnit#getParentGraph(Collection)}.
+   *
+   * @param uid the organisation unit UID.
+   * @param rootUids the UIDs of the root organisation units, if null using real roots.
+   * @return the parent graph, or null if the organisation unit is not present.
+   */
+  public String getParentGraph(String uid, Set<String> rootUids) {
+    int index = indexOf(uid);
+
+    if (index == NONE) {
+      return null;
+    }
+
+    List<String> ancestors = new ArrayList<>();
+
+    for (int i : getAncestorIndexes(index, rootUids)) {
+      ancestors.add(uids[i]);
+    }
+
+    return StringUtils.join(ancestors, PATH_SEP);
+  }
+
+  /**
+   * Returns the names of the ancestors up to any of the given roots of the organisation unit with
+   * the given UID, delimited by "/" and ordered by root first. Matches {@link
+   * OrganisationUnit#getParentNameGraph(Collection, boolean)}.
+   *
+   * @param uid the organisation unit UID.
+   * @param rootUids the UIDs of the root organisation units, if null using real roots.
+   * @param includeThis whether to include the organisation unit itself.
+   * @return the name parent graph, or null if the organisation unit is not present.
+   */
+  public String getParentNameGraph(String uid, Set<String> rootUids, boolean includeThis) {
+    int index = indexOf(uid);
+
+    if (index == NONE) {
+      return null;
+    }
+
+    StringBuilder builder = new StringBuilder();
+
+    builder.append(
+        Arrays.stream(getAncestorIndexes(index, rootUids))
+            .mapToObj(i -> names[i])
+            .collect(Collectors.joining(PATH_SEP)));
+
+    if (includeThis) {
+      builder.append(PATH_SEP).append(names[index]);
+    }
+
+    return PATH_SEP + builder;
+  }
+
+  /**
+   * Returns the display names of the ancestors up to any of the given roots of the organisation
+   * unit with the given UID, ordered by root first. Matches {@link
+   * OrganisationUnit#getAncestorNames(Collection, boolean)}.
+   *
+   * @param uid the organisation unit UID.
+   * @param rootUids the UIDs of the root organisation units, if null using real roots.
+   * @param includeThis whether to include the organisation unit itself.
+   * @param locale the {@link Locale} of the display names, can be null.
+   * @return the ancestor names, or an empty list if the organisation unit is not present.
+   */
+  public List<String> getAncestorNames(
+      String uid, Set<String> rootUids, boolean includeThis, Locale locale) {
+    int index = indexOf(uid);
+
+    if (index == NONE) {
+      return List.of();
+    }
+    String[] displayNames = locale != null ? localeNames.get(locale.toString()) : null;
+
+    List<String> ancestorNames = new ArrayList<>();
+
+    for (int i : getAncestorIndexes(index, rootUids)) {
+      ancestorNames.add(getDisplayName(i, displayNames));
+    }
+
+    if (includeThis) {
+      ancestorNames.add(getDisplayName(index, displayNames));
+    }
+
+    return ancestorNames;
+  }
+
+  // -------------------------------------------------------------------------
+  // Map methods
+  // -------------------------------------------------------------------------
+
+  /**
+   * Returns a mapping between the UID and the UID parent graph of the given organisation units.
+   *
+   * @param organisationUnits the list of {@link OrganisationUnit}.
+   * @param roots the root organisation units, if null using real roots.
+   */
+  public Map<String, String> getParentGraphMap(
+      List<OrganisationUnit> organisationUnits, Collection<OrganisationUnit> roots) {
+    Map<String, String> map = new HashMap<>();
+    Set<String> rootUids = getRootUids(roots);
+
+    if (organisationUnits != null) {
+      for (OrganisationUnit unit : organisationUnits) {
+        map.put(
+            unit.getUid(),
+            contains(unit.getUid())
+                ? getParentGraph(unit.getUid(), rootUids)
+                : unit.getParentGraph(roots));
+      }
+    }
+
+    return map;
+  }
+
+  /**
+   * Returns a mapping between the UID and the name parent graph of the given organisation units.
+   *
+   * @param organisationUnits the list of {@link OrganisationUnit}.
+   * @param roots the root organisation units, if null using real roots.
+   * @param includeThis whether to include the organisation unit itself.
+   */
+  public Map<String, String> getParentNameGraphMap(
+      List<OrganisationUnit> organisationUnits,
+      Collection<OrganisationUnit> roots,
+      boolean includeThis) {
+    Map<String, String> map = new HashMap<>();
+    Set<String> rootUids = getRootUids(roots);
+
+    if (organisationUnits != null) {
+      for (OrganisationUnit unit : organisationUnits) {
+        map.put(
+            unit.getUid(),
+            contains(unit.getUid())
+                ? getParentNameGraph(unit.getUid(), rootUids, includeThis)
+                : unit.getParentNameGraph(roots, includeThis));
+      }
+    }
+
+    return map;
+  }
+
+  /**
+   * Returns a mapping between the UID and the ancestor display names of the given organisation
+   * units.
+   *
+   * @param organisationUnits the list of {@link OrganisationUnit}.
+   * @param roots the root organisation units, if null using real roots.
+   * @param includeThis whether to include the organisation unit itself.
+   * @param locale the {@link Locale} of the display names, can be null.
+   */
+  public Map<Object, List<?>> getAncestorNamesMap(
+      List<OrganisationUnit> organisationUnits,
+      Collection<OrganisationUnit> roots,
+      boolean includeThis,
+      Locale locale) {
+    Map<Object, List<?>> map = new HashMap<>();
+    Set<String> rootUids = getRootUids(roots);
+
+    if (organisationUnits != null) {
+      for (OrganisationUnit unit : organisationUnits) {
+        map.put(
+            unit.getUid(),
+            contains(unit.getUid())
+                ? getAncestorNames(unit.getUid(), rootUids, includeThis, locale)
+                : unit.getAncestorNames(roots, includeThis));
+      }
+    }
+
+    return map;
+  }
+
+  // -------------------------------------------------------------------------
+  // Supportive methods
+  // -------------------------------------------------------------------------
+
+  /**
+   * Returns the index of the organisation unit with the given UID, or {@link #NONE} if not present.
+   */
+  private int indexOf(String uid) {
+    if (uid == null) {
+      return NONE;
+    }
+
+    int index = Arrays.binarySearch(uids, uid);
+    return index >= 0 ? index : NONE;
+  }
+
+  /**
+   * Returns the indexes of the ancestors up to and including the first of the given roots, ordered
+   * by root first. The walk is bounded by the hierarchy size to guard against circular parent
+   * relationships.
+   */
+  private int[] getAncestorIndexes(int index, Set<String> rootUids) {
+    int[] ancestors = new int[Math.max(levels[index] - 1, 0)];
+    int count = 0;
+    int parent = parents[index];
+
+    while (parent != NONE && count < uids.length) {
+      if (count == ancestors.length) {
+        ancestors = Arrays.copyOf(ancestors, count + 1);
+      }
+
+      ancestors[count++] = parent;
+
+      if (rootUids != null && rootUids.contains(uids[parent])) {
+        break;
+      }
+
+      parent = parents[parent];
+    }
+
+    int[] result = new int[count];
+
+    for (int i = 0; i < count; i++) {
+      result[i] = ancestors[count - 1 - i];
+    }
+
+    return result;
+  }
+
+  private String getDisplayName(int index, String[] displayNames) {
+    String displayName = displayNames != null ? displayNames[index] : null;
+    return displayName != null ? displayName : names[index];
+  }
+
+  private static Set<String> getRootUids(Collection<OrganisationUnit> roots) {
+    return roots != null
+        ? roots.stream()
+            .filter(Objects::nonNull)
+            .map(OrganisationUnit::getUid)
+            .collect(Collectors.toSet())
+        : null;
+  }
+
+  // -------------------------------------------------------------------------
+  // Builder
+  // -------------------------------------------------------------------------
+
+  /** Builder of {@link OrgUnitHierarchy}, not thread-safe. */
+  public static final class Builder {
+    private final List<Unit> units = new ArrayList<>();
+
+    private final List<Translation> translations = new ArrayList<>();
+
+    private Builder() {}
+
+    /**
+     * Adds an organisation unit.
+     *
+     * @param uid the organisation unit UID.
+     * @param parentUid the parent organisation unit UID, null for roots.
+     * @param level the hierarchy level.
+     * @param name the organisation unit name.
+     */
+    public Builder addOrgUnit(String uid, String parentUid, int level, String name) {
+      units.add(new Unit(uid, parentUid, level, name));
+      return this;
+    }
+
+    /**
+     * Adds a translation of the name of an organisation unit.
+     *
+     * @param uid the organisation unit UID.
+     * @param locale the locale.
+     * @param name the translated name.
+     */
+    public Builder addNameTranslation(String uid, String locale, String name) {
+      if (locale != null && StringUtils.isNotEmpty(name)) {
+        translations.add(new Translation(uid, locale, name));
+      }
+
+      return this;
+    }
+
+    public OrgUnitHierarchy build() {
+      List<Unit> sorted = new ArrayList<>(units);
+      sorted.sort(Comparator.comparing(Unit::uid));
+
+      int size = sorted.size();
+      String[] uids = new String[size];
+      int[] parents = new int[size];
+      int[] levels = new int[size];
+      String[] names = new String[size];
+
+      for (int i = 0; i < size; i++) {
+        Unit unit = sorted.get(i);
+        uids[i] = unit.uid();
+        levels[i] = unit.level();
+        names[i] = unit.name();
+      }
+
+      for (int i = 0; i < size; i++) {
+        String parentUid = sorted.get(i).parentUid();
+        int parent = parentUid != null ? Arrays.binarySearch(uids, parentUid) : NONE;
+        parents[i] = parent >= 0 ? parent : NONE;
+      }
+
+      Map<String, String[]> localeNames = new HashMap<>();
+
+      for (Translation translation : translations) {
+        int index = Arrays.binarySearch(uids, translation.uid());
+
+        if (index >= 0) {
+          localeNames.computeIfAbsent(translation.locale(), locale -> new String[size])[index] =
+              translation.name();
+        }
+      }
+
+      return new OrgUnitHierarchy(
+          uids, parents, levels, names, Collections.unmodifiableMap(localeNames));
+    }
+  }
+
+  private record Unit(String uid, String parentUid, int level, String name) {}
+
+  private record Translation(String uid, String locale, String name) {}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.orgunit;
+
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.commons.timer.SystemTimer;
+import org.hisp.dhis.commons.timer.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service which holds an in-memory {@link OrgUnitHierarchy} snapshot for generating organisation
+ * unit hierarchy metadata of analytics responses. The snapshot is loaded lazily and replaced when
+ * the organisation unit table has changed, which is checked at most once per {@link
+ * #VERSION_CHECK_INTERVAL_MILLIS}, and when application caches are cleared.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrgUnitHierarchyService {
+  static final long VERSION_CHECK_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private static final String VERSION_SQL =
+      "select count(*) || ':' || coalesce(max(lastupdated)::text, '') from organisationunit";
+
+  private static final String ORG_UNIT_SQL =
+      """
+      select ou.uid, pa.uid as parentuid, ou.hierarchylevel, ou.name \
+      from organisationunit ou \
+      left join organisationunit pa on ou.parentid = pa.organisationunitid""";
+
+  private static final String TRANSLATION_SQL =
+      """
+      select ou.uid, tr.value ->> 'locale' as locale, tr.value ->> 'value' as value \
+      from organisationunit ou \
+      cross join jsonb_array_elements(ou.translations) tr \
+      where tr.value ->> 'property' = 'NAME'""";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private volatile OrgUnitHierarchy hierarchy;
+
+  private volatile String version;
+
+  private volatile long lastVersionCheck;
+
+  /**
+   * Returns the current {@link OrgUnitHierarchy} snapshot. Returns {@link OrgUnitHierarchy#EMPTY}
+   * if the snapshot could not be loaded, in which case callers fall back to organisation unit
+   * entities.
+   */
+  public OrgUnitHierarchy getHierarchy() {
+    if (hierarchy == null
+        || System.currentTimeMillis() - lastVersionCheck >= VERSION_CHECK_INTERVAL_MILLIS) {
+      refreshIfChanged();
+    }
+
+    return hierarchy;
+  }
+
+  @EventListener
+  public void handleApplicationCachesCleared(ApplicationCacheClearedEvent event) {
+    version = null;
+    lastVersionCheck = 0;
+  }
+
+  // -------------------------------------------------------------------------
+  // Supportive methods
+  // -------------------------------------------------------------------------
+
+  /**
+   * Replaces the snapshot if the organisation unit table has changed since it was loaded. The
+   * version is based on the row count and last updated timestamp of the organisation unit table.
+   */
+  private synchronized void refreshIfChanged() {
+    long now = System.currentTimeMillis();
+
+    if (hierarchy != null && now - lastVersionCheck < VERSION_CHECK_INTERVAL_MILLIS) {
+      return;
+    }
+
+    lastVersionCheck = now;
+
+    try {
+      String currentVersion = jdbcTemplate.queryForObject(VERSION_SQL, String.class);
+
+      if (hierarchy == null || version == null || !version.equals(currentVersion)) {
+        hierarchy = loadHierarchy();
+        version = currentVersion;
+      }
+    } catch (DataAccessException ex) {
+      log.warn("Failed to load organisation unit hierarchy: '{}'", ex.getMessage());
+
+      if (hierarchy == null) {
+        hierarchy = OrgUnitHierarchy.EMPTY;
+      }
+    }
+  }
+
+  private OrgUnitHierarchy loadHierarchy() {
+    Timer timer = new SystemTimer().start();
+
+    OrgUnitHierarchy.Builder builder = OrgUnitHierarchy.newBuilder();
+
+    jdbcTemplate.query(
+        ORG_UNIT_SQL,
+        rs -> {
+          builder.addOrgUnit(
+              rs.getString("uid"),
+              rs.getString("parentuid"),
+              rs.getInt("hierarchylevel"),
+              rs.getString("name"));
+        });
+
+    jdbcTemplate.query(
+        TRANSLATION_SQL,
+        rs -> {
+          builder.addNameTranslation(
+              rs.getString("uid"), rs.getString("locale"), rs.getString("value"));
+        });
+
+    OrgUnitHierarchy result = builder.build();
+
+    log.info("Loaded organisation unit hierarchy with {} units in {}", result.size(), timer.stop());
+
+    return result;
+  }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.outlier.service;
+
+import static org.hisp.dhis.analytics.table.model.AnalyticsTablePartition.LATEST_PARTITION;
+import static org.hisp.dhis.analytics.table.util.PartitionUtils.getPartitionName;
+import static org.hisp.dhis.commons.util.TextUtils.replace;
+import static org.hisp.dhis.db.model.DataType.DOUBLE;
+import static org.hisp.dhis.db.model.DataType.INTEGER;
+import static org.hisp.dhis.db.model.DataType.TIMESTAMP;
+import static org.hisp.dhis.db.model.constraint.Nullable.NOT_NULL;
+import static org.hisp.dhis.util.DateUtils.toLongDate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service which maintains the outlier statistics table. The table holds the mean, standard
+ * deviation, median and median absolute deviation (MAD) of the numeric data values for each
+ * combination of data element, organisation unit, category option combo and attribute option combo,
+ * and is the source of the outlier statistics columns of the analytics tables.
+ *
+ * <p>The table is generated in full for full analytics table updates. For latest partition and
+ * incremental analytics table updates, the statistics are recomputed only for the combinations with
+ * data values created, updated or deleted since the previous statistics update, after which the
+ * statistics columns of the existing analytics tables are refreshed for those combinations. This
+ * keeps the statistics of all partitions consistent after partial updates.
+ *
+ * <p>The statistics of a combination span all years, so a changed combination affects its rows in
+ * every yearly partition. The refresh is limited to the partitions of the years with data values of
+ * changed combinations, and to the rows of which the statistics differ, rather than updating the
+ * parent analytics table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutlierStatsTableService {
+  public static final String TABLE_NAME = "analytics_outlier_stats";
+
+  private static final String COL_LAST_UPDATED = "lastupdated";
+
+  private static final List<String> KEY_COLUMNS =
+      List.of("dataelementid", "sourceid", "categoryoptioncomboid", "attributeoptioncomboid");
+
+  private static final List<String> STATS_COLUMNS =
+      List.of("mad", "avg_middle_value", "percentile_middle_value", "std_dev");
+
+  /** Numeric data values only can be used for statistics calculation. */
+  private static final String NUMERIC_REGEX = "^[-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?$";
+
+  private final AnalyticsTableSettings settings;
+
+  private final SqlBuilder sqlBuilder;
+
+  @Qualifier("analyticsJdbcTemplate")
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Updates the outlier statistics table. The table is generated in full if it does not exist or if
+   * a full update is requested, otherwise the statistics are updated incrementally.
+   *
+   * @param startTime the start time of the analytics table update.
+   * @param fullUpdate whether to generate the table in full.
+   */
+  public void updateOutlierStats(Date startTime, boolean fullUpdate) {
+    if (fullUpdate || !tableExists()) {
+      generateOutlierStatsTable(startTime);
+    } else {
+      updateOutlierStatsIncrementally(startTime);
+    }
+  }
+
+  /**
+   * Generates the outlier statistics table in full, using a staging table which is swapped with the
+   * existing table when populated.
+   *
+   * @param startTime the start time of the analytics table update.
+   */
+  void generateOutlierStatsTable(Date startTime) {
+    Table table = getStagingTable();
+
+    jdbcTemplate.execute(sqlBuilder.dropTableIfExists(table));
+    jdbcTemplate.execute(sqlBuilder.createTable(table));
+
+    jdbcTemplate.execute(getInsertSql(table.getName(), startTime, ""));
+
+    jdbcTemplate.execute(sqlBuilder.analyzeTable(table));
+    jdbcTemplate.execute(sqlBuilder.swapTable(table, TABLE_NAME));
+
+    log.info("Generated outlier statistics table: '{}'", TABLE_NAME);
+  }
+
+  /**
+   * Recomputes the statistics of the combinations with data values which changed since the previous
+   * statistics update, and refreshes the statistics columns of the existing analytics tables for
+   * those combinations.
+   *
+   * @param startTime the start time of the analytics table update.
+   */
+  void updateOutlierStatsIncrementally(Date startTime) {
+    Date lastUpdated = getLastUpdated();
+
+    if (lastUpdated == null) {
+      generateOutlierStatsTable(startTime);
+      return;
+    }
+
+    String changedKeys =
+        replace(
+            """
+            select distinct ${keys} \
+            from datavalue \
+            where lastupdated >= '${lastUpdated}'""",
+            Map.of(
+                "keys", String.join(",", KEY_COLUMNS),
+                "lastUpdated", toLongDate(lastUpdated)));
+
+    String deleteSql =
+        replace(
+            """
+            delete from ${table} s \
+            using (${changedKeys}) c \
+            where ${keyJoin}""",
+            Map.of(
+                "table", sqlBuilder.quote(TABLE_NAME),
+                "changedKeys", changedKeys,
+                "keyJoin", getKeyJoin("s", "c")));
+
+    String keyFilter =
+        replace(
+            """
+            and (${keys}) in (${changedKeys})\s""",
+            Map.of("keys", getQualifiedKeys("dv"), "changedKeys", changedKeys));
+
+    jdbcTemplate.execute(deleteSql);
+    jdbcTemplate.execute(getInsertSql(TABLE_NAME, startTime, keyFilter));
+
+    int updated = refreshAnalyticsTables(startTime);
+
+    log.info(
+        "Updated outlier statistics since: '{}', refreshed analytics rows: {}",
+        toLongDate(lastUpdated),
+        updated);
+  }
+
+  /**
+   * Refreshes the statistics columns of the existing analytics table partitions for the
+   * combinations with statistics computed at or after the given time. Only the partitions of the
+   * years with data values of those combinations, and the latest partition, are updated.
+   *
+   * @param startTime the start time of the analytics table update.
+   * @return the number of updated analytics rows.
+   */
+  private int refreshAnalyticsTables(Date startTime) {
+    String analyticsTable = AnalyticsTableType.DATA_VALUE.getTableName();
+
+    List<Integer> years = new ArrayList<>(getChangedYears(startTime));
+
+    if (years.isEmpty()) {
+      return 0;
+    }
+
+    years.add(LATEST_PARTITION);
+
+    int updated = 0;
+
+    for (Integer year : years) {
+      String partition = getPartitionName(analyticsTable, year);
+
+      if (!jdbcTemplate.queryForList(sqlBuilder.tableExists(partition)).isEmpty()) {
+        updated += refreshAnalyticsTable(partition, startTime);
+      }
+    }
+
+    return updated;
+  }
+
+  /**
+   * Refreshes the statistics columns of the given analytics table partition for the combinations
+   * with statistics computed at or after the given time. Rows of which the statistics did not
+   * change are not updated.
+   *
+   * @param partition the name of the analytics table partition.
+   * @param startTime the start time of the analytics table update.
+   * @return the number of updated analytics rows.
+   */
+  private int refreshAnalyticsTable(String partition, Date startTime) {
+    String sql =
+        replace(
+            """
+            update ${analytics} ax \
+            set ${assignments} \
+            from ${table} s \
+            where ${keyJoin} \
+            and s.${lastUpdatedCol} >= '${startTime}' \
+            and (${axStats}) is distinct from (${sStats})""",
+            Map.of(
+                "analytics", sqlBuilder.quote(partition),
+                "assignments",
+                    String.join(",", STATS_COLUMNS.stream().map(c -> c + "=s." + c).toList()),
+                "table", sqlBuilder.quote(TABLE_NAME),
+                "keyJoin", getKeyJoin("ax", "s"),
+                "lastUpdatedCol", COL_LAST_UPDATED,
+                "startTime", toLongDate(startTime),
+                "axStats", getQualifiedColumns("ax", STATS_COLUMNS),
+                "sStats", getQualifiedColumns("s", STATS_COLUMNS)));
+
+    return jdbcTemplate.update(sql);
+  }
+
+  /**
+   * Returns the years with data values of the combinations with statistics computed at or after the
+   * given time, which are the years of the analytics table partitions holding rows of those
+   * combinations.
+   *
+   * @param startTime the start time of the analytics table update.
+   * @return the list of years.
+   */
+  private List<Integer> getChangedYears(Date startTime) {
+    String sql =
+        replace(
+            """
+            select distinct ps.year \
+            from ${table} s \
+            inner join datavalue dv on ${keyJoin} \
+            inner join analytics_rs_periodstructure ps on dv.periodid=ps.periodid \
+            where s.${lastUpdatedCol} >= '${startTime}' \
+            and dv.deleted = false""",
+            Map.of(
+                "table", sqlBuilder.quote(TABLE_NAME),
+                "keyJoin", getKeyJoin("dv", "s"),
+                "lastUpdatedCol", COL_LAST_UPDATED,
+                "startTime", toLongDate(startTime)));
+
+    return jdbcTemplate.queryForList(sql, Integer.class);
+  }
+
+  /**
+   * Returns the SQL statement for computing statistics and inserting them into the given table. The
+   * median is computed per combination first, which the median absolute deviation is based on.
+   *
+   * @param tableName the table name.
+   * @param startTime the start time of the analytics table update.
+   * @param keyFilter the filter on data value combinations, empty for all combinations.
+   * @return the insert SQL statement.
+   */
+  private String getInsertSql(String tableName, Date startTime, String keyFilter) {
+    String values =
+        replace(
+            """
+            select ${dvKeys}, dv.value::double precision as value \
+            from datavalue dv \
+            where dv.value ~ '${numericRegex}' \
+            and dv.deleted = false \
+            ${keyFilter}""",
+            Map.of(
+                "dvKeys", getQualifiedKeys("dv"),
+                "numericRegex", NUMERIC_REGEX,
+                "keyFilter", keyFilter));
+
+    return replace(
+        """
+        insert into ${table} (${keys},${statsColumns},${lastUpdatedCol}) \
+        select ${tKeys}, \
+        percentile_cont(0.5) within group (order by abs(t.value - m.percentile_middle_value)) as mad, \
+        avg(t.value) as avg_middle_value, \
+        m.percentile_middle_value, \
+        stddev_pop(t.value) as std_dev, \
+        timestamp '${startTime}' \
+        from (${values}) as t \
+        inner join (\
+        select ${vKeys}, \
+        percentile_cont(0.5) within group (order by v.value) as percentile_middle_value \
+        from (${values}) as v \
+        group by ${vKeys}) as m \
+        on ${keyJoin} \
+        group by ${tKeys}, m.percentile_middle_value""",
+        Map.of(
+            "table", sqlBuilder.quote(tableName),
+            "keys", String.join(",", KEY_COLUMNS),
+            "statsColumns", String.join(",", STATS_COLUMNS),
+            "lastUpdatedCol", COL_LAST_UPDATED,
+            "tKeys", getQualifiedKeys("t"),
+            "vKeys", getQualifiedKeys("v"),
+            "startTime", toLongDate(startTime),
+            "values", values,
+            "keyJoin", getKeyJoin("t", "m")));
+  }
+
+  /**
+   * Returns the time of the most recent statistics update.
+   *
+   * @return the time of the most recent statistics update, or null if the table is empty.
+   */
+  private Date getLastUpdated() {
+    String sql = "select max(" + COL_LAST_UPDATED + ") from " + sqlBuilder.quote(TABLE_NAME) + ";";
+    return jdbcTemplate.queryForObject(sql, Date.class);
+  }
+
+  /**
+   * Returns the staging table for the outlier statistics table.
+   *
+   * @return the staging {@link Table}.
+   */
+  private Table getStagingTable() {
+    List<Column> columns =
+        List.of(
+            new Column("dataelementid", INTEGER, NOT_NULL),
+            new Column("sourceid", INTEGER, NOT_NULL),
+            new Column("categoryoptioncomboid", INTEGER, NOT_NULL),
+            new Column("attributeoptioncomboid", INTEGER, NOT_NULL),
+            new Column("mad", DOUBLE),
+            new Column("avg_middle_value", DOUBLE),
+            new Column("percentile_middle_value", DOUBLE),
+            new Column("std_dev", DOUBLE),
+            new Column(COL_LAST_UPDATED, TIMESTAMP, NOT_NULL));
+
+    return new Table(
+        TABLE_NAME + Table.STAGING_TABLE_SUFFIX, columns, KEY_COLUMNS, settings.getTableLogged());
+  }
+
+  /**
+   * Returns the key columns qualified with the given alias.
+   *
+   * @param alias the table alias.
+   * @return a comma separated string of qualified key columns.
+   */
+  private String getQualifiedKeys(String alias) {
+    return getQualifiedColumns(alias, KEY_COLUMNS);
+  }
+
+  /**
+   * Returns the given columns qualified with the given alias.
+   *
+   * @param alias the table alias.
+   * @param columns the columns.
+   * @return a comma separated string of qualified columns.
+   */
+  private String getQualifiedColumns(String alias, List<String> columns) {
+    return String.join(",", columns.stream().map(c -> alias + "." + c).toList());
+  }
+
+  /**
+   * Returns a join condition on the key columns of the given aliases.
+   *
+   * @param left the left table alias.
+   * @param right the right table alias.
+   * @return the join condition.
+   */
+  private String getKeyJoin(String left, String right) {
+    return String.join(
+        " and ", KEY_COLUMNS.stream().map(c -> left + "." + c + "=" + right + "." + c).toList());
+  }
+
+  /**
+   * Indicates whether the outlier statistics table exists.
+   *
+   * @return true if the table exists.
+   */
+  private boolean tableExists() {
+    return !jdbcTemplate.queryForList(sqlBuilder.tableExists(TABLE_NAME)).isEmpty();
+  }
+}
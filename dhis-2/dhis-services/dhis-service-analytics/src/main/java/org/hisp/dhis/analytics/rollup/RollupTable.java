@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import java.util.Set;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Represents a rollup table, which holds analytics data values pre-aggregated by data element,
+ * category option combo, attribute option combo, organisation unit hierarchy down to a specific
+ * level and periods of a specific period type. Instances are immutable and describe a table which
+ * exists in the database, as loaded by the {@link RollupTableService}.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@RequiredArgsConstructor
+public class RollupTable {
+  public static final String TABLE_PREFIX = "analytics_rollup_";
+
+  /** Period type column name, which is the lower case period type name. */
+  @EqualsAndHashCode.Include private final String periodType;
+
+  /** Organisation unit level of the finest grained organisation units. */
+  @EqualsAndHashCode.Include private final int level;
+
+  /** Identifiers of the data elements with data in the table. */
+  @ToString.Exclude private final Set<String> dataElements;
+
+  /**
+   * Returns the table name.
+   *
+   * @return the table name.
+   */
+  public String getName() {
+    return getName(periodType, level);
+  }
+
+  /**
+   * Indicates whether this table can answer a query at the given organisation unit level and for
+   * the given data elements.
+   *
+   * @param orgUnitLevel the organisation unit level.
+   * @param dataElementUids the data element identifiers.
+   * @return true if this table can answer the query.
+   */
+  public boolean supports(int orgUnitLevel, Set<String> dataElementUids) {
+    return orgUnitLevel <= level && dataElements.containsAll(dataElementUids);
+  }
+
+  /**
+   * Returns the name of the rollup table for the given period type and organisation unit level.
+   *
+   * @param periodType the period type column name.
+   * @param level the organisation unit level.
+   * @return the table name.
+   */
+  public static String getName(String periodType, int level) {
+    return TABLE_PREFIX + periodType + "_" + level;
+  }
+}
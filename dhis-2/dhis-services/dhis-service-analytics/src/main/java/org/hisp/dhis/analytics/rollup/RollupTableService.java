@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.rollup;
+
+import static org.hisp.dhis.commons.util.TextUtils.replace;
+import static org.hisp.dhis.db.model.DataType.CHARACTER_11;
+import static org.hisp.dhis.db.model.DataType.DOUBLE;
+import static org.hisp.dhis.db.model.DataType.TEXT;
+import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_STAGE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementGroup;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.Index;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service which generates rollup tables and looks up the rollup table which can answer a query.
+ * Rollup tables hold the data values of the analytics table pre-aggregated by organisation unit
+ * level and period type, and are generated for the levels and period types specified in the
+ * configuration file. Rollup tables of a period type are generated from the most fine-grained level
+ * to the most coarse-grained level, where each table is generated from the previous one.
+ *
+ * <p>Rollup tables are generated in full as part of analytics table updates which regenerate table
+ * partitions, and not for latest partition or incremental updates. Data values added by such
+ * updates are not reflected in the rollup tables until the next regular analytics table update.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollupTableService {
+  private static final String COL_VALUE = "value";
+
+  private final AnalyticsTableSettings settings;
+
+  private final IdentifiableObjectManager idObjectManager;
+
+  private final OrganisationUnitService organisationUnitService;
+
+  private final SqlBuilder sqlBuilder;
+
+  @Qualifier("analyticsJdbcTemplate")
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Available rollup tables, null if not yet loaded. */
+  private volatile List<RollupTable> rollupTables;
+
+  /**
+   * Generates the rollup tables specified in the configuration file. Does nothing if no rollup
+   * organisation unit levels are configured.
+   *
+   * @param progress the {@link JobProgress}.
+   */
+  public void generateRollupTables(JobProgress progress) {
+    NavigableSet<Integer> levels = getLevels();
+    List<String> periodTypes = getPeriodTypes();
+
+    if (levels.isEmpty() || periodTypes.isEmpty()) {
+      return;
+    }
+
+    Set<String> dataElements = getDataElements();
+
+    if (dataElements.isEmpty()) {
+      log.info("No data elements found for rollup tables");
+      return;
+    }
+
+    Map<String, Runnable> generators = new LinkedHashMap<>();
+
+    for (String periodType : periodTypes) {
+      generators.put(
+          "Generating rollup tables for period type: " + periodType,
+          () -> generateRollupTables(periodType, levels, dataElements));
+    }
+
+    progress.startingStage("Generating rollup tables", generators.size(), SKIP_STAGE);
+    progress.runStage(generators);
+
+    rollupTables = loadRollupTables();
+
+    log.info("Rollup tables available: {}", rollupTables);
+  }
+
+  /**
+   * Returns the smallest rollup table for the given period type which contains data for the given
+   * data elements at the given organisation unit level.
+   *
+   * @param periodType the period type column name.
+   * @param orgUnitLevel the organisation unit level.
+   * @param dataElementUids the data element identifiers.
+   * @return the {@link RollupTable}, or empty if no rollup table can answer the query.
+   */
+  public Optional<RollupTable> getRollupTable(
+      String periodType, int orgUnitLevel, Set<String> dataElementUids) {
+    return getRollupTables().stream()
+        .filter(t -> t.getPeriodType().equals(periodType))
+        .filter(t -> t.supports(orgUnitLevel, dataElementUids))
+        .min(Comparator.comparingInt(RollupTable::getLevel));
+  }
+
+  /**
+   * Indicates whether any rollup tables are configured.
+   *
+   * @return true if any rollup tables are configured.
+   */
+  public boolean isEnabled() {
+    return !settings.getRollupOrgUnitLevels().isEmpty();
+  }
+
+  @EventListener
+  public void handleApplicationCachesCleared(ApplicationCacheClearedEvent event) {
+    rollupTables = null;
+  }
+
+  // -------------------------------------------------------------------------
+  // Supportive methods
+  // -------------------------------------------------------------------------
+
+  /**
+   * Generates the rollup tables for the given period type. The staging tables are generated from
+   * the highest level down, after which they are swapped with the main tables.
+   *
+   * @param periodType the period type column name.
+   * @param levels the organisation unit levels.
+   * @param dataElements the data element identifiers.
+   */
+  private void generateRollupTables(
+      String periodType, NavigableSet<Integer> levels, Set<String> dataElements) {
+    Map<Table, String> stagingTables = new LinkedHashMap<>();
+    String sourceTable = AnalyticsTableType.DATA_VALUE.getTableName();
+
+    for (Integer level : levels.descendingSet()) {
+      Table table = getStagingTable(periodType, level);
+      stagingTables.put(table, RollupTable.getName(periodType, level));
+
+      jdbcTemplate.execute(sqlBuilder.dropTableIfExists(table));
+      jdbcTemplate.execute(sqlBuilder.createTable(table));
+      populateTable(table, sourceTable, periodType, level, dataElements);
+      createIndex(table, periodType, level);
+      jdbcTemplate.execute(sqlBuilder.analyzeTable(table));
+
+      sourceTable = table.getName();
+    }
+
+    stagingTables.forEach(
+        (table, mainName) -> jdbcTemplate.execute(sqlBuilder.swapTable(table, mainName)));
+  }
+
+  /**
+   * Populates the given rollup staging table by aggregating the given source table.
+   *
+   * @param table the staging {@link Table}.
+   * @param sourceTable the source table name.
+   * @param periodType the period type column name.
+   * @param level the organisation unit level.
+   * @param dataElements the data element identifiers.
+   */
+  private void populateTable(
+      Table table, String sourceTable, String periodType, int level, Set<String> dataElements) {
+    String columns =
+        getDimensionColumns(periodType, level).stream()
+            .map(sqlBuilder::quote)
+            .collect(Collectors.joining(","));
+
+    String sql =
+        replace(
+            """
+            insert into ${table} (${columns},${value}) \
+            select ${columns},sum(${value}) \
+            from ${source} \
+            where ${value} is not null \
+            and ${dx} in (${dataElements}) \
+            group by ${columns}""",
+            Map.of(
+                "table", sqlBuilder.quote(table.getName()),
+                "columns", columns,
+                "value", sqlBuilder.quote(COL_VALUE),
+                "source", sqlBuilder.quote(sourceTable),
+                "dx", sqlBuilder.quote("dx"),
+                "dataElements", sqlBuilder.singleQuotedCommaDelimited(dataElements)));
+
+    log.debug("Populate rollup table SQL: '{}'", sql);
+
+    jdbcTemplate.execute(sql);
+  }
+
+  /**
+   * Creates an index on the data element and period columns of the given table.
+   *
+   * @param table the {@link Table}.
+   * @param periodType the period type column name.
+   * @param level the organisation unit level.
+   */
+  private void createIndex(Table table, String periodType, int level) {
+    String name = RollupTable.getName(periodType, level);
+
+    Index index =
+        Index.builder()
+            .name("in_" + name + "_" + CodeGenerator.generateCode(5).toLowerCase())
+            .tableName(table.getName())
+            .columns(List.of("dx", periodType))
+            .build();
+
+    jdbcTemplate.execute(sqlBuilder.createIndex(index));
+  }
+
+  /**
+   * Returns the staging table for the given period type and organisation unit level.
+   *
+   * @param periodType the period type column name.
+   * @param level the organisation unit level.
+   * @return the staging {@link Table}.
+   */
+  private Table getStagingTable(String periodType, int level) {
+    List<Column> columns = new ArrayList<>();
+
+    for (String column : getDimensionColumns(periodType, level)) {
+      columns.add(new Column(column, column.equals(periodType) ? TEXT : CHARACTER_11));
+    }
+
+    columns.add(new Column(COL_VALUE, DOUBLE));
+
+    return new Table(
+        RollupTable.getName(periodType, level) + Table.STAGING_TABLE_SUFFIX,
+        columns,
+        List.of(),
+        settings.getTableLogged());
+  }
+
+  /**
+   * Returns the dimension columns of the rollup table for the given period type and organisation
+   * unit level.
+   *
+   * @param periodType the period type column name.
+   * @param level the organisation unit level.
+   * @return a list of column names.
+   */
+  private List<String> getDimensionColumns(String periodType, int level) {
+    List<String> columns = new ArrayList<>(List.of("dx", "co", "ao"));
+
+    for (int i = 1; i <= level; i++) {
+      columns.add("uidlevel" + i);
+    }
+
+    columns.add(periodType);
+
+    return columns;
+  }
+
+  /**
+   * Returns the available rollup tables, loading them from the database if not yet loaded.
+   *
+   * @return a list of {@link RollupTable}.
+   */
+  private List<RollupTable> getRollupTables() {
+    List<RollupTable> tables = rollupTables;
+
+    if (tables == null) {
+      tables = isEnabled() ? loadRollupTables() : List.of();
+      rollupTables = tables;
+    }
+
+    return tables;
+  }
+
+  /**
+   * Loads the rollup tables which exist in the database for the configured levels and period types,
+   * including the data elements with data in each table.
+   *
+   * @return a list of {@link RollupTable}.
+   */
+  private List<RollupTable> loadRollupTables() {
+    List<RollupTable> tables = new ArrayList<>();
+
+    for (String periodType : getPeriodTypes()) {
+      for (Integer level : getLevels()) {
+        String name = RollupTable.getName(periodType, level);
+
+        if (!jdbcTemplate.queryForList(sqlBuilder.tableExists(name)).isEmpty()) {
+          String sql = "select distinct dx from " + sqlBuilder.quote(name);
+          Set<String> dataElements = new HashSet<>(jdbcTemplate.queryForList(sql, String.class));
+          tables.add(new RollupTable(periodType, level, Set.copyOf(dataElements)));
+        }
+      }
+    }
+
+    return List.copyOf(tables);
+  }
+
+  /**
+   * Returns the configured organisation unit levels which exist in the hierarchy.
+   *
+   * @return a navigable set of organisation unit levels.
+   */
+  private NavigableSet<Integer> getLevels() {
+    NavigableSet<Integer> levels = settings.getRollupOrgUnitLevels();
+
+    int maxLevel = organisationUnitService.getNumberOfOrganisationalLevels();
+
+    levels.removeIf(level -> level < 1 || level > maxLevel);
+
+    return levels;
+  }
+
+  /**
+   * Returns the column names of the configured period types.
+   *
+   * @return a list of period type column names.
+   */
+  private List<String> getPeriodTypes() {
+    List<String> periodTypes = new ArrayList<>();
+
+    for (String name : settings.getRollupPeriodTypes()) {
+      PeriodType periodType = PeriodType.getByNameIgnoreCase(name);
+
+      if (periodType == null || settings.getSkipColumnDimensions().contains(name.toLowerCase())) {
+        log.warn("Invalid or skipped rollup table period type: '{}'", name);
+      } else {
+        periodTypes.add(periodType.getName().toLowerCase());
+      }
+    }
+
+    return periodTypes;
+  }
+
+  /**
+   * Returns the identifiers of the data elements to include in rollup tables, which are the numeric
+   * data elements with sum aggregation type, optionally limited to the members of the configured
+   * data element group.
+   *
+   * @return a set of data element identifiers.
+   */
+  private Set<String> getDataElements() {
+    String groupUid = settings.getRollupDataElementGroup();
+
+    Collection<DataElement> dataElements;
+
+    if (groupUid != null) {
+      DataElementGroup group = idObjectManager.getNoAcl(DataElementGroup.class, groupUid);
+      dataElements = group != null ? group.getMembers() : List.of();
+    } else {
+      dataElements = idObjectManager.getAllNoAcl(DataElement.class);
+    }
+
+    return dataElements.stream()
+        .filter(DataElement::isNumericType)
+        .filter(de -> AggregationType.SUM == de.getAggregationType())
+        .map(IdentifiableObject::getUid)
+        .collect(Collectors.toSet());
+  }
+}
@@ -31,6 +31,7 @@ import static org.hisp.dhis.analytics.table.model.Skip.SKIP;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.getClosingParentheses;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.getColumnType;
 import static org.hisp.dhis.commons.util.TextUtils.replace;
+import static org.hisp.dhis.db.model.DataType.DOUBLE;
 import static org.hisp.dhis.db.model.DataType.TEXT;
 import static org.hisp.dhis.system.util.MathUtils.NUMERIC_LENIENT_REGEXP;
 
@@ -38,7 +39,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
+import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.model.AnalyticsColumnType;
 import org.hisp.dhis.analytics.table.model.AnalyticsTableColumn;
@@ -54,7 +57,9 @@ import org.hisp.dhis.db.model.DataType;
 import org.hisp.dhis.db.sql.SqlBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.PeriodDataProvider;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicator;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.database.DatabaseInfoProvider;
@@ -153,8 +158,19 @@ public abstract class AbstractEventJdbcTableManager extends AbstractJdbcTableMan
    * @param fromClause the SQL from clause.
    */
   protected void populateTableInternal(AnalyticsTablePartition partition, String fromClause) {
-    String tableName = partition.getName();
+    populateTableInternal(partition, partition.getName(), fromClause);
+  }
 
+  /**
+   * Populates the table with the given name using the columns of the given analytics table
+   * partition and the given join statement.
+   *
+   * @param partition the {@link AnalyticsTablePartition}.
+   * @param tableName the name of the table to insert into.
+   * @param fromClause the SQL from clause.
+   */
+  protected void populateTableInternal(
+      AnalyticsTablePartition partition, String tableName, String fromClause) {
     List<AnalyticsTableColumn> columns = partition.getMasterTable().getAnalyticsTableColumns();
 
     String sql = "insert into " + tableName + " (";
@@ -176,6 +192,88 @@ public abstract class AbstractEventJdbcTableManager extends AbstractJdbcTableMan
     invokeTimeAndLog(sql, "Populating table: '{}'", tableName);
   }
 
+  /**
+   * Returns the materialized program indicators of the given program and analytics type.
+   *
+   * @param program the {@link Program}.
+   * @param analyticsType the {@link AnalyticsType} of the analytics table.
+   * @param subqueryBuilder the {@link ProgramIndicatorSubqueryBuilder}.
+   * @return a list of {@link ProgramIndicator}.
+   */
+  protected List<ProgramIndicator> getMaterializedProgramIndicators(
+      Program program,
+      AnalyticsType analyticsType,
+      ProgramIndicatorSubqueryBuilder subqueryBuilder) {
+    return program.getProgramIndicators().stream()
+        .filter(pi -> analyticsType == pi.getAnalyticsType())
+        .filter(subqueryBuilder::isMaterialized)
+        .toList();
+  }
+
+  /**
+   * Returns columns for the materialized program indicators of the given program. The columns are
+   * populated after the table is populated, see {@link
+   * #populateMaterializedProgramIndicators(String, String, List, ProgramIndicatorSubqueryBuilder)}.
+   *
+   * @param program the {@link Program}.
+   * @param analyticsType the {@link AnalyticsType} of the analytics table.
+   * @param subqueryBuilder the {@link ProgramIndicatorSubqueryBuilder}.
+   * @return a list of {@link AnalyticsTableColumn}.
+   */
+  protected List<AnalyticsTableColumn> getMaterializedProgramIndicatorColumns(
+      Program program,
+      AnalyticsType analyticsType,
+      ProgramIndicatorSubqueryBuilder subqueryBuilder) {
+    return getMaterializedProgramIndicators(program, analyticsType, subqueryBuilder).stream()
+        .map(
+            pi ->
+                AnalyticsTableColumn.builder()
+                    .name(pi.getUid())
+                    .columnType(AnalyticsColumnType.DYNAMIC)
+                    .dataType(DOUBLE)
+                    .selectExpression("null")
+                    .skipIndex(SKIP)
+                    .build())
+        .toList();
+  }
+
+  /**
+   * Computes the values of the given materialized program indicators for the rows of the table with
+   * the given name which were just written. The program indicator expressions refer to the columns
+   * of the analytics table, hence values are computed with an update after the table is populated.
+   *
+   * @param tableName the name of the table to update.
+   * @param whereClause the SQL where clause restricting the update to the rows just written, or an
+   *     empty string if the table holds the rows just written only.
+   * @param programIndicators the materialized program indicators.
+   * @param subqueryBuilder the {@link ProgramIndicatorSubqueryBuilder}.
+   */
+  protected void populateMaterializedProgramIndicators(
+      String tableName,
+      String whereClause,
+      List<ProgramIndicator> programIndicators,
+      ProgramIndicatorSubqueryBuilder subqueryBuilder) {
+    if (programIndicators.isEmpty()) {
+      return;
+    }
+
+    String columns =
+        programIndicators.stream()
+            .map(
+                pi ->
+                    quote(pi.getUid())
+                        + " = "
+                        + subqueryBuilder.getMaterializedClauseForProgramIndicator(pi))
+            .collect(Collectors.joining(", "));
+
+    String sql =
+        replace(
+            "update ${tableName} as ax set ${columns} ${whereClause};",
+            Map.of("tableName", quote(tableName), "columns", columns, "whereClause", whereClause));
+
+    invokeTimeAndLog(sql, "Populating program indicators for table: '{}'", tableName);
+  }
+
   protected List<AnalyticsTableColumn> getTrackedEntityAttributeColumns(Program program) {
     List<AnalyticsTableColumn> columns = new ArrayList<>();
 
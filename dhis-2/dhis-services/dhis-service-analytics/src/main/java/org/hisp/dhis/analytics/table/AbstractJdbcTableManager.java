@@ -29,10 +29,14 @@ package org.hisp.dhis.analytics.table;
 
 import static java.util.function.Predicate.not;
 import static org.hisp.dhis.analytics.table.util.PartitionUtils.getEndDate;
+import static org.hisp.dhis.analytics.table.util.PartitionUtils.getPartitionName;
 import static org.hisp.dhis.analytics.table.util.PartitionUtils.getStartDate;
 import static org.hisp.dhis.commons.util.TextUtils.format;
 import static org.hisp.dhis.db.model.DataType.CHARACTER_11;
 import static org.hisp.dhis.db.model.DataType.TEXT;
+import static org.hisp.dhis.db.model.DataType.TIMESTAMP;
+import static org.hisp.dhis.db.model.DataType.VARCHAR_255;
+import static org.hisp.dhis.db.model.constraint.Nullable.NOT_NULL;
 import static org.hisp.dhis.util.DateUtils.toLongDate;
 
 import java.util.Collection;
@@ -41,6 +45,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -71,6 +76,8 @@ import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.dataelement.DataElementGroupSet;
 import org.hisp.dhis.db.model.Collation;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.DataType;
 import org.hisp.dhis.db.model.Index;
 import org.hisp.dhis.db.model.Logged;
 import org.hisp.dhis.db.model.Table;
@@ -118,6 +125,15 @@ public abstract class AbstractJdbcTableManager implements AnalyticsTableManager
 
   protected static final String PREFIX_ORGUNITNAMELEVEL = "namelevel";
 
+  /** Table which holds the high-water mark of partitions which can be updated incrementally. */
+  protected static final Table WATERMARK_TABLE =
+      new Table(
+          "analytics_partitionwatermark",
+          List.of(
+              new Column("tablename", VARCHAR_255, NOT_NULL),
+              new Column("highwatermark", TIMESTAMP, NOT_NULL)),
+          List.of("tablename"));
+
   protected final IdentifiableObjectManager idObjectManager;
 
   protected final OrganisationUnitService organisationUnitService;
@@ -183,12 +199,70 @@ public abstract class AbstractJdbcTableManager implements AnalyticsTableManager
   @Override
   public void removeUpdatedData(List<AnalyticsTable> tables) {}
 
+  @Override
+  public boolean canUpdateIncrementally(AnalyticsTable table) {
+    if (!supportsIncrementalUpdate()
+        || !tableExists(table.getMainName())
+        || tableExists(
+            getPartitionName(table.getMainName(), AnalyticsTablePartition.LATEST_PARTITION))
+        || !tableExists(WATERMARK_TABLE.getName())) {
+      return false;
+    }
+
+    Set<String> columns =
+        table.getColumns().stream().map(Column::getName).collect(Collectors.toSet());
+
+    return table.getTablePartitions().stream()
+        .allMatch(
+            partition ->
+                getHighWaterMark(partition) != null
+                    && columns.equals(getTableColumns(partition.getMainName())));
+  }
+
+  @Override
+  public void saveHighWaterMark(AnalyticsTablePartition partition, Date highWaterMark) {
+    if (!tableExists(WATERMARK_TABLE.getName())) {
+      jdbcTemplate.execute(sqlBuilder.createTable(WATERMARK_TABLE));
+    }
+
+    String tableName = partition.getMainName();
+
+    jdbcTemplate.update(
+        format("delete from {} where tablename = ?", quote(WATERMARK_TABLE.getName())), tableName);
+    jdbcTemplate.update(
+        format(
+            "insert into {} (tablename, highwatermark) values (?, ?)",
+            quote(WATERMARK_TABLE.getName())),
+        tableName,
+        highWaterMark);
+
+    log.debug("Saved high-water mark: '{}' for table: '{}'", toLongDate(highWaterMark), tableName);
+  }
+
   @Override
   public void createTable(AnalyticsTable table) {
     createAnalyticsTable(table);
     createAnalyticsTablePartitions(table);
   }
 
+  @Override
+  public void createTablePartition(AnalyticsTablePartition partition) {
+    createAnalyticsTable(partition);
+  }
+
+  @Override
+  public boolean canReuseStagingTable(AnalyticsTable table, String name) {
+    if (!tableExists(name)) {
+      return false;
+    }
+
+    Map<String, String> columnTypes =
+        table.getColumns().stream()
+            .collect(Collectors.toMap(Column::getName, c -> getColumnTypeName(c.getDataType())));
+
+    return columnTypes.equals(getTableColumnTypes(name));
+  }
+
   /**
    * Drops and creates the given analytics table or table partition.
    *
@@ -205,11 +279,17 @@ public abstract class AbstractJdbcTableManager implements AnalyticsTableManager
   }
 
   /**
-   * Creates the table partitions for the given analytics table.
+   * Creates the table partitions for the given analytics table. Partition tables are not created
+   * when the database supports declarative partitioning, as the master table is then populated
+   * directly.
    *
    * @param table the {@link AnalyticsTable}.
    */
   private void createAnalyticsTablePartitions(AnalyticsTable table) {
+    if (sqlBuilder.supportsDeclarativePartitioning()) {
+      return;
+    }
+
     for (AnalyticsTablePartition partition : table.getTablePartitions()) {
       createAnalyticsTable(partition);
     }
@@ -274,16 +354,29 @@ public abstract class AbstractJdbcTableManager implements AnalyticsTableManager
     executeSilently(sqlBuilder.analyzeTable(table));
   }
 
+  @Override
+  public boolean hasAnalyticsTableSqlHooks() {
+    return !getAnalyticsTableSqlHooks().isEmpty();
+  }
+
   @Override
   public int invokeAnalyticsTableSqlHooks() {
-    AnalyticsTableType type = getAnalyticsTableType();
-    List<AnalyticsTableHook> hooks =
-        tableHookService.getByPhaseAndAnalyticsTableType(
-            AnalyticsTablePhase.ANALYTICS_TABLE_POPULATED, type);
+    List<AnalyticsTableHook> hooks = getAnalyticsTableSqlHooks();
     tableHookService.executeAnalyticsTableSqlHooks(hooks);
     return hooks.size();
   }
 
+  /**
+   * Returns the analytics table SQL hooks for the table type.
+   *
+   * @return a list of {@link AnalyticsTableHook}.
+   */
+  private List<AnalyticsTableHook> getAnalyticsTableSqlHooks() {
+    AnalyticsTableType type = getAnalyticsTableType();
+    return tableHookService.getByPhaseAndAnalyticsTableType(
+        AnalyticsTablePhase.ANALYTICS_TABLE_POPULATED, type);
+  }
+
   /**
    * Swaps a database table, meaning drops the main table and renames the staging table to become
    * the main table.
@@ -317,6 +410,76 @@ public abstract class AbstractJdbcTableManager implements AnalyticsTableManager
     return !jdbcTemplate.queryForList(sqlBuilder.tableExists(name)).isEmpty();
   }
 
+  /**
+   * Returns the names of the columns of the table with the given name.
+   *
+   * @param name the table name.
+   * @return a set of column names, empty if the table does not exist.
+   */
+  private Set<String> getTableColumns(String name) {
+    String sql =
+        "select column_name from information_schema.columns "
+            + "where table_schema = 'public' and table_name = ?";
+
+    return Set.copyOf(jdbcTemplate.queryForList(sql, String.class, name));
+  }
+
+  /**
+   * Returns the names and type names of the columns of the table with the given name. The type name
+   * is the catalog type name, with the max length for character types, such as <code>varchar(255)
+   * </code>.
+   *
+   * @param name the table name.
+   * @return a map of column names and type names, empty if the table does not exist.
+   */
+  private Map<String, String> getTableColumnTypes(String name) {
+    String sql =
+        "select column_name, udt_name, character_maximum_length from information_schema.columns "
+            + "where table_schema = 'public' and table_name = ?";
+
+    Map<String, String> columnTypes = new HashMap<>();
+
+    jdbcTemplate.query(
+        sql,
+        rs -> {
+          String type = rs.getString("udt_name");
+          int length = rs.getInt("character_maximum_length");
+          columnTypes.put(
+              rs.getString("column_name"), length > 0 ? type + "(" + length + ")" : type);
+        },
+        name);
+
+    return columnTypes;
+  }
+
+  /**
+   * Returns the catalog type name of the given data type, as returned by {@link
+   * #getTableColumnTypes(String)}.
+   *
+   * @param dataType the {@link DataType}.
+   * @return the catalog type name.
+   */
+  private static String getColumnTypeName(DataType dataType) {
+    return switch (dataType) {
+      case SMALLINT -> "int2";
+      case INTEGER -> "int4";
+      case BIGINT -> "int8";
+      case DECIMAL -> "numeric";
+      case FLOAT, DOUBLE -> "float8";
+      case BOOLEAN -> "bool";
+      case CHARACTER_11 -> "bpchar(11)";
+      case CHARACTER_32 -> "bpchar(32)";
+      case VARCHAR_50 -> "varchar(50)";
+      case VARCHAR_255 -> "varchar(255)";
+      case TEXT -> "text";
+      case DATE -> "date";
+      case TIMESTAMP -> "timestamp";
+      case TIMESTAMPTZ -> "timestamptz";
+      case GEOMETRY, GEOMETRY_POINT -> "geometry";
+      case JSONB -> "jsonb";
+    };
+  }
+
   // -------------------------------------------------------------------------
   // Abstract methods
   // -------------------------------------------------------------------------
@@ -412,6 +575,24 @@ public abstract class AbstractJdbcTableManager implements AnalyticsTableManager
     return table;
   }
 
+  /**
+   * Returns the high-water mark recorded for the main table partition corresponding to the given
+   * partition, i.e. the time up to which data is present in the partition.
+   *
+   * @param partition the {@link AnalyticsTablePartition}.
+   * @return the high-water mark, or null if none is recorded.
+   */
+  protected Date getHighWaterMark(AnalyticsTablePartition partition) {
+    String sql =
+        format(
+            "select highwatermark from {} where tablename = ?", quote(WATERMARK_TABLE.getName()));
+
+    return jdbcTemplate.queryForList(sql, Date.class, partition.getMainName()).stream()
+        .filter(Objects::nonNull)
+        .findFirst()
+        .orElse(null);
+  }
+
   /**
    * Executes the given SQL statement. Logs and times the operation.
    *
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table;
+
+import static org.hisp.dhis.commons.util.TextUtils.format;
+import static org.hisp.dhis.db.model.DataType.BIGINT;
+import static org.hisp.dhis.db.model.DataType.TIMESTAMP;
+import static org.hisp.dhis.db.model.DataType.VARCHAR_255;
+import static org.hisp.dhis.db.model.constraint.Nullable.NOT_NULL;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.time.DateUtils;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service which records which columns of event and enrollment analytics tables are used in queries,
+ * i.e. which data elements, attributes and dimensions appear as dimensions or filters. Usage is
+ * counted in memory and written to the column usage table in the background once per flush
+ * interval, and before usage is read during analytics table generation.
+ *
+ * <p>The recorded usage is used to build indexes for used columns only, see {@link
+ * AnalyticsTableSettings#isIndexUsedColumnsOnly()}. Usage is considered complete, and indexes are
+ * skipped for unused columns, only when usage has been recorded for at least the column usage
+ * window, so that enabling the mode does not drop indexes of columns which were not yet observed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsColumnUsageService {
+  /** Table which holds the usage of analytics table columns in queries. */
+  static final Table USAGE_TABLE =
+      new Table(
+          "analytics_columnusage",
+          List.of(
+              new Column("tablename", VARCHAR_255, NOT_NULL),
+              new Column("columnname", VARCHAR_255, NOT_NULL),
+              new Column("usagecount", BIGINT, NOT_NULL),
+              new Column("firstused", TIMESTAMP, NOT_NULL),
+              new Column("lastused", TIMESTAMP, NOT_NULL)),
+          List.of("tablename", "columnname"));
+
+  private static final long FLUSH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private final Map<ColumnKey, LongAdder> pendingUsage = new ConcurrentHashMap<>();
+
+  private final AnalyticsTableSettings settings;
+
+  private final SqlBuilder sqlBuilder;
+
+  @Qualifier("analyticsJdbcTemplate")
+  private final JdbcTemplate jdbcTemplate;
+
+  private final TaskScheduler scheduler;
+
+  @PostConstruct
+  public void init() {
+    scheduler.scheduleWithFixedDelay(
+        this::flushQuietly,
+        new Date(System.currentTimeMillis() + FLUSH_INTERVAL_MILLIS),
+        FLUSH_INTERVAL_MILLIS);
+  }
+
+  /**
+   * Records the usage of the given columns of the analytics table with the given name. Usage is
+   * only counted in memory, so that recording does not affect the query.
+   *
+   * @param tableName the analytics table name.
+   * @param columns the names of the used columns.
+   */
+  public void recordUsage(String tableName, Collection<String> columns) {
+    if (tableName == null || columns.isEmpty()) {
+      return;
+    }
+
+    columns.forEach(
+        column ->
+            pendingUsage
+                .computeIfAbsent(new ColumnKey(tableName, column), key -> new LongAdder())
+                .increment());
+  }
+
+  /** Writes the usage recorded in memory, logging rather than propagating a failure. */
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException ex) {
+      log.warn("Failed to write analytics column usage", ex);
+    }
+  }
+
+  /**
+   * Writes the usage recorded in memory to the column usage table. The counters are reset rather
+   * than removed, so that usage recorded concurrently is not lost. Usage which could not be written
+   * is counted again for the next flush.
+   */
+  @PreDestroy
+  public synchronized void flush() {
+    Map<ColumnKey, Long> counts = new HashMap<>();
+
+    pendingUsage.forEach(
+        (key, adder) -> {
+          long count = adder.sumThenReset();
+
+          if (count > 0) {
+            counts.put(key, count);
+          }
+        });
+
+    if (counts.isEmpty()) {
+      return;
+    }
+
+    try {
+      write(counts);
+    } catch (RuntimeException ex) {
+      counts.forEach((key, count) -> pendingUsage.get(key).add(count));
+      throw ex;
+    }
+  }
+
+  /**
+   * Adds the given usage counts to the column usage table.
+   *
+   * @param counts the usage counts by column.
+   */
+  private void write(Map<ColumnKey, Long> counts) {
+    if (!tableExists()) {
+      jdbcTemplate.execute(sqlBuilder.createTable(USAGE_TABLE));
+    }
+
+    List<Object[]> usage = new ArrayList<>();
+    Date now = new Date();
+
+    counts.forEach(
+        (key, count) -> usage.add(new Object[] {count, now, key.tableName(), key.columnName()}));
+
+    String table = sqlBuilder.quote(USAGE_TABLE.getName());
+
+    int[] updated =
+        jdbcTemplate.batchUpdate(
+            format(
+                """
+                update {} set usagecount = usagecount + ?, lastused = ? \
+                where tablename = ? and columnname = ?""",
+                table),
+            usage);
+
+    List<Object[]> inserts = new ArrayList<>();
+
+    for (int i = 0; i < usage.size(); i++) {
+      if (updated[i] == 0) {
+        Object[] row = usage.get(i);
+        inserts.add(new Object[] {row[2], row[3], row[0], now, now});
+      }
+    }
+
+    if (!inserts.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          format(
+              """
+              insert into {} (tablename, columnname, usagecount, firstused, lastused) \
+              values (?, ?, ?, ?, ?)""",
+              table),
+          inserts);
+    }
+
+    log.debug("Wrote usage of {} analytics table columns", usage.size());
+  }
+
+  /**
+   * Indicates whether indexes should be built for used columns only. This is the case when enabled
+   * through configuration and when column usage has been recorded for at least the column usage
+   * window.
+   *
+   * @return true if indexes should be built for used columns only.
+   */
+  public boolean isIndexUsedColumnsOnly() {
+    if (!settings.isIndexUsedColumnsOnly()) {
+      return false;
+    }
+
+    flush();
+
+    if (!tableExists()) {
+      return false;
+    }
+
+    Date firstUsed =
+        jdbcTemplate.queryForObject(
+            format("select min(firstused) from {}", sqlBuilder.quote(USAGE_TABLE.getName())),
+            Date.class);
+
+    return firstUsed != null && !firstUsed.after(getUsageCutoff());
+  }
+
+  /**
+   * Returns the names of the columns of the analytics table with the given name which were used in
+   * queries within the column usage window.
+   *
+   * @param tableName the analytics table name.
+   * @return a set of column names.
+   */
+  public Set<String> getUsedColumns(String tableName) {
+    if (!tableExists()) {
+      return Set.of();
+    }
+
+    String sql =
+        format(
+            "select columnname from {} where tablename = ? and lastused >= ?",
+            sqlBuilder.quote(USAGE_TABLE.getName()));
+
+    return Set.copyOf(jdbcTemplate.queryForList(sql, String.class, tableName, getUsageCutoff()));
+  }
+
+  /**
+   * Returns the start of the column usage window.
+   *
+   * @return the start of the column usage window.
+   */
+  private Date getUsageCutoff() {
+    return DateUtils.addDays(new Date(), -settings.getColumnUsageDays());
+  }
+
+  /**
+   * Indicates whether the column usage table exists.
+   *
+   * @return true if the column usage table exists.
+   */
+  private boolean tableExists() {
+    return !jdbcTemplate.queryForList(sqlBuilder.tableExists(USAGE_TABLE.getName())).isEmpty();
+  }
+
+  /**
+   * Key of a column of an analytics table.
+   *
+   * @param tableName the analytics table name.
+   * @param columnName the column name.
+   */
+  private record ColumnKey(String tableName, String columnName) {}
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hisp.dhis.commons.collection.CollectionUtils.emptyIfNull;
+import static org.hisp.dhis.commons.util.TextUtils.format;
+import static org.hisp.dhis.db.model.DataType.TIMESTAMP;
+import static org.hisp.dhis.db.model.DataType.VARCHAR_255;
+import static org.hisp.dhis.db.model.constraint.Nullable.NOT_NULL;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service which persists the progress of analytics table updates as checkpoints, so that an update
+ * which failed can be resumed by a subsequent update with the same parameters. A checkpoint is
+ * recorded for each completed analytics table type and for each staging table partition which is
+ * populated, indexed and analyzed. Checkpoints are grouped by a key derived from the update
+ * parameters, and are removed when an update completes successfully. Checkpoints of an update which
+ * started more than {@link #MAX_CHECKPOINT_AGE} ago are not resumed, as the data of the staging
+ * tables is then considered outdated.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsTableCheckpointService {
+  /** Table which holds the checkpoints of analytics table updates. */
+  static final Table CHECKPOINT_TABLE =
+      new Table(
+          "analytics_tablecheckpoint",
+          List.of(
+              new Column("checkpointkey", VARCHAR_255, NOT_NULL),
+              new Column("name", VARCHAR_255, NOT_NULL),
+              new Column("created", TIMESTAMP, NOT_NULL)),
+          List.of("checkpointkey", "name"));
+
+  /** Max age of the checkpoints of an update which can be resumed. */
+  static final Duration MAX_CHECKPOINT_AGE = Duration.ofHours(24);
+
+  private final SqlBuilder sqlBuilder;
+
+  @Qualifier("analyticsJdbcTemplate")
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Indicates whether the given update can be resumed from checkpoints. This is the case for full
+   * updates, and not for latest partition and incremental updates.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @return true if the given update can be resumed from checkpoints.
+   */
+  public boolean isResumable(AnalyticsTableUpdateParams params) {
+    return !params.isLatestUpdate() && !params.isIncrementalUpdate();
+  }
+
+  /**
+   * Returns the checkpoint key for the given update parameters. Updates with the same last years,
+   * outlier and skip parameters share the same key, irrespective of start time and job.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @return the checkpoint key.
+   */
+  public String getCheckpointKey(AnalyticsTableUpdateParams params) {
+    String signature =
+        format(
+            "lastYears={};skipOutliers={};skipTableTypes={};skipPrograms={}",
+            params.getLastYears(),
+            params.isSkipOutliers(),
+            new TreeSet<>(emptyIfNull(params.getSkipTableTypes())),
+            new TreeSet<>(emptyIfNull(params.getSkipPrograms())));
+
+    return UUID.nameUUIDFromBytes(signature.getBytes(UTF_8)).toString();
+  }
+
+  /**
+   * Prepares the checkpoint table for an update with the given checkpoint key. The table is created
+   * if it does not exist, and checkpoints of updates with other keys are removed, as the staging
+   * tables of such updates cannot be reused. Checkpoints of the given key are removed as well if
+   * the oldest of them is older than {@link #MAX_CHECKPOINT_AGE}.
+   *
+   * @param checkpointKey the checkpoint key.
+   * @return the names of the checkpoints recorded for the given checkpoint key.
+   */
+  public Set<String> startCheckpoints(String checkpointKey) {
+    if (!tableExists()) {
+      jdbcTemplate.execute(sqlBuilder.createTable(CHECKPOINT_TABLE));
+    }
+
+    int removed =
+        jdbcTemplate.update(
+            format(
+                "delete from {} where checkpointkey <> ?",
+                sqlBuilder.quote(CHECKPOINT_TABLE.getName())),
+            checkpointKey);
+
+    log.debug("Removed {} checkpoints of other analytics table updates", removed);
+
+    Date oldest =
+        jdbcTemplate.queryForObject(
+            format(
+                "select min(created) from {} where checkpointkey = ?",
+                sqlBuilder.quote(CHECKPOINT_TABLE.getName())),
+            Date.class,
+            checkpointKey);
+
+    if (oldest != null && oldest.toInstant().isBefore(Instant.now().minus(MAX_CHECKPOINT_AGE))) {
+      log.info("Analytics table checkpoints from: '{}' have expired", oldest);
+
+      removeCheckpoints();
+    }
+
+    return getCheckpoints(checkpointKey);
+  }
+
+  /**
+   * Returns the names of the checkpoints recorded for the given checkpoint key.
+   *
+   * @param checkpointKey the checkpoint key.
+   * @return a set of checkpoint names.
+   */
+  public Set<String> getCheckpoints(String checkpointKey) {
+    if (!tableExists()) {
+      return Set.of();
+    }
+
+    String sql =
+        format(
+            "select name from {} where checkpointkey = ?",
+            sqlBuilder.quote(CHECKPOINT_TABLE.getName()));
+
+    return Set.copyOf(jdbcTemplate.queryForList(sql, String.class, checkpointKey));
+  }
+
+  /**
+   * Records a checkpoint with the given name for the given checkpoint key.
+   *
+   * @param checkpointKey the checkpoint key.
+   * @param name the checkpoint name.
+   */
+  public void saveCheckpoint(String checkpointKey, String name) {
+    String table = sqlBuilder.quote(CHECKPOINT_TABLE.getName());
+
+    jdbcTemplate.update(
+        format("delete from {} where checkpointkey = ? and name = ?", table), checkpointKey, name);
+    jdbcTemplate.update(
+        format("insert into {} (checkpointkey, name, created) values (?, ?, now())", table),
+        checkpointKey,
+        name);
+
+    log.debug("Saved analytics table checkpoint: '{}'", name);
+  }
+
+  /** Removes all checkpoints, typically when an update completed successfully. */
+  public void removeCheckpoints() {
+    if (tableExists()) {
+      jdbcTemplate.update(format("delete from {}", sqlBuilder.quote(CHECKPOINT_TABLE.getName())));
+    }
+  }
+
+  /**
+   * Indicates whether the checkpoint table exists.
+   *
+   * @return true if the checkpoint table exists.
+   */
+  private boolean tableExists() {
+    return !jdbcTemplate.queryForList(sqlBuilder.tableExists(CHECKPOINT_TABLE.getName())).isEmpty();
+  }
+}
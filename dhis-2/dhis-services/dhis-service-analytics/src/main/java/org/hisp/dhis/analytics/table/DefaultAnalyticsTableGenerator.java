@@ -45,6 +45,10 @@ import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
 import org.hisp.dhis.analytics.cache.OutliersCache;
+import org.hisp.dhis.analytics.cache.SubQueryCache;
+import org.hisp.dhis.analytics.cluster.EventClusterTableService;
+import org.hisp.dhis.analytics.common.TableInfoReader;
+import org.hisp.dhis.analytics.rollup.RollupTableService;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.scheduling.JobProgress;
 import org.hisp.dhis.setting.SettingKey;
@@ -59,6 +63,14 @@ import org.springframework.stereotype.Service;
 @Service("org.hisp.dhis.analytics.AnalyticsTableGenerator")
 @RequiredArgsConstructor
 public class DefaultAnalyticsTableGenerator implements AnalyticsTableGenerator {
+  private static final String CHECKPOINT_RESOURCE_TABLES = "resourcetables";
+
+  private static final String CHECKPOINT_TABLE_TYPE_PREFIX = "tabletype:";
+
+  private static final String CHECKPOINT_ROLLUP_TABLES = "rolluptables";
+
+  private static final String CHECKPOINT_EVENT_CLUSTER_TABLES = "eventclustertables";
+
   private final List<AnalyticsTableService> analyticsTableServices;
 
   private final ResourceTableService resourceTableService;
@@ -69,6 +81,16 @@ public class DefaultAnalyticsTableGenerator implements AnalyticsTableGenerator {
 
   private final OutliersCache outliersCache;
 
+  private final SubQueryCache subQueryCache;
+
+  private final RollupTableService rollupTableService;
+
+  private final EventClusterTableService eventClusterTableService;
+
+  private final AnalyticsTableCheckpointService checkpointService;
+
+  private final TableInfoReader tableInfoReader;
+
   // TODO introduce last successful timestamps per table type
 
   @Override
@@ -82,9 +104,13 @@ public class DefaultAnalyticsTableGenerator implements AnalyticsTableGenerator {
             .map(AnalyticsTableService::getAnalyticsTableType)
             .collect(Collectors.toSet());
 
+    String checkpointKey =
+        checkpointService.isResumable(params0) ? checkpointService.getCheckpointKey(params0) : null;
+
     AnalyticsTableUpdateParams params =
         AnalyticsTableUpdateParams.newBuilder(params0)
             .withLastSuccessfulUpdate(lastSuccessfulUpdate)
+            .withCheckpointKey(checkpointKey)
             .build();
 
     log.info("Found {} analytics table types: {}", availableTypes.size(), availableTypes);
@@ -94,8 +120,17 @@ public class DefaultAnalyticsTableGenerator implements AnalyticsTableGenerator {
     progress.startingProcess(
         "Analytics table update process{}", (params.isLatestUpdate() ? " (latest partition)" : ""));
 
+    Set<String> checkpoints =
+        checkpointKey != null ? checkpointService.startCheckpoints(checkpointKey) : Set.of();
+
+    if (!checkpoints.isEmpty()) {
+      log.info("Resuming analytics table update from {} checkpoints", checkpoints.size());
+    }
+
+    Checkpointer checkpointer = new Checkpointer(checkpointKey, checkpoints, progress);
+
     if (!params.isSkipResourceTables() && !params.isLatestUpdate()) {
-      generateResourceTablesInternal(progress);
+      checkpointer.run(CHECKPOINT_RESOURCE_TABLES, () -> generateResourceTablesInternal(progress));
     }
 
     Set<AnalyticsTableType> skipTypes = emptyIfNull(params.getSkipTableTypes());
@@ -104,16 +139,41 @@ public class DefaultAnalyticsTableGenerator implements AnalyticsTableGenerator {
       AnalyticsTableType tableType = service.getAnalyticsTableType();
 
       if (!skipTypes.contains(tableType)) {
-        service.create(params, progress);
+        checkpointer.run(
+            CHECKPOINT_TABLE_TYPE_PREFIX + tableType.name(),
+            () -> service.create(params, progress));
       }
     }
 
+    // Derived tables are generated in full, so skip them for latest partition and incremental
+    // updates which only touch recently changed data
+
+    boolean derivedTableUpdate = !params.isLatestUpdate() && !params.isIncrementalUpdate();
+
+    if (derivedTableUpdate && !skipTypes.contains(AnalyticsTableType.DATA_VALUE)) {
+      checkpointer.run(
+          CHECKPOINT_ROLLUP_TABLES, () -> rollupTableService.generateRollupTables(progress));
+    }
+
+    if (derivedTableUpdate && !skipTypes.contains(AnalyticsTableType.EVENT)) {
+      checkpointer.run(
+          CHECKPOINT_EVENT_CLUSTER_TABLES,
+          () -> eventClusterTableService.generateEventClusterTables(progress));
+    }
+
     progress.startingStage("Updating system settings");
     progress.runStage(() -> updateLastSuccessfulSystemSettings(params, clock));
 
+    if (checkpointKey != null) {
+      progress.startingStage("Removing analytics table checkpoints", SKIP_STAGE);
+      progress.runStage(checkpointService::removeCheckpoints);
+    }
+
     progress.startingStage("Invalidate analytics caches", SKIP_STAGE);
     progress.runStage(analyticsCache::invalidateAll);
     progress.runStage(outliersCache::invalidateAll);
+    progress.runStage(subQueryCache::invalidateAll);
+    progress.runStage(tableInfoReader::invalidateColumnCache);
     progress.completedProcess("Analytics tables updated: {}", clock.time());
   }
 
@@ -151,6 +211,39 @@ public class DefaultAnalyticsTableGenerator implements AnalyticsTableGenerator {
   // Supportive methods
   // -------------------------------------------------------------------------
 
+  /**
+   * Runs steps of an analytics table update which can be resumed. A step is skipped if a checkpoint
+   * for the step exists, and a checkpoint is recorded when the step completes, unless the update
+   * was cancelled or aborted. Steps are always run if the update does not record checkpoints.
+   */
+  @RequiredArgsConstructor
+  private class Checkpointer {
+    private final String checkpointKey;
+
+    private final Set<String> checkpoints;
+
+    private final JobProgress progress;
+
+    /**
+     * Runs the given step unless a checkpoint with the given name exists.
+     *
+     * @param name the checkpoint name.
+     * @param step the step to run.
+     */
+    void run(String name, Runnable step) {
+      if (checkpoints.contains(name)) {
+        log.info("Skipping completed analytics table update step: '{}'", name);
+        return;
+      }
+
+      step.run();
+
+      if (checkpointKey != null && !progress.isCancelled() && !progress.isAborted()) {
+        checkpointService.saveCheckpoint(checkpointKey, name);
+      }
+    }
+  }
+
   private void generateResourceTablesInternal(JobProgress progress) {
     resourceTableService.dropAllSqlViews(progress);
 
@@ -27,21 +27,34 @@
  */
 package org.hisp.dhis.analytics.table;
 
+import static java.util.function.Predicate.not;
 import static org.hisp.dhis.analytics.util.AnalyticsIndexHelper.getIndexes;
 import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_ITEM_OUTLIER;
 import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_STAGE;
 import static org.hisp.dhis.util.DateUtils.toLongDate;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.analytics.AnalyticsTableManager;
 import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.table.model.AnalyticsColumnType;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
+import org.hisp.dhis.analytics.table.model.AnalyticsTableColumn;
 import org.hisp.dhis.analytics.table.model.AnalyticsTablePartition;
 import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.commons.util.SystemUtils;
@@ -74,6 +87,10 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
 
   private final SqlBuilder sqlBuilder;
 
+  private final AnalyticsTableCheckpointService checkpointService;
+
+  private final AnalyticsColumnUsageService columnUsageService;
+
   @Override
   public AnalyticsTableType getAnalyticsTableType() {
     return tableManager.getAnalyticsTableType();
@@ -116,6 +133,17 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
       return;
     }
 
+    if (params.isIncrementalUpdate()) {
+      if (tables.stream().allMatch(tableManager::canUpdateIncrementally)) {
+        updateTablesIncrementally(params, tables, progress, clock);
+        return;
+      }
+
+      log.info(
+          "Incremental update not possible for table type: '{}', performing regular update",
+          tableType);
+    }
+
     clock.logTime(
         "Table update start: {}, earliest: {}, parameters: {}",
         tableType.getTableName(),
@@ -125,47 +153,60 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
     progress.runStage(() -> tableManager.preCreateTables(params));
     clock.logTime("Performed pre-create table work " + tableType);
 
+    Set<String> resumedPartitions = getResumedPartitions(params, tables);
+
     progress.startingStage("Dropping staging tables (if any) " + tableType, tables.size());
-    dropTables(tables, progress);
+    dropTables(tables, resumedPartitions, progress);
     clock.logTime("Dropped staging tables");
 
     progress.startingStage("Creating analytics tables " + tableType, tables.size());
-    createTables(tables, progress);
+    createTables(tables, resumedPartitions, progress);
     clock.logTime("Created analytics tables");
 
     List<AnalyticsTablePartition> partitions = getTablePartitions(tables);
     int partitionSize = partitions.size();
+    BiPredicate<AnalyticsTable, AnalyticsTableColumn> indexFilter = getIndexFilter(tables);
+
+    if (isPipelinedUpdate(partitions)) {
+      List<AnalyticsTablePartition> pendingPartitions =
+          partitions.stream().filter(p -> !resumedPartitions.contains(p.getName())).toList();
+
+      processTablePartitions(params, pendingPartitions, indexFilter, progress, clock);
+    } else {
+      progress.startingStage(
+          "Populating " + partitionSize + " analytics tables " + tableType, partitionSize);
+      populateTables(params, partitions, progress);
+      clock.logTime("Populated analytics tables");
+
+      progress.startingStage("Invoking analytics table hooks " + tableType);
+      tableUpdates += progress.runStage(0, tableManager::invokeAnalyticsTableSqlHooks);
+      clock.logTime("Invoked analytics table hooks");
+
+      tableUpdates += applyAggregationLevels(tableType, partitions, progress);
+      clock.logTime("Applied aggregation levels");
+
+      List<Index> indexes =
+          sqlBuilder.requiresIndexesForAnalytics()
+              ? getIndexes(partitions, indexFilter)
+              : List.of();
+      int indexSize = indexes.size();
+
+      progress.startingStage(
+          "Creating " + indexSize + " indexes " + tableType, indexSize, SKIP_ITEM_OUTLIER);
+      createIndexes(indexes, progress);
+      clock.logTime("Created indexes");
+
+      if (tableUpdates > 0 && sqlBuilder.supportsVacuum()) {
+        progress.startingStage("Vacuuming tables " + tableType, partitions.size());
+        vacuumTables(partitions, progress);
+        clock.logTime("Tables vacuumed");
+      }
 
-    progress.startingStage(
-        "Populating " + partitionSize + " analytics tables " + tableType, partitionSize);
-    populateTables(params, partitions, progress);
-    clock.logTime("Populated analytics tables");
-
-    progress.startingStage("Invoking analytics table hooks " + tableType);
-    tableUpdates += progress.runStage(0, tableManager::invokeAnalyticsTableSqlHooks);
-    clock.logTime("Invoked analytics table hooks");
-
-    tableUpdates += applyAggregationLevels(tableType, partitions, progress);
-    clock.logTime("Applied aggregation levels");
-
-    List<Index> indexes = getIndexes(partitions);
-    int indexSize = indexes.size();
-
-    progress.startingStage(
-        "Creating " + indexSize + " indexes " + tableType, indexSize, SKIP_ITEM_OUTLIER);
-    createIndexes(indexes, progress);
-    clock.logTime("Created indexes");
-
-    if (tableUpdates > 0 && sqlBuilder.supportsVacuum()) {
-      progress.startingStage("Vacuuming tables " + tableType, partitions.size());
-      vacuumTables(partitions, progress);
-      clock.logTime("Tables vacuumed");
+      progress.startingStage("Analyzing analytics tables " + tableType, partitions.size());
+      analyzeTables(partitions, progress);
+      clock.logTime("Analyzed tables");
     }
 
-    progress.startingStage("Analyzing analytics tables " + tableType, partitions.size());
-    analyzeTables(partitions, progress);
-    clock.logTime("Analyzed tables");
-
     if (params.isLatestUpdate()) {
       progress.startingStage("Removing updated and deleted data " + tableType, SKIP_STAGE);
       progress.runStage(() -> tableManager.removeUpdatedData(tables));
@@ -174,9 +215,72 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
 
     swapTables(params, tables, progress);
 
+    if (!params.isLatestUpdate() && tableManager.supportsIncrementalUpdate()) {
+      saveHighWaterMarks(params, getYearlyTablePartitions(tables), progress);
+    }
+
     clock.logTime("Table update done: '{}'", tableType.getTableName());
   }
 
+  /**
+   * Updates the existing main table partitions of the given tables in place with data which changed
+   * since the high-water mark of each partition. Aggregation levels are applied to and statistics
+   * are refreshed for the partitions which had changed data only.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @param tables the list of {@link AnalyticsTable}.
+   * @param progress the {@link JobProgress}.
+   * @param clock the {@link Clock}.
+   */
+  private void updateTablesIncrementally(
+      AnalyticsTableUpdateParams params,
+      List<AnalyticsTable> tables,
+      JobProgress progress,
+      Clock clock) {
+    AnalyticsTableType tableType = getAnalyticsTableType();
+    List<AnalyticsTablePartition> partitions = getYearlyTablePartitions(tables);
+    List<AnalyticsTablePartition> updatedPartitions =
+        Collections.synchronizedList(new ArrayList<>());
+
+    clock.logTime(
+        "Incremental table update start: {}, partitions: {}, parameters: {}",
+        tableType.getTableName(),
+        partitions.size(),
+        params);
+
+    progress.startingStage("Performing pre-create table work");
+    progress.runStage(() -> tableManager.preCreateTables(params));
+
+    progress.startingStage(
+        "Updating " + partitions.size() + " analytics tables incrementally " + tableType,
+        partitions.size());
+    progress.runStageInParallel(
+        Math.min(getParallelJobs(), partitions.size()),
+        partitions,
+        AnalyticsTablePartition::getMainName,
+        partition -> {
+          if (tableManager.updateTableIncrementally(params, partition)) {
+            updatedPartitions.add(partition);
+          }
+        });
+    clock.logTime("Updated {} analytics tables incrementally", updatedPartitions.size());
+
+    if (!updatedPartitions.isEmpty()) {
+      List<Table> mainPartitions = updatedPartitions.stream().map(Table::swapFromStaging).toList();
+
+      applyAggregationLevels(tableType, mainPartitions, progress);
+      clock.logTime("Applied aggregation levels");
+
+      progress.startingStage("Analyzing analytics tables " + tableType, mainPartitions.size());
+      analyzeTables(mainPartitions, progress);
+      clock.logTime("Analyzed tables");
+    }
+
+    saveHighWaterMarks(params, partitions, progress);
+
+    clock.logTime("Incremental table update done: '{}'", tableType.getTableName());
+  }
+
   @Override
   public void dropTables() {
     Set<String> tables = tableManager.getExistingDatabaseTables();
@@ -200,24 +304,117 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
   // -------------------------------------------------------------------------
 
   /**
-   * Drops the given analytics tables.
+   * Returns the names of the staging table partitions which were completed by a previous update
+   * with the same checkpoint key, and which can be reused by this update. Partitions of a table are
+   * reused only if the staging table and all completed partitions exist with the current columns of
+   * the table.
    *
+   * @param params the {@link AnalyticsTableUpdateParams}.
    * @param tables the list of {@link AnalyticsTable}.
-   * @param progress the {@link JobProgress}.
+   * @return a set of staging table partition names.
    */
-  private void dropTables(List<AnalyticsTable> tables, JobProgress progress) {
+  Set<String> getResumedPartitions(AnalyticsTableUpdateParams params, List<AnalyticsTable> tables) {
+    if (params.getCheckpointKey() == null) {
+      return Set.of();
+    }
+
+    Set<String> checkpoints = checkpointService.getCheckpoints(params.getCheckpointKey());
+    Set<String> resumedPartitions = new HashSet<>();
+
+    for (AnalyticsTable table : tables) {
+      List<String> completedPartitions =
+          getTablePartitions(List.of(table)).stream()
+              .map(AnalyticsTablePartition::getName)
+              .filter(checkpoints::contains)
+              .toList();
+
+      if (!completedPartitions.isEmpty()
+          && tableManager.canReuseStagingTable(table, table.getName())
+          && completedPartitions.stream()
+              .allMatch(name -> tableManager.canReuseStagingTable(table, name))) {
+        resumedPartitions.addAll(completedPartitions);
+      }
+    }
 
-    progress.runStage(tables, AnalyticsTable::getName, tableManager::dropTable);
+    if (!resumedPartitions.isEmpty()) {
+      log.info(
+          "Resuming update of type: {}, reusing {} completed table partitions",
+          getAnalyticsTableType(),
+          resumedPartitions.size());
+    }
+
+    return resumedPartitions;
   }
 
   /**
-   * Creates the given analytics tables.
+   * Drops the given analytics tables. For tables with resumed partitions, only the partitions which
+   * are not resumed are dropped.
    *
    * @param tables the list of {@link AnalyticsTable}.
+   * @param resumedPartitions the names of resumed table partitions.
    * @param progress the {@link JobProgress}.
    */
-  private void createTables(List<AnalyticsTable> tables, JobProgress progress) {
-    progress.runStage(tables, AnalyticsTable::getName, tableManager::createTable);
+  private void dropTables(
+      List<AnalyticsTable> tables, Set<String> resumedPartitions, JobProgress progress) {
+    progress.runStage(
+        tables,
+        AnalyticsTable::getName,
+        table -> {
+          if (isResumed(table, resumedPartitions)) {
+            getPendingPartitions(table, resumedPartitions).forEach(tableManager::dropTable);
+          } else {
+            tableManager.dropTable(table);
+          }
+        });
+  }
+
+  /**
+   * Creates the given analytics tables. For tables with resumed partitions, only the partitions
+   * which are not resumed are created.
+   *
+   * @param tables the list of {@link AnalyticsTable}.
+   * @param resumedPartitions the names of resumed table partitions.
+   * @param progress the {@link JobProgress}.
+   */
+  private void createTables(
+      List<AnalyticsTable> tables, Set<String> resumedPartitions, JobProgress progress) {
+    progress.runStage(
+        tables,
+        AnalyticsTable::getName,
+        table -> {
+          if (isResumed(table, resumedPartitions)) {
+            getPendingPartitions(table, resumedPartitions)
+                .forEach(tableManager::createTablePartition);
+          } else {
+            tableManager.createTable(table);
+          }
+        });
+  }
+
+  /**
+   * Indicates whether any partition of the given table is resumed.
+   *
+   * @param table the {@link AnalyticsTable}.
+   * @param resumedPartitions the names of resumed table partitions.
+   * @return true if any partition of the given table is resumed.
+   */
+  private boolean isResumed(AnalyticsTable table, Set<String> resumedPartitions) {
+    return getTablePartitions(List.of(table)).stream()
+        .anyMatch(p -> resumedPartitions.contains(p.getName()));
+  }
+
+  /**
+   * Returns the partitions of the given table which are not resumed.
+   *
+   * @param table the {@link AnalyticsTable}.
+   * @param resumedPartitions the names of resumed table partitions.
+   * @return a list of {@link AnalyticsTablePartition}.
+   */
+  private List<AnalyticsTablePartition> getPendingPartitions(
+      AnalyticsTable table, Set<String> resumedPartitions) {
+    return getTablePartitions(List.of(table)).stream()
+        .filter(p -> !resumedPartitions.contains(p.getName()))
+        .toList();
   }
 
   /**
@@ -241,6 +438,158 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
         partition -> tableManager.populateTable(params, partition));
   }
 
+  /**
+   * Indicates whether the given partitions should be processed as a pipeline, where each partition
+   * is populated, aggregated, indexed and analyzed independently of other partitions. This is not
+   * the case when analytics table SQL hooks exist, as hooks must be invoked after all partitions
+   * are populated, or when there is a single partition only, as indexes of a single table are
+   * better created in parallel.
+   *
+   * @param partitions the list of {@link AnalyticsTablePartition}.
+   * @return true if the partitions should be processed as a pipeline.
+   */
+  private boolean isPipelinedUpdate(List<AnalyticsTablePartition> partitions) {
+    return partitions.size() > 1 && !tableManager.hasAnalyticsTableSqlHooks();
+  }
+
+  /**
+   * Processes the given partitions as a pipeline. Each partition is populated, has aggregation
+   * levels applied, is indexed, vacuumed if required and analyzed as soon as possible, without
+   * waiting for other partitions to complete each step. Partitions are processed in parallel. The
+   * total time spent in each step across partitions is logged when all partitions are processed. A
+   * checkpoint is recorded for each processed partition if the update records checkpoints. The
+   * update fails if any partition fails to be processed, so that incomplete tables, such as tables
+   * with missing indexes, are not swapped into place.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @param partitions the list of {@link AnalyticsTablePartition}.
+   * @param indexFilter the filter of columns to index.
+   * @param progress the {@link JobProgress}.
+   * @param clock the {@link Clock}.
+   */
+  private void processTablePartitions(
+      AnalyticsTableUpdateParams params,
+      List<AnalyticsTablePartition> partitions,
+      BiPredicate<AnalyticsTable, AnalyticsTableColumn> indexFilter,
+      JobProgress progress,
+      Clock clock) {
+    AnalyticsTableType tableType = getAnalyticsTableType();
+    Map<Integer, List<String>> aggLevels = getAggregationLevelDataElements();
+    boolean vacuum = !aggLevels.isEmpty() && sqlBuilder.supportsVacuum();
+    int parallelism = Math.min(getParallelJobs(), partitions.size());
+    PipelineTimer timer = new PipelineTimer();
+    Set<String> failedPartitions = ConcurrentHashMap.newKeySet();
+
+    progress.startingStage(
+        "Processing " + partitions.size() + " analytics tables " + tableType, partitions.size());
+    progress.runStageInParallel(
+        parallelism,
+        partitions,
+        AnalyticsTablePartition::getName,
+        partition -> {
+          try {
+            processTablePartition(params, partition, indexFilter, aggLevels, vacuum, timer);
+          } catch (RuntimeException ex) {
+            failedPartitions.add(partition.getName());
+            throw ex;
+          }
+        });
+
+    if (!failedPartitions.isEmpty()) {
+      throw new IllegalStateException(
+          "Failed to process analytics tables: " + String.join(", ", failedPartitions));
+    }
+
+    clock.logTime("Processed analytics tables, step times: {}", timer);
+  }
+
+  /**
+   * Processes the given partition by populating it, applying aggregation levels, creating indexes,
+   * vacuuming if required and analyzing it.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @param partition the {@link AnalyticsTablePartition}.
+   * @param indexFilter the filter of columns to index.
+   * @param aggLevels the data elements with aggregation levels by level.
+   * @param vacuum whether to vacuum the partition.
+   * @param timer the {@link PipelineTimer}.
+   */
+  private void processTablePartition(
+      AnalyticsTableUpdateParams params,
+      AnalyticsTablePartition partition,
+      BiPredicate<AnalyticsTable, AnalyticsTableColumn> indexFilter,
+      Map<Integer, List<String>> aggLevels,
+      boolean vacuum,
+      PipelineTimer timer) {
+    timer.time(PipelineStep.POPULATE, () -> tableManager.populateTable(params, partition));
+    timer.time(
+        PipelineStep.AGGREGATION_LEVELS,
+        () ->
+            aggLevels.forEach(
+                (level, dataElements) ->
+                    tableManager.applyAggregationLevels(partition, dataElements, level)));
+    timer.time(PipelineStep.INDEXES, () -> createIndexes(partition, indexFilter));
+
+    if (vacuum) {
+      timer.time(PipelineStep.VACUUM, () -> tableManager.vacuumTable(partition));
+    }
+
+    timer.time(PipelineStep.ANALYZE, () -> tableManager.analyzeTable(partition));
+
+    if (params.getCheckpointKey() != null) {
+      checkpointService.saveCheckpoint(params.getCheckpointKey(), partition.getName());
+    }
+  }
+
+  /**
+   * Creates the indexes of the given partition. Failure to create an index fails the processing of
+   * the partition.
+   *
+   * @param partition the {@link AnalyticsTablePartition}.
+   * @param indexFilter the filter of columns to index.
+   */
+  private void createIndexes(
+      AnalyticsTablePartition partition,
+      BiPredicate<AnalyticsTable, AnalyticsTableColumn> indexFilter) {
+    if (!sqlBuilder.requiresIndexesForAnalytics()) {
+      return;
+    }
+
+    for (Index index : getIndexes(List.of(partition), indexFilter)) {
+      tableManager.createIndex(index);
+    }
+  }
+
+  /**
+   * Returns the filter of columns to index for the given tables. When indexes are built for used
+   * columns only, dynamic columns of event and enrollment analytics tables are indexed only if they
+   * were used in queries within the column usage window. Otherwise all columns are indexed.
+   *
+   * @param tables the list of {@link AnalyticsTable}.
+   * @return the filter of columns to index.
+   */
+  BiPredicate<AnalyticsTable, AnalyticsTableColumn> getIndexFilter(List<AnalyticsTable> tables) {
+    AnalyticsTableType tableType = getAnalyticsTableType();
+
+    if ((tableType != AnalyticsTableType.EVENT && tableType != AnalyticsTableType.ENROLLMENT)
+        || !sqlBuilder.requiresIndexesForAnalytics()
+        || !columnUsageService.isIndexUsedColumnsOnly()) {
+      return (table, column) -> true;
+    }
+
+    Map<String, Set<String>> usedColumns = new HashMap<>();
+    tables.forEach(
+        table ->
+            usedColumns.put(
+                table.getMainName(), columnUsageService.getUsedColumns(table.getMainName())));
+
+    log.info("Indexing used dynamic columns only for type: {}", tableType);
+
+    return (table, column) ->
+        column.getColumnType() != AnalyticsColumnType.DYNAMIC
+            || usedColumns.getOrDefault(table.getMainName(), Set.of()).contains(column.getName());
+  }
+
   /**
    * Applies aggregation levels to the given analytics tables.
    *
@@ -251,9 +600,37 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
    */
   private int applyAggregationLevels(
       AnalyticsTableType tableType, List<? extends Table> tables, JobProgress progress) {
+    int aggLevels = 0;
+
+    for (Map.Entry<Integer, List<String>> entry : getAggregationLevelDataElements().entrySet()) {
+      int level = entry.getKey();
+      List<String> dataElements = entry.getValue();
+
+      progress.startingStage(
+          "Applying aggregation level " + level + " " + tableType, tables.size());
+      progress.runStageInParallel(
+          getParallelJobs(),
+          tables,
+          Table::getName,
+          partition -> tableManager.applyAggregationLevels(partition, dataElements, level));
+
+      aggLevels += dataElements.size();
+    }
+
+    return aggLevels;
+  }
+
+  /**
+   * Returns the identifiers of data elements with aggregation levels, mapped by organisation unit
+   * level. Levels are ordered from the highest to the lowest level number, which is the order in
+   * which aggregation levels must be applied. Levels with no data elements are not included.
+   *
+   * @return a map of organisation unit level and list of data element identifiers.
+   */
+  private Map<Integer, List<String>> getAggregationLevelDataElements() {
     int maxLevels = organisationUnitService.getNumberOfOrganisationalLevels();
 
-    int aggLevels = 0;
+    Map<Integer, List<String>> levels = new LinkedHashMap<>();
 
     for (int i = 0; i < maxLevels; i++) {
       int level = maxLevels - i;
@@ -263,19 +640,11 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
               dataElementService.getDataElementsByAggregationLevel(level));
 
       if (!dataElements.isEmpty()) {
-        progress.startingStage(
-            "Applying aggregation level " + level + " " + tableType, tables.size());
-        progress.runStageInParallel(
-            getParallelJobs(),
-            tables,
-            Table::getName,
-            partition -> tableManager.applyAggregationLevels(partition, dataElements, level));
-
-        aggLevels += dataElements.size();
+        levels.put(level, dataElements);
       }
     }
 
-    return aggLevels;
+    return levels;
   }
 
   /**
@@ -329,6 +698,39 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
     resourceTableService.createAllSqlViews(progress);
   }
 
+  /**
+   * Saves the start time of the given update process as high-water mark of the given partitions.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @param partitions the list of {@link AnalyticsTablePartition}.
+   * @param progress the {@link JobProgress}.
+   */
+  private void saveHighWaterMarks(
+      AnalyticsTableUpdateParams params,
+      List<AnalyticsTablePartition> partitions,
+      JobProgress progress) {
+    progress.startingStage(
+        "Saving high-water marks " + getAnalyticsTableType(), partitions.size(), SKIP_STAGE);
+    progress.runStage(
+        partitions,
+        AnalyticsTablePartition::getMainName,
+        partition -> tableManager.saveHighWaterMark(partition, params.getStartTime()));
+  }
+
+  /**
+   * Returns the yearly table partitions of the given analytics tables, ignoring the declarative
+   * partitioning capabilities of the database.
+   *
+   * @param tables the list of {@link AnalyticsTable}.
+   * @return a list of {@link AnalyticsTablePartition}.
+   */
+  List<AnalyticsTablePartition> getYearlyTablePartitions(List<AnalyticsTable> tables) {
+    return tables.stream()
+        .flatMap(table -> table.getTablePartitions().stream())
+        .filter(not(AnalyticsTablePartition::isLatestPartition))
+        .toList();
+  }
+
   /**
    * Returns a list of table partitions based on the given analytics tables. For master tables with
    * no partitions, a fake partition representing the master table is used.
@@ -383,4 +785,44 @@ public class DefaultAnalyticsTableService implements AnalyticsTableService {
 
     return serverCpus;
   }
+
+  /** Steps of the analytics table partition pipeline. */
+  private enum PipelineStep {
+    POPULATE,
+    AGGREGATION_LEVELS,
+    INDEXES,
+    VACUUM,
+    ANALYZE
+  }
+
+  /** Accumulates the time spent in each pipeline step across partitions. */
+  private static class PipelineTimer {
+    private final Map<PipelineStep, LongAdder> millis = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the given work and adds the elapsed time to the given step.
+     *
+     * @param step the {@link PipelineStep}.
+     * @param work the work to run.
+     */
+    void time(PipelineStep step, Runnable work) {
+      long start = System.currentTimeMillis();
+
+      try {
+        work.run();
+      } finally {
+        millis
+            .computeIfAbsent(step, key -> new LongAdder())
+            .add(System.currentTimeMillis() - start);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return Stream.of(PipelineStep.values())
+          .filter(millis::containsKey)
+          .map(step -> step.name().toLowerCase() + ": " + millis.get(step).sum() + " ms")
+          .collect(Collectors.joining(", "));
+    }
+  }
 }
@@ -56,6 +56,7 @@ import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.outlier.service.OutlierStatsTableService;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
 import org.hisp.dhis.analytics.table.model.AnalyticsTableColumn;
@@ -160,6 +161,8 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
               .selectExpression("ous.level as oulevel")
               .build());
 
+  private final OutlierStatsTableService outlierStatsTableService;
+
   public JdbcAnalyticsTableManager(
       IdentifiableObjectManager idObjectManager,
       OrganisationUnitService organisationUnitService,
@@ -173,7 +176,8 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
       @Qualifier("analyticsJdbcTemplate") JdbcTemplate jdbcTemplate,
       AnalyticsTableSettings analyticsTableSettings,
       PeriodDataProvider periodDataProvider,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      OutlierStatsTableService outlierStatsTableService) {
     super(
         idObjectManager,
         organisationUnitService,
@@ -188,6 +192,7 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
         analyticsTableSettings,
         periodDataProvider,
         sqlBuilder);
+    this.outlierStatsTableService = outlierStatsTableService;
   }
 
   // -------------------------------------------------------------------------
@@ -229,11 +234,42 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
     return !jdbcTemplate.queryForList(sql).isEmpty();
   }
 
+  /**
+   * Indicates whether data values for the given year were created, updated or deleted within the
+   * given time range.
+   *
+   * @param year the year.
+   * @param startDate the start date, inclusive.
+   * @param endDate the end date, exclusive.
+   * @return true if updated data exists, false if not.
+   */
+  private boolean hasUpdatedData(Integer year, Date startDate, Date endDate) {
+    String sql =
+        replace(
+            """
+            select dv.dataelementid \
+            from datavalue dv \
+            inner join analytics_rs_periodstructure ps on dv.periodid=ps.periodid \
+            where ps.year = ${year} \
+            and dv.lastupdated >= '${startDate}' and dv.lastupdated < '${endDate}' \
+            limit 1;""",
+            Map.of(
+                "year", String.valueOf(year),
+                "startDate", toLongDate(startDate),
+                "endDate", toLongDate(endDate)));
+    return !jdbcTemplate.queryForList(sql).isEmpty();
+  }
+
   @Override
   public void preCreateTables(AnalyticsTableUpdateParams params) {
     if (isApprovalEnabled(null)) {
       resourceTableService.generateDataApprovalResourceTables();
     }
+
+    if (!params.isSkipOutliers()) {
+      outlierStatsTableService.updateOutlierStats(
+          params.getStartTime(), !params.isLatestUpdate() && !params.isIncrementalUpdate());
+    }
   }
 
   @Override
@@ -260,6 +296,56 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
     invokeTimeAndLog(sql, "Remove updated data values");
   }
 
+  @Override
+  public boolean supportsIncrementalUpdate() {
+    return true;
+  }
+
+  @Override
+  public boolean updateTableIncrementally(
+      AnalyticsTableUpdateParams params, AnalyticsTablePartition partition) {
+    Date highWaterMark = getHighWaterMark(partition);
+
+    if (highWaterMark == null
+        || !hasUpdatedData(partition.getYear(), highWaterMark, params.getStartTime())) {
+      return false;
+    }
+
+    String tableName = partition.getMainName();
+    String sql =
+        replace(
+            """
+            delete from ${tableName} ax \
+            where ax.year = ${year} \
+            and ax.id in ( \
+            select concat(de.uid,'-',ps.iso,'-',ou.uid,'-',co.uid,'-',ao.uid) as id \
+            from datavalue dv \
+            inner join dataelement de on dv.dataelementid=de.dataelementid \
+            inner join analytics_rs_periodstructure ps on dv.periodid=ps.periodid \
+            inner join organisationunit ou on dv.sourceid=ou.organisationunitid \
+            inner join categoryoptioncombo co on dv.categoryoptioncomboid=co.categoryoptioncomboid \
+            inner join categoryoptioncombo ao on dv.attributeoptioncomboid=ao.categoryoptioncomboid \
+            where ps.year = ${year} \
+            and dv.lastupdated >= '${startDate}' and dv.lastupdated < '${endDate}');""",
+            Map.of(
+                "tableName", quote(tableName),
+                "year", String.valueOf(partition.getYear()),
+                "startDate", toLongDate(highWaterMark),
+                "endDate", toLongDate(params.getStartTime())));
+
+    invokeTimeAndLog(sql, "Remove updated data values from table: '{}'", tableName);
+
+    String updatedClause =
+        format(
+            "and ps.year = {} and dv.lastupdated >= '{}' ",
+            partition.getYear(),
+            toLongDate(highWaterMark));
+
+    populateTable(params, partition, tableName, updatedClause);
+
+    return true;
+  }
+
   @Override
   protected List<String> getPartitionChecks(Integer year, Date endDate) {
     Objects.requireNonNull(year);
@@ -269,6 +355,22 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
 
   @Override
   public void populateTable(AnalyticsTableUpdateParams params, AnalyticsTablePartition partition) {
+    populateTable(params, partition, partition.getName(), getPartitionClause(partition));
+  }
+
+  /**
+   * Populates the given analytics table with data values of all value types.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @param partition the {@link AnalyticsTablePartition}.
+   * @param tableName the name of the table to insert into.
+   * @param partitionClause the partition SQL clause.
+   */
+  private void populateTable(
+      AnalyticsTableUpdateParams params,
+      AnalyticsTablePartition partition,
+      String tableName,
+      String partitionClause) {
     boolean skipDataTypeValidation =
         systemSettingManager.getBoolSetting(
             SettingKey.SKIP_DATA_TYPE_VALIDATION_IN_ANALYTICS_TABLE_EXPORT);
@@ -298,6 +400,8 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
     populateTable(
         params,
         partition,
+        tableName,
+        partitionClause,
         "cast(dv.value as " + doubleDataType + ")",
         "null",
         ValueType.NUMERIC_TYPES,
@@ -305,14 +409,26 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
     populateTable(
         params,
         partition,
+        tableName,
+        partitionClause,
         "1",
         "null",
         Set.of(ValueType.BOOLEAN, ValueType.TRUE_ONLY),
         "dv.value = 'true'");
-    populateTable(params, partition, "0", "null", Set.of(ValueType.BOOLEAN), "dv.value = 'false'");
     populateTable(
         params,
         partition,
+        tableName,
+        partitionClause,
+        "0",
+        "null",
+        Set.of(ValueType.BOOLEAN),
+        "dv.value = 'false'");
+    populateTable(
+        params,
+        partition,
+        tableName,
+        partitionClause,
         "null",
         "dv.value",
         Sets.union(ValueType.TEXT_TYPES, ValueType.DATE_TYPES),
@@ -322,6 +438,8 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
   /**
    * Populates the given analytics table.
    *
+   * @param tableName the name of the table to insert into.
+   * @param partitionClause the partition SQL clause.
    * @param valueExpression numeric value expression.
    * @param textValueExpression textual value expression.
    * @param valueTypes data element value types to include data for.
@@ -330,18 +448,18 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
   private void populateTable(
       AnalyticsTableUpdateParams params,
       AnalyticsTablePartition partition,
+      String tableName,
+      String partitionClause,
       String valueExpression,
       String textValueExpression,
       Set<ValueType> valueTypes,
       String whereClause) {
-    String tableName = partition.getName();
     String valTypes = quotedCommaDelimitedString(ObjectUtils.asStringList(valueTypes));
     boolean respectStartEndDates =
         systemSettingManager.getBoolSetting(
             SettingKey.RESPECT_META_DATA_START_END_DATES_IN_ANALYTICS_TABLE_EXPORT);
     String approvalSelectExpression = getApprovalSelectExpression(partition.getYear());
     String approvalClause = getApprovalJoinClause(partition.getYear());
-    String partitionClause = getPartitionClause(partition);
 
     StringBuilder sql =
         new StringBuilder(replace("insert into ${tableName} (", Map.of("tableName", tableName)));
@@ -742,77 +860,18 @@ public class JdbcAnalyticsTableManager extends AbstractJdbcTableManager {
 
   /**
    * The outlier identification is using z-score and modified z-score. The function is retrieving
-   * the sql statement for analytics table population (analytics and its partitions).
+   * the sql statement for joining the statistic basic values for the outlier identification, as
+   * maintained by the {@link OutlierStatsTableService}, for analytics table population.
    *
    * @return sql statement fraction of statistic basic values for the outlier identification.
    */
   private String getOutliersJoinStatement() {
-    return "left join (select t3.dataelementid, "
-        + "t3.sourceid, "
-        + "t3.categoryoptioncomboid, "
-        + "t3.attributeoptioncomboid, "
-        // median of absolute deviations "mad" (median(xi - median(xi)))
-        + "percentile_cont(0.5) "
-        + "within group (order by abs(t3.value::double precision - t3.percentile_middle_value)) as MAD, "
-        // mean
-        + "avg(t3.value::double precision) as avg_middle_value, "
-        // median of the samples (median(xi))
-        + "percentile_cont(0.5) "
-        + "within group (order by t3.value::double precision) as percentile_middle_value, "
-        // standard deviation of the normal distribution
-        + "stddev_pop(t3.value::double precision) as std_dev "
-        // Table "t3" is the composition of the tables "t2" (median of xi) and "t3" (values xi).
-        // For Z-Score the mean (avg_middle_value) and standard deviation (std_dev) is used ((xi -
-        // mean(x))/std_dev).
-        // For modified Z-Score the median (percentile_middle_value) and the median of absolute
-        // deviations (mad) is used (0.6745*(xi - median(x)/mad)).
-        // The factor 0.6745 is the 0.75 quartile of the normal distribution, to which the "mad"
-        // converges to.
-        + "from (select t1.dataelementid, "
-        + "t1.sourceid, "
-        + "t1.categoryoptioncomboid, "
-        + "t1.attributeoptioncomboid, "
-        + "t1.percentile_middle_value, "
-        + "t2.value "
-        // Table "t1" retrieving the median of all data element (dataelementid) values belongs to
-        // the same organisation (sourceid)
-        // coc and aoc.
-        + "from (select dv1.dataelementid as dataelementid, "
-        + "dv1.sourceid as sourceid, "
-        + "dv1.categoryoptioncomboid as categoryoptioncomboid, "
-        + "dv1.attributeoptioncomboid as attributeoptioncomboid, "
-        // median
-        + "percentile_cont(0.5) "
-        + "within group (order by dv1.value::double precision) as percentile_middle_value "
-        + "from datavalue dv1 "
-        // Only numeric values (value is varchar or string) can be used for stats calculation.
-        + "where dv1.value ~ '^[-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?$' "
-        + "group by dv1.dataelementid, dv1.sourceid, dv1.categoryoptioncomboid, "
-        + "dv1.attributeoptioncomboid) t1 "
-        + "join "
-        // Table "t2" is the complement of the t1 table. It contains all values belong to the
-        // specific median (see t1).
-        // To "group by" criteria is added the time dimension (periodid). This part of the query has
-        // to be verified (maybe add TEI to aggregation criteria).
-        + "(select dv1.dataelementid as dataelementid, "
-        + "dv1.sourceid as sourceid, "
-        + "dv1.categoryoptioncomboid  as categoryoptioncomboid, "
-        + "dv1.attributeoptioncomboid as attributeoptioncomboid, "
-        + "dv1.value, "
-        + "dv1.periodid "
-        + "from datavalue dv1 "
-        // Only numeric values (varchars) can be used for stats calculation.
-        + "where dv1.value ~ '^[-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?$' "
-        + "group by dv1.dataelementid, dv1.sourceid, dv1.categoryoptioncomboid, "
-        + "dv1.attributeoptioncomboid, dv1.value, dv1.periodid) t2 "
-        + "on t1.sourceid = t2.sourceid "
-        + "and t1.categoryoptioncomboid = t2.categoryoptioncomboid "
-        + "and t1.attributeoptioncomboid = t2.attributeoptioncomboid "
-        + "and t1.dataelementid = t2.dataelementid) as t3 "
-        + "group by t3.dataelementid, t3.sourceid, t3.categoryoptioncomboid, "
-        + "t3.attributeoptioncomboid) as stats "
-        + "on dv.dataelementid = stats.dataelementid and dv.sourceid = stats.sourceid and "
-        + "dv.categoryoptioncomboid = stats.categoryoptioncomboid and "
-        + "dv.attributeoptioncomboid = stats.attributeoptioncomboid\s";
+    return replace(
+        """
+        left join ${statsTable} stats \
+        on dv.dataelementid = stats.dataelementid and dv.sourceid = stats.sourceid and \
+        dv.categoryoptioncomboid = stats.categoryoptioncomboid and \
+        dv.attributeoptioncomboid = stats.attributeoptioncomboid\s""",
+        Map.of("statsTable", quote(OutlierStatsTableService.TABLE_NAME)));
   }
 }
@@ -47,6 +47,7 @@ import java.util.Map;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
 import org.hisp.dhis.analytics.table.model.AnalyticsTableColumn;
@@ -62,6 +63,7 @@ import org.hisp.dhis.db.model.Logged;
 import org.hisp.dhis.db.sql.SqlBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.PeriodDataProvider;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SystemSettingManager;
@@ -208,6 +210,8 @@ public class JdbcEnrollmentAnalyticsTableManager extends AbstractEventJdbcTableM
               .selectExpression("coalesce(registrationou.uid,ou.uid)")
               .build());
 
+  private final ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder;
+
   public JdbcEnrollmentAnalyticsTableManager(
       IdentifiableObjectManager idObjectManager,
       OrganisationUnitService organisationUnitService,
@@ -221,7 +225,8 @@ public class JdbcEnrollmentAnalyticsTableManager extends AbstractEventJdbcTableM
       @Qualifier("analyticsJdbcTemplate") JdbcTemplate jdbcTemplate,
       AnalyticsTableSettings analyticsExportSettings,
       PeriodDataProvider periodDataProvider,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder) {
     super(
         idObjectManager,
         organisationUnitService,
@@ -236,6 +241,7 @@ public class JdbcEnrollmentAnalyticsTableManager extends AbstractEventJdbcTableM
         analyticsExportSettings,
         periodDataProvider,
         sqlBuilder);
+    this.programIndicatorSubqueryBuilder = programIndicatorSubqueryBuilder;
   }
 
   @Override
@@ -304,6 +310,13 @@ public class JdbcEnrollmentAnalyticsTableManager extends AbstractEventJdbcTableM
                 "startTime", toLongDate(params.getStartTime())));
 
     populateTableInternal(partition, fromClause);
+
+    populateMaterializedProgramIndicators(
+        partition.getName(),
+        "",
+        getMaterializedProgramIndicators(
+            program, AnalyticsType.ENROLLMENT, programIndicatorSubqueryBuilder),
+        programIndicatorSubqueryBuilder);
   }
 
   private List<AnalyticsTableColumn> getColumns(Program program) {
@@ -330,6 +343,10 @@ public class JdbcEnrollmentAnalyticsTableManager extends AbstractEventJdbcTableM
               .build());
     }
 
+    columns.addAll(
+        getMaterializedProgramIndicatorColumns(
+            program, AnalyticsType.ENROLLMENT, programIndicatorSubqueryBuilder));
+
     return filterDimensionColumns(columns);
   }
 }
@@ -61,6 +61,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.model.AnalyticsColumnType;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
@@ -84,6 +85,7 @@ import org.hisp.dhis.db.sql.SqlBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.PeriodDataProvider;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SettingKey;
@@ -108,6 +110,8 @@ public class JdbcEventAnalyticsTableManager extends AbstractEventJdbcTableManage
 
   static final String[] EXPORTABLE_EVENT_STATUSES = {"'COMPLETED'", "'ACTIVE'", "'SCHEDULE'"};
 
+  private final ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder;
+
   public JdbcEventAnalyticsTableManager(
       IdentifiableObjectManager idObjectManager,
       OrganisationUnitService organisationUnitService,
@@ -121,7 +125,8 @@ public class JdbcEventAnalyticsTableManager extends AbstractEventJdbcTableManage
       @Qualifier("analyticsJdbcTemplate") JdbcTemplate jdbcTemplate,
       AnalyticsTableSettings analyticsExportSettings,
       PeriodDataProvider periodDataProvider,
-      SqlBuilder sqlBuilder) {
+      SqlBuilder sqlBuilder,
+      ProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder) {
     super(
         idObjectManager,
         organisationUnitService,
@@ -136,6 +141,7 @@ public class JdbcEventAnalyticsTableManager extends AbstractEventJdbcTableManage
         analyticsExportSettings,
         periodDataProvider,
         sqlBuilder);
+    this.programIndicatorSubqueryBuilder = programIndicatorSubqueryBuilder;
   }
 
   @Override
@@ -323,6 +329,93 @@ public class JdbcEventAnalyticsTableManager extends AbstractEventJdbcTableManage
     }
   }
 
+  @Override
+  public boolean supportsIncrementalUpdate() {
+    return true;
+  }
+
+  @Override
+  public boolean updateTableIncrementally(
+      AnalyticsTableUpdateParams params, AnalyticsTablePartition partition) {
+    Date highWaterMark = getHighWaterMark(partition);
+    Program program = partition.getMasterTable().getProgram();
+
+    if (highWaterMark == null) {
+      return false;
+    }
+
+    String updatedEventsFilter = getUpdatedEventsFilter(highWaterMark, params.getStartTime());
+
+    if (!hasUpdatedEvents(updatedEventsFilter, program)) {
+      return false;
+    }
+
+    String tableName = partition.getMainName();
+    String updatedEventsSql = getUpdatedEventsSql(updatedEventsFilter, program);
+    String sql =
+        replace(
+            "delete from ${tableName} ax where ax.psi in (${updatedEvents});",
+            Map.of("tableName", quote(tableName), "updatedEvents", updatedEventsSql));
+
+    invokeTimeAndLog(sql, "Remove updated events from table: '{}'", tableName);
+
+    String updatedClause = getPartitionClause(partition) + "and " + updatedEventsFilter + " ";
+    String updatedRowsClause = format("where ax.psi in ({})", updatedEventsSql);
+
+    populateTable(params, partition, tableName, updatedClause, updatedRowsClause);
+
+    return true;
+  }
+
+  /**
+   * Returns a SQL filter on the event and enrollment aliases {@code psi} and {@code pi} which
+   * matches events where the event itself, its enrollment or an attribute value of its tracked
+   * entity was updated between the given start and end date. The enrollment and attribute values
+   * are included as their values are copied into the event rows.
+   *
+   * @param startDate the start date, inclusive.
+   * @param endDate the end date, exclusive.
+   * @return a SQL filter enclosed in parentheses.
+   */
+  private String getUpdatedEventsFilter(Date startDate, Date endDate) {
+    return replace(
+        """
+        (psi.lastupdated >= '${startDate}' and psi.lastupdated < '${endDate}'         or pi.lastupdated >= '${startDate}' and pi.lastupdated < '${endDate}'         or exists (select 1 from trackedentityattributevalue teav         where teav.trackedentityid = pi.trackedentityid         and teav.lastupdated >= '${startDate}'         and teav.lastupdated < '${endDate}'))""",
+        Map.of("startDate", toLongDate(startDate), "endDate", toLongDate(endDate)));
+  }
+
+  /**
+   * Returns a SQL query selecting the identifiers of the events of the given program which match
+   * the given filter.
+   *
+   * @param updatedEventsFilter the filter, see {@link #getUpdatedEventsFilter(Date, Date)}.
+   * @param program the program.
+   * @return a SQL query.
+   */
+  private String getUpdatedEventsSql(String updatedEventsFilter, Program program) {
+    return replace(
+        """
+        select psi.uid         from event psi inner join enrollment pi on psi.enrollmentid=pi.enrollmentid         where pi.programid = ${programId}         and ${updatedEventsFilter}""",
+        Map.of(
+            "programId",
+            String.valueOf(program.getId()),
+            "updatedEventsFilter",
+            updatedEventsFilter));
+  }
+
+  /**
+   * Indicates whether events of the given program which match the given filter exist.
+   *
+   * @param updatedEventsFilter the filter, see {@link #getUpdatedEventsFilter(Date, Date)}.
+   * @param program the program.
+   * @return whether updated events exist.
+   */
+  private boolean hasUpdatedEvents(String updatedEventsFilter, Program program) {
+    String sql = getUpdatedEventsSql(updatedEventsFilter, program) + " limit 1;";
+
+    return !jdbcTemplate.queryForList(sql).isEmpty();
+  }
+
   @Override
   protected List<String> getPartitionChecks(Integer year, Date endDate) {
     Objects.requireNonNull(year);
@@ -331,13 +424,31 @@ public class JdbcEventAnalyticsTableManager extends AbstractEventJdbcTableManage
 
   @Override
   public void populateTable(AnalyticsTableUpdateParams params, AnalyticsTablePartition partition) {
+    populateTable(params, partition, partition.getName(), getPartitionClause(partition), "");
+  }
+
+  /**
+   * Populates the table with the given name with events of the program of the given partition.
+   *
+   * @param params the {@link AnalyticsTableUpdateParams}.
+   * @param partition the {@link AnalyticsTablePartition}.
+   * @param tableName the name of the table to insert into.
+   * @param partitionClause the partition SQL clause.
+   * @param updatedRowsClause the SQL where clause selecting the rows inserted into the table, or an
+   *     empty string if the table holds the inserted rows only.
+   */
+  private void populateTable(
+      AnalyticsTableUpdateParams params,
+      AnalyticsTablePartition partition,
+      String tableName,
+      String partitionClause,
+      String updatedRowsClause) {
     List<Integer> availableDataYears =
         periodDataProvider.getAvailableYears(
             analyticsTableSettings.getMaxPeriodYearsOffset() == null ? SYSTEM_DEFINED : DATABASE);
     Integer firstDataYear = availableDataYears.get(0);
     Integer latestDataYear = availableDataYears.get(availableDataYears.size() - 1);
     Program program = partition.getMasterTable().getProgram();
-    String partitionClause = getPartitionClause(partition);
 
     String fromClause =
         replace(
@@ -375,7 +486,14 @@ public class JdbcEventAnalyticsTableManager extends AbstractEventJdbcTableManage
                 "latestDataYear", String.valueOf(latestDataYear),
                 "exportableEventStatues", String.join(",", EXPORTABLE_EVENT_STATUSES)));
 
-    populateTableInternal(partition, fromClause);
+    populateTableInternal(partition, tableName, fromClause);
+
+    populateMaterializedProgramIndicators(
+        tableName,
+        updatedRowsClause,
+        getMaterializedProgramIndicators(
+            program, AnalyticsType.EVENT, programIndicatorSubqueryBuilder),
+        programIndicatorSubqueryBuilder);
   }
 
   /**
@@ -736,6 +854,10 @@ public class JdbcEventAnalyticsTableManager extends AbstractEventJdbcTableManage
               .build());
     }
 
+    columns.addAll(
+        getMaterializedProgramIndicatorColumns(
+            program, AnalyticsType.EVENT, programIndicatorSubqueryBuilder));
+
     return filterDimensionColumns(columns);
   }
 
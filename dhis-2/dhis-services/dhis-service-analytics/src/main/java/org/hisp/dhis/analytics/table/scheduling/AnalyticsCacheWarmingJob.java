@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table.scheduling;
+
+import static org.hisp.dhis.common.DimensionalObject.DIMENSION_NAME_SEP;
+import static org.hisp.dhis.common.DimensionalObject.OPTION_SEP;
+import static org.hisp.dhis.common.DimensionalObjectUtils.getDimensionalItemIds;
+import static org.hisp.dhis.datastatistics.DataStatisticsEventType.VISUALIZATION_VIEW;
+import static org.hisp.dhis.scheduling.JobProgress.FailurePolicy.SKIP_ITEM;
+
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsService;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.analytics.SortOrder;
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.common.DataQueryRequest;
+import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.DimensionalObject;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.datastatistics.DataStatisticsService;
+import org.hisp.dhis.scheduling.Job;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.scheduling.parameters.AnalyticsCacheWarmingJobParameters;
+import org.hisp.dhis.user.UserSettingKey;
+import org.hisp.dhis.user.UserSettingService;
+import org.hisp.dhis.visualization.Visualization;
+import org.hisp.dhis.visualization.VisualizationType;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Job which warms the analytics cache after analytics tables have been generated. The most viewed
+ * visualizations, as ranked by the data statistics events, are replayed through the analytics
+ * service so that the first dashboard loads after a table update are served from cache. The job is
+ * meant to run after the analytics table job, e.g. as part of a job queue.
+ *
+ * <p>A cache entry is only hit if the replayed query has the same key as the query of the web
+ * request. Visualizations are therefore replayed as the analytics request which the apps send for
+ * them, see {@link #getDataQueryRequest(Visualization, DisplayProperty)}. Event visualizations are
+ * not replayed, as the event analytics endpoints derive query parameters such as the page size and
+ * default period from the request criteria, which cannot be reproduced reliably here.
+ *
+ * <p>Favorites are replayed concurrently up to {@link
+ * AnalyticsCacheWarmingJobParameters#getConcurrency()}, and favorites which have not been replayed
+ * when {@link AnalyticsCacheWarmingJobParameters#getTimeLimitSeconds()} has passed are skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnalyticsCacheWarmingJob implements Job {
+  private final DataStatisticsService dataStatisticsService;
+
+  private final IdentifiableObjectManager idObjectManager;
+
+  private final AnalyticsService analyticsService;
+
+  private final DataQueryService dataQueryService;
+
+  private final UserSettingService userSettingService;
+
+  private final AnalyticsCache analyticsCache;
+
+  private final TransactionTemplate transactionTemplate;
+
+  @Override
+  public JobType getJobType() {
+    return JobType.ANALYTICS_CACHE_WARMING;
+  }
+
+  @Override
+  public void execute(JobConfiguration jobConfiguration, JobProgress progress) {
+    AnalyticsCacheWarmingJobParameters params =
+        (AnalyticsCacheWarmingJobParameters) jobConfiguration.getJobParameters();
+
+    progress.startingProcess("Warming analytics cache");
+
+    if (!analyticsCache.isEnabled()) {
+      progress.completedProcess("Analytics cache is disabled, nothing to warm");
+      return;
+    }
+
+    long deadline =
+        System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(params.getTimeLimitSeconds());
+
+    progress.startingStage("Ranking most viewed favorites");
+    List<Favorite> favorites =
+        progress.runStage(List.of(), () -> getMostViewedFavorites(params.getMaxFavorites()));
+
+    SecurityContext securityContext = SecurityContextHolder.getContext();
+
+    progress.startingStage("Replaying " + favorites.size() + " favorites", SKIP_ITEM);
+    progress.runStageInParallel(
+        params.getConcurrency(),
+        favorites,
+        Favorite::toString,
+        favorite -> {
+          if (System.currentTimeMillis() > deadline) {
+            log.debug("Time limit reached, skipping favorite: '{}'", favorite);
+            return;
+          }
+
+          withSecurityContext(
+              securityContext,
+              () -> transactionTemplate.executeWithoutResult(status -> replay(favorite)));
+        });
+
+    progress.completedProcess("Analytics cache warmed");
+  }
+
+  /**
+   * Returns the most viewed visualizations, ordered by number of views descending.
+   *
+   * @param maxFavorites the maximum number of favorites to return.
+   * @return a list of {@link Favorite}.
+   */
+  List<Favorite> getMostViewedFavorites(int maxFavorites) {
+    return dataStatisticsService
+        .getTopFavorites(VISUALIZATION_VIEW, maxFavorites, SortOrder.DESC, null)
+        .stream()
+        .map(stats -> new Favorite(stats.getId(), Objects.requireNonNullElse(stats.getViews(), 0)))
+        .sorted(Comparator.comparingInt(Favorite::views).reversed())
+        .toList();
+  }
+
+  /**
+   * Replays the analytics request of the given favorite, which stores the response in the analytics
+   * cache.
+   *
+   * @param favorite the {@link Favorite}.
+   */
+  private void replay(Favorite favorite) {
+    Visualization visualization = idObjectManager.get(Visualization.class, favorite.uid());
+
+    if (visualization != null) {
+      DisplayProperty displayProperty =
+          (DisplayProperty)
+              userSettingService.getUserSetting(UserSettingKey.ANALYSIS_DISPLAY_PROPERTY);
+
+      DataQueryParams params =
+          dataQueryService.getFromRequest(getDataQueryRequest(visualization, displayProperty));
+
+      analyticsService.getAggregatedDataValues(params);
+    }
+  }
+
+  /**
+   * Returns the analytics request which the apps send for the given visualization. The layout
+   * dimensions are sent with the identifiers of their items, including relative period and user
+   * organisation unit keywords. The apps send the display property of the user, include numerators
+   * and denominators for pivot tables and request the versioned API of the server.
+   *
+   * @param visualization the {@link Visualization}.
+   * @param displayProperty the analysis {@link DisplayProperty} of the user.
+   * @return a {@link DataQueryRequest}.
+   */
+  static DataQueryRequest getDataQueryRequest(
+      Visualization visualization, DisplayProperty displayProperty) {
+    visualization.populateAnalyticalProperties();
+
+    Set<String> dimensions = new LinkedHashSet<>();
+    visualization.getColumns().forEach(column -> dimensions.add(getDimensionParam(column)));
+    visualization.getRows().forEach(row -> dimensions.add(getDimensionParam(row)));
+
+    Set<String> filters = new LinkedHashSet<>();
+    visualization.getFilters().forEach(filter -> filters.add(getDimensionParam(filter)));
+
+    AggregationType aggregationType = visualization.getAggregationType();
+
+    return DataQueryRequest.newBuilder()
+        .dimension(dimensions)
+        .filter(filters)
+        .aggregationType(aggregationType != AggregationType.DEFAULT ? aggregationType : null)
+        .completedOnly(visualization.isCompletedOnly())
+        .skipRounding(visualization.isSkipRounding())
+        .showHierarchy(visualization.isShowHierarchy())
+        .timeField(visualization.getTimeField())
+        .includeNumDen(visualization.getType() == VisualizationType.PIVOT_TABLE)
+        .displayProperty(displayProperty)
+        .apiVersion(DhisApiVersion.getVersion(DhisApiVersion.DEFAULT.getVersion()))
+        .build();
+  }
+
+  /**
+   * Returns the request parameter value of the given dimension, e.g. <code>pe:LAST_12_MONTHS</code>
+   * or <code>co</code> for a dimension without items.
+   *
+   * @param dimension the {@link DimensionalObject}.
+   * @return the parameter value.
+   */
+  private static String getDimensionParam(DimensionalObject dimension) {
+    List<String> items = getDimensionalItemIds(dimension.getItems());
+
+    return items.isEmpty()
+        ? dimension.getDimension()
+        : dimension.getDimension() + DIMENSION_NAME_SEP + String.join(OPTION_SEP, items);
+  }
+
+  /**
+   * Runs the given work with the given security context, as work items may be processed by pool
+   * threads which do not inherit the security context of the job.
+   *
+   * @param securityContext the {@link SecurityContext}.
+   * @param work the work to run.
+   */
+  private void withSecurityContext(SecurityContext securityContext, Runnable work) {
+    SecurityContext previous = SecurityContextHolder.getContext();
+
+    try {
+      SecurityContextHolder.setContext(securityContext);
+      work.run();
+    } finally {
+      SecurityContextHolder.setContext(previous);
+    }
+  }
+
+  /**
+   * A visualization to replay.
+   *
+   * @param uid the visualization identifier.
+   * @param views the number of views of the visualization.
+   */
+  record Favorite(String uid, int views) {
+    @Override
+    public String toString() {
+      return VISUALIZATION_VIEW.getTable() + " " + uid;
+    }
+  }
+}
@@ -61,6 +61,7 @@ public class AnalyticsTableJob implements Job {
             .withLastYears(parameters.getLastYears())
             .withSkipResourceTables(parameters.isSkipResourceTables())
             .withSkipOutliers(parameters.isSkipOutliers())
+            .withIncrementalUpdate(parameters.isIncrementalUpdate())
             .withSkipTableTypes(parameters.getSkipTableTypes())
             .withSkipPrograms(parameters.getSkipPrograms())
             .withJobId(jobConfiguration)
@@ -56,7 +56,9 @@ import org.springframework.stereotype.Component;
  * ContinuousAnalyticsJobParameters#getHourOfDay()}, which specifies the hour of day to run the full
  * update. The next scheduled full analytics table update time is persisted using a system setting.
  * A full analytics table update is performed when the current time is after the next scheduled full
- * update time. Otherwise, a partial update of the latest analytics partition table is performed.
+ * update time. Otherwise, a partial update of the latest analytics partition table is performed, or
+ * an incremental update of the existing table partitions if enabled through {@link
+ * ContinuousAnalyticsJobParameters#getIncrementalUpdate()}.
  *
  * @author Lars Helge Overland
  */
@@ -115,6 +117,21 @@ public class ContinuousAnalyticsTableJob implements Job {
         systemSettingManager.saveSystemSetting(SettingKey.NEXT_ANALYTICS_TABLE_UPDATE, nextUpdate);
         log.info("Next full analytics table update: '{}'", toLongDate(nextUpdate));
       }
+    } else if (Boolean.TRUE.equals(parameters.getIncrementalUpdate())) {
+      log.info("Performing incremental analytics table update");
+
+      AnalyticsTableUpdateParams params =
+          AnalyticsTableUpdateParams.newBuilder()
+              .withLastYears(parameters.getLastYears())
+              .withSkipResourceTables(true)
+              .withSkipOutliers(parameters.getSkipOutliers())
+              .withSkipTableTypes(parameters.getSkipTableTypes())
+              .withIncrementalUpdate(true)
+              .withJobId(jobConfiguration)
+              .withStartTime(startTime)
+              .build();
+
+      analyticsTableGenerator.generateAnalyticsTables(params, progress);
     } else {
       log.info("Performing latest analytics table partition update");
 
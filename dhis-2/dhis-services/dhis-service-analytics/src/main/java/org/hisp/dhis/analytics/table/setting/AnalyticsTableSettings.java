@@ -34,6 +34,13 @@ import static org.hisp.dhis.db.model.Logged.UNLOGGED;
 import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_DATABASE;
 import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_DATABASE_CATALOG;
 import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_DATABASE_DRIVER_FILENAME;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_EVENT_CLUSTER_LEVELS;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_ROLLUP_DATA_ELEMENT_GROUP;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_ROLLUP_LEVELS;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_ROLLUP_PERIOD_TYPES;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_TABLE_COLUMN_USAGE_DAYS;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_TABLE_INDEX_USED_COLUMNS_ONLY;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_TABLE_MATERIALIZED_PROGRAM_INDICATORS;
 import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_TABLE_SKIP_COLUMN;
 import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_TABLE_SKIP_INDEX;
 import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_TABLE_UNLOGGED;
@@ -41,12 +48,15 @@ import static org.hisp.dhis.setting.SettingKey.ANALYTICS_MAX_PERIOD_YEARS_OFFSET
 import static org.hisp.dhis.util.ObjectUtils.isNull;
 
 import com.google.common.collect.Lists;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.hisp.dhis.analytics.table.model.Skip;
 import org.hisp.dhis.db.model.Database;
 import org.hisp.dhis.db.model.Logged;
@@ -63,6 +73,9 @@ import org.springframework.stereotype.Component;
 @Component
 @RequiredArgsConstructor
 public class AnalyticsTableSettings {
+  /** Max number of event cluster zoom levels. */
+  private static final int MAX_EVENT_CLUSTER_LEVELS = 15;
+
   private final DhisConfigurationProvider config;
 
   private final SystemSettingManager systemSettings;
@@ -150,6 +163,78 @@ public class AnalyticsTableSettings {
     return toSet(config.getProperty(ANALYTICS_TABLE_SKIP_COLUMN));
   }
 
+  /**
+   * Indicates whether to build indexes only for dynamic columns of event and enrollment analytics
+   * tables which were used in queries.
+   *
+   * @return true if indexes are built for used columns only.
+   */
+  public boolean isIndexUsedColumnsOnly() {
+    return config.isEnabled(ANALYTICS_TABLE_INDEX_USED_COLUMNS_ONLY);
+  }
+
+  /**
+   * Returns the number of days of query column usage to consider when building indexes for used
+   * columns only.
+   *
+   * @return the number of days of column usage.
+   */
+  public int getColumnUsageDays() {
+    return Math.max(
+        1, NumberUtils.toInt(config.getProperty(ANALYTICS_TABLE_COLUMN_USAGE_DAYS), 90));
+  }
+
+  /**
+   * Returns a set of program indicator identifiers for which to materialize values as columns in
+   * event and enrollment analytics tables.
+   *
+   * @return a set of program indicator identifiers.
+   */
+  public Set<String> getMaterializedProgramIndicators() {
+    return toSet(config.getProperty(ANALYTICS_TABLE_MATERIALIZED_PROGRAM_INDICATORS));
+  }
+
+  /**
+   * Returns the organisation unit levels for which to generate rollup tables.
+   *
+   * @return a sorted set of organisation unit levels.
+   */
+  public NavigableSet<Integer> getRollupOrgUnitLevels() {
+    return toSet(config.getProperty(ANALYTICS_ROLLUP_LEVELS)).stream()
+        .map(Integer::valueOf)
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  /**
+   * Returns the names of the period types for which to generate rollup tables.
+   *
+   * @return a set of period type names.
+   */
+  public Set<String> getRollupPeriodTypes() {
+    return toSet(config.getProperty(ANALYTICS_ROLLUP_PERIOD_TYPES));
+  }
+
+  /**
+   * Returns the identifier of the data element group with the data elements to include in rollup
+   * tables.
+   *
+   * @return the data element group identifier, or null if not set.
+   */
+  public String getRollupDataElementGroup() {
+    return StringUtils.trimToNull(config.getProperty(ANALYTICS_ROLLUP_DATA_ELEMENT_GROUP));
+  }
+
+  /**
+   * Returns the number of zoom levels for which to generate event cluster tables, where 0 means
+   * that event cluster tables are not generated.
+   *
+   * @return the number of event cluster levels.
+   */
+  public int getEventClusterLevels() {
+    int levels = NumberUtils.toInt(config.getProperty(ANALYTICS_EVENT_CLUSTER_LEVELS), 0);
+    return Math.max(0, Math.min(levels, MAX_EVENT_CLUSTER_LEVELS));
+  }
+
   /**
    * Returns the {@link Database} matching the given value.
    *
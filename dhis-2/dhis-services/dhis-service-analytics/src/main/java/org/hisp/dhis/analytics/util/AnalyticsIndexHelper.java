@@ -35,12 +35,14 @@ import static org.hisp.dhis.db.model.DataType.TIMESTAMP;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiPredicate;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.RegExUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.AnalyticsConstants;
 import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.table.model.AnalyticsTable;
 import org.hisp.dhis.analytics.table.model.AnalyticsTableColumn;
 import org.hisp.dhis.analytics.table.model.AnalyticsTablePartition;
 import org.hisp.dhis.common.CodeGenerator;
@@ -64,6 +66,20 @@ public class AnalyticsIndexHelper {
    * @return a list of {@link Index}
    */
   public static List<Index> getIndexes(List<AnalyticsTablePartition> partitions) {
+    return getIndexes(partitions, (table, column) -> true);
+  }
+
+  /**
+   * Returns a queue of analytics table indexes for the columns accepted by the given filter.
+   *
+   * @param partitions the list of {@link AnalyticsTablePartition}.
+   * @param columnFilter the filter which accepts the master {@link AnalyticsTable} and the {@link
+   *     AnalyticsTableColumn} to index.
+   * @return a list of {@link Index}
+   */
+  public static List<Index> getIndexes(
+      List<AnalyticsTablePartition> partitions,
+      BiPredicate<AnalyticsTable, AnalyticsTableColumn> columnFilter) {
     List<Index> indexes = new ArrayList<>();
 
     for (AnalyticsTablePartition partition : partitions) {
@@ -72,7 +88,7 @@ public class AnalyticsIndexHelper {
           partition.getMasterTable().getDimensionColumns();
 
       for (AnalyticsTableColumn col : dimensionColumns) {
-        if (!col.isSkipIndex()) {
+        if (!col.isSkipIndex() && columnFilter.test(partition.getMasterTable(), col)) {
           String name = getIndexName(partition.getName(), col.getIndexColumns(), type);
           List<String> columns =
               col.hasIndexColumns() ? col.getIndexColumns() : List.of(col.getName());
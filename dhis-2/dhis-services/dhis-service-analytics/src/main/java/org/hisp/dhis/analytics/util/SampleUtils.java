@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.hisp.dhis.common.Grid;
+
+/**
+ * Utilities for approximate analytics queries, which read a sample of the analytics table rows and
+ * scale the aggregated values up to estimates for the full table.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class SampleUtils {
+  /**
+   * Percentage of analytics table rows to read for approximate queries. Rows are sampled
+   * individually rather than by block, so that sampled rows are independent and the binomial error
+   * bound holds even though rows of the same block tend to share dimension values.
+   */
+  public static final int SAMPLE_PERCENT = 10;
+
+  /** Confidence level of the reported relative error bound. */
+  public static final double CONFIDENCE_LEVEL = 0.95;
+
+  /** Standard normal quantile for {@link #CONFIDENCE_LEVEL}. */
+  private static final double Z_SCORE = 1.96;
+
+  private static final double SAMPLE_FRACTION = SAMPLE_PERCENT / 100d;
+
+  /**
+   * Returns a table sample clause to be placed after a relation alias. A fixed repeatable seed is
+   * used so that identical requests return identical estimates and can be cached.
+   *
+   * @return a SQL table sample clause.
+   */
+  public static String getTableSampleClause() {
+    return "tablesample bernoulli (" + SAMPLE_PERCENT + ") repeatable (0)";
+  }
+
+  /**
+   * Scales the given aggregate expression from the sample up to the full table.
+   *
+   * @param expression the SQL aggregate expression.
+   * @return a SQL expression.
+   */
+  public static String scale(String expression) {
+    return "(" + expression + " * " + (100d / SAMPLE_PERCENT) + ")";
+  }
+
+  /**
+   * Returns the relative error bound at {@link #CONFIDENCE_LEVEL} of an estimated count, based on
+   * the binomial approximation of the number of rows sampled with {@link #getTableSampleClause()}.
+   * Returns null if the estimate is not positive.
+   *
+   * @param estimate the scaled count estimate.
+   * @return the relative error bound, or null.
+   */
+  public static Double getRelativeErrorBound(double estimate) {
+    double sampled = estimate * SAMPLE_FRACTION;
+
+    if (sampled <= 0) {
+      return null;
+    }
+
+    return Z_SCORE * Math.sqrt((1 - SAMPLE_FRACTION) / sampled);
+  }
+
+  /**
+   * Returns the largest relative error bound of the count estimates in the given column of the
+   * grid, as the smallest cells carry the widest bounds.
+   *
+   * @param grid the {@link Grid}.
+   * @param valueIndex the index of the value column.
+   * @return the relative error bound, or null if the grid has no positive values.
+   */
+  public static Double getRelativeErrorBound(Grid grid, int valueIndex) {
+    Double bound = null;
+
+    for (List<Object> row : grid.getRows()) {
+      Object value = row.get(valueIndex);
+
+      if (value instanceof Number number) {
+        Double cellBound = getRelativeErrorBound(number.doubleValue());
+
+        if (cellBound != null && (bound == null || cellBound > bound)) {
+          bound = cellBound;
+        }
+      }
+    }
+
+    return bound;
+  }
+
+  /**
+   * Returns the meta data describing an approximate response.
+   *
+   * @param relativeErrorBound the relative error bound, may be null.
+   * @return a map of meta data.
+   */
+  public static Map<String, Object> getMetaData(Double relativeErrorBound) {
+    Map<String, Object> metaData = new HashMap<>();
+    metaData.put("samplePercent", SAMPLE_PERCENT);
+    metaData.put("confidenceLevel", CONFIDENCE_LEVEL);
+
+    if (relativeErrorBound != null) {
+      metaData.put("relativeErrorBound", relativeErrorBound);
+    }
+
+    return metaData;
+  }
+}
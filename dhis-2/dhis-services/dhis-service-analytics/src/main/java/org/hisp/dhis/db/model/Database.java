@@ -34,5 +34,6 @@ package org.hisp.dhis.db.model;
  */
 public enum Database {
   POSTGRESQL,
-  DORIS;
+  DORIS,
+  DUCKDB;
 }
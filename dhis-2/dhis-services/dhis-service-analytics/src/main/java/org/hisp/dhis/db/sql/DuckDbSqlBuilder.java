@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.db.sql;
+
+import static org.hisp.dhis.commons.util.TextUtils.removeLastComma;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.Index;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.model.constraint.Nullable;
+import org.hisp.dhis.db.model.constraint.Unique;
+
+/**
+ * Implementation of {@link SqlBuilder} for DuckDB, an embedded, file-backed columnar database.
+ * Source data is read from the PostgreSQL database attached as a catalog through the DuckDB
+ * postgres extension.
+ *
+ * <p>This builder is not yet selectable through {@link SqlBuilderProvider}, as the analytics table
+ * managers still populate partition tables, add geometry columns and swap table inheritance, and
+ * the source catalog is not attached when connecting.
+ */
+@RequiredArgsConstructor
+public class DuckDbSqlBuilder extends AbstractSqlBuilder {
+
+  // Constants
+
+  private static final String QUOTE = "\"";
+
+  /** Name of the catalog under which the PostgreSQL source database is attached. */
+  private final String catalog;
+
+  // Data types
+
+  @Override
+  public String dataTypeSmallInt() {
+    return "smallint";
+  }
+
+  @Override
+  public String dataTypeInteger() {
+    return "integer";
+  }
+
+  @Override
+  public String dataTypeBigInt() {
+    return "bigint";
+  }
+
+  @Override
+  public String dataTypeDecimal() {
+    return "decimal(18,6)";
+  }
+
+  @Override
+  public String dataTypeFloat() {
+    return "float";
+  }
+
+  @Override
+  public String dataTypeDouble() {
+    return "double";
+  }
+
+  @Override
+  public String dataTypeBoolean() {
+    return "boolean";
+  }
+
+  @Override
+  public String dataTypeCharacter(int length) {
+    return "varchar";
+  }
+
+  @Override
+  public String dataTypeVarchar(int length) {
+    return "varchar";
+  }
+
+  @Override
+  public String dataTypeText() {
+    return "varchar";
+  }
+
+  @Override
+  public String dataTypeDate() {
+    return "date";
+  }
+
+  @Override
+  public String dataTypeTimestamp() {
+    return "timestamp";
+  }
+
+  @Override
+  public String dataTypeTimestampTz() {
+    return "timestamptz";
+  }
+
+  @Override
+  public String dataTypeGeometry() {
+    return notSupported();
+  }
+
+  @Override
+  public String dataTypeGeometryPoint() {
+    return notSupported();
+  }
+
+  @Override
+  public String dataTypeJson() {
+    return "json";
+  }
+
+  // Index types
+
+  @Override
+  public String indexTypeBtree() {
+    return "art";
+  }
+
+  @Override
+  public String indexTypeGist() {
+    return notSupported();
+  }
+
+  @Override
+  public String indexTypeGin() {
+    return notSupported();
+  }
+
+  // Index functions
+
+  @Override
+  public String indexFunctionUpper() {
+    return "upper";
+  }
+
+  @Override
+  public String indexFunctionLower() {
+    return "lower";
+  }
+
+  // Capabilities
+
+  @Override
+  public boolean supportsGeospatialData() {
+    return false;
+  }
+
+  /**
+   * DuckDB has no table inheritance. Analytics tables are populated as a single table, where row
+   * group min-max statistics on the year column take the place of partition pruning.
+   */
+  @Override
+  public boolean supportsDeclarativePartitioning() {
+    return true;
+  }
+
+  @Override
+  public boolean supportsAnalyze() {
+    return true;
+  }
+
+  @Override
+  public boolean supportsVacuum() {
+    return false;
+  }
+
+  /** Columnar scans with zone maps make indexes on analytics tables unnecessary. */
+  @Override
+  public boolean requiresIndexesForAnalytics() {
+    return false;
+  }
+
+  @Override
+  public boolean supportsRowCountEstimates() {
+    return false;
+  }
+
+  // Utilities
+
+  @Override
+  public String quote(String relation) {
+    String escapedRelation = relation.replace(QUOTE, (QUOTE + QUOTE));
+    return QUOTE + escapedRelation + QUOTE;
+  }
+
+  @Override
+  public String quote(String alias, String relation) {
+    return alias + DOT + quote(relation);
+  }
+
+  @Override
+  public String singleQuote(String value) {
+    return SINGLE_QUOTE + escape(value) + SINGLE_QUOTE;
+  }
+
+  @Override
+  public String escape(String value) {
+    return value.replace(SINGLE_QUOTE, (SINGLE_QUOTE + SINGLE_QUOTE));
+  }
+
+  @Override
+  public String qualifyTable(String name) {
+    return String.format("%s.%s.%s", quote(catalog), quote(SCHEMA), quote(name));
+  }
+
+  @Override
+  public String dateTrunc(String text, String timestamp) {
+    return String.format("date_trunc(%s, %s)", singleQuote(text), timestamp);
+  }
+
+  // Statements
+
+  @Override
+  public String createTable(Table table) {
+    StringBuilder sql =
+        new StringBuilder("create table ").append(quote(table.getName())).append(" (");
+
+    // Columns
+
+    if (table.hasColumns()) {
+      for (Column column : table.getColumns()) {
+        String dataType = getDataTypeName(column.getDataType());
+        String nullable = column.getNullable() == Nullable.NOT_NULL ? " not null" : " null";
+
+        sql.append(quote(column.getName()) + " ").append(dataType).append(nullable).append(COMMA);
+      }
+    }
+
+    // Primary key
+
+    if (table.hasPrimaryKey()) {
+      sql.append("primary key (");
+
+      for (String columnName : table.getPrimaryKey()) {
+        sql.append(quote(columnName)).append(COMMA);
+      }
+
+      removeLastComma(sql).append(")").append(COMMA);
+    }
+
+    // Checks and parent are not applicable as partitions are not created
+
+    return removeLastComma(sql).append(");").toString();
+  }
+
+  @Override
+  public String analyzeTable(String name) {
+    return String.format("analyze %s;", quote(name));
+  }
+
+  @Override
+  public String vacuumTable(Table table) {
+    return notSupported();
+  }
+
+  @Override
+  public String renameTable(Table table, String newName) {
+    return String.format("alter table %s rename to %s;", quote(table.getName()), quote(newName));
+  }
+
+  @Override
+  public String dropTableIfExists(String name) {
+    return String.format("drop table if exists %s;", quote(name));
+  }
+
+  @Override
+  public String dropTableIfExistsCascade(Table table) {
+    return dropTableIfExistsCascade(table.getName());
+  }
+
+  @Override
+  public String dropTableIfExistsCascade(String name) {
+    return String.format("drop table if exists %s cascade;", quote(name));
+  }
+
+  @Override
+  public String setParentTable(Table table, String parentName) {
+    return notSupported();
+  }
+
+  @Override
+  public String removeParentTable(Table table, String parentName) {
+    return notSupported();
+  }
+
+  @Override
+  public String swapParentTable(Table table, String parentName, String newParentName) {
+    return notSupported();
+  }
+
+  @Override
+  public String tableExists(String name) {
+    return String.format(
+        """
+        select t.table_name from information_schema.tables t \
+        where t.table_catalog = current_database() \
+        and t.table_schema = 'main' and t.table_name = %s;""",
+        singleQuote(name));
+  }
+
+  @Override
+  public String createIndex(Index index) {
+    String unique = index.getUnique() == Unique.UNIQUE ? "unique " : "";
+
+    String columns =
+        index.getColumns().stream()
+            .map(col -> toIndexColumn(index, col))
+            .collect(Collectors.joining(COMMA));
+
+    return String.format(
+        "create %sindex %s on %s (%s);",
+        unique, quote(index.getName()), quote(index.getTableName()), columns);
+  }
+
+  /**
+   * Attaches the PostgreSQL database as a read-only catalog and adds its public schema to the
+   * search path, so that unqualified source table references resolve against PostgreSQL while
+   * analytics tables are created in the DuckDB database.
+   */
+  @Override
+  public String createCatalog(String connectionUrl, String username, String password) {
+    return replace(
+        """
+        install postgres; load postgres; \
+        attach ${connection} as ${catalog} (type postgres, read_only); \
+        set search_path = '${searchPath}';""",
+        Map.of(
+            "connection",
+            singleQuote(toConnectionString(connectionUrl, username, password)),
+            "catalog",
+            quote(catalog),
+            "searchPath",
+            escape("main," + catalog + DOT + SCHEMA)));
+  }
+
+  @Override
+  public String dropCatalogIfExists() {
+    return String.format("detach database if exists %s;", quote(catalog));
+  }
+
+  /**
+   * Converts the given JDBC connection URL and credentials to a libpq connection string as expected
+   * by the DuckDB postgres extension.
+   *
+   * @param connectionUrl the JDBC connection URL, e.g. {@code
+   *     jdbc:postgresql://localhost:5432/dhis2}.
+   * @param username the username.
+   * @param password the password.
+   * @return a libpq connection string.
+   */
+  String toConnectionString(String connectionUrl, String username, String password) {
+    String location = connectionUrl.replaceFirst("^jdbc:postgresql://", "");
+    String hostPort = location.contains("/") ? location.substring(0, location.indexOf('/')) : "";
+    String database = location.substring(location.indexOf('/') + 1).replaceFirst("\\?.*$", "");
+    String host = hostPort.contains(":") ? hostPort.substring(0, hostPort.indexOf(':')) : hostPort;
+    String port = hostPort.contains(":") ? hostPort.substring(hostPort.indexOf(':') + 1) : "5432";
+
+    return String.format(
+        "host=%s port=%s dbname=%s user=%s password=%s", host, port, database, username, password);
+  }
+}
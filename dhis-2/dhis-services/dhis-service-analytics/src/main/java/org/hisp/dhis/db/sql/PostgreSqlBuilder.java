@@ -190,6 +190,11 @@ public class PostgreSqlBuilder extends AbstractSqlBuilder {
     return true;
   }
 
+  @Override
+  public boolean supportsRowCountEstimates() {
+    return true;
+  }
+
   // Utilities
 
   @Override
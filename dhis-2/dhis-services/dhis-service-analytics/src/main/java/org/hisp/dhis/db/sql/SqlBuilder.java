@@ -177,6 +177,11 @@ public interface SqlBuilder {
    */
   boolean requiresIndexesForAnalytics();
 
+  /**
+   * @return true if the DBMS query planner provides row count estimates through explain.
+   */
+  boolean supportsRowCountEstimates();
+
   // Utilities
 
   /**
@@ -81,4 +81,15 @@ public interface ResourceTable {
    * @return an optional list of object arrays, may be empty.
    */
   Optional<List<Object[]>> getPopulateTempTableContent();
+
+  /**
+   * Returns an optional producer of the rows of the resource table. A row producer is preferred
+   * over {@link #getPopulateTempTableContent()} for tables with many rows, as rows are streamed to
+   * the database and the content of the table is never held in memory.
+   *
+   * @return an optional {@link RowProducer}, may be empty.
+   */
+  default Optional<RowProducer> getPopulateTempTableRowProducer() {
+    return Optional.empty();
+  }
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.resourcetable.jdbc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.hisp.dhis.resourcetable.RowProducer;
+import org.hisp.dhis.util.DateUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Streams rows into a PostgreSQL table using <code>copy from stdin</code> in CSV format through the
+ * PostgreSQL JDBC driver copy API. Rows are encoded and written as they are produced and are never
+ * collected in memory.
+ */
+class CsvCopyWriter {
+  private static final int BUFFER_SIZE = 65536;
+
+  private static final char QUOTE = '"';
+
+  private final SqlBuilder sqlBuilder;
+
+  CsvCopyWriter(SqlBuilder sqlBuilder) {
+    this.sqlBuilder = sqlBuilder;
+  }
+
+  /**
+   * Indicates whether the given connection supports the PostgreSQL copy API.
+   *
+   * @param connection the {@link Connection}.
+   * @return true if the connection supports the copy API.
+   */
+  boolean isSupported(Connection connection) throws SQLException {
+    return connection.isWrapperFor(PGConnection.class);
+  }
+
+  /**
+   * Copies the rows of the given producer into the given table.
+   *
+   * @param connection the {@link Connection}.
+   * @param table the {@link Table}.
+   * @param producer the {@link RowProducer}.
+   * @return the number of rows copied.
+   */
+  long copy(Connection connection, Table table, RowProducer producer) throws SQLException {
+    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+    PGCopyOutputStream stream =
+        new PGCopyOutputStream(pgConnection, getCopySql(table), BUFFER_SIZE);
+
+    try {
+      Writer writer = new BufferedWriter(new OutputStreamWriter(stream, UTF_8), BUFFER_SIZE);
+      StringBuilder line = new StringBuilder();
+
+      producer.produce(row -> writeRow(writer, line, row));
+
+      writer.flush();
+
+      long rows = stream.endCopy();
+
+      stream.close();
+
+      return rows;
+    } catch (IOException ex) {
+      cancelCopy(stream);
+      throw new UncheckedIOException(ex);
+    } catch (RuntimeException ex) {
+      cancelCopy(stream);
+      throw ex;
+    }
+  }
+
+  /**
+   * Cancels the given copy operation if still active.
+   *
+   * @param stream the {@link PGCopyOutputStream}.
+   */
+  private void cancelCopy(PGCopyOutputStream stream) throws SQLException {
+    if (stream.isActive()) {
+      stream.cancelCopy();
+    }
+  }
+
+  /**
+   * Returns the copy statement for the given table.
+   *
+   * @param table the {@link Table}.
+   * @return a copy SQL statement.
+   */
+  String getCopySql(Table table) {
+    String columns =
+        table.getColumns().stream()
+            .map(Column::getName)
+            .map(sqlBuilder::quote)
+            .collect(joining(","));
+
+    return "copy "
+        + sqlBuilder.quote(table.getName())
+        + " ("
+        + columns
+        + ") from stdin with (format csv)";
+  }
+
+  /**
+   * Encodes the given row as a CSV line and writes it to the given writer.
+   *
+   * @param writer the {@link Writer}.
+   * @param line the {@link StringBuilder} to reuse for encoding.
+   * @param row the row of values.
+   */
+  private void writeRow(Writer writer, StringBuilder line, Object[] row) {
+    line.setLength(0);
+    appendRow(line, row);
+
+    try {
+      writer.append(line);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Encodes the given row as a CSV line terminated by a line feed. Null values are encoded as empty
+   * unquoted values, text values are quoted to be distinguishable from null values.
+   *
+   * @param line the {@link StringBuilder} to append to.
+   * @param row the row of values.
+   */
+  static void appendRow(StringBuilder line, Object[] row) {
+    for (int i = 0; i < row.length; i++) {
+      if (i > 0) {
+        line.append(',');
+      }
+
+      Object value = row[i];
+
+      if (value instanceof Number || value instanceof Boolean) {
+        line.append(value);
+      } else if (value instanceof Date date) {
+        line.append(DateUtils.toLongDateWithMillis(date));
+      } else if (value != null) {
+        appendQuoted(line, value.toString());
+      }
+    }
+
+    line.append('\n');
+  }
+
+  /**
+   * Appends the given value as a quoted CSV value, where quotes in the value are doubled.
+   *
+   * @param line the {@link StringBuilder} to append to.
+   * @param value the value.
+   */
+  private static void appendQuoted(StringBuilder line, String value) {
+    line.append(QUOTE);
+
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+
+      if (c == QUOTE) {
+        line.append(QUOTE);
+      }
+
+      line.append(c);
+    }
+
+    line.append(QUOTE);
+  }
+}
@@ -30,11 +30,13 @@ package org.hisp.dhis.resourcetable.jdbc;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.hisp.dhis.commons.util.TextUtils.removeLastComma;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.mutable.MutableLong;
 import org.hisp.dhis.analytics.AnalyticsTableHook;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTablePhase;
@@ -45,7 +47,9 @@ import org.hisp.dhis.db.sql.SqlBuilder;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableStore;
 import org.hisp.dhis.resourcetable.ResourceTableType;
+import org.hisp.dhis.resourcetable.RowProducer;
 import org.hisp.dhis.system.util.Clock;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
@@ -61,8 +65,12 @@ public class JdbcResourceTableStore implements ResourceTableStore {
 
   private final JdbcTemplate jdbcTemplate;
 
+  private static final int BATCH_SIZE = 10000;
+
   private final SqlBuilder sqlBuilder = new PostgreSqlBuilder();
 
+  private final CsvCopyWriter copyWriter = new CsvCopyWriter(sqlBuilder);
+
   @Override
   public void generateResourceTable(ResourceTable resourceTable) {
     final Clock clock = new Clock().startClock();
@@ -122,23 +130,81 @@ public class JdbcResourceTableStore implements ResourceTableStore {
    */
   private void populateTable(ResourceTable resourceTable, Table table) {
     Optional<String> populateTableSql = resourceTable.getPopulateTempTableStatement();
-    Optional<List<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContent();
+    Optional<RowProducer> rowProducer = resourceTable.getPopulateTempTableRowProducer();
 
     if (populateTableSql.isPresent()) {
       log.debug("Populate table SQL: '{}'", populateTableSql.get());
 
       jdbcTemplate.execute(populateTableSql.get());
-    } else if (populateTableContent.isPresent()) {
-      List<Object[]> content = populateTableContent.get();
-      log.debug("Populate table content rows: {}", content.size());
-
-      if (content.size() > 0) {
-        int columns = content.get(0).length;
-        batchUpdate(columns, table.getName(), content);
+    } else if (rowProducer.isPresent()) {
+      long rows = copyRows(table, rowProducer.get());
+      log.debug("Populate table streamed rows: {}", rows);
+    } else {
+      Optional<List<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContent();
+
+      if (populateTableContent.isPresent()) {
+        List<Object[]> content = populateTableContent.get();
+        log.debug("Populate table content rows: {}", content.size());
+
+        if (content.size() > 0) {
+          int columns = content.get(0).length;
+          batchUpdate(columns, table.getName(), content);
+        }
       }
     }
   }
 
+  /**
+   * Streams the rows of the given producer into the given table. The PostgreSQL copy API is used if
+   * supported by the connection, otherwise rows are inserted with batch updates of limited size.
+   *
+   * @param table the {@link Table}.
+   * @param producer the {@link RowProducer}.
+   * @return the number of rows inserted.
+   */
+  private long copyRows(Table table, RowProducer producer) {
+    Long rows =
+        jdbcTemplate.execute(
+            (ConnectionCallback<Long>)
+                connection ->
+                    copyWriter.isSupported(connection)
+                        ? copyWriter.copy(connection, table, producer)
+                        : null);
+
+    return rows != null ? rows : batchUpdate(table, producer);
+  }
+
+  /**
+   * Inserts the rows of the given producer into the given table with batch updates of limited size.
+   *
+   * @param table the {@link Table}.
+   * @param producer the {@link RowProducer}.
+   * @return the number of rows inserted.
+   */
+  private long batchUpdate(Table table, RowProducer producer) {
+    int columns = table.getColumns().size();
+    List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+    MutableLong rows = new MutableLong();
+
+    producer.produce(
+        row -> {
+          batch.add(row);
+
+          if (batch.size() == BATCH_SIZE) {
+            batchUpdate(columns, table.getName(), batch);
+            rows.add(batch.size());
+            batch.clear();
+          }
+        });
+
+    if (!batch.isEmpty()) {
+      batchUpdate(columns, table.getName(), batch);
+      rows.add(batch.size());
+    }
+
+    return rows.longValue();
+  }
+
   /**
    * Invokes table hooks.
    *
@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.hisp.dhis.calendar.Calendar;
@@ -49,6 +50,7 @@ import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableType;
+import org.hisp.dhis.resourcetable.RowProducer;
 
 /**
  * @author Lars Helge Overland
@@ -100,9 +102,21 @@ public class DatePeriodResourceTable implements ResourceTable {
 
   @Override
   public Optional<List<Object[]>> getPopulateTempTableContent() {
-    List<PeriodType> periodTypes = PeriodType.getAvailablePeriodTypes();
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<RowProducer> getPopulateTempTableRowProducer() {
+    return Optional.of(this::produceRows);
+  }
 
-    List<Object[]> batchArgs = new ArrayList<>();
+  /**
+   * Produces the rows of the resource table.
+   *
+   * @param consumer the {@link Consumer} of rows.
+   */
+  private void produceRows(Consumer<Object[]> consumer) {
+    List<PeriodType> periodTypes = PeriodType.getAvailablePeriodTypes();
 
     int firstYearSupported = years.get(0);
     int lastYearSupported = years.get(years.size() - 1);
@@ -130,9 +144,7 @@ public class DatePeriodResourceTable implements ResourceTable {
         values.add(periodType.createPeriod(day, calendar).getIsoDate());
       }
 
-      batchArgs.add(values.toArray());
+      consumer.accept(values.toArray());
     }
-
-    return Optional.of(batchArgs);
   }
 }
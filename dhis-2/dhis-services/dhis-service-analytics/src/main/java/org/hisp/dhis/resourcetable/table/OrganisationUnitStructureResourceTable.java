@@ -36,6 +36,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import org.hisp.dhis.db.model.Column;
 import org.hisp.dhis.db.model.DataType;
@@ -48,6 +49,7 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableType;
+import org.hisp.dhis.resourcetable.RowProducer;
 
 /**
  * @author Lars Helge Overland
@@ -119,12 +121,53 @@ public class OrganisationUnitStructureResourceTable implements ResourceTable {
 
   @Override
   public Optional<List<Object[]>> getPopulateTempTableContent() {
-    List<Object[]> batchArgs = new ArrayList<>();
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<RowProducer> getPopulateTempTableRowProducer() {
+    List<List<OrganisationUnit>> unitsByLevel = getOrganisationUnitsByLevel();
+
+    return Optional.of(consumer -> produceRows(unitsByLevel, consumer));
+  }
+
+  /**
+   * Returns the organisation units of each level, starting with level 1. The ancestors of each
+   * organisation unit are loaded, so that rows can be produced without accessing the database.
+   *
+   * @return a list of lists of {@link OrganisationUnit}.
+   */
+  private List<List<OrganisationUnit>> getOrganisationUnitsByLevel() {
+    List<List<OrganisationUnit>> unitsByLevel = new ArrayList<>();
+
+    for (int i = 0; i < organisationUnitLevels; i++) {
+      List<OrganisationUnit> units = organisationUnitService.getOrganisationUnitsAtLevel(i + 1);
 
+      for (OrganisationUnit unit : units) {
+        for (OrganisationUnit parent = unit.getParent();
+            parent != null;
+            parent = parent.getParent()) {
+          parent.getName();
+        }
+      }
+
+      unitsByLevel.add(units);
+    }
+
+    return unitsByLevel;
+  }
+
+  /**
+   * Produces the rows of the resource table.
+   *
+   * @param unitsByLevel the organisation units of each level, starting with level 1.
+   * @param consumer the {@link Consumer} of rows.
+   */
+  private void produceRows(List<List<OrganisationUnit>> unitsByLevel, Consumer<Object[]> consumer) {
     for (int i = 0; i < organisationUnitLevels; i++) {
       int level = i + 1;
 
-      List<OrganisationUnit> units = organisationUnitService.getOrganisationUnitsAtLevel(level);
+      List<OrganisationUnit> units = unitsByLevel.get(i);
 
       for (OrganisationUnit unit : units) {
         List<Object> values = new ArrayList<>();
@@ -152,10 +195,8 @@ public class OrganisationUnitStructureResourceTable implements ResourceTable {
           values.add(names.get(k));
         }
 
-        batchArgs.add(values.toArray());
+        consumer.accept(values.toArray());
       }
     }
-
-    return Optional.of(batchArgs);
   }
 }
@@ -36,6 +36,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.calendar.Calendar;
@@ -52,6 +53,7 @@ import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.period.WeeklyAbstractPeriodType;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableType;
+import org.hisp.dhis.resourcetable.RowProducer;
 import org.joda.time.DateTime;
 
 /**
@@ -122,9 +124,21 @@ public class PeriodResourceTable implements ResourceTable {
 
   @Override
   public Optional<List<Object[]>> getPopulateTempTableContent() {
-    Calendar calendar = PeriodType.getCalendar();
+    return Optional.empty();
+  }
 
-    List<Object[]> batchArgs = new ArrayList<>();
+  @Override
+  public Optional<RowProducer> getPopulateTempTableRowProducer() {
+    return Optional.of(this::produceRows);
+  }
+
+  /**
+   * Produces the rows of the resource table.
+   *
+   * @param consumer the {@link Consumer} of rows.
+   */
+  private void produceRows(Consumer<Object[]> consumer) {
+    Calendar calendar = PeriodType.getCalendar();
 
     Set<String> uniqueIsoDates = new HashSet<>();
 
@@ -157,11 +171,9 @@ public class PeriodResourceTable implements ResourceTable {
               pe != null ? IdentifiableObjectUtils.getLocalPeriodIdentifier(pe, calendar) : null);
         }
 
-        batchArgs.add(values.toArray());
+        consumer.accept(values.toArray());
       }
     }
-
-    return Optional.of(batchArgs);
   }
 
   /**
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.analyze;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.common.ExecutionPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+@ExtendWith(MockitoExtension.class)
+class RequestExecutionPlanStoreTest {
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Mock private JdbcTemplate readOnlyJdbcTemplate;
+
+  @Mock private SqlRowSet rowSet;
+
+  private RequestExecutionPlanStore store;
+
+  @AfterEach
+  void tearDown() {
+    store.shutdown();
+  }
+
+  @Test
+  void testIsSlowQuerySampled() {
+    store =
+        new RequestExecutionPlanStore(jdbcTemplate, readOnlyJdbcTemplate, Runnable::run, 500, 1);
+
+    assertFalse(store.isSlowQuerySampled(499));
+    assertTrue(store.isSlowQuerySampled(500));
+    assertTrue(store.isSlowQuerySampled(3000));
+  }
+
+  @Test
+  void testIsSlowQuerySampledDisabled() {
+    store = new RequestExecutionPlanStore(jdbcTemplate, readOnlyJdbcTemplate, Runnable::run, 0, 1);
+
+    assertFalse(store.isSlowQuerySampled(3000));
+
+    store =
+        new RequestExecutionPlanStore(jdbcTemplate, readOnlyJdbcTemplate, Runnable::run, 500, 0);
+
+    assertFalse(store.isSlowQuerySampled(3000));
+  }
+
+  @Test
+  void testAddSlowQueryPlan() {
+    String sql = "select count(value) from analytics";
+
+    mockExplainResult();
+
+    store =
+        new RequestExecutionPlanStore(jdbcTemplate, readOnlyJdbcTemplate, Runnable::run, 500, 1);
+    store.addSlowQueryPlan(sql, 1300);
+
+    verify(readOnlyJdbcTemplate)
+        .queryForRowSet("EXPLAIN (ANALYZE true, BUFFERS true, COSTS true, FORMAT json) " + sql);
+  }
+
+  @Test
+  void testExplainSlowQuery() {
+    String sql = "select count(value) from analytics";
+
+    mockExplainResult();
+
+    store =
+        new RequestExecutionPlanStore(jdbcTemplate, readOnlyJdbcTemplate, Runnable::run, 500, 1);
+
+    ExecutionPlan plan = store.explainSlowQuery(sql, 1300);
+
+    assertEquals(sql, plan.getQuery());
+    assertEquals(1201.0, plan.getTimeInMillis());
+    assertEquals("Seq Scan", plan.getPlan().get("Node Type").asText());
+  }
+
+  @Test
+  void testAddSlowQueryPlanBelowThreshold() {
+    store =
+        new RequestExecutionPlanStore(jdbcTemplate, readOnlyJdbcTemplate, Runnable::run, 500, 1);
+    store.addSlowQueryPlan("select 1", 100);
+
+    verifyNoInteractions(readOnlyJdbcTemplate);
+  }
+
+  private void mockExplainResult() {
+    when(readOnlyJdbcTemplate.queryForRowSet(anyString())).thenReturn(rowSet);
+    when(rowSet.next()).thenReturn(true);
+    when(rowSet.getString(1))
+        .thenReturn(
+            """
+            [{"Plan": {"Node Type": "Seq Scan"}, "Planning Time": 0.5, "Execution Time": 1200.5}]""");
+  }
+}
@@ -64,13 +64,13 @@ class AnalyticsCacheTest {
     // arrange
     AnalyticsCacheSettings settings = new AnalyticsCacheSettings(systemSettingManager);
 
-    CacheBuilder<Grid> cacheBuilder = new SimpleCacheBuilder<>();
+    CacheBuilder<CachedGrid> cacheBuilder = new SimpleCacheBuilder<>();
 
     cacheBuilder.expireAfterWrite(1L, TimeUnit.MINUTES);
 
-    Cache<Grid> cache = new LocalCache<>(cacheBuilder);
+    Cache<CachedGrid> cache = new LocalCache<>(cacheBuilder);
 
-    Mockito.<Cache<Grid>>when(cacheProvider.createAnalyticsCache()).thenReturn(cache);
+    Mockito.<Cache<CachedGrid>>when(cacheProvider.createAnalyticsCache()).thenReturn(cache);
 
     AnalyticsCache analyticsCache = new AnalyticsCache(cacheProvider, settings);
 
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.system.grid.ListGrid;
+import org.junit.jupiter.api.Test;
+
+class CachedGridTest {
+  @Test
+  void testRoundTrip() {
+    Grid grid = new ListGrid(Map.of("items", "A"), Map.of("internal", 1));
+    grid.setTitle("Title");
+    grid.addHeader(new GridHeader("dx", "Data", ValueType.TEXT, false, true))
+        .addHeader(new GridHeader("count", "Count", ValueType.INTEGER, false, false))
+        .addHeader(new GridHeader("total", "Total", ValueType.NUMBER, false, false))
+        .addHeader(new GridHeader("id", "Id", ValueType.NUMBER, false, false))
+        .addRow()
+        .addValue("a")
+        .addValue(1)
+        .addValue(1.5d)
+        .addValue(7L)
+        .addRow()
+        .addValue("b")
+        .addValue(null)
+        .addValue(2.5d)
+        .addValue(null)
+        .addRow()
+        .addValue("a")
+        .addValue(3)
+        .addValue(null)
+        .addValue(9L);
+
+    CachedGrid cachedGrid = CachedGrid.of(grid);
+
+    assertEquals(3, cachedGrid.getHeight());
+    assertEquals(4, cachedGrid.getWidth());
+
+    Grid decoded = cachedGrid.toGrid();
+
+    assertEquals("a", decoded.getRow(2).get(0));
+    assertNull(decoded.getRow(1).get(1));
+
+    assertEquals("Title", decoded.getTitle());
+    assertEquals(4, decoded.getHeaderWidth());
+    assertEquals("A", decoded.getMetaData().get("items"));
+    assertEquals(1, decoded.getInternalMetaData().get("internal"));
+    assertEquals(grid.getRows(), decoded.getRows());
+    assertEquals(Integer.class, decoded.getRow(0).get(1).getClass());
+    assertEquals(Long.class, decoded.getRow(0).get(3).getClass());
+  }
+
+  @Test
+  void testMixedTypesAndRaggedRows() {
+    Grid grid = new ListGrid();
+    grid.addHeader(new GridHeader("a"))
+        .addHeader(new GridHeader("b"))
+        .addRow()
+        .addValue("x")
+        .addValue(1)
+        .addRow()
+        .addValue("y")
+        .addValue("z");
+
+    assertEquals(grid.getRows(), CachedGrid.of(grid).toGrid().getRows());
+
+    grid.addRow().addValue("w");
+
+    assertEquals(grid.getRows(), CachedGrid.of(grid).toGrid().getRows());
+  }
+
+  @Test
+  void testDecodedGridIsIndependent() {
+    Grid grid = new ListGrid();
+    grid.addHeader(new GridHeader("a")).addRow().addValue("x");
+
+    CachedGrid cachedGrid = CachedGrid.of(grid);
+
+    Grid decoded = cachedGrid.toGrid();
+    decoded.addRow().addValue("y");
+    decoded.getMetaData().put("key", "value");
+
+    assertEquals(1, cachedGrid.toGrid().getHeight());
+    assertFalse(cachedGrid.toGrid().getMetaData().containsKey("key"));
+    assertEquals(List.of("x"), cachedGrid.toGrid().getRow(0));
+  }
+
+  @Test
+  void testDecodedValuesAreNotShared() {
+    Grid grid = new ListGrid();
+    grid.addHeader(new GridHeader("a")).addHeader(new GridHeader("b"));
+
+    for (int i = 0; i < 100; i++) {
+      grid.addRow().addValue(i % 2 == 0 ? new Date(i) : "v" + i).addValue(i);
+    }
+
+    CachedGrid cachedGrid = CachedGrid.of(grid);
+
+    Grid first = cachedGrid.toGrid();
+    Grid second = cachedGrid.toGrid();
+
+    assertEquals(grid.getRows(), first.getRows());
+    assertEquals(grid.getRows(), second.getRows());
+    assertNotSame(first.getRow(0).get(0), second.getRow(0).get(0));
+
+    ((Date) first.getRow(0).get(0)).setTime(1000L);
+
+    assertEquals(new Date(0), cachedGrid.toGrid().getRow(0).get(0));
+  }
+
+  @Test
+  void testDecodedRaggedRowsAreNotShared() {
+    Grid grid = new ListGrid();
+    grid.addHeader(new GridHeader("a")).addHeader(new GridHeader("b"));
+
+    for (int i = 0; i < 100; i++) {
+      grid.addRow().addValue(new Date(i));
+
+      if (i % 2 == 0) {
+        grid.addValue(i);
+      }
+    }
+
+    CachedGrid cachedGrid = CachedGrid.of(grid);
+
+    Grid first = cachedGrid.toGrid();
+
+    assertEquals(grid.getRows(), first.getRows());
+
+    ((Date) first.getRow(0).get(0)).setTime(1000L);
+
+    assertEquals(new Date(0), cachedGrid.toGrid().getRow(0).get(0));
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheBuilder;
+import org.hisp.dhis.cache.DefaultCacheProvider;
+import org.hisp.dhis.cache.LocalCache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.hisp.dhis.dataelement.DataElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SubQueryCacheTest {
+  @Mock private AnalyticsCacheSettings analyticsCacheSettings;
+
+  @Mock private DefaultCacheProvider cacheProvider;
+
+  private SubQueryCache subQueryCache;
+
+  private final DataQueryParams params =
+      DataQueryParams.newBuilder()
+          .withDataElements(List.of(new DataElement("dataElementA")))
+          .build();
+
+  @BeforeEach
+  void setUp() {
+    CacheBuilder<Map<String, Object>> cacheBuilder = new SimpleCacheBuilder<>();
+    cacheBuilder.expireAfterWrite(1L, TimeUnit.MINUTES);
+    Cache<Map<String, Object>> cache = new LocalCache<>(cacheBuilder);
+
+    Mockito.<Cache<Map<String, Object>>>when(cacheProvider.createAnalyticsSubQueryCache())
+        .thenReturn(cache);
+    when(analyticsCacheSettings.isProgressiveCachingEnabled()).thenReturn(false);
+    when(analyticsCacheSettings.fixedExpirationTimeOrDefault()).thenReturn(60L);
+
+    subQueryCache = new SubQueryCache(cacheProvider, analyticsCacheSettings);
+  }
+
+  @Test
+  void testGetOrFetchFetchesOnce() {
+    AtomicInteger fetches = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      Map<String, Object> result =
+          subQueryCache.getOrFetch(
+              params,
+              "keyA",
+              () -> {
+                fetches.incrementAndGet();
+                return new HashMap<>(Map.of("a-2023", 1.0d));
+              });
+
+      assertEquals(Map.of("a-2023", 1.0d), result);
+    }
+
+    assertEquals(1, fetches.get());
+  }
+
+  @Test
+  void testReturnedResultIsCopy() {
+    Map<String, Object> result =
+        subQueryCache.getOrFetch(params, "keyA", () -> new HashMap<>(Map.of("a-2023", 1.0d)));
+    result.put("b-2023", 2.0d);
+
+    Map<String, Object> cachedResult = subQueryCache.get("keyA").orElseThrow();
+    cachedResult.remove("a-2023");
+
+    assertEquals(Map.of("a-2023", 1.0d), subQueryCache.get("keyA").orElseThrow());
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cluster;
+
+import static org.hisp.dhis.DhisConvenienceTest.createProgram;
+import static org.hisp.dhis.DhisConvenienceTest.getDate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.hisp.dhis.analytics.event.EventQueryParams;
+import org.hisp.dhis.event.EventStatus;
+import org.hisp.dhis.program.Program;
+import org.junit.jupiter.api.Test;
+
+class EventClusterTableServiceTest {
+  private final Program program = createProgram('A');
+
+  @Test
+  void testGetCellSize() {
+    assertEquals(1638400, EventClusterTableService.getCellSize(0));
+    assertEquals(819200, EventClusterTableService.getCellSize(1));
+    assertEquals(50, EventClusterTableService.getCellSize(15));
+  }
+
+  @Test
+  void testGetClusterLevel() {
+    assertEquals(0, EventClusterTableService.getClusterLevel(10, 1638400 * 4));
+    assertEquals(2, EventClusterTableService.getClusterLevel(10, 1638400));
+    assertEquals(9, EventClusterTableService.getClusterLevel(10, 12800));
+    assertEquals(-1, EventClusterTableService.getClusterLevel(10, 1000));
+    assertEquals(-1, EventClusterTableService.getClusterLevel(0, 1638400));
+  }
+
+  @Test
+  void testIsSupportedQuery() {
+    EventQueryParams params =
+        new EventQueryParams.Builder()
+            .withProgram(program)
+            .withStartDate(getDate(2022, 1, 1))
+            .withEndDate(getDate(2023, 12, 31))
+            .withCoordinateFields(List.of("psigeometry"))
+            .build();
+
+    assertTrue(EventClusterTableService.isSupportedQuery(params));
+  }
+
+  @Test
+  void testIsSupportedQueryPartialYear() {
+    EventQueryParams params =
+        new EventQueryParams.Builder()
+            .withProgram(program)
+            .withStartDate(getDate(2023, 3, 1))
+            .withEndDate(getDate(2023, 12, 31))
+            .build();
+
+    assertFalse(EventClusterTableService.isSupportedQuery(params));
+  }
+
+  @Test
+  void testIsSupportedQueryEventStatus() {
+    EventQueryParams params =
+        new EventQueryParams.Builder()
+            .withProgram(program)
+            .withStartDate(getDate(2023, 1, 1))
+            .withEndDate(getDate(2023, 12, 31))
+            .withEventStatuses(Set.of(EventStatus.COMPLETED))
+            .build();
+
+    assertFalse(EventClusterTableService.isSupportedQuery(params));
+  }
+
+  @Test
+  void testIsSupportedQueryCoordinateField() {
+    EventQueryParams params =
+        new EventQueryParams.Builder()
+            .withProgram(program)
+            .withStartDate(getDate(2023, 1, 1))
+            .withEndDate(getDate(2023, 12, 31))
+            .withCoordinateFields(List.of("enrollmentgeometry"))
+            .build();
+
+    assertFalse(EventClusterTableService.isSupportedQuery(params));
+  }
+}
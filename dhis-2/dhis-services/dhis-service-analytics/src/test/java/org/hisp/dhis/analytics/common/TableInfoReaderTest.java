@@ -27,7 +27,10 @@
  */
 package org.hisp.dhis.analytics.common;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.HashSet;
@@ -97,4 +100,38 @@ class TableInfoReaderTest {
     // Then
     assertTrue(absentColumns.contains("col3"));
   }
+
+  @Test
+  void testGetCachedColumnsReadsColumnsOncePerTable() {
+    // Given
+    String tableName = "tableName";
+    List<String> columns = List.of("col1", "col2");
+
+    // When
+    when(jdbcTemplate.queryForList(QUERY_TABLE_COLUMN_NAMES, String.class, tableName))
+        .thenReturn(columns);
+    tableInfoReader.getCachedColumns(tableName);
+    Set<String> cachedColumns = tableInfoReader.getCachedColumns(tableName);
+
+    // Then
+    assertEquals(Set.of("col1", "col2"), cachedColumns);
+    verify(jdbcTemplate, times(1)).queryForList(QUERY_TABLE_COLUMN_NAMES, String.class, tableName);
+  }
+
+  @Test
+  void testInvalidateColumnCacheReadsColumnsAgain() {
+    // Given
+    String tableName = "tableName";
+
+    // When
+    when(jdbcTemplate.queryForList(QUERY_TABLE_COLUMN_NAMES, String.class, tableName))
+        .thenReturn(List.of("col1"), List.of("col1", "col2"));
+    tableInfoReader.getCachedColumns(tableName);
+    tableInfoReader.invalidateColumnCache();
+    Set<String> cachedColumns = tableInfoReader.getCachedColumns(tableName);
+
+    // Then
+    assertEquals(Set.of("col1", "col2"), cachedColumns);
+    verify(jdbcTemplate, times(2)).queryForList(QUERY_TABLE_COLUMN_NAMES, String.class, tableName);
+  }
 }
@@ -53,6 +53,7 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.cache.SubQueryCache;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.ListMap;
 import org.hisp.dhis.db.sql.PostgreSqlBuilder;
@@ -80,6 +81,8 @@ class AnalyticsManagerTest extends DhisConvenienceTest {
 
   @Mock private ExecutionPlanStore executionPlanStore;
 
+  @Mock private SubQueryCache subQueryCache;
+
   private final SqlBuilder sqlBuilder = new PostgreSqlBuilder();
 
   private JdbcAnalyticsManager analyticsManager;
@@ -95,7 +98,13 @@ class AnalyticsManagerTest extends DhisConvenienceTest {
   @BeforeEach
   void before() {
     analyticsManager =
-        new JdbcAnalyticsManager(queryPlanner, jdbcTemplate, executionPlanStore, sqlBuilder);
+        new JdbcAnalyticsManager(
+            queryPlanner,
+            jdbcTemplate,
+            executionPlanStore,
+            sqlBuilder,
+            subQueryCache,
+            new PartitionQueryExecutor(1));
   }
 
   @ParameterizedTest
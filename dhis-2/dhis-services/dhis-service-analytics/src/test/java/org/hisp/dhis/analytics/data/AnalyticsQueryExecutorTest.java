@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AnalyticsQueryExecutorTest {
+  private AnalyticsQueryExecutor queryExecutor;
+
+  @BeforeEach
+  void setUp() {
+    queryExecutor = new AnalyticsQueryExecutor(4, 4, 2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    queryExecutor.shutdown();
+  }
+
+  @Test
+  void testInvokeAllReturnsResultsInOrder() {
+    List<Callable<Integer>> tasks = new ArrayList<>();
+
+    for (int i = 0; i < 10; i++) {
+      int value = i;
+      tasks.add(
+          () -> {
+            Thread.sleep(10 - value);
+            return value;
+          });
+    }
+
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), queryExecutor.invokeAll(tasks));
+    assertEquals(10, queryExecutor.getMetrics().completed());
+  }
+
+  @Test
+  void testInvokeAllLimitsRequestConcurrency() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Callable<Integer>> tasks = new ArrayList<>();
+
+    for (int i = 0; i < 8; i++) {
+      tasks.add(
+          () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return 1;
+          });
+    }
+
+    queryExecutor.invokeAll(tasks);
+
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  void testInvokeAllCancelsOnFailure() throws InterruptedException {
+    IllegalStateException failure = new IllegalStateException("Query failed");
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    Callable<Integer> blocking =
+        () -> {
+          try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+          } catch (InterruptedException ex) {
+            interrupted.countDown();
+            throw ex;
+          }
+          return 1;
+        };
+    Callable<Integer> failing =
+        () -> {
+          Thread.sleep(20);
+          throw failure;
+        };
+
+    IllegalStateException ex =
+        assertThrows(
+            IllegalStateException.class, () -> queryExecutor.invokeAll(List.of(failing, blocking)));
+
+    assertSame(failure, ex);
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    assertEquals(1, queryExecutor.getMetrics().failed());
+  }
+
+  @Test
+  void testInvokeAllReleasesPermitsOfCancelledQueryWhenFinished() throws Exception {
+    queryExecutor.shutdown();
+    queryExecutor = new AnalyticsQueryExecutor(4, 1, 1);
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    CountDownLatch nextStarted = new CountDownLatch(1);
+
+    Callable<Integer> ignoringInterrupt =
+        () -> {
+          started.countDown();
+
+          while (finish.getCount() > 0) {
+            try {
+              finish.await();
+            } catch (InterruptedException ex) {
+              // Simulates a database statement which keeps running
+            }
+          }
+          return 1;
+        };
+
+    Thread request = new Thread(() -> queryExecutor.invokeAll(List.of(ignoringInterrupt)));
+    request.start();
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    request.interrupt();
+    request.join(TimeUnit.SECONDS.toMillis(5));
+
+    Thread nextRequest =
+        new Thread(
+            () ->
+                queryExecutor.invokeAll(
+                    List.of(
+                        () -> {
+                          nextStarted.countDown();
+                          return 1;
+                        })));
+    nextRequest.start();
+
+    assertFalse(nextStarted.await(100, TimeUnit.MILLISECONDS));
+
+    finish.countDown();
+
+    assertTrue(nextStarted.await(5, TimeUnit.SECONDS));
+    nextRequest.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  @Test
+  void testInvokeAllRemovesPermitsOfIdleUser() {
+    queryExecutor.invokeAll(List.of(() -> 1, () -> 2));
+
+    assertEquals(0, queryExecutor.getUserPermitsCount());
+  }
+}
@@ -48,6 +48,8 @@ import org.hisp.dhis.analytics.data.handler.HeaderHandler;
 import org.hisp.dhis.analytics.data.handler.MetadataHandler;
 import org.hisp.dhis.analytics.data.handler.SchemeIdResponseMapper;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
+import org.hisp.dhis.analytics.orgunit.OrgUnitHierarchy;
+import org.hisp.dhis.analytics.orgunit.OrgUnitHierarchyService;
 import org.hisp.dhis.analytics.resolver.ExpressionResolvers;
 import org.hisp.dhis.expression.ExpressionService;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
@@ -74,7 +76,7 @@ abstract class AnalyticsServiceBaseTest {
 
   @Mock private AnalyticsSecurityManager securityManager;
 
-  @Mock private QueryPlanner queryPlanner;
+  @Mock protected QueryPlanner queryPlanner;
 
   @Mock private ExpressionService expressionService;
 
@@ -102,13 +104,16 @@ abstract class AnalyticsServiceBaseTest {
 
   @Mock private UserService userService;
 
+  @Mock private OrgUnitHierarchyService orgUnitHierarchyService;
+
   DataAggregator target;
 
   @BeforeEach
   public void baseSetUp() {
     HeaderHandler headerHandler = new HeaderHandler();
     MetadataHandler metadataHandler =
-        new MetadataHandler(dataQueryService, schemeIdResponseMapper, userService);
+        new MetadataHandler(
+            dataQueryService, schemeIdResponseMapper, userService, orgUnitHierarchyService);
     DataHandler dataHandler =
         new DataHandler(
             eventAnalyticsService,
@@ -119,12 +124,14 @@ abstract class AnalyticsServiceBaseTest {
             systemSettingManager,
             analyticsManager,
             organisationUnitService,
-            executionPlanStore);
+            executionPlanStore,
+            new AnalyticsQueryExecutor(4, 4, 4));
 
     target = new DataAggregator(headerHandler, metadataHandler, dataHandler);
     target.feedHandlers();
 
     when(analyticsCacheSettings.fixedExpirationTimeOrDefault()).thenReturn(0L);
+    when(orgUnitHierarchyService.getHierarchy()).thenReturn(OrgUnitHierarchy.EMPTY);
   }
 
   void initMock(DataQueryParams params) {
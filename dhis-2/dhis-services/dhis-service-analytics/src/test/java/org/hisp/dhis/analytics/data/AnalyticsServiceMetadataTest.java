@@ -33,9 +33,11 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
 import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.APPROXIMATE;
 import static org.hisp.dhis.analytics.DataQueryParams.DISPLAY_NAME_DATA_X;
 import static org.hisp.dhis.analytics.DataQueryParams.DISPLAY_NAME_ORGUNIT;
 import static org.hisp.dhis.period.RelativePeriodEnum.THIS_QUARTER;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -48,7 +50,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryGroups;
 import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.category.CategoryCombo;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.BaseNameableObject;
@@ -307,6 +311,53 @@ class AnalyticsServiceMetadataTest extends AnalyticsServiceBaseTest {
     assertTrue(items.containsKey(THIS_QUARTER.name()));
   }
 
+  @Test
+  void metadataContainsApproximationWhenQueryIsSampled() {
+    DataQueryParams params = getDataElementParams();
+
+    initMock(params);
+
+    when(queryPlanner.planQuery(any(DataQueryParams.class), any(QueryPlannerParams.class)))
+        .thenReturn(
+            DataQueryGroups.newBuilder()
+                .withQueries(
+                    Lists.newArrayList(DataQueryParams.newBuilder().withSampled(true).build()))
+                .build());
+
+    Grid grid = target.getAggregatedDataValueGrid(params);
+
+    assertTrue(grid.getMetaData().containsKey(APPROXIMATE.getKey()));
+  }
+
+  @Test
+  void metadataDoesNotContainApproximationWhenNoQueryIsSampled() {
+    DataQueryParams params =
+        DataQueryParams.newBuilder(getDataElementParams()).withApproximate(true).build();
+
+    initMock(params);
+
+    Grid grid = target.getAggregatedDataValueGrid(params);
+
+    assertFalse(grid.getMetaData().containsKey(APPROXIMATE.getKey()));
+  }
+
+  private DataQueryParams getDataElementParams() {
+    List<DimensionalItemObject> periods = new ArrayList<>();
+    periods.add(new MonthlyPeriodType().createPeriod(new DateTime(2014, 4, 1, 0, 0).toDate()));
+
+    return DataQueryParams.newBuilder()
+        .withDimensions(
+            Lists.newArrayList(
+                new BaseDimensionalObject("pe", DimensionType.PERIOD, periods),
+                new BaseDimensionalObject(
+                    "dx",
+                    DimensionType.DATA_X,
+                    DISPLAY_NAME_DATA_X,
+                    "display name",
+                    Lists.newArrayList(createDataElement('A', new CategoryCombo())))))
+        .build();
+  }
+
   private OrganisationUnitLevel buildOrgUnitLevel(int level, String uid, String name, String code) {
     OrganisationUnitLevel oul = new OrganisationUnitLevel(level, name);
     oul.setUid(uid);
@@ -29,6 +29,7 @@ package org.hisp.dhis.analytics.data;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
 import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
 import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
@@ -36,9 +37,13 @@ import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObjectUtils.getList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.AnalyticsTableType;
@@ -46,7 +51,10 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.cache.SubQueryCache;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupTableService;
+import org.hisp.dhis.analytics.table.model.Partitions;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.ValueType;
@@ -76,6 +84,8 @@ class JdbcAnalyticsManagerTest {
 
   @Mock private PartitionManager partitionManager;
 
+  @Mock private RollupTableService rollupTableService;
+
   @Mock private JdbcTemplate jdbcTemplate;
 
   @Mock private SqlRowSet rowSet;
@@ -90,11 +100,20 @@ class JdbcAnalyticsManagerTest {
 
   @Mock private ExecutionPlanStore executionPlanStore;
 
+  @Mock private SubQueryCache subQueryCache;
+
   @BeforeEach
   public void setUp() {
-    QueryPlanner queryPlanner = new DefaultQueryPlanner(partitionManager);
-
-    subject = new JdbcAnalyticsManager(queryPlanner, jdbcTemplate, executionPlanStore, sqlBuilder);
+    QueryPlanner queryPlanner = new DefaultQueryPlanner(partitionManager, rollupTableService);
+
+    subject =
+        new JdbcAnalyticsManager(
+            queryPlanner,
+            jdbcTemplate,
+            executionPlanStore,
+            sqlBuilder,
+            subQueryCache,
+            new PartitionQueryExecutor(1));
   }
 
   @Test
@@ -181,6 +200,115 @@ class JdbcAnalyticsManagerTest {
     assertExpectedMaxMinSumOrgUnitSql("min");
   }
 
+  @Test
+  void verifyQueryGeneratedWhenSumIsSampled() {
+    mockRowSet();
+
+    DataQueryParams params =
+        DataQueryParams.newBuilder(createParams(AggregationType.SUM))
+            .withApproximate(true)
+            .withSampled(true)
+            .withPartitions(new Partitions(Set.of(2015)))
+            .build();
+
+    subject.getAggregatedDataValues(params, AnalyticsTableType.DATA_VALUE, 20000);
+
+    assertThat(
+        sql.getValue(),
+        containsString("from analytics_2015 as ap tablesample bernoulli (10) repeatable (0)"));
+    assertThat(sql.getValue(), containsString("(sum(value) * 10.0) as value"));
+  }
+
+  @Test
+  void verifyQueryGeneratedWhenApproximateSumIsNotSampled() {
+    mockRowSet();
+
+    DataQueryParams params =
+        DataQueryParams.newBuilder(createParams(AggregationType.SUM))
+            .withApproximate(true)
+            .withPartitions(new Partitions(Set.of(2015)))
+            .build();
+
+    subject.getAggregatedDataValues(params, AnalyticsTableType.DATA_VALUE, 20000);
+
+    assertThat(sql.getValue(), not(containsString("tablesample")));
+  }
+
+  @Test
+  void verifyQueryGeneratedPerPartitionWhenPartitionScanIsEnabled() {
+    mockRowSet();
+
+    PartitionQueryExecutor partitionQueryExecutor = new PartitionQueryExecutor(2);
+
+    JdbcAnalyticsManager partitionSubject =
+        new JdbcAnalyticsManager(
+            new DefaultQueryPlanner(partitionManager, rollupTableService),
+            jdbcTemplate,
+            executionPlanStore,
+            sqlBuilder,
+            subQueryCache,
+            partitionQueryExecutor);
+
+    DataQueryParams params =
+        DataQueryParams.newBuilder(createParams(AggregationType.SUM))
+            .withPartitions(new Partitions(Set.of(2014, 2015)))
+            .build();
+
+    try {
+      assertTrue(partitionSubject.isPartitionScan(params));
+
+      partitionSubject.getAggregatedDataValues(params, AnalyticsTableType.DATA_VALUE, 20000);
+    } finally {
+      partitionQueryExecutor.shutdown();
+    }
+
+    assertEquals(2, sql.getAllValues().size());
+    assertTrue(sql.getAllValues().stream().anyMatch(s -> s.contains("from analytics_2014 as ax")));
+    assertTrue(sql.getAllValues().stream().anyMatch(s -> s.contains("from analytics_2015 as ax")));
+  }
+
+  @Test
+  void verifyPartitionScanIsNotUsedForAverage() {
+    PartitionQueryExecutor partitionQueryExecutor = new PartitionQueryExecutor(2);
+
+    JdbcAnalyticsManager partitionSubject =
+        new JdbcAnalyticsManager(
+            new DefaultQueryPlanner(partitionManager, rollupTableService),
+            jdbcTemplate,
+            executionPlanStore,
+            sqlBuilder,
+            subQueryCache,
+            partitionQueryExecutor);
+
+    DataQueryParams params =
+        DataQueryParams.newBuilder(createParams(AggregationType.AVERAGE))
+            .withPartitions(new Partitions(Set.of(2014, 2015)))
+            .build();
+
+    try {
+      assertFalse(partitionSubject.isPartitionScan(params));
+      assertFalse(subject.isPartitionScan(createParams(AggregationType.SUM)));
+    } finally {
+      partitionQueryExecutor.shutdown();
+    }
+  }
+
+  @Test
+  void testMergeKeyValueMaps() {
+    List<Map<String, Object>> maps =
+        List.of(Map.of("a", 2d, "b", 5d), Map.of("a", 3d, "c", 1d), Map.of("b", 4d));
+
+    assertEquals(
+        Map.of("a", 5d, "b", 9d, "c", 1d),
+        JdbcAnalyticsManager.mergeKeyValueMaps(maps, AggregationType.SUM));
+    assertEquals(
+        Map.of("a", 2d, "b", 4d, "c", 1d),
+        JdbcAnalyticsManager.mergeKeyValueMaps(maps, AggregationType.MIN));
+    assertEquals(
+        Map.of("a", 3d, "b", 5d, "c", 1d),
+        JdbcAnalyticsManager.mergeKeyValueMaps(maps, AggregationType.MAX));
+  }
+
   @Test
   void testToQuotedFunctionString() {
     assertEquals(
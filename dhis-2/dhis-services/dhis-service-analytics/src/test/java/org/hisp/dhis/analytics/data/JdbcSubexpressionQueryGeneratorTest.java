@@ -47,7 +47,9 @@ import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.cache.SubQueryCache;
 import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupTableService;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
@@ -76,10 +78,14 @@ import org.springframework.jdbc.core.JdbcTemplate;
 class JdbcSubexpressionQueryGeneratorTest {
   @Mock private PartitionManager partitionManager;
 
+  @Mock private RollupTableService rollupTableService;
+
   @Mock private JdbcTemplate jdbcTemplate;
 
   @Mock private ExecutionPlanStore executionPlanStore;
 
+  @Mock private SubQueryCache subQueryCache;
+
   private final SqlBuilder sqlBuilder = new PostgreSqlBuilder();
 
   private JdbcAnalyticsManager jam;
@@ -89,9 +95,16 @@ class JdbcSubexpressionQueryGeneratorTest {
 
   @BeforeAll
   public void setUp() {
-    QueryPlanner queryPlanner = new DefaultQueryPlanner(partitionManager);
-
-    jam = new JdbcAnalyticsManager(queryPlanner, jdbcTemplate, executionPlanStore, sqlBuilder);
+    QueryPlanner queryPlanner = new DefaultQueryPlanner(partitionManager, rollupTableService);
+
+    jam =
+        new JdbcAnalyticsManager(
+            queryPlanner,
+            jdbcTemplate,
+            executionPlanStore,
+            sqlBuilder,
+            subQueryCache,
+            new PartitionQueryExecutor(1));
   }
 
   @Test
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.Test;
+
+class PartitionQueryExecutorTest {
+  @Test
+  void testInvokeAllReturnsResultsInOrder() {
+    PartitionQueryExecutor executor = new PartitionQueryExecutor(4);
+
+    List<Callable<Integer>> tasks = new ArrayList<>();
+
+    for (int i = 0; i < 8; i++) {
+      int value = i;
+      tasks.add(
+          () -> {
+            Thread.sleep(8 - value);
+            return value;
+          });
+    }
+
+    try {
+      assertTrue(executor.isEnabled());
+      assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), executor.invokeAll(tasks));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testInvokeAllInCallingThreadWhenDisabled() {
+    PartitionQueryExecutor executor = new PartitionQueryExecutor(1);
+
+    Thread caller = Thread.currentThread();
+
+    List<Callable<Thread>> tasks = List.of(Thread::currentThread, Thread::currentThread);
+
+    assertFalse(executor.isEnabled());
+    assertEquals(List.of(caller, caller), executor.invokeAll(tasks));
+  }
+
+  @Test
+  void testInvokeAllThrowsFailure() {
+    PartitionQueryExecutor executor = new PartitionQueryExecutor(2);
+
+    IllegalArgumentException failure = new IllegalArgumentException("Failed");
+
+    List<Callable<Integer>> tasks =
+        List.of(
+            () -> 1,
+            () -> {
+              throw failure;
+            });
+
+    try {
+      assertSame(
+          failure, assertThrows(IllegalArgumentException.class, () -> executor.invokeAll(tasks)));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
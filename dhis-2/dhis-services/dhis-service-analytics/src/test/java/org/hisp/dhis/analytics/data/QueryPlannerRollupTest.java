@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsAggregationType;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.analytics.QueryPlannerParams;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupTable;
+import org.hisp.dhis.analytics.rollup.RollupTableService;
+import org.hisp.dhis.analytics.table.model.Partitions;
+import org.hisp.dhis.common.BaseDimensionalObject;
+import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.common.DimensionalObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class QueryPlannerRollupTest {
+  @Mock private PartitionManager partitionManager;
+
+  @Mock private RollupTableService rollupTableService;
+
+  private DefaultQueryPlanner subject;
+
+  private final QueryPlannerParams plannerParams =
+      QueryPlannerParams.newBuilder()
+          .withTableName("analytics")
+          .withTableType(AnalyticsTableType.DATA_VALUE)
+          .build();
+
+  private DataElement deA;
+
+  private OrganisationUnit ouA;
+
+  private Period peA;
+
+  @BeforeEach
+  void setUp() {
+    subject = new DefaultQueryPlanner(partitionManager, rollupTableService);
+
+    deA = createDataElement('A');
+    ouA = createOrganisationUnit('A');
+    peA = PeriodType.getPeriodFromIsoString("2023");
+  }
+
+  @Test
+  void testWithRollupTable() {
+    DataQueryParams params = getParams(AnalyticsAggregationType.SUM, "uidlevel2");
+
+    when(rollupTableService.getRollupTable("yearly", 2, Set.of(deA.getUid())))
+        .thenReturn(Optional.of(new RollupTable("yearly", 3, Set.of(deA.getUid()))));
+
+    DataQueryParams query = subject.withRollupTable(params, plannerParams);
+
+    assertEquals("analytics_rollup_yearly_3", query.getTableName());
+    assertFalse(query.hasPartitions());
+  }
+
+  @Test
+  void testWithRollupTableNoTable() {
+    DataQueryParams params = getParams(AnalyticsAggregationType.SUM, "uidlevel4");
+
+    when(rollupTableService.getRollupTable("yearly", 4, Set.of(deA.getUid())))
+        .thenReturn(Optional.empty());
+
+    assertSame(params, subject.withRollupTable(params, plannerParams));
+  }
+
+  @Test
+  void testWithRollupTableAverageAggregation() {
+    DataQueryParams params =
+        getParams(
+            new AnalyticsAggregationType(
+                AggregationType.AVERAGE, AggregationType.AVERAGE, DataType.NUMERIC, false),
+            "uidlevel2");
+
+    assertSame(params, subject.withRollupTable(params, plannerParams));
+  }
+
+  @Test
+  void testWithRollupTableOtherDimension() {
+    DataQueryParams params =
+        DataQueryParams.newBuilder(getParams(AnalyticsAggregationType.SUM, "uidlevel2"))
+            .addFilter(
+                new BaseDimensionalObject(
+                    "J5jldMd8OHv", DimensionType.ORGANISATION_UNIT_GROUP_SET, List.of()))
+            .build();
+
+    assertSame(params, subject.withRollupTable(params, plannerParams));
+  }
+
+  private DataQueryParams getParams(AnalyticsAggregationType aggregationType, String ouLevel) {
+    AnalyticsAggregationType type =
+        new AnalyticsAggregationType(
+            aggregationType.getAggregationType(),
+            aggregationType.getPeriodAggregationType(),
+            DataType.NUMERIC,
+            false);
+
+    return DataQueryParams.newBuilder()
+        .withDimensions(
+            List.<DimensionalObject>of(
+                new BaseDimensionalObject("dx", DimensionType.DATA_X, "dx", "Data", List.of(deA)),
+                new BaseDimensionalObject(
+                    "pe", DimensionType.PERIOD, "yearly", "Period", List.of(peA)),
+                new BaseDimensionalObject(
+                    "ou", DimensionType.ORGANISATION_UNIT, ouLevel, "Org unit", List.of(ouA))))
+        .withAggregationType(type)
+        .withPartitions(new Partitions(Set.of(2023)))
+        .build();
+  }
+}
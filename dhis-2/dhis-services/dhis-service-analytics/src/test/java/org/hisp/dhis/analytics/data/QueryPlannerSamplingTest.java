@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.hisp.dhis.analytics.AggregationType;
+import org.hisp.dhis.analytics.AnalyticsAggregationType;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.analytics.partition.PartitionManager;
+import org.hisp.dhis.analytics.rollup.RollupTableService;
+import org.hisp.dhis.analytics.table.model.Partitions;
+import org.hisp.dhis.common.BaseDimensionalObject;
+import org.hisp.dhis.common.DimensionType;
+import org.hisp.dhis.common.DimensionalObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class QueryPlannerSamplingTest {
+  @Mock private PartitionManager partitionManager;
+
+  @Mock private RollupTableService rollupTableService;
+
+  private DefaultQueryPlanner subject;
+
+  private DataElement deA;
+
+  private OrganisationUnit ouA;
+
+  private Period peA;
+
+  @BeforeEach
+  void setUp() {
+    subject = new DefaultQueryPlanner(partitionManager, rollupTableService);
+
+    deA = createDataElement('A');
+    ouA = createOrganisationUnit('A');
+    peA = PeriodType.getPeriodFromIsoString("2023");
+  }
+
+  @Test
+  void testWithSamplingApproximateSum() {
+    DataQueryParams params = getParams(AggregationType.SUM, true);
+
+    DataQueryParams query = subject.withSampling(params);
+
+    assertTrue(query.isSampled());
+    assertFalse(params.isSampled());
+  }
+
+  @Test
+  void testWithSamplingNotApproximate() {
+    DataQueryParams params = getParams(AggregationType.SUM, false);
+
+    assertSame(params, subject.withSampling(params));
+  }
+
+  @Test
+  void testWithSamplingMaxAggregation() {
+    DataQueryParams params = getParams(AggregationType.MAX, true);
+
+    assertSame(params, subject.withSampling(params));
+  }
+
+  @Test
+  void testWithSamplingNoPartitions() {
+    DataQueryParams params =
+        DataQueryParams.newBuilder(getParams(AggregationType.SUM, true))
+            .withPartitions(new Partitions())
+            .build();
+
+    assertSame(params, subject.withSampling(params));
+  }
+
+  private DataQueryParams getParams(AggregationType aggregationType, boolean approximate) {
+    AnalyticsAggregationType type =
+        new AnalyticsAggregationType(aggregationType, aggregationType, DataType.NUMERIC, false);
+
+    return DataQueryParams.newBuilder()
+        .withDimensions(
+            List.<DimensionalObject>of(
+                new BaseDimensionalObject("dx", DimensionType.DATA_X, "dx", "Data", List.of(deA)),
+                new BaseDimensionalObject(
+                    "pe", DimensionType.PERIOD, "yearly", "Period", List.of(peA)),
+                new BaseDimensionalObject(
+                    "ou", DimensionType.ORGANISATION_UNIT, "ou", "Org unit", List.of(ouA))))
+        .withAggregationType(type)
+        .withDataType(DataType.NUMERIC)
+        .withApproximate(approximate)
+        .withPartitions(new Partitions(Set.of(2023)))
+        .build();
+  }
+}
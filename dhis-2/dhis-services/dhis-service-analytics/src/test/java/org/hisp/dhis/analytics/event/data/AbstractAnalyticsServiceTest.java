@@ -32,11 +32,21 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.hisp.dhis.DhisConvenienceTest.createOption;
+import static org.hisp.dhis.DhisConvenienceTest.createOptionSet;
 import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
+import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.DIMENSIONS;
+import static org.hisp.dhis.analytics.AnalyticsMetaDataKey.ITEMS;
+import static org.hisp.dhis.common.RequestTypeAware.EndpointAction.QUERY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.data.handler.SchemeIdResponseMapper;
@@ -51,12 +61,14 @@ import org.hisp.dhis.common.GridHeader;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.option.OptionSet;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.MonthlyPeriodType;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramStage;
-import org.hisp.dhis.system.grid.ListGrid;
+import org.hisp.dhis.system.grid.GridRowWriter;
+import org.hisp.dhis.system.grid.StreamingGrid;
 import org.hisp.dhis.user.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -231,6 +243,88 @@ class AbstractAnalyticsServiceTest {
         Double.class.getName());
   }
 
+  @Test
+  void verifyStreamedMetadataMatchesBufferedMetadata() {
+    QueryItem qiA = new QueryItem(deA, null, deA.getValueType(), deA.getAggregationType(), null);
+    QueryItem qiC = new QueryItem(deC, null, deC.getValueType(), deC.getAggregationType(), null);
+
+    EventQueryParams params =
+        new EventQueryParams.Builder()
+            .addDimension(
+                new BaseDimensionalObject(
+                    DimensionalObject.ORGUNIT_DIM_ID,
+                    DimensionType.ORGANISATION_UNIT,
+                    "ouA",
+                    List.of(ouA)))
+            .addItem(qiA)
+            .addItem(qiC)
+            .withEndpointAction(QUERY)
+            .withSkipMeta(false)
+            .withApiVersion(DhisApiVersion.V33)
+            .build();
+
+    assertTrue(params.isStreamable());
+
+    when(securityManager.withUserConstraints(any(EventQueryParams.class))).thenReturn(params);
+
+    dummyAnalyticsService.rows.add(List.of(ouA.getUid(), "textA", 1.0));
+    dummyAnalyticsService.rows.add(List.of(ouA.getUid(), "textB", 2.0));
+
+    Grid buffered = dummyAnalyticsService.getGrid(params);
+
+    List<List<Object>> streamedRows = new ArrayList<>();
+    StreamingGrid streamed = new StreamingGrid(new CollectingRowWriter(streamedRows));
+    dummyAnalyticsService.getGrid(params, streamed);
+    streamed.finish();
+
+    assertEquals(buffered.getRows(), streamedRows);
+    assertEquals(buffered.getHeight(), streamed.getHeight());
+    assertEquals(buffered.getMetaData().keySet(), streamed.getMetaData().keySet());
+    assertEquals(
+        getMetadataMap(buffered, ITEMS.getKey()).keySet(),
+        getMetadataMap(streamed, ITEMS.getKey()).keySet());
+    assertEquals(
+        getMetadataMap(buffered, DIMENSIONS.getKey()),
+        getMetadataMap(streamed, DIMENSIONS.getKey()));
+  }
+
+  @Test
+  void verifyQueryWithRowDependentMetadataIsNotStreamable() {
+    OptionSet optionSet = createOptionSet('A', createOption('A'), createOption('B'));
+    QueryItem qiA =
+        new QueryItem(deA, null, deA.getValueType(), deA.getAggregationType(), optionSet);
+
+    EventQueryParams.Builder builder =
+        new EventQueryParams.Builder().withEndpointAction(QUERY).withSkipMeta(false);
+
+    assertTrue(builder.build().isStreamable());
+    assertFalse(new EventQueryParams.Builder(builder.build()).addItem(qiA).build().isStreamable());
+    assertFalse(
+        new EventQueryParams.Builder(builder.build()).addItemFilter(qiA).build().isStreamable());
+    assertFalse(
+        new EventQueryParams.Builder(builder.build())
+            .withHierarchyMeta(true)
+            .build()
+            .isStreamable());
+    assertFalse(
+        new EventQueryParams.Builder(builder.build())
+            .withShowHierarchy(true)
+            .build()
+            .isStreamable());
+    assertTrue(
+        new EventQueryParams.Builder(builder.build())
+            .addItem(qiA)
+            .withHierarchyMeta(true)
+            .withSkipMeta(true)
+            .build()
+            .isStreamable());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> getMetadataMap(Grid grid, String key) {
+    return (Map<String, Object>) grid.getMetaData().get(key);
+  }
+
   private void assertHeaderWithColumn(
       GridHeader expected, String name, String column, ValueType valueType, String type) {
     assertThat("Header name does not match", expected.getName(), is(name));
@@ -255,7 +349,22 @@ class AbstractAnalyticsServiceTest {
   }
 }
 
+record CollectingRowWriter(List<List<Object>> rows) implements GridRowWriter {
+  @Override
+  public void writeHeaders(List<GridHeader> headers) {}
+
+  @Override
+  public void writeRow(List<Object> row) {
+    rows.add(row);
+  }
+
+  @Override
+  public void writeEnd(Grid grid) {}
+}
+
 class DummyAnalyticsService extends AbstractAnalyticsService {
+  final List<List<Object>> rows = new ArrayList<>();
+
   public DummyAnalyticsService(
       AnalyticsSecurityManager securityManager,
       EventQueryValidator queryValidator,
@@ -271,12 +380,16 @@ class DummyAnalyticsService extends AbstractAnalyticsService {
   }
 
   @Override
-  protected Grid createGridWithHeaders(EventQueryParams params) {
-    return new ListGrid();
+  protected Grid addGridHeaders(EventQueryParams params, Grid grid) {
+    return grid;
   }
 
   @Override
   protected long addData(Grid grid, EventQueryParams params) {
-    return 0;
+    for (List<Object> row : rows) {
+      grid.addRow().addValues(row.toArray());
+    }
+
+    return rows.size();
   }
 }
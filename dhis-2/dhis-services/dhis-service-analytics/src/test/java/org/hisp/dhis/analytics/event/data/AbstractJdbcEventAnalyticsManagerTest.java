@@ -77,9 +77,11 @@ import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.EventOutputType;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.common.TableInfoReader;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.event.EventQueryParams.Builder;
 import org.hisp.dhis.analytics.event.data.programindicator.DefaultProgramIndicatorSubqueryBuilder;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
 import org.hisp.dhis.common.BaseDimensionalItemObject;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
@@ -130,6 +132,8 @@ class AbstractJdbcEventAnalyticsManagerTest extends EventAnalyticsTest {
 
   @Mock private OrganisationUnitResolver organisationUnitResolver;
 
+  @Mock private TableInfoReader tableInfoReader;
+
   private final SqlBuilder sqlBuilder = new PostgreSqlBuilder();
 
   private JdbcEventAnalyticsManager eventSubject;
@@ -151,7 +155,8 @@ class AbstractJdbcEventAnalyticsManagerTest extends EventAnalyticsTest {
   @BeforeEach
   public void setUp() {
     DefaultProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder =
-        new DefaultProgramIndicatorSubqueryBuilder(programIndicatorService);
+        new DefaultProgramIndicatorSubqueryBuilder(
+            programIndicatorService, mock(AnalyticsTableSettings.class));
 
     eventSubject =
         new JdbcEventAnalyticsManager(
@@ -161,7 +166,8 @@ class AbstractJdbcEventAnalyticsManagerTest extends EventAnalyticsTest {
             new EventTimeFieldSqlRenderer(sqlBuilder),
             executionPlanStore,
             sqlBuilder,
-            organisationUnitResolver);
+            organisationUnitResolver,
+            tableInfoReader);
 
     enrollmentSubject =
         new JdbcEnrollmentAnalyticsManager(
@@ -171,7 +177,8 @@ class AbstractJdbcEventAnalyticsManagerTest extends EventAnalyticsTest {
             new EnrollmentTimeFieldSqlRenderer(sqlBuilder),
             executionPlanStore,
             sqlBuilder,
-            organisationUnitResolver);
+            organisationUnitResolver,
+            tableInfoReader);
 
     programA = createProgram('A');
 
@@ -41,6 +41,7 @@ import static org.mockito.Mockito.when;
 import com.google.common.collect.Sets;
 import org.hisp.dhis.analytics.AnalyticsSecurityManager;
 import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.analytics.cluster.EventClusterTableService;
 import org.hisp.dhis.analytics.data.handler.SchemeIdResponseMapper;
 import org.hisp.dhis.analytics.event.EnrollmentAnalyticsManager;
 import org.hisp.dhis.analytics.event.EventAnalyticsManager;
@@ -98,6 +99,8 @@ class DefaultEventAnalyticsServiceTest {
 
   @Mock private OrganisationUnitResolver organisationUnitResolver;
 
+  @Mock private EventClusterTableService eventClusterTableService;
+
   @BeforeEach
   public void setUp() {
     when(databaseInfoProvider.getDatabaseInfo()).thenReturn(DatabaseInfo.builder().build());
@@ -115,7 +118,8 @@ class DefaultEventAnalyticsServiceTest {
             enrollmentAnalyticsManager,
             schemeIdResponseMapper,
             userService,
-            organisationUnitResolver);
+            organisationUnitResolver,
+            eventClusterTableService);
   }
 
   @Test
@@ -49,10 +49,18 @@ import static org.hisp.dhis.common.QueryOperator.IN;
 import static org.hisp.dhis.common.QueryOperator.NEQ;
 import static org.hisp.dhis.common.RequestTypeAware.EndpointAction.AGGREGATE;
 import static org.hisp.dhis.common.RequestTypeAware.EndpointAction.QUERY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Collection;
@@ -64,8 +72,10 @@ import org.hisp.dhis.analytics.AnalyticsAggregationType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataType;
 import org.hisp.dhis.analytics.analyze.ExecutionPlanStore;
+import org.hisp.dhis.analytics.common.TableInfoReader;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.event.data.programindicator.DefaultProgramIndicatorSubqueryBuilder;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
 import org.hisp.dhis.common.BaseDimensionalObject;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.Grid;
@@ -74,6 +84,7 @@ import org.hisp.dhis.common.OrganisationUnitSelectionMode;
 import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.QueryOperator;
+import org.hisp.dhis.common.QueryRuntimeException;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.db.sql.PostgreSqlBuilder;
@@ -86,7 +97,9 @@ import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramIndicator;
 import org.hisp.dhis.program.ProgramIndicatorService;
 import org.hisp.dhis.program.ProgramType;
+import org.hisp.dhis.system.grid.GridRowWriter;
 import org.hisp.dhis.system.grid.ListGrid;
+import org.hisp.dhis.system.grid.StreamingGrid;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -96,6 +109,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 /**
@@ -112,6 +127,8 @@ class EventAnalyticsManagerTest extends EventAnalyticsTest {
 
   @Mock private OrganisationUnitResolver organisationUnitResolver;
 
+  @Mock private TableInfoReader tableInfoReader;
+
   private JdbcEventAnalyticsManager subject;
 
   @Captor private ArgumentCaptor<String> sql;
@@ -131,7 +148,8 @@ class EventAnalyticsManagerTest extends EventAnalyticsTest {
     EventTimeFieldSqlRenderer timeCoordinateSelector = new EventTimeFieldSqlRenderer(sqlBuilder);
     ProgramIndicatorService programIndicatorService = mock(ProgramIndicatorService.class);
     DefaultProgramIndicatorSubqueryBuilder programIndicatorSubqueryBuilder =
-        new DefaultProgramIndicatorSubqueryBuilder(programIndicatorService);
+        new DefaultProgramIndicatorSubqueryBuilder(
+            programIndicatorService, mock(AnalyticsTableSettings.class));
 
     subject =
         new JdbcEventAnalyticsManager(
@@ -141,7 +159,8 @@ class EventAnalyticsManagerTest extends EventAnalyticsTest {
             timeCoordinateSelector,
             executionPlanStore,
             sqlBuilder,
-            organisationUnitResolver);
+            organisationUnitResolver,
+            tableInfoReader);
 
     when(jdbcTemplate.queryForRowSet(anyString())).thenReturn(this.rowSet);
   }
@@ -169,6 +188,31 @@ class EventAnalyticsManagerTest extends EventAnalyticsTest {
     assertThat(sql.getValue(), is(expected));
   }
 
+  @Test
+  void verifyStreamedQueryTranslatesResourceFailureBeforeWritingRows() {
+    GridRowWriter writer = mock(GridRowWriter.class);
+    when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+        .thenThrow(new DataAccessResourceFailureException("timeout"));
+
+    StreamingGrid grid = new StreamingGrid(writer);
+    createGrid().getHeaders().forEach(grid::addHeader);
+    EventQueryParams params = createRequestParams();
+
+    assertThrows(QueryRuntimeException.class, () -> subject.getEvents(params, grid, 100));
+    verifyNoInteractions(writer);
+  }
+
+  @Test
+  void verifyStreamedQueryIsReportedForSlowQueryLogging() {
+    StreamingGrid grid = new StreamingGrid(mock(GridRowWriter.class));
+    createGrid().getHeaders().forEach(grid::addHeader);
+
+    subject.getEvents(createRequestParams(), grid, 100);
+
+    verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+    verify(executionPlanStore).addSlowQueryPlan(anyString(), anyLong());
+  }
+
   @Test
   void verifyGetEventQueryWithUnlimitedAnalyticsPageSizeAndPageSize50() {
     mockGivenRowsRowSet(101);
@@ -273,6 +317,64 @@ class EventAnalyticsManagerTest extends EventAnalyticsTest {
     assertSql(expected, sql.getValue());
   }
 
+  @Test
+  void verifyGetEventsSqlWithKeysetPaging() {
+    mockEmptyRowSet();
+
+    EventQueryParams params =
+        new EventQueryParams.Builder(createRequestParams(programStage))
+            .withPaging(true)
+            .withPageSize(50)
+            .withKeysetPaging(true)
+            .withCursor("a1234567890")
+            .build();
+
+    subject.getEvents(params, createGrid(), 100);
+
+    verify(jdbcTemplate).queryForRowSet(sql.capture());
+
+    String expected =
+        "ax.\"quarterly\",ax.\"ou\"  from "
+            + getTable(programA.getUid())
+            + " as ax where (ax.\"quarterly\" in ('2000Q1') ) and ax.\"uidlevel1\" in ('ouabcdefghA') and ax.\"ps\" = '"
+            + programStage.getUid()
+            + "' and ax.\"psi\" > 'a1234567890' order by ax.\"psi\" asc limit 51";
+
+    assertSql(expected, sql.getValue());
+  }
+
+  @Test
+  void verifyGetEventCountWithEstimatedTotal() {
+    when(jdbcTemplate.queryForObject(
+            startsWith("explain (format json) select 1"), eq(String.class)))
+        .thenReturn("[{\"Plan\": {\"Plan Rows\": 1234}}]");
+
+    EventQueryParams params =
+        new EventQueryParams.Builder(createRequestParams(programStage))
+            .withEstimateTotal(true)
+            .build();
+
+    assertEquals(1234, subject.getEventCount(params));
+    assertTrue(params.isTotalEstimated());
+  }
+
+  @Test
+  void verifyGetEventCountCountsWhenEstimateIsMissing() {
+    when(jdbcTemplate.queryForObject(
+            startsWith("explain (format json) select 1"), eq(String.class)))
+        .thenReturn("[{\"Plan\": {}}]");
+    when(jdbcTemplate.queryForObject(startsWith("select count(1)"), eq(Long.class)))
+        .thenReturn(42L);
+
+    EventQueryParams params =
+        new EventQueryParams.Builder(createRequestParams(programStage))
+            .withEstimateTotal(true)
+            .build();
+
+    assertEquals(42, subject.getEventCount(params));
+    assertFalse(params.isTotalEstimated());
+  }
+
   @Test
   void verifyGetEventsWithProgramStageAndNumericDataElement() {
     mockEmptyRowSet();
@@ -197,6 +197,43 @@ class EventQueryValidatorTest extends DhisConvenienceTest {
     assertEquals(ErrorCode.E7202, error.getErrorCode());
   }
 
+  @Test
+  void validateErrorKeysetPagingWithSorting() {
+    EventQueryParams params =
+        new EventQueryParams.Builder()
+            .withProgram(prA)
+            .withStartDate(new DateTime(2010, 6, 1, 0, 0).toDate())
+            .withEndDate(new DateTime(2012, 3, 20, 0, 0).toDate())
+            .withOrganisationUnits(List.of(ouA))
+            .withPaging(true)
+            .withPageSize(50)
+            .withKeysetPaging(true)
+            .addAscSortItem(new QueryItem(deA))
+            .build();
+
+    ErrorMessage error = eventQueryValidator.validateForErrorMessage(params);
+
+    assertEquals(ErrorCode.E7239, error.getErrorCode());
+  }
+
+  @Test
+  void validateErrorInvalidKeysetPagingCursor() {
+    EventQueryParams params =
+        new EventQueryParams.Builder()
+            .withProgram(prA)
+            .withStartDate(new DateTime(2010, 6, 1, 0, 0).toDate())
+            .withEndDate(new DateTime(2012, 3, 20, 0, 0).toDate())
+            .withOrganisationUnits(List.of(ouA))
+            .withPaging(true)
+            .withPageSize(50)
+            .withCursor("x' or '1'='1")
+            .build();
+
+    ErrorMessage error = eventQueryValidator.validateForErrorMessage(params);
+
+    assertEquals(ErrorCode.E7240, error.getErrorCode());
+  }
+
   @Test
   void validateFailureNoStartEndDatePeriods() {
     EventQueryParams params =
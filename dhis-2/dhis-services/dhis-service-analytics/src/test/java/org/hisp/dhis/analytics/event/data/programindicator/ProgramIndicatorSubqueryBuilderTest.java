@@ -34,9 +34,13 @@ import static org.hisp.dhis.DhisConvenienceTest.createProgramIndicator;
 import static org.hisp.dhis.DhisConvenienceTest.getDate;
 import static org.hisp.dhis.analytics.DataType.BOOLEAN;
 import static org.hisp.dhis.analytics.DataType.NUMERIC;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.util.Date;
+import java.util.Set;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
 import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramIndicator;
@@ -63,6 +67,8 @@ class ProgramIndicatorSubqueryBuilderTest {
 
   @Mock private ProgramIndicatorService programIndicatorService;
 
+  @Mock private AnalyticsTableSettings analyticsTableSettings;
+
   private Program program;
 
   private Date startDate;
@@ -76,7 +82,8 @@ class ProgramIndicatorSubqueryBuilderTest {
     program = createProgram('A');
     startDate = getDate(2018, 1, 1);
     endDate = getDate(2018, 6, 30);
-    subject = new DefaultProgramIndicatorSubqueryBuilder(programIndicatorService);
+    subject =
+        new DefaultProgramIndicatorSubqueryBuilder(programIndicatorService, analyticsTableSettings);
   }
 
   @Test
@@ -200,4 +207,36 @@ class ProgramIndicatorSubqueryBuilderTest {
                 + program.getUid().toLowerCase()
                 + " as subax WHERE pi = ax.pi AND (a = b))"));
   }
+
+  @Test
+  void verifyProgramIndicatorIsMaterialized() {
+    ProgramIndicator piA = createProgramIndicator('A', program, DUMMY_EXPRESSION, "");
+    ProgramIndicator piB = createProgramIndicator('B', program, DUMMY_EXPRESSION, "");
+    ProgramIndicator piC =
+        createProgramIndicator('C', program, "V{analytics_period_end} - #{1234567}", "");
+
+    when(analyticsTableSettings.getMaterializedProgramIndicators())
+        .thenReturn(Set.of(piA.getUid(), piC.getUid()));
+
+    assertTrue(subject.isMaterialized(piA));
+    assertFalse(subject.isMaterialized(piB));
+    assertFalse(subject.isMaterialized(piC));
+  }
+
+  @Test
+  void verifyMaterializedProgramIndicatorWithFilter() {
+    ProgramIndicator pi = createProgramIndicator('A', program, DUMMY_EXPRESSION, "");
+    pi.setFilter(DUMMY_FILTER_EXPRESSION);
+
+    when(programIndicatorService.getAnalyticsSql(DUMMY_EXPRESSION, NUMERIC, pi, null, null, "ax"))
+        .thenReturn("ax.\"value\"");
+    when(programIndicatorService.getAnalyticsSql(
+            DUMMY_FILTER_EXPRESSION, BOOLEAN, pi, null, null, "ax"))
+        .thenReturn("a = b");
+
+    String sql = subject.getMaterializedClauseForProgramIndicator(pi);
+
+    assertThat(
+        sql, is("(select avg(value) from (select ax.\"value\" as value where (a = b)) as mpi)"));
+  }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.orgunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+@ExtendWith(MockitoExtension.class)
+class OrgUnitHierarchyServiceTest {
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @InjectMocks private OrgUnitHierarchyService service;
+
+  @Test
+  void testGetHierarchyLoadsOnce() {
+    when(jdbcTemplate.queryForObject(anyString(), eq(String.class))).thenReturn("4:2024-01-01");
+
+    OrgUnitHierarchy hierarchy = service.getHierarchy();
+
+    assertSame(hierarchy, service.getHierarchy());
+    verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(String.class));
+    verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class));
+  }
+
+  @Test
+  void testGetHierarchyReloadsOnCacheCleared() {
+    when(jdbcTemplate.queryForObject(anyString(), eq(String.class))).thenReturn("4:2024-01-01");
+
+    service.getHierarchy();
+    service.handleApplicationCachesCleared(new ApplicationCacheClearedEvent());
+    service.getHierarchy();
+
+    verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(String.class));
+    verify(jdbcTemplate, times(4)).query(anyString(), any(RowCallbackHandler.class));
+  }
+
+  @Test
+  void testGetHierarchyOnFailure() {
+    when(jdbcTemplate.queryForObject(anyString(), eq(String.class)))
+        .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+    assertSame(OrgUnitHierarchy.EMPTY, service.getHierarchy());
+    assertEquals(0, service.getHierarchy().size());
+  }
+}
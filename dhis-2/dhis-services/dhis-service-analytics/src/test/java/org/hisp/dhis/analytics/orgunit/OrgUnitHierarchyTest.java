@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.orgunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrgUnitHierarchyTest {
+  private OrganisationUnit ouA;
+
+  private OrganisationUnit ouB;
+
+  private OrganisationUnit ouC;
+
+  private OrganisationUnit ouD;
+
+  private OrgUnitHierarchy hierarchy;
+
+  @BeforeEach
+  void setUp() {
+    ouA = createOrgUnit("ouabcdefghA", "Country", null);
+    ouB = createOrgUnit("ouabcdefghB", "Region", ouA);
+    ouC = createOrgUnit("ouabcdefghC", "District", ouB);
+    ouD = createOrgUnit("ouabcdefghD", "Province", ouA);
+
+    hierarchy =
+        OrgUnitHierarchy.newBuilder()
+            .addOrgUnit(ouC.getUid(), ouB.getUid(), 3, ouC.getName())
+            .addOrgUnit(ouA.getUid(), null, 1, ouA.getName())
+            .addOrgUnit(ouD.getUid(), ouA.getUid(), 2, ouD.getName())
+            .addOrgUnit(ouB.getUid(), ouA.getUid(), 2, ouB.getName())
+            .addNameTranslation(ouB.getUid(), "fr", "Région")
+            .addNameTranslation(ouC.getUid(), "fr", "")
+            .build();
+  }
+
+  @Test
+  void testLookup() {
+    assertEquals(4, hierarchy.size());
+    assertTrue(hierarchy.contains(ouC.getUid()));
+    assertFalse(hierarchy.contains("ouabcdefghX"));
+    assertEquals(3, hierarchy.getLevel(ouC.getUid()));
+    assertEquals(-1, hierarchy.getLevel("ouabcdefghX"));
+    assertEquals(ouB.getUid(), hierarchy.getParentUid(ouC.getUid()));
+    assertNull(hierarchy.getParentUid(ouA.getUid()));
+  }
+
+  @Test
+  void testGetParentGraphMatchesEntity() {
+    for (OrganisationUnit unit : List.of(ouA, ouB, ouC, ouD)) {
+      assertEquals(unit.getParentGraph(null), hierarchy.getParentGraph(unit.getUid(), null));
+      assertEquals(
+          unit.getParentGraph(List.of(ouB)),
+          hierarchy.getParentGraph(unit.getUid(), Set.of(ouB.getUid())));
+    }
+
+    assertEquals("ouabcdefghA/ouabcdefghB", hierarchy.getParentGraph(ouC.getUid(), null));
+  }
+
+  @Test
+  void testGetParentNameGraphMatchesEntity() {
+    for (OrganisationUnit unit : List.of(ouA, ouB, ouC, ouD)) {
+      assertEquals(
+          unit.getParentNameGraph(null, true),
+          hierarchy.getParentNameGraph(unit.getUid(), null, true));
+      assertEquals(
+          unit.getParentNameGraph(List.of(ouB), false),
+          hierarchy.getParentNameGraph(unit.getUid(), Set.of(ouB.getUid()), false));
+    }
+
+    assertEquals(
+        "/Country/Region/District", hierarchy.getParentNameGraph(ouC.getUid(), null, true));
+  }
+
+  @Test
+  void testGetAncestorNamesMatchesEntity() {
+    for (OrganisationUnit unit : List.of(ouA, ouB, ouC, ouD)) {
+      assertEquals(
+          unit.getAncestorNames(null, true),
+          hierarchy.getAncestorNames(unit.getUid(), null, true, null));
+      assertEquals(
+          unit.getAncestorNames(List.of(ouB), false),
+          hierarchy.getAncestorNames(unit.getUid(), Set.of(ouB.getUid()), false, null));
+    }
+  }
+
+  @Test
+  void testGetAncestorNamesWithLocale() {
+    assertEquals(
+        List.of("Country", "Région", "District"),
+        hierarchy.getAncestorNames(ouC.getUid(), null, true, Locale.FRENCH));
+    assertEquals(
+        List.of("Country", "Region", "District"),
+        hierarchy.getAncestorNames(ouC.getUid(), null, true, Locale.GERMAN));
+  }
+
+  @Test
+  void testGetMapsFallBackToEntity() {
+    OrganisationUnit ouE = createOrgUnit("ouabcdefghE", "Chiefdom", ouC);
+
+    Map<String, String> parentGraphMap =
+        hierarchy.getParentGraphMap(List.of(ouC, ouE), List.of(ouA));
+
+    assertEquals("ouabcdefghA/ouabcdefghB", parentGraphMap.get(ouC.getUid()));
+    assertEquals("ouabcdefghA/ouabcdefghB/ouabcdefghC", parentGraphMap.get(ouE.getUid()));
+
+    Map<String, String> parentNameGraphMap =
+        OrgUnitHierarchy.EMPTY.getParentNameGraphMap(List.of(ouE), List.of(ouA), true);
+
+    assertEquals("/Country/Region/District/Chiefdom", parentNameGraphMap.get(ouE.getUid()));
+
+    Map<Object, List<?>> ancestorNamesMap =
+        hierarchy.getAncestorNamesMap(List.of(ouC, ouE), List.of(ouB), true, null);
+
+    assertEquals(List.of("Region", "District"), ancestorNamesMap.get(ouC.getUid()));
+    assertEquals(List.of("Region", "District", "Chiefdom"), ancestorNamesMap.get(ouE.getUid()));
+  }
+
+  private OrganisationUnit createOrgUnit(String uid, String name, OrganisationUnit parent) {
+    OrganisationUnit unit = new OrganisationUnit(name);
+    unit.setUid(uid);
+    unit.setParent(parent);
+    unit.updatePath();
+    return unit;
+  }
+}
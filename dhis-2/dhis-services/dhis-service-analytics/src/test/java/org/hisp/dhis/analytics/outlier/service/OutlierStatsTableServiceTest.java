@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.outlier.service;
+
+import static org.hisp.dhis.DhisConvenienceTest.getDate;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
+import org.hisp.dhis.db.model.Logged;
+import org.hisp.dhis.db.sql.PostgreSqlBuilder;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@ExtendWith(MockitoExtension.class)
+class OutlierStatsTableServiceTest {
+  @Mock private AnalyticsTableSettings settings;
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Captor private ArgumentCaptor<String> sqlCaptor;
+
+  private final SqlBuilder sqlBuilder = new PostgreSqlBuilder();
+
+  private final Date startTime = getDate(2024, 3, 1);
+
+  private OutlierStatsTableService subject;
+
+  @BeforeEach
+  void setUp() {
+    when(settings.getTableLogged()).thenReturn(Logged.UNLOGGED);
+
+    subject = new OutlierStatsTableService(settings, sqlBuilder, jdbcTemplate);
+  }
+
+  @Test
+  void testUpdateOutlierStatsFull() {
+    subject.updateOutlierStats(startTime, true);
+
+    verify(jdbcTemplate, atLeastOnce()).execute(sqlCaptor.capture());
+
+    List<String> sqls = sqlCaptor.getAllValues();
+
+    assertTrue(
+        sqls.stream()
+            .anyMatch(s -> s.startsWith("create unlogged table \"analytics_outlier_stats_temp\"")));
+    assertTrue(
+        sqls.stream()
+            .anyMatch(
+                s ->
+                    s.startsWith("insert into \"analytics_outlier_stats_temp\"")
+                        && s.contains("percentile_cont(0.5)")
+                        && s.contains("stddev_pop(t.value) as std_dev")
+                        && s.contains("dv.deleted = false")));
+    verify(jdbcTemplate, never()).update(anyString());
+  }
+
+  @Test
+  void testUpdateOutlierStatsIncrementally() {
+    when(jdbcTemplate.queryForList(anyString()))
+        .thenReturn(List.of(Map.of("table_name", "analytics")));
+    when(jdbcTemplate.queryForObject(anyString(), eq(Date.class))).thenReturn(getDate(2024, 2, 1));
+    when(jdbcTemplate.queryForList(anyString(), eq(Integer.class))).thenReturn(List.of(2024));
+
+    subject.updateOutlierStats(startTime, false);
+
+    verify(jdbcTemplate, atLeastOnce()).execute(sqlCaptor.capture());
+
+    List<String> sqls = sqlCaptor.getAllValues();
+
+    assertTrue(
+        sqls.stream()
+            .anyMatch(
+                s ->
+                    s.startsWith("delete from \"analytics_outlier_stats\" s")
+                        && s.contains("where lastupdated >= '2024-02-01")));
+    assertTrue(
+        sqls.stream()
+            .anyMatch(
+                s ->
+                    s.startsWith("insert into \"analytics_outlier_stats\"")
+                        && s.contains(
+                            "(dv.dataelementid,dv.sourceid,dv.categoryoptioncomboid,dv.attributeoptioncomboid) in")));
+
+    verify(jdbcTemplate, times(2)).update(sqlCaptor.capture());
+
+    List<String> updateSqls = sqlCaptor.getAllValues();
+    String updateSql = updateSqls.get(updateSqls.size() - 2);
+
+    assertTrue(updateSql.startsWith("update \"analytics_2024\" ax set mad=s.mad"));
+    assertTrue(updateSql.contains("and s.lastupdated >= '2024-03-01"));
+    assertTrue(
+        updateSql.contains(
+            "and (ax.mad,ax.avg_middle_value,ax.percentile_middle_value,ax.std_dev) "
+                + "is distinct from (s.mad,s.avg_middle_value,s.percentile_middle_value,s.std_dev)"));
+  }
+
+  @Test
+  void testUpdateOutlierStatsIncrementallyRefreshesChangedPartitionsOnly() {
+    when(jdbcTemplate.queryForList(anyString()))
+        .thenReturn(List.of(Map.of("table_name", "analytics")));
+    when(jdbcTemplate.queryForList(sqlBuilder.tableExists("analytics_2023"))).thenReturn(List.of());
+    when(jdbcTemplate.queryForObject(anyString(), eq(Date.class))).thenReturn(getDate(2024, 2, 1));
+    when(jdbcTemplate.queryForList(anyString(), eq(Integer.class)))
+        .thenReturn(List.of(2021, 2023, 2024));
+
+    subject.updateOutlierStats(startTime, false);
+
+    verify(jdbcTemplate).queryForList(sqlCaptor.capture(), eq(Integer.class));
+
+    String yearsSql = sqlCaptor.getValue();
+
+    assertTrue(yearsSql.startsWith("select distinct ps.year from \"analytics_outlier_stats\" s"));
+    assertTrue(yearsSql.contains("where s.lastupdated >= '2024-03-01"));
+
+    verify(jdbcTemplate, times(3)).update(sqlCaptor.capture());
+
+    List<String> updateSqls = sqlCaptor.getAllValues().subList(1, 4);
+
+    assertTrue(updateSqls.get(0).startsWith("update \"analytics_2021\" ax"));
+    assertTrue(updateSqls.get(1).startsWith("update \"analytics_2024\" ax"));
+    assertTrue(updateSqls.get(2).startsWith("update \"analytics_0\" ax"));
+    verify(jdbcTemplate, never()).update(startsWith("update \"analytics\" "));
+    verify(jdbcTemplate, never()).update(startsWith("update \"analytics_2023\" "));
+  }
+
+  @Test
+  void testUpdateOutlierStatsIncrementallyWithoutChanges() {
+    when(jdbcTemplate.queryForList(anyString()))
+        .thenReturn(List.of(Map.of("table_name", "analytics")));
+    when(jdbcTemplate.queryForObject(anyString(), eq(Date.class))).thenReturn(getDate(2024, 2, 1));
+    when(jdbcTemplate.queryForList(anyString(), eq(Integer.class))).thenReturn(List.of());
+
+    subject.updateOutlierStats(startTime, false);
+
+    verify(jdbcTemplate, never()).update(anyString());
+  }
+
+  @Test
+  void testUpdateOutlierStatsWithoutTable() {
+    when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+
+    subject.updateOutlierStats(startTime, false);
+
+    verify(jdbcTemplate, atLeastOnce()).execute(sqlCaptor.capture());
+
+    assertTrue(
+        sqlCaptor.getAllValues().stream()
+            .anyMatch(s -> s.startsWith("insert into \"analytics_outlier_stats_temp\"")));
+    verify(jdbcTemplate, never()).update(anyString());
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.hisp.dhis.analytics.table.setting.AnalyticsTableSettings;
+import org.hisp.dhis.db.sql.PostgreSqlBuilder;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsColumnUsageServiceTest {
+  @Mock private AnalyticsTableSettings settings;
+
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  @Mock private TaskScheduler scheduler;
+
+  @Captor private ArgumentCaptor<List<Object[]>> argsCaptor;
+
+  private final SqlBuilder sqlBuilder = new PostgreSqlBuilder();
+
+  private AnalyticsColumnUsageService subject;
+
+  @BeforeEach
+  void setUp() {
+    subject = new AnalyticsColumnUsageService(settings, sqlBuilder, jdbcTemplate, scheduler);
+  }
+
+  @Test
+  void testRecordUsageIsBuffered() {
+    subject.recordUsage("analytics_event_programa", List.of("deabcdefghA", "ou"));
+
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void testFlush() {
+    when(jdbcTemplate.queryForList(anyString()))
+        .thenReturn(List.<Map<String, Object>>of(Map.of("table_name", "analytics_columnusage")));
+    when(jdbcTemplate.batchUpdate(startsWith("update"), anyList())).thenReturn(new int[] {1, 0});
+
+    subject.recordUsage("analytics_event_programa", List.of("deabcdefghA", "deabcdefghA"));
+    subject.recordUsage("analytics_event_programa", List.of("deabcdefghB"));
+    subject.flush();
+
+    verify(jdbcTemplate).batchUpdate(startsWith("update"), argsCaptor.capture());
+    assertEquals(2, argsCaptor.getValue().size());
+    verify(jdbcTemplate).batchUpdate(startsWith("insert"), argsCaptor.capture());
+    assertEquals(1, argsCaptor.getValue().size());
+  }
+
+  @Test
+  void testFlushKeepsUsageRecordedAfterFlush() {
+    when(jdbcTemplate.queryForList(anyString()))
+        .thenReturn(List.<Map<String, Object>>of(Map.of("table_name", "analytics_columnusage")));
+    when(jdbcTemplate.batchUpdate(startsWith("update"), anyList())).thenReturn(new int[] {1});
+
+    subject.recordUsage("analytics_event_programa", List.of("deabcdefghA", "deabcdefghA"));
+    subject.flush();
+    subject.recordUsage("analytics_event_programa", List.of("deabcdefghA"));
+    subject.flush();
+    subject.flush();
+
+    verify(jdbcTemplate, times(2)).batchUpdate(startsWith("update"), argsCaptor.capture());
+    assertEquals(2L, argsCaptor.getAllValues().get(0).get(0)[0]);
+    assertEquals(1L, argsCaptor.getAllValues().get(1).get(0)[0]);
+  }
+
+  @Test
+  void testFlushFailureKeepsUsage() {
+    when(jdbcTemplate.queryForList(anyString()))
+        .thenThrow(new DataAccessResourceFailureException("down"))
+        .thenReturn(List.<Map<String, Object>>of(Map.of("table_name", "analytics_columnusage")));
+    when(jdbcTemplate.batchUpdate(startsWith("update"), anyList())).thenReturn(new int[] {1});
+
+    subject.recordUsage("analytics_event_programa", List.of("deabcdefghA"));
+
+    assertThrows(DataAccessResourceFailureException.class, subject::flush);
+
+    subject.flush();
+
+    verify(jdbcTemplate).batchUpdate(startsWith("update"), argsCaptor.capture());
+    assertEquals(1L, argsCaptor.getValue().get(0)[0]);
+  }
+
+  @Test
+  void testInitSchedulesFlush() {
+    subject.init();
+
+    verify(scheduler).scheduleWithFixedDelay(any(Runnable.class), any(Date.class), anyLong());
+  }
+
+  @Test
+  void testFlushWithoutUsage() {
+    subject.flush();
+
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void testIsIndexUsedColumnsOnlyDisabled() {
+    when(settings.isIndexUsedColumnsOnly()).thenReturn(false);
+
+    assertFalse(subject.isIndexUsedColumnsOnly());
+    verify(jdbcTemplate, never()).queryForList(anyString());
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.db.sql.PostgreSqlBuilder;
+import org.hisp.dhis.db.sql.SqlBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsTableCheckpointServiceTest {
+  @Mock private JdbcTemplate jdbcTemplate;
+
+  private final SqlBuilder sqlBuilder = new PostgreSqlBuilder();
+
+  private AnalyticsTableCheckpointService subject;
+
+  @BeforeEach
+  void setUp() {
+    subject = new AnalyticsTableCheckpointService(sqlBuilder, jdbcTemplate);
+  }
+
+  @Test
+  void testGetCheckpointKey() {
+    AnalyticsTableUpdateParams paramsA =
+        AnalyticsTableUpdateParams.newBuilder()
+            .withLastYears(2)
+            .withSkipTableTypes(Set.of(AnalyticsTableType.EVENT, AnalyticsTableType.ENROLLMENT))
+            .build();
+    AnalyticsTableUpdateParams paramsB =
+        AnalyticsTableUpdateParams.newBuilder()
+            .withLastYears(2)
+            .withSkipTableTypes(Set.of(AnalyticsTableType.ENROLLMENT, AnalyticsTableType.EVENT))
+            .build();
+    AnalyticsTableUpdateParams paramsC =
+        AnalyticsTableUpdateParams.newBuilder().withLastYears(3).build();
+
+    assertEquals(subject.getCheckpointKey(paramsA), subject.getCheckpointKey(paramsB));
+    assertNotEquals(subject.getCheckpointKey(paramsA), subject.getCheckpointKey(paramsC));
+  }
+
+  @Test
+  void testIsResumable() {
+    assertTrue(subject.isResumable(AnalyticsTableUpdateParams.newBuilder().build()));
+    assertFalse(
+        subject.isResumable(AnalyticsTableUpdateParams.newBuilder().withLatestPartition().build()));
+    assertFalse(
+        subject.isResumable(
+            AnalyticsTableUpdateParams.newBuilder().withIncrementalUpdate(true).build()));
+  }
+
+  @Test
+  void testGetCheckpointsTableMissing() {
+    when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+
+    assertEquals(Set.of(), subject.getCheckpoints("keyA"));
+    verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), anyString());
+  }
+
+  @Test
+  void testGetCheckpoints() {
+    when(jdbcTemplate.queryForList(anyString()))
+        .thenReturn(List.<Map<String, Object>>of(Map.of("table_name", "t")));
+    when(jdbcTemplate.queryForList(
+            "select name from \"analytics_tablecheckpoint\" where checkpointkey = ?",
+            String.class,
+            "keyA"))
+        .thenReturn(List.of("tabletype:DATA_VALUE", "analytics_temp_2020"));
+
+    assertEquals(
+        Set.of("tabletype:DATA_VALUE", "analytics_temp_2020"), subject.getCheckpoints("keyA"));
+  }
+
+  @Test
+  void testStartCheckpointsRemovesExpiredCheckpoints() {
+    mockStartCheckpoints(Instant.now().minus(Duration.ofHours(25)));
+    when(jdbcTemplate.queryForList(
+            "select name from \"analytics_tablecheckpoint\" where checkpointkey = ?",
+            String.class,
+            "keyA"))
+        .thenReturn(List.of());
+
+    assertEquals(Set.of(), subject.startCheckpoints("keyA"));
+    verify(jdbcTemplate).update("delete from \"analytics_tablecheckpoint\"");
+  }
+
+  @Test
+  void testStartCheckpointsKeepsRecentCheckpoints() {
+    mockStartCheckpoints(Instant.now().minus(Duration.ofHours(1)));
+    when(jdbcTemplate.queryForList(
+            "select name from \"analytics_tablecheckpoint\" where checkpointkey = ?",
+            String.class,
+            "keyA"))
+        .thenReturn(List.of("tabletype:DATA_VALUE"));
+
+    assertEquals(Set.of("tabletype:DATA_VALUE"), subject.startCheckpoints("keyA"));
+    verify(jdbcTemplate, never()).update("delete from \"analytics_tablecheckpoint\"");
+  }
+
+  private void mockStartCheckpoints(Instant oldest) {
+    when(jdbcTemplate.queryForList(anyString()))
+        .thenReturn(List.<Map<String, Object>>of(Map.of("table_name", "t")));
+    when(jdbcTemplate.queryForObject(
+            "select min(created) from \"analytics_tablecheckpoint\" where checkpointkey = ?",
+            Date.class,
+            "keyA"))
+        .thenReturn(Date.from(oldest));
+  }
+}
@@ -30,15 +30,35 @@ package org.hisp.dhis.analytics.table;
 import static org.hisp.dhis.db.model.DataType.DOUBLE;
 import static org.hisp.dhis.db.model.DataType.TEXT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import org.hisp.dhis.analytics.AnalyticsTableManager;
 import org.hisp.dhis.analytics.AnalyticsTableType;
+import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.table.model.AnalyticsColumnType;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
 import org.hisp.dhis.analytics.table.model.AnalyticsTableColumn;
 import org.hisp.dhis.analytics.table.model.AnalyticsTablePartition;
+import org.hisp.dhis.dataelement.DataElementService;
 import org.hisp.dhis.db.model.Logged;
 import org.hisp.dhis.db.sql.SqlBuilder;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.resourcetable.ResourceTableService;
+import org.hisp.dhis.scheduling.NoopJobProgress;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.joda.time.DateTime;
@@ -47,17 +67,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 
 /**
  * @author Lars Helge Overland
  */
 @ExtendWith(MockitoExtension.class)
 class AnalyticsTableServiceTest {
+  @Mock private AnalyticsTableManager tableManager;
+
+  @Mock private OrganisationUnitService organisationUnitService;
+
+  @Mock private DataElementService dataElementService;
+
+  @Mock private ResourceTableService resourceTableService;
 
   @Mock private SystemSettingManager systemSettingManager;
 
   @Mock private SqlBuilder sqlBuilder;
 
+  @Mock private AnalyticsTableCheckpointService checkpointService;
+
+  @Mock private AnalyticsColumnUsageService columnUsageService;
+
   @InjectMocks private DefaultAnalyticsTableService tableService;
 
   @Test
@@ -91,6 +123,246 @@ class AnalyticsTableServiceTest {
     assertEquals(3, partitions.size());
   }
 
+  @Test
+  void testGetYearlyTablePartitions() {
+    List<AnalyticsTableColumn> columns =
+        List.of(
+            AnalyticsTableColumn.builder()
+                .name("dx")
+                .dataType(TEXT)
+                .selectExpression("dx")
+                .build());
+
+    AnalyticsTable tA = new AnalyticsTable(AnalyticsTableType.DATA_VALUE, columns, Logged.UNLOGGED);
+    tA.addTablePartition(
+        List.of(),
+        2010,
+        new DateTime(2010, 1, 1, 0, 0).toDate(),
+        new DateTime(2010, 12, 31, 0, 0).toDate());
+    tA.addTablePartition(
+        List.of(),
+        AnalyticsTablePartition.LATEST_PARTITION,
+        new DateTime(2011, 1, 1, 0, 0).toDate(),
+        new DateTime(2011, 2, 1, 0, 0).toDate());
+    AnalyticsTable tB =
+        new AnalyticsTable(AnalyticsTableType.ORG_UNIT_TARGET, columns, Logged.UNLOGGED);
+    List<AnalyticsTablePartition> partitions =
+        tableService.getYearlyTablePartitions(List.of(tA, tB));
+
+    assertEquals(1, partitions.size());
+    assertEquals("analytics_2010", partitions.get(0).getMainName());
+  }
+
+  @Test
+  void testCreateWithPipelinedPartitions() {
+    List<AnalyticsTableColumn> columns =
+        List.of(
+            AnalyticsTableColumn.builder()
+                .name("dx")
+                .dataType(TEXT)
+                .selectExpression("dx")
+                .build());
+
+    AnalyticsTable table =
+        new AnalyticsTable(AnalyticsTableType.DATA_VALUE, columns, Logged.UNLOGGED);
+    table.addTablePartition(
+        List.of(),
+        2010,
+        new DateTime(2010, 1, 1, 0, 0).toDate(),
+        new DateTime(2010, 12, 31, 0, 0).toDate());
+    table.addTablePartition(
+        List.of(),
+        2011,
+        new DateTime(2011, 1, 1, 0, 0).toDate(),
+        new DateTime(2011, 12, 31, 0, 0).toDate());
+
+    AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder().build();
+
+    when(tableManager.getAnalyticsTableType()).thenReturn(AnalyticsTableType.DATA_VALUE);
+    when(tableManager.validState()).thenReturn(true);
+    when(tableManager.getAnalyticsTables(params)).thenReturn(List.of(table));
+    when(sqlBuilder.supportsDeclarativePartitioning()).thenReturn(false);
+    when(systemSettingManager.getIntegerSetting(SettingKey.PARALLEL_JOBS_IN_ANALYTICS_TABLE_EXPORT))
+        .thenReturn(2);
+    when(systemSettingManager.getIntegerSetting(SettingKey.DATABASE_SERVER_CPUS)).thenReturn(null);
+    when(organisationUnitService.getNumberOfOrganisationalLevels()).thenReturn(2);
+    when(dataElementService.getDataElementsByAggregationLevel(anyInt())).thenReturn(List.of());
+
+    tableService.create(params, NoopJobProgress.INSTANCE);
+
+    for (AnalyticsTablePartition partition : table.getTablePartitions()) {
+      verify(tableManager).populateTable(params, partition);
+      verify(tableManager).analyzeTable(partition);
+    }
+
+    verify(tableManager, never()).invokeAnalyticsTableSqlHooks();
+    verify(tableManager, never()).vacuumTable(any());
+    verify(tableManager).swapTable(params, table);
+  }
+
+  @Test
+  void testCreateWithPipelinedPartitionsFailsOnIndexFailure() {
+    List<AnalyticsTableColumn> columns =
+        List.of(
+            AnalyticsTableColumn.builder()
+                .name("dx")
+                .dataType(TEXT)
+                .selectExpression("dx")
+                .build());
+
+    AnalyticsTable table =
+        new AnalyticsTable(AnalyticsTableType.DATA_VALUE, columns, Logged.UNLOGGED);
+    table.addTablePartition(
+        List.of(),
+        2010,
+        new DateTime(2010, 1, 1, 0, 0).toDate(),
+        new DateTime(2010, 12, 31, 0, 0).toDate());
+    table.addTablePartition(
+        List.of(),
+        2011,
+        new DateTime(2011, 1, 1, 0, 0).toDate(),
+        new DateTime(2011, 12, 31, 0, 0).toDate());
+
+    AnalyticsTableUpdateParams params =
+        AnalyticsTableUpdateParams.newBuilder().withCheckpointKey("keyA").build();
+
+    when(tableManager.getAnalyticsTableType()).thenReturn(AnalyticsTableType.DATA_VALUE);
+    when(tableManager.validState()).thenReturn(true);
+    when(tableManager.getAnalyticsTables(params)).thenReturn(List.of(table));
+    when(checkpointService.getCheckpoints("keyA")).thenReturn(Set.of());
+    when(sqlBuilder.supportsDeclarativePartitioning()).thenReturn(false);
+    when(sqlBuilder.requiresIndexesForAnalytics()).thenReturn(true);
+    when(systemSettingManager.getIntegerSetting(SettingKey.PARALLEL_JOBS_IN_ANALYTICS_TABLE_EXPORT))
+        .thenReturn(2);
+    when(systemSettingManager.getIntegerSetting(SettingKey.DATABASE_SERVER_CPUS)).thenReturn(null);
+    when(organisationUnitService.getNumberOfOrganisationalLevels()).thenReturn(2);
+    when(dataElementService.getDataElementsByAggregationLevel(anyInt())).thenReturn(List.of());
+    doThrow(new DataAccessResourceFailureException("Index creation failed"))
+        .when(tableManager)
+        .createIndex(any());
+
+    assertThrows(
+        IllegalStateException.class, () -> tableService.create(params, NoopJobProgress.INSTANCE));
+
+    verify(tableManager, never()).analyzeTable(any());
+    verify(checkpointService, never()).saveCheckpoint(anyString(), anyString());
+    verify(tableManager, never()).swapTable(any(), any());
+  }
+
+  @Test
+  void testCreateResumesCompletedPartitions() {
+    List<AnalyticsTableColumn> columns =
+        List.of(
+            AnalyticsTableColumn.builder()
+                .name("dx")
+                .dataType(TEXT)
+                .selectExpression("dx")
+                .build());
+
+    AnalyticsTable table =
+        new AnalyticsTable(AnalyticsTableType.DATA_VALUE, columns, Logged.UNLOGGED);
+    table.addTablePartition(
+        List.of(),
+        2010,
+        new DateTime(2010, 1, 1, 0, 0).toDate(),
+        new DateTime(2010, 12, 31, 0, 0).toDate());
+    table.addTablePartition(
+        List.of(),
+        2011,
+        new DateTime(2011, 1, 1, 0, 0).toDate(),
+        new DateTime(2011, 12, 31, 0, 0).toDate());
+
+    AnalyticsTablePartition completed = table.getTablePartitions().get(0);
+    AnalyticsTablePartition pending = table.getTablePartitions().get(1);
+
+    AnalyticsTableUpdateParams params =
+        AnalyticsTableUpdateParams.newBuilder().withCheckpointKey("keyA").build();
+
+    when(tableManager.getAnalyticsTableType()).thenReturn(AnalyticsTableType.DATA_VALUE);
+    when(tableManager.validState()).thenReturn(true);
+    when(tableManager.getAnalyticsTables(params)).thenReturn(List.of(table));
+    when(tableManager.canReuseStagingTable(eq(table), anyString())).thenReturn(true);
+    when(checkpointService.getCheckpoints("keyA")).thenReturn(Set.of(completed.getName()));
+    when(sqlBuilder.supportsDeclarativePartitioning()).thenReturn(false);
+    when(systemSettingManager.getIntegerSetting(SettingKey.PARALLEL_JOBS_IN_ANALYTICS_TABLE_EXPORT))
+        .thenReturn(2);
+    when(systemSettingManager.getIntegerSetting(SettingKey.DATABASE_SERVER_CPUS)).thenReturn(null);
+    when(organisationUnitService.getNumberOfOrganisationalLevels()).thenReturn(2);
+    when(dataElementService.getDataElementsByAggregationLevel(anyInt())).thenReturn(List.of());
+
+    tableService.create(params, NoopJobProgress.INSTANCE);
+
+    verify(tableManager, never()).dropTable(table);
+    verify(tableManager, never()).createTable(table);
+    verify(tableManager).dropTable(pending);
+    verify(tableManager).createTablePartition(pending);
+    verify(tableManager, never()).populateTable(params, completed);
+    verify(tableManager).populateTable(params, pending);
+    verify(checkpointService).saveCheckpoint("keyA", pending.getName());
+    verify(tableManager).swapTable(params, table);
+  }
+
+  @Test
+  void testGetResumedPartitionsWithoutCheckpointKey() {
+    AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder().build();
+
+    assertEquals(Set.of(), tableService.getResumedPartitions(params, List.of()));
+    verifyNoInteractions(checkpointService);
+  }
+
+  @Test
+  void testGetIndexFilterUsedColumnsOnly() {
+    AnalyticsTableColumn used =
+        AnalyticsTableColumn.builder()
+            .name("deabcdefghA")
+            .columnType(AnalyticsColumnType.DYNAMIC)
+            .dataType(TEXT)
+            .selectExpression("deabcdefghA")
+            .build();
+    AnalyticsTableColumn unused =
+        AnalyticsTableColumn.builder()
+            .name("deabcdefghB")
+            .columnType(AnalyticsColumnType.DYNAMIC)
+            .dataType(TEXT)
+            .selectExpression("deabcdefghB")
+            .build();
+    AnalyticsTableColumn fixed =
+        AnalyticsTableColumn.builder().name("ou").dataType(TEXT).selectExpression("ou").build();
+
+    AnalyticsTable table =
+        new AnalyticsTable(AnalyticsTableType.EVENT, List.of(used, unused, fixed), Logged.UNLOGGED);
+
+    when(tableManager.getAnalyticsTableType()).thenReturn(AnalyticsTableType.EVENT);
+    when(sqlBuilder.requiresIndexesForAnalytics()).thenReturn(true);
+    when(columnUsageService.isIndexUsedColumnsOnly()).thenReturn(true);
+    when(columnUsageService.getUsedColumns(table.getMainName())).thenReturn(Set.of("deabcdefghA"));
+
+    BiPredicate<AnalyticsTable, AnalyticsTableColumn> filter =
+        tableService.getIndexFilter(List.of(table));
+
+    assertTrue(filter.test(table, used));
+    assertFalse(filter.test(table, unused));
+    assertTrue(filter.test(table, fixed));
+  }
+
+  @Test
+  void testGetIndexFilterAggregateTable() {
+    AnalyticsTable table =
+        new AnalyticsTable(AnalyticsTableType.DATA_VALUE, List.of(), Logged.UNLOGGED);
+    AnalyticsTableColumn column =
+        AnalyticsTableColumn.builder()
+            .name("deabcdefghB")
+            .columnType(AnalyticsColumnType.DYNAMIC)
+            .dataType(TEXT)
+            .selectExpression("deabcdefghB")
+            .build();
+
+    when(tableManager.getAnalyticsTableType()).thenReturn(AnalyticsTableType.DATA_VALUE);
+
+    assertTrue(tableService.getIndexFilter(List.of(table)).test(table, column));
+    verifyNoInteractions(columnUsageService);
+  }
+
   @Test
   void testGetParallelJobsA() {
     when(systemSettingManager.getIntegerSetting(SettingKey.PARALLEL_JOBS_IN_ANALYTICS_TABLE_EXPORT))
@@ -48,6 +48,7 @@ import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTableManager;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.outlier.service.OutlierStatsTableService;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
 import org.hisp.dhis.analytics.table.model.AnalyticsTableColumn;
@@ -113,7 +114,8 @@ class JdbcAnalyticsTableManagerTest {
             jdbcTemplate,
             analyticsTableSettings,
             periodDataProvider,
-            sqlBuilder);
+            sqlBuilder,
+            mock(OutlierStatsTableService.class));
   }
 
   @Test
@@ -290,4 +292,30 @@ class JdbcAnalyticsTableManagerTest {
 
     verify(sqlBuilder).swapParentTable(swappedPartition, "analytics_temp", "analytics");
   }
+
+  @Test
+  void testUpdateTableIncrementallyWithoutHighWaterMark() {
+    Date startTime = new DateTime(2019, 3, 1, 10, 0).toDate();
+    AnalyticsTable table =
+        new AnalyticsTable(
+            AnalyticsTableType.DATA_VALUE,
+            List.of(
+                AnalyticsTableColumn.builder()
+                    .name("year")
+                    .dataType(INTEGER)
+                    .selectExpression("")
+                    .build()),
+            LOGGED);
+    table.addTablePartition(List.of(), 2018, new DateTime(2018, 1, 1, 0, 0).toDate(), null);
+    AnalyticsTableUpdateParams params =
+        AnalyticsTableUpdateParams.newBuilder()
+            .withStartTime(startTime)
+            .withIncrementalUpdate(true)
+            .build();
+
+    assertTrue(subject.supportsIncrementalUpdate());
+    assertFalse(subject.updateTableIncrementally(params, table.getTablePartitions().get(0)));
+
+    verify(jdbcTemplate, Mockito.never()).execute(Mockito.anyString());
+  }
 }
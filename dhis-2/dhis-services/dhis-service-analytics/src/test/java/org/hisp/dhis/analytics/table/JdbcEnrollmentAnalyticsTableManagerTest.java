@@ -43,6 +43,7 @@ import java.util.Date;
 import java.util.List;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
 import org.hisp.dhis.analytics.table.model.AnalyticsTablePartition;
@@ -109,7 +110,8 @@ class JdbcEnrollmentAnalyticsTableManagerTest {
             jdbcTemplate,
             analyticsTableSettings,
             periodDataProvider,
-            sqlBuilder);
+            sqlBuilder,
+            mock(ProgramIndicatorSubqueryBuilder.class));
   }
 
   @Test
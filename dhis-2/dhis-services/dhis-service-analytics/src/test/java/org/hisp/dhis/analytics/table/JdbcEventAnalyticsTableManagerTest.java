@@ -73,6 +73,7 @@ import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
+import org.hisp.dhis.analytics.common.ProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.analytics.table.model.AnalyticsTable;
 import org.hisp.dhis.analytics.table.model.AnalyticsTableColumn;
@@ -89,6 +90,7 @@ import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.db.model.IndexType;
+import org.hisp.dhis.db.model.Logged;
 import org.hisp.dhis.db.sql.PostgreSqlBuilder;
 import org.hisp.dhis.db.sql.SqlBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupSet;
@@ -191,7 +193,8 @@ class JdbcEventAnalyticsTableManagerTest {
             jdbcTemplate,
             analyticsTableSettings,
             periodDataProvider,
-            sqlBuilder);
+            sqlBuilder,
+            mock(ProgramIndicatorSubqueryBuilder.class));
     assertThat(subject.getAnalyticsTableType(), is(AnalyticsTableType.EVENT));
   }
 
@@ -1168,6 +1171,44 @@ class JdbcEventAnalyticsTableManagerTest {
     assertThat(sql.getValue(), containsString(String.format(ouQuery, "name", quote(tea.getUid()))));
   }
 
+  @Test
+  void testUpdateTableIncrementallyChecksEnrollmentAndAttributeValueChanges() {
+    Program program = createProgram('A');
+    Date highWaterMark = new DateTime(2019, 3, 1, 9, 0).toDate();
+    Date startTime = new DateTime(2019, 3, 1, 10, 0).toDate();
+    AnalyticsTable table =
+        new AnalyticsTable(AnalyticsTableType.EVENT, List.of(), Logged.LOGGED, program);
+    table.addTablePartition(List.of(), 2019, new DateTime(2019, 1, 1, 0, 0).toDate(), null);
+    AnalyticsTablePartition partition = table.getTablePartitions().get(0);
+    AnalyticsTableUpdateParams params =
+        AnalyticsTableUpdateParams.newBuilder()
+            .withStartTime(startTime)
+            .withIncrementalUpdate(true)
+            .build();
+
+    when(jdbcTemplate.queryForList(
+            Mockito.startsWith("select highwatermark"),
+            Mockito.eq(Date.class),
+            Mockito.eq(partition.getMainName())))
+        .thenReturn(List.of(highWaterMark));
+    when(jdbcTemplate.queryForList(Mockito.startsWith("select psi.uid"))).thenReturn(List.of());
+
+    assertFalse(subject.updateTableIncrementally(params, partition));
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    verify(jdbcTemplate).queryForList(sql.capture());
+    assertThat(sql.getValue(), containsString("psi.lastupdated >= '2019-03-01T09:00:00'"));
+    assertThat(sql.getValue(), containsString("pi.lastupdated >= '2019-03-01T09:00:00'"));
+    assertThat(
+        sql.getValue(),
+        containsString(
+            "exists (select 1 from trackedentityattributevalue teav "
+                + "where teav.trackedentityid = pi.trackedentityid "
+                + "and teav.lastupdated >= '2019-03-01T09:00:00' "
+                + "and teav.lastupdated < '2019-03-01T10:00:00'))"));
+    verify(jdbcTemplate, Mockito.never()).execute(Mockito.anyString());
+  }
+
   private String toSelectExpression(String template, String uid) {
     return String.format(template, uid, uid, uid);
   }
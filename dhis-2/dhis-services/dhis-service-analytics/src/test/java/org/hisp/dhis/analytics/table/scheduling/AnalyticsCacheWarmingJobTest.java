@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table.scheduling;
+
+import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
+import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
+import static org.hisp.dhis.datastatistics.DataStatisticsEventType.VISUALIZATION_VIEW;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.hisp.dhis.analytics.AnalyticsService;
+import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.analytics.SortOrder;
+import org.hisp.dhis.analytics.cache.AnalyticsCache;
+import org.hisp.dhis.common.DataQueryRequest;
+import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datastatistics.DataStatisticsService;
+import org.hisp.dhis.datastatistics.FavoriteStatistics;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobType;
+import org.hisp.dhis.scheduling.NoopJobProgress;
+import org.hisp.dhis.scheduling.parameters.AnalyticsCacheWarmingJobParameters;
+import org.hisp.dhis.user.UserSettingKey;
+import org.hisp.dhis.user.UserSettingService;
+import org.hisp.dhis.visualization.Visualization;
+import org.hisp.dhis.visualization.VisualizationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsCacheWarmingJobTest {
+  @Mock private DataStatisticsService dataStatisticsService;
+
+  @Mock private IdentifiableObjectManager idObjectManager;
+
+  @Mock private AnalyticsService analyticsService;
+
+  @Mock private DataQueryService dataQueryService;
+
+  @Mock private UserSettingService userSettingService;
+
+  @Mock private AnalyticsCache analyticsCache;
+
+  @Mock private TransactionTemplate transactionTemplate;
+
+  private AnalyticsCacheWarmingJob job;
+
+  @BeforeEach
+  public void beforeEach() {
+    job =
+        new AnalyticsCacheWarmingJob(
+            dataStatisticsService,
+            idObjectManager,
+            analyticsService,
+            dataQueryService,
+            userSettingService,
+            analyticsCache,
+            transactionTemplate);
+  }
+
+  @Test
+  void testGetMostViewedFavorites() {
+    when(dataStatisticsService.getTopFavorites(VISUALIZATION_VIEW, 3, SortOrder.DESC, null))
+        .thenReturn(List.of(favorite("visB", 10), favorite("visA", 40), favorite("visC", 25)));
+
+    List<AnalyticsCacheWarmingJob.Favorite> favorites = job.getMostViewedFavorites(3);
+
+    assertEquals(3, favorites.size());
+    assertEquals("visA", favorites.get(0).uid());
+    assertEquals("visC", favorites.get(1).uid());
+    assertEquals("visB", favorites.get(2).uid());
+  }
+
+  @Test
+  void testExecuteCacheDisabled() {
+    when(analyticsCache.isEnabled()).thenReturn(false);
+
+    job.execute(jobConfiguration(), NoopJobProgress.INSTANCE);
+
+    verifyNoInteractions(dataStatisticsService, analyticsService, dataQueryService);
+  }
+
+  @Test
+  void testExecuteReplaysVisualization() {
+    Visualization visualization = new Visualization();
+    DataQueryParams params = DataQueryParams.newBuilder().build();
+
+    when(analyticsCache.isEnabled()).thenReturn(true);
+    when(dataStatisticsService.getTopFavorites(VISUALIZATION_VIEW, 50, SortOrder.DESC, null))
+        .thenReturn(List.of(favorite("visA", 40)));
+    when(idObjectManager.get(Visualization.class, "visA")).thenReturn(visualization);
+    when(userSettingService.getUserSetting(UserSettingKey.ANALYSIS_DISPLAY_PROPERTY))
+        .thenReturn(DisplayProperty.NAME);
+    when(dataQueryService.getFromRequest(any(DataQueryRequest.class))).thenReturn(params);
+    doAnswer(
+            invocation -> {
+              invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(any());
+
+    job.execute(jobConfiguration(), NoopJobProgress.INSTANCE);
+
+    verify(analyticsService).getAggregatedDataValues(params);
+  }
+
+  @Test
+  void testGetDataQueryRequest() {
+    DataElement deA = createDataElement('A');
+    OrganisationUnit ouA = createOrganisationUnit('A');
+
+    Visualization visualization = new Visualization();
+    visualization.setType(VisualizationType.PIVOT_TABLE);
+    visualization.addDataDimensionItem(deA);
+    visualization.setRawPeriods(List.of("LAST_12_MONTHS", "202401"));
+    visualization.getOrganisationUnits().add(ouA);
+    visualization.setUserOrganisationUnit(true);
+    visualization.setColumnDimensions(List.of(DATA_X_DIM_ID));
+    visualization.setRowDimensions(List.of(PERIOD_DIM_ID));
+    visualization.setFilterDimensions(List.of(ORGUNIT_DIM_ID));
+    visualization.setShowHierarchy(true);
+
+    DataQueryRequest request =
+        AnalyticsCacheWarmingJob.getDataQueryRequest(visualization, DisplayProperty.SHORTNAME);
+
+    assertEquals(Set.of("dx:" + deA.getUid(), "pe:LAST_12_MONTHS;202401"), request.getDimension());
+    assertEquals(Set.of("ou:" + ouA.getUid() + ";USER_ORGUNIT"), request.getFilter());
+    assertTrue(request.isIncludeNumDen());
+    assertTrue(request.isShowHierarchy());
+    assertEquals(DisplayProperty.SHORTNAME, request.getDisplayProperty());
+    assertEquals(DhisApiVersion.V41, request.getApiVersion());
+  }
+
+  private FavoriteStatistics favorite(String uid, int views) {
+    FavoriteStatistics stats = new FavoriteStatistics();
+    stats.setId(uid);
+    stats.setViews(views);
+    return stats;
+  }
+
+  private JobConfiguration jobConfiguration() {
+    JobConfiguration jobConfiguration = new JobConfiguration(JobType.ANALYTICS_CACHE_WARMING);
+    jobConfiguration.setJobParameters(new AnalyticsCacheWarmingJobParameters());
+    return jobConfiguration;
+  }
+}
@@ -65,6 +65,14 @@ class AnalyticsIndexHelperTest {
     assertThat(indexes.get(0).getIndexType(), is(equalTo(BTREE)));
   }
 
+  @Test
+  void testGetIndexesWithColumnFilter() {
+    List<AnalyticsTablePartition> stubPartitions = List.of(stubAnalyticsTablePartition());
+
+    assertThat(getIndexes(stubPartitions, (table, column) -> true), hasSize(1));
+    assertThat(getIndexes(stubPartitions, (table, column) -> false), hasSize(0));
+  }
+
   @Test
   void testGetIndexNameA() {
     String statement = getIndexName("table", List.of("column"), EVENT);
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.system.grid.ListGrid;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link SampleUtils}. */
+class SampleUtilsTest {
+  @Test
+  void testGetTableSampleClause() {
+    assertEquals("tablesample bernoulli (10) repeatable (0)", SampleUtils.getTableSampleClause());
+  }
+
+  @Test
+  void testScale() {
+    assertEquals("(sum(value) * 10.0)", SampleUtils.scale("sum(value)"));
+  }
+
+  @Test
+  void testGetRelativeErrorBound() {
+    assertEquals(0.1859, SampleUtils.getRelativeErrorBound(1000d), 0.0001);
+    assertEquals(1.8594, SampleUtils.getRelativeErrorBound(10d), 0.0001);
+    assertNull(SampleUtils.getRelativeErrorBound(0d));
+  }
+
+  @Test
+  void testGetRelativeErrorBoundForGrid() {
+    Grid grid = new ListGrid();
+    grid.addRow().addValue("A").addValue(1000d);
+    grid.addRow().addValue("B").addValue(10L);
+    grid.addRow().addValue("C").addValue(null);
+
+    assertEquals(1.8594, SampleUtils.getRelativeErrorBound(grid, 1), 0.0001);
+  }
+
+  @Test
+  void testGetMetaData() {
+    Map<String, Object> metaData = SampleUtils.getMetaData(0.2);
+
+    assertEquals(10, metaData.get("samplePercent"));
+    assertEquals(0.95, metaData.get("confidenceLevel"));
+    assertEquals(0.2, metaData.get("relativeErrorBound"));
+    assertFalse(SampleUtils.getMetaData(null).containsKey("relativeErrorBound"));
+  }
+}
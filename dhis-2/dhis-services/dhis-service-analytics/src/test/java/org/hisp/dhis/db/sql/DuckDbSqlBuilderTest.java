@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.db.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.DataType;
+import org.hisp.dhis.db.model.Index;
+import org.hisp.dhis.db.model.IndexFunction;
+import org.hisp.dhis.db.model.Logged;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.model.constraint.Nullable;
+import org.junit.jupiter.api.Test;
+
+class DuckDbSqlBuilderTest {
+  private final SqlBuilder sqlBuilder = new DuckDbSqlBuilder("pg_dhis");
+
+  private Table getTableA() {
+    List<Column> columns =
+        List.of(
+            new Column("id", DataType.BIGINT, Nullable.NOT_NULL),
+            new Column("data", DataType.CHARACTER_11, Nullable.NOT_NULL),
+            new Column("period", DataType.VARCHAR_50, Nullable.NOT_NULL),
+            new Column("created", DataType.TIMESTAMP),
+            new Column("user", DataType.JSONB),
+            new Column("value", DataType.DOUBLE));
+
+    List<String> primaryKey = List.of("id");
+
+    return new Table("immunization", columns, primaryKey, Logged.LOGGED);
+  }
+
+  private Table getTableC() {
+    List<Column> columns =
+        List.of(
+            new Column("id", DataType.BIGINT, Nullable.NOT_NULL),
+            new Column("vitamin_a", DataType.BIGINT));
+
+    List<String> checks = List.of("\"id\">0");
+
+    return new Table("nutrition", columns, List.of(), checks, Logged.LOGGED, getTableA());
+  }
+
+  // Data types
+
+  @Test
+  void testDataTypes() {
+    assertEquals("double", sqlBuilder.dataTypeDouble());
+    assertEquals("varchar", sqlBuilder.dataTypeCharacter(11));
+    assertEquals("json", sqlBuilder.dataTypeJson());
+  }
+
+  // Capabilities
+
+  @Test
+  void testCapabilities() {
+    assertTrue(sqlBuilder.supportsDeclarativePartitioning());
+    assertTrue(sqlBuilder.supportsAnalyze());
+    assertFalse(sqlBuilder.supportsVacuum());
+    assertFalse(sqlBuilder.supportsGeospatialData());
+    assertFalse(sqlBuilder.requiresIndexesForAnalytics());
+    assertFalse(sqlBuilder.supportsRowCountEstimates());
+  }
+
+  // Utilities
+
+  @Test
+  void testQuote() {
+    assertEquals(
+        "\"Treated \"\"malaria\"\" at facility\"",
+        sqlBuilder.quote("Treated \"malaria\" at facility"));
+    assertEquals("\"quarterly\"", sqlBuilder.quote("quarterly"));
+  }
+
+  @Test
+  void testEscape() {
+    assertEquals("Age group ''under 5'' years", sqlBuilder.escape("Age group 'under 5' years"));
+    assertEquals("C:\\Downloads\\File.doc", sqlBuilder.escape("C:\\Downloads\\File.doc"));
+  }
+
+  @Test
+  void testQualifyTable() {
+    assertEquals("\"pg_dhis\".\"public\".\"category\"", sqlBuilder.qualifyTable("category"));
+  }
+
+  // Statements
+
+  @Test
+  void testCreateTableA() {
+    String expected =
+        """
+        create table "immunization" ("id" bigint not null, "data" varchar not null, \
+        "period" varchar not null, "created" timestamp null, "user" json null, \
+        "value" double null, primary key ("id"));""";
+
+    assertEquals(expected, sqlBuilder.createTable(getTableA()));
+  }
+
+  @Test
+  void testCreateTableWithParent() {
+    String expected =
+        """
+        create table "nutrition" ("id" bigint not null, "vitamin_a" bigint null);""";
+
+    assertEquals(expected, sqlBuilder.createTable(getTableC()));
+  }
+
+  @Test
+  void testAnalyzeTable() {
+    assertEquals("analyze \"immunization\";", sqlBuilder.analyzeTable(getTableA()));
+  }
+
+  @Test
+  void testSwapTable() {
+    String expected =
+        """
+        drop table if exists "vaccination" cascade; \
+        alter table "immunization" rename to "vaccination";""";
+
+    assertEquals(expected, sqlBuilder.swapTable(getTableA(), "vaccination"));
+  }
+
+  @Test
+  void testSetParentNotSupported() {
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> sqlBuilder.setParentTable(getTableA(), "vaccination"));
+  }
+
+  @Test
+  void testCreateIndex() {
+    Index index =
+        Index.builder()
+            .name("in_immunization_data_period")
+            .tableName("immunization")
+            .columns(List.of("data", "period"))
+            .function(IndexFunction.LOWER)
+            .build();
+
+    String expected =
+        "create index \"in_immunization_data_period\" on \"immunization\" (lower(\"data\"), lower(\"period\"));";
+
+    assertEquals(expected, sqlBuilder.createIndex(index));
+  }
+
+  @Test
+  void testCreateCatalog() {
+    String expected =
+        """
+        install postgres; load postgres; \
+        attach 'host=localhost port=5432 dbname=dhis2 user=dhis password=district' \
+        as "pg_dhis" (type postgres, read_only); \
+        set search_path = 'main,pg_dhis.public';""";
+
+    assertEquals(
+        expected,
+        sqlBuilder.createCatalog("jdbc:postgresql://localhost:5432/dhis2", "dhis", "district"));
+  }
+
+  @Test
+  void testDropCatalogIfExists() {
+    assertEquals("detach database if exists \"pg_dhis\";", sqlBuilder.dropCatalogIfExists());
+  }
+}
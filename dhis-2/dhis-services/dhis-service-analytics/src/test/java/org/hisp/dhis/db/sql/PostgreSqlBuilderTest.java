@@ -140,6 +140,11 @@ class PostgreSqlBuilderTest {
     assertTrue(sqlBuilder.supportsVacuum());
   }
 
+  @Test
+  void testSupportsRowCountEstimates() {
+    assertTrue(sqlBuilder.supportsRowCountEstimates());
+  }
+
   // Utilities
 
   @Test
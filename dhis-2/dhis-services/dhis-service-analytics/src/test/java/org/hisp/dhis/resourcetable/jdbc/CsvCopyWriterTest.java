@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.resourcetable.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.hisp.dhis.db.model.Column;
+import org.hisp.dhis.db.model.DataType;
+import org.hisp.dhis.db.model.Logged;
+import org.hisp.dhis.db.model.Table;
+import org.hisp.dhis.db.sql.PostgreSqlBuilder;
+import org.junit.jupiter.api.Test;
+
+class CsvCopyWriterTest {
+  private final CsvCopyWriter writer = new CsvCopyWriter(new PostgreSqlBuilder());
+
+  @Test
+  void testGetCopySql() {
+    Table table =
+        new Table(
+            "analytics_rs_orgunitstructure_temp",
+            List.of(
+                new Column("organisationunitid", DataType.BIGINT),
+                new Column("organisationunituid", DataType.CHARACTER_11)),
+            List.of(),
+            Logged.UNLOGGED);
+
+    assertEquals(
+        """
+        copy "analytics_rs_orgunitstructure_temp" ("organisationunitid","organisationunituid") \
+        from stdin with (format csv)""",
+        writer.getCopySql(table));
+  }
+
+  @Test
+  void testAppendRow() {
+    StringBuilder line = new StringBuilder();
+
+    CsvCopyWriter.appendRow(line, new Object[] {1L, "a\"b,c", null, 2.5d, true, ""});
+
+    assertEquals("1,\"a\"\"b,c\",,2.5,true,\"\"\n", line.toString());
+  }
+}
@@ -28,12 +28,16 @@
 package org.hisp.dhis.fileresource;
 
 import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteSource;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -44,7 +48,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.feedback.BadRequestException;
@@ -246,10 +250,37 @@ public class DefaultFileResourceService implements FileResourceService {
   @Transactional
   public String syncSaveFileResource(FileResource fileResource, InputStream content)
       throws ConflictException {
+    validateFileResource(fileResource);
+
+    // Spool content to a temporary file to avoid holding large content in memory
+
+    Path file = null;
+    String storageId = null;
+
     try {
-      return syncSaveFileResource(fileResource, IOUtils.toByteArray(content));
+      file = Files.createTempFile("dhis2-fileresource-", ".tmp");
+
+      HashingInputStream input = new HashingInputStream(Hashing.md5(), content);
+      long contentLength = Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+
+      fileResource.setContentLength(contentLength);
+      fileResource.setContentMd5(input.hash().toString());
+      fileResource.setStorageStatus(FileResourceStorageStatus.PENDING);
+      fileResourceStore.save(fileResource);
+      entityManager.flush();
+
+      // The content store deletes the file once it has been stored
+
+      storageId = fileResourceContentStore.saveFileResourceContent(fileResource, file.toFile());
+      if (storageId == null) throw new ConflictException(ErrorCode.E6102);
+
+      return fileResource.getUid();
     } catch (IOException ex) {
       throw new ConflictException("Failed to extract bytes from input stream: " + ex.getMessage());
+    } finally {
+      if (file != null && storageId == null) {
+        FileUtils.deleteQuietly(file.toFile());
+      }
     }
   }
 
@@ -61,6 +61,15 @@ public class DefaultTrackedEntityAttributeValueChangeLogService
     }
   }
 
+  @Override
+  public void addTrackedEntityAttributeValueChangeLogs(
+      List<TrackedEntityAttributeValueChangeLog> attributeValueChangeLogs) {
+    if (config.isEnabled(CHANGELOG_TRACKER) && !attributeValueChangeLogs.isEmpty()) {
+      attributeValueChangeLogStore.addTrackedEntityAttributeValueChangeLogs(
+          attributeValueChangeLogs);
+    }
+  }
+
   @Override
   public List<TrackedEntityAttributeValueChangeLog> getTrackedEntityAttributeValueChangeLogs(
       TrackedEntityAttributeValueChangeLogQueryParams params) {
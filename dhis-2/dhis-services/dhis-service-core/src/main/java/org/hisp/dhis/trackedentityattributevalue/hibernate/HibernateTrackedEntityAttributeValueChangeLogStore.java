@@ -27,6 +27,8 @@
  */
 package org.hisp.dhis.trackedentityattributevalue.hibernate;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import javax.persistence.EntityManager;
@@ -48,6 +50,12 @@ import org.springframework.stereotype.Repository;
 @Repository("org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueChangeLogStore")
 public class HibernateTrackedEntityAttributeValueChangeLogStore
     implements TrackedEntityAttributeValueChangeLogStore {
+  private static final String INSERT_SQL =
+      """
+      insert into trackedentityattributevalueaudit (trackedentityattributevalueauditid, \
+      trackedentityid, trackedentityattributeid, value, created, modifiedby, audittype) \
+      values (nextval('hibernate_sequence'), ?, ?, ?, ?, ?, ?)""";
+
   private EntityManager entityManager;
   private Session session;
 
@@ -66,6 +74,42 @@ public class HibernateTrackedEntityAttributeValueChangeLogStore
     session.save(attributeValueChangeLog);
   }
 
+  @Override
+  public void addTrackedEntityAttributeValueChangeLogs(
+      List<TrackedEntityAttributeValueChangeLog> attributeValueChangeLogs) {
+    List<TrackedEntityAttributeValueChangeLog> plainValueChangeLogs = new ArrayList<>();
+
+    for (TrackedEntityAttributeValueChangeLog changeLog : attributeValueChangeLogs) {
+      // Confidential values are encrypted by the Hibernate mapping
+      if (Boolean.TRUE.equals(changeLog.getAttribute().getConfidential())) {
+        session.save(changeLog);
+      } else {
+        plainValueChangeLogs.add(changeLog);
+      }
+    }
+
+    if (plainValueChangeLogs.isEmpty()) {
+      return;
+    }
+
+    session.doWork(
+        connection -> {
+          try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            for (TrackedEntityAttributeValueChangeLog changeLog : plainValueChangeLogs) {
+              statement.setLong(1, changeLog.getTrackedEntity().getId());
+              statement.setLong(2, changeLog.getAttribute().getId());
+              statement.setString(3, changeLog.getPlainValue());
+              statement.setTimestamp(4, new Timestamp(changeLog.getCreated().getTime()));
+              statement.setString(5, changeLog.getModifiedBy());
+              statement.setString(6, changeLog.getAuditType().name());
+              statement.addBatch();
+            }
+
+            statement.executeBatch();
+          }
+        });
+  }
+
   @Override
   public List<TrackedEntityAttributeValueChangeLog> getTrackedEntityAttributeValueChangeLogs(
       TrackedEntityAttributeValueChangeLogQueryParams params) {
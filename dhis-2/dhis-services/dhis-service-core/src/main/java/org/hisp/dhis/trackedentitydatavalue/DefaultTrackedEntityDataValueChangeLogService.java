@@ -90,6 +90,16 @@ public class DefaultTrackedEntityDataValueChangeLogService
     }
   }
 
+  @Override
+  @Transactional
+  public void addTrackedEntityDataValueChangeLogs(
+      List<TrackedEntityDataValueChangeLog> trackedEntityDataValueChangeLogs) {
+    if (config.isEnabled(CHANGELOG_TRACKER) && !trackedEntityDataValueChangeLogs.isEmpty()) {
+      trackedEntityDataValueChangeLogStore.addTrackedEntityDataValueChangeLogs(
+          trackedEntityDataValueChangeLogs);
+    }
+  }
+
   @Override
   @Transactional(readOnly = true)
   public List<TrackedEntityDataValueChangeLog> getTrackedEntityDataValueChangeLogs(
@@ -30,6 +30,8 @@ package org.hisp.dhis.trackedentitydatavalue.hibernate;
 import static org.hisp.dhis.common.OrganisationUnitSelectionMode.DESCENDANTS;
 import static org.hisp.dhis.common.OrganisationUnitSelectionMode.SELECTED;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import javax.persistence.EntityManager;
@@ -60,6 +62,12 @@ public class HibernateTrackedEntityDataValueChangeLogStore
 
   private static final String PROP_CREATED = "created";
 
+  private static final String INSERT_SQL =
+      """
+      insert into trackedentitydatavalueaudit (trackedentitydatavalueauditid, eventid, \
+      dataelementid, value, created, providedelsewhere, modifiedby, audittype) \
+      values (nextval('trackedentitydatavalueaudit_sequence'), ?, ?, ?, ?, ?, ?, ?)""";
+
   // -------------------------------------------------------------------------
   // Dependencies
   // -------------------------------------------------------------------------
@@ -80,6 +88,30 @@ public class HibernateTrackedEntityDataValueChangeLogStore
     entityManager.unwrap(Session.class).save(trackedEntityDataValueChangeLog);
   }
 
+  @Override
+  public void addTrackedEntityDataValueChangeLogs(
+      List<TrackedEntityDataValueChangeLog> trackedEntityDataValueChangeLogs) {
+    entityManager
+        .unwrap(Session.class)
+        .doWork(
+            connection -> {
+              try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                for (TrackedEntityDataValueChangeLog changeLog : trackedEntityDataValueChangeLogs) {
+                  statement.setLong(1, changeLog.getEvent().getId());
+                  statement.setLong(2, changeLog.getDataElement().getId());
+                  statement.setString(3, changeLog.getValue());
+                  statement.setTimestamp(4, new Timestamp(changeLog.getCreated().getTime()));
+                  statement.setBoolean(5, changeLog.getProvidedElsewhere());
+                  statement.setString(6, changeLog.getModifiedBy());
+                  statement.setString(7, changeLog.getAuditType().name());
+                  statement.addBatch();
+                }
+
+                statement.executeBatch();
+              }
+            });
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public List<TrackedEntityDataValueChangeLog> getTrackedEntityDataValueChangeLogs(
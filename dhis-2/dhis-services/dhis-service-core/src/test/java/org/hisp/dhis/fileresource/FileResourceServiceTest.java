@@ -34,12 +34,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import javax.persistence.EntityManager;
 import org.hisp.dhis.common.IllegalQueryException;
@@ -100,6 +103,28 @@ class FileResourceServiceTest {
             entityManager);
   }
 
+  @Test
+  void verifySyncSaveFileResourceFromInputStream() throws Exception {
+    FileResource fileResource =
+        new FileResource("job.json", "application/json", 0, null, FileResourceDomain.JOB_DATA);
+
+    fileResource.setUid("fileRes1");
+
+    ArgumentCaptor<File> fileCaptor = ArgumentCaptor.forClass(File.class);
+    when(fileResourceContentStore.saveFileResourceContent(eq(fileResource), fileCaptor.capture()))
+        .thenReturn("key");
+
+    String uid =
+        subject.syncSaveFileResource(
+            fileResource, new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals("fileRes1", uid);
+    assertEquals(2, fileResource.getContentLength());
+    assertEquals("99914b932bd37a50b983c5e7c90ae93b", fileResource.getContentMd5());
+    assertFalse(fileCaptor.getValue().exists());
+    verify(fileResourceStore).save(fileResource);
+  }
+
   @Test
   void verifySaveFile() {
     FileResource fileResource =
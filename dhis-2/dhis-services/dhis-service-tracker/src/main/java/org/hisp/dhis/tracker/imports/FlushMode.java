@@ -36,4 +36,10 @@ public enum FlushMode {
 
   /** Let the importer decide the flushing. */
   AUTO,
+
+  /**
+   * Flush once per tracker type and write the value change logs with batch inserts. Meant for large
+   * imports with many data values per event or attributes per tracked entity.
+   */
+  BATCH,
 }
@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.tracker.imports;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -81,4 +82,15 @@ public class TrackerImportParams implements JobParameters {
 
   @JsonProperty @Builder.Default
   private TrackerBundleReportMode reportMode = TrackerBundleReportMode.ERRORS;
+
+  /**
+   * Number of objects to import per chunk when the payload is streamed, 0 if the payload is
+   * imported as a whole. The atomic mode applies to each chunk.
+   */
+  @JsonProperty @Builder.Default private int chunkSize = 0;
+
+  @JsonIgnore
+  public boolean isChunked() {
+    return chunkSize > 0;
+  }
 }
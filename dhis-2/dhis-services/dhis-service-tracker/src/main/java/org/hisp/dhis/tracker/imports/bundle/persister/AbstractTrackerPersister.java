@@ -97,6 +97,8 @@ public abstract class AbstractTrackerPersister<
 
     List<TrackerSideEffectDataBundle> sideEffectDataBundles = new ArrayList<>();
 
+    ChangeLogBuffer pendingChangeLogs = new ChangeLogBuffer();
+
     //
     // Extract the entities to persist from the Bundle
     //
@@ -109,6 +111,8 @@ public abstract class AbstractTrackerPersister<
       List<SideEffectTrigger> triggers =
           determineSideEffectTriggers(bundle.getPreheat(), trackerDto);
 
+      ChangeLogBuffer changeLogs = new ChangeLogBuffer();
+
       try {
         //
         // Convert the TrackerDto into an Hibernate-managed entity
@@ -125,7 +129,7 @@ public abstract class AbstractTrackerPersister<
         //
         persistOwnership(bundle.getPreheat(), convertedDto);
 
-        updateDataValues(entityManager, bundle.getPreheat(), trackerDto, convertedDto);
+        updateDataValues(entityManager, bundle.getPreheat(), trackerDto, convertedDto, changeLogs);
 
         //
         // Save or update the entity
@@ -134,11 +138,13 @@ public abstract class AbstractTrackerPersister<
           entityManager.persist(convertedDto);
           typeReport.getStats().incCreated();
           typeReport.addEntity(objectReport);
-          updateAttributes(entityManager, bundle.getPreheat(), trackerDto, convertedDto);
+          updateAttributes(
+              entityManager, bundle.getPreheat(), trackerDto, convertedDto, changeLogs);
           bundle.addUpdatedTrackedEntities(getUpdatedTrackedEntities(convertedDto));
         } else {
           if (isUpdatable()) {
-            updateAttributes(entityManager, bundle.getPreheat(), trackerDto, convertedDto);
+            updateAttributes(
+                entityManager, bundle.getPreheat(), trackerDto, convertedDto, changeLogs);
             entityManager.merge(convertedDto);
             typeReport.getStats().incUpdated();
             typeReport.addEntity(objectReport);
@@ -148,6 +154,15 @@ public abstract class AbstractTrackerPersister<
           }
         }
 
+        //
+        // Write the change logs, or keep them until the end of the batch
+        //
+        if (FlushMode.BATCH == bundle.getFlushMode()) {
+          pendingChangeLogs.addAll(changeLogs);
+        } else {
+          persistChangeLogs(changeLogs, false);
+        }
+
         if (!bundle.isSkipSideEffects()) {
           sideEffectDataBundles.add(handleSideEffects(bundle, convertedDto, triggers));
         }
@@ -181,11 +196,33 @@ public abstract class AbstractTrackerPersister<
       }
     }
 
+    if (FlushMode.BATCH == bundle.getFlushMode()) {
+      flushBatch(entityManager, pendingChangeLogs);
+    }
+
     typeReport.getSideEffectDataBundles().addAll(sideEffectDataBundles);
 
     return typeReport;
   }
 
+  /**
+   * Flushes the entities persisted in {@link FlushMode#BATCH} mode and writes the change logs
+   * collected for them with batch inserts. A failure at this point cannot be attributed to a single
+   * entity, so it always rolls back the whole transaction.
+   */
+  private void flushBatch(EntityManager entityManager, ChangeLogBuffer pendingChangeLogs) {
+    try {
+      entityManager.flush();
+
+      if (!pendingChangeLogs.isEmpty()) {
+        persistChangeLogs(pendingChangeLogs, true);
+      }
+    } catch (Exception e) {
+      throw new PersistenceException(
+          "Tracker Entities of type '" + getType().getName() + "' failed to persist.", e);
+    }
+  }
+
   // // // // // // // //
   // // // // // // // //
   // TEMPLATE METHODS //
@@ -212,11 +249,35 @@ public abstract class AbstractTrackerPersister<
 
   /** Execute the persistence of Data values linked to the entity being processed */
   protected abstract void updateDataValues(
-      EntityManager entityManager, TrackerPreheat preheat, T trackerDto, V hibernateEntity);
+      EntityManager entityManager,
+      TrackerPreheat preheat,
+      T trackerDto,
+      V hibernateEntity,
+      ChangeLogBuffer changeLogs);
 
   /** Execute the persistence of Attribute values linked to the entity being processed */
   protected abstract void updateAttributes(
-      EntityManager entityManager, TrackerPreheat preheat, T trackerDto, V hibernateEntity);
+      EntityManager entityManager,
+      TrackerPreheat preheat,
+      T trackerDto,
+      V hibernateEntity,
+      ChangeLogBuffer changeLogs);
+
+  /**
+   * Writes the change logs collected while persisting entities, either one by one or, when
+   * batching, with a single insert per change log type.
+   */
+  protected void persistChangeLogs(ChangeLogBuffer changeLogs, boolean batch) {
+    if (batch) {
+      trackedEntityAttributeValueChangeLogService.addTrackedEntityAttributeValueChangeLogs(
+          changeLogs.getAttributeValueChangeLogs());
+    } else {
+      changeLogs
+          .getAttributeValueChangeLogs()
+          .forEach(
+              trackedEntityAttributeValueChangeLogService::addTrackedEntityAttributeValueChangLog);
+    }
+  }
 
   /** Updates the {@link TrackerPreheat} object with the entity that has been persisted */
   protected abstract void updatePreheat(TrackerPreheat preheat, V convertedDto);
@@ -307,7 +368,8 @@ public abstract class AbstractTrackerPersister<
       EntityManager entityManager,
       TrackerPreheat preheat,
       List<Attribute> payloadAttributes,
-      TrackedEntity trackedEntity) {
+      TrackedEntity trackedEntity,
+      ChangeLogBuffer changeLogs) {
     if (payloadAttributes.isEmpty()) {
       return;
     }
@@ -339,7 +401,7 @@ public abstract class AbstractTrackerPersister<
           }
 
           if (isDelete) {
-            delete(entityManager, preheat, trackedEntityAttributeValue, trackedEntity);
+            delete(entityManager, preheat, trackedEntityAttributeValue, trackedEntity, changeLogs);
           } else {
             if (!isNew) {
               isUpdated = !trackedEntityAttributeValue.getPlainValue().equals(attribute.getValue());
@@ -363,7 +425,8 @@ public abstract class AbstractTrackerPersister<
                 isNew,
                 trackedEntity,
                 trackedEntityAttributeValue,
-                isUpdated);
+                isUpdated,
+                changeLogs);
           }
 
           handleReservedValue(trackedEntityAttributeValue);
@@ -374,7 +437,8 @@ public abstract class AbstractTrackerPersister<
       EntityManager entityManager,
       TrackerPreheat preheat,
       TrackedEntityAttributeValue trackedEntityAttributeValue,
-      TrackedEntity trackedEntity) {
+      TrackedEntity trackedEntity,
+      ChangeLogBuffer changeLogs) {
     if (isFileResource(trackedEntityAttributeValue)) {
       unassignFileResource(
           entityManager, preheat, trackedEntity.getUid(), trackedEntityAttributeValue.getValue());
@@ -386,7 +450,11 @@ public abstract class AbstractTrackerPersister<
             : entityManager.merge(trackedEntityAttributeValue));
 
     logTrackedEntityAttributeValueHistory(
-        preheat.getUsername(), trackedEntityAttributeValue, trackedEntity, ChangeLogType.DELETE);
+        preheat.getUsername(),
+        trackedEntityAttributeValue,
+        trackedEntity,
+        ChangeLogType.DELETE,
+        changeLogs);
   }
 
   private void saveOrUpdate(
@@ -395,7 +463,8 @@ public abstract class AbstractTrackerPersister<
       boolean isNew,
       TrackedEntity trackedEntity,
       TrackedEntityAttributeValue trackedEntityAttributeValue,
-      boolean isUpdated) {
+      boolean isUpdated,
+      ChangeLogBuffer changeLogs) {
     if (isFileResource(trackedEntityAttributeValue)) {
       assignFileResource(
           entityManager, preheat, trackedEntity.getUid(), trackedEntityAttributeValue.getValue());
@@ -418,7 +487,11 @@ public abstract class AbstractTrackerPersister<
     }
 
     logTrackedEntityAttributeValueHistory(
-        preheat.getUsername(), trackedEntityAttributeValue, trackedEntity, changeLogType);
+        preheat.getUsername(),
+        trackedEntityAttributeValue,
+        trackedEntity,
+        changeLogType,
+        changeLogs);
   }
 
   private static boolean isFileResource(TrackedEntityAttributeValue trackedEntityAttributeValue) {
@@ -450,7 +523,8 @@ public abstract class AbstractTrackerPersister<
       String userName,
       TrackedEntityAttributeValue attributeValue,
       TrackedEntity trackedEntity,
-      ChangeLogType changeLogType) {
+      ChangeLogType changeLogType,
+      ChangeLogBuffer changeLogs) {
     boolean allowAuditLog = trackedEntity.getTrackedEntityType().isAllowAuditLog();
 
     // create log entry only for updated, created and deleted attributes
@@ -459,8 +533,7 @@ public abstract class AbstractTrackerPersister<
           new TrackedEntityAttributeValueChangeLog(
               attributeValue, attributeValue.getValue(), userName, changeLogType);
       valueAudit.setTrackedEntity(trackedEntity);
-      trackedEntityAttributeValueChangeLogService.addTrackedEntityAttributeValueChangLog(
-          valueAudit);
+      changeLogs.add(valueAudit);
     }
   }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.bundle.persister;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueChangeLog;
+import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueChangeLog;
+
+/**
+ * Collects the change logs created while persisting tracker entities, so they are only written once
+ * the entity they belong to has been persisted successfully.
+ */
+@Getter
+class ChangeLogBuffer {
+  private final List<TrackedEntityAttributeValueChangeLog> attributeValueChangeLogs =
+      new ArrayList<>();
+
+  private final List<TrackedEntityDataValueChangeLog> dataValueChangeLogs = new ArrayList<>();
+
+  void add(TrackedEntityAttributeValueChangeLog changeLog) {
+    attributeValueChangeLogs.add(changeLog);
+  }
+
+  void add(TrackedEntityDataValueChangeLog changeLog) {
+    dataValueChangeLogs.add(changeLog);
+  }
+
+  void addAll(ChangeLogBuffer other) {
+    attributeValueChangeLogs.addAll(other.attributeValueChangeLogs);
+    dataValueChangeLogs.addAll(other.dataValueChangeLogs);
+  }
+
+  boolean isEmpty() {
+    return attributeValueChangeLogs.isEmpty() && dataValueChangeLogs.isEmpty();
+  }
+}
@@ -162,7 +162,8 @@ public class EventPersister
       EntityManager entityManager,
       TrackerPreheat preheat,
       org.hisp.dhis.tracker.imports.domain.Event event,
-      Event hibernateEntity) {
+      Event hibernateEntity,
+      ChangeLogBuffer changeLogs) {
     // DO NOTHING - EVENT HAVE NO ATTRIBUTES
   }
 
@@ -171,15 +172,31 @@ public class EventPersister
       EntityManager entityManager,
       TrackerPreheat preheat,
       org.hisp.dhis.tracker.imports.domain.Event event,
-      Event hibernateEntity) {
-    handleDataValues(entityManager, preheat, event.getDataValues(), hibernateEntity);
+      Event hibernateEntity,
+      ChangeLogBuffer changeLogs) {
+    handleDataValues(entityManager, preheat, event.getDataValues(), hibernateEntity, changeLogs);
+  }
+
+  @Override
+  protected void persistChangeLogs(ChangeLogBuffer changeLogs, boolean batch) {
+    super.persistChangeLogs(changeLogs, batch);
+
+    if (batch) {
+      trackedEntityDataValueAuditService.addTrackedEntityDataValueChangeLogs(
+          changeLogs.getDataValueChangeLogs());
+    } else {
+      changeLogs
+          .getDataValueChangeLogs()
+          .forEach(trackedEntityDataValueAuditService::addTrackedEntityDataValueChangeLog);
+    }
   }
 
   private void handleDataValues(
       EntityManager entityManager,
       TrackerPreheat preheat,
       Set<DataValue> payloadDataValues,
-      Event event) {
+      Event event,
+      ChangeLogBuffer changeLogs) {
     Map<String, EventDataValue> dataValueDBMap =
         Optional.ofNullable(preheat.getEvent(event.getUid()))
             .map(
@@ -227,7 +244,7 @@ public class EventPersister
           }
 
           logTrackedEntityDataValueHistory(
-              preheat.getUsername(), dataElement, event, new Date(), valuesHolder);
+              preheat.getUsername(), dataElement, event, new Date(), valuesHolder, changeLogs);
         });
   }
 
@@ -236,7 +253,12 @@ public class EventPersister
   }
 
   private void logTrackedEntityDataValueHistory(
-      String userName, DataElement de, Event event, Date created, ValuesHolder valuesHolder) {
+      String userName,
+      DataElement de,
+      Event event,
+      Date created,
+      ValuesHolder valuesHolder,
+      ChangeLogBuffer changeLogs) {
     ChangeLogType changeLogType = valuesHolder.getChangeLogType();
 
     if (changeLogType != null) {
@@ -249,7 +271,7 @@ public class EventPersister
       valueAudit.setProvidedElsewhere(valuesHolder.isProvidedElseWhere());
       valueAudit.setCreated(created);
 
-      trackedEntityDataValueAuditService.addTrackedEntityDataValueChangeLog(valueAudit);
+      changeLogs.add(valueAudit);
     }
   }
 
@@ -70,8 +70,10 @@ public class TrackedEntityPersister
       EntityManager entityManager,
       TrackerPreheat preheat,
       org.hisp.dhis.tracker.imports.domain.TrackedEntity trackerDto,
-      TrackedEntity te) {
-    handleTrackedEntityAttributeValues(entityManager, preheat, trackerDto.getAttributes(), te);
+      TrackedEntity te,
+      ChangeLogBuffer changeLogs) {
+    handleTrackedEntityAttributeValues(
+        entityManager, preheat, trackerDto.getAttributes(), te, changeLogs);
   }
 
   @Override
@@ -79,7 +81,8 @@ public class TrackedEntityPersister
       EntityManager entityManager,
       TrackerPreheat preheat,
       org.hisp.dhis.tracker.imports.domain.TrackedEntity trackerDto,
-      TrackedEntity te) {
+      TrackedEntity te,
+      ChangeLogBuffer changeLogs) {
     // DO NOTHING - TE HAVE NO DATA VALUES
   }
 
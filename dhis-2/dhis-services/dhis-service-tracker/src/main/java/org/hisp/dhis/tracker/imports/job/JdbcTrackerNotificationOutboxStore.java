@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.job;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.program.Enrollment;
+import org.hisp.dhis.program.Event;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Store of the tracker notification outbox. Notifications are coalesced by enrollment or event and
+ * trigger, so a notification already waiting in the outbox is not added a second time. A
+ * notification which was taken, and is being sent or waits to be retried, is not coalesced with, as
+ * it might already have been sent with the state before the import.
+ */
+@Repository("org.hisp.dhis.tracker.imports.job.JdbcTrackerNotificationOutboxStore")
+@RequiredArgsConstructor
+class JdbcTrackerNotificationOutboxStore {
+  private static final Map<String, Class<? extends BaseIdentifiableObject>> OBJECT_TYPES =
+      Map.of(
+          Enrollment.class.getSimpleName(), Enrollment.class,
+          Event.class.getSimpleName(), Event.class);
+
+  private static final RowMapper<TrackerNotificationOutboxEntry> ENTRY_ROW_MAPPER =
+      (rs, rowNum) ->
+          new TrackerNotificationOutboxEntry(
+              rs.getLong("trackernotificationoutboxid"),
+              OBJECT_TYPES.get(rs.getString("objecttype")),
+              rs.getString("objectuid"),
+              SideEffectTrigger.valueOf(rs.getString("sideeffecttrigger")),
+              rs.getString("accessedby"),
+              rs.getTimestamp("created"),
+              rs.getInt("attempts"));
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  /**
+   * Adds the notifications of the given side effect bundles to the outbox, one row per trigger.
+   *
+   * @param bundles the side effect bundles of enrollments or events.
+   * @return the number of notifications added, excluding the ones already waiting in the outbox and
+   *     not taken yet.
+   */
+  public int add(Collection<TrackerSideEffectDataBundle> bundles) {
+    // language=SQL
+    String sql =
+        """
+        insert into trackernotificationoutbox (objecttype, objectuid, sideeffecttrigger, accessedby)
+        values (:objecttype, :objectuid, :sideeffecttrigger, :accessedby)
+        on conflict (objecttype, objectuid, sideeffecttrigger) where attempts = 0 do nothing
+        """;
+
+    MapSqlParameterSource[] parameters =
+        bundles.stream()
+            .filter(b -> OBJECT_TYPES.containsValue(b.getKlass()))
+            .flatMap(
+                b ->
+                    b.getTriggers().stream()
+                        .filter(t -> t != SideEffectTrigger.NONE)
+                        .map(
+                            t ->
+                                new MapSqlParameterSource()
+                                    .addValue("objecttype", b.getKlass().getSimpleName())
+                                    .addValue("objectuid", b.getObject())
+                                    .addValue("sideeffecttrigger", t.name())
+                                    .addValue("accessedby", b.getAccessedBy())))
+            .toArray(MapSqlParameterSource[]::new);
+
+    if (parameters.length == 0) {
+      return 0;
+    }
+
+    int added = 0;
+    for (int count : jdbcTemplate.batchUpdate(sql, parameters)) {
+      added += Math.max(count, 0);
+    }
+    return added;
+  }
+
+  /**
+   * Takes the next notifications due to be sent. The notifications taken are hidden from other
+   * callers, including on other servers, for the given lease time. A notification which is not
+   * {@link #delete(Collection) deleted} within its lease is taken again. A notification is not
+   * taken while an earlier notification of the same enrollment or event is leased, so the
+   * notifications of an enrollment or event are sent in order.
+   *
+   * @param limit the max number of notifications to take.
+   * @param leaseSeconds the number of seconds the notifications are hidden from other callers.
+   * @return the notifications taken, oldest first.
+   */
+  public List<TrackerNotificationOutboxEntry> take(int limit, int leaseSeconds) {
+    // language=SQL
+    String sql =
+        """
+        update trackernotificationoutbox
+        set attempts = attempts + 1,
+            nextattempt = now() + make_interval(secs => :lease)
+        where trackernotificationoutboxid in (
+          select o.trackernotificationoutboxid
+          from trackernotificationoutbox o
+          where o.nextattempt <= now()
+          and not exists (
+            select 1
+            from trackernotificationoutbox earlier
+            where earlier.objecttype = o.objecttype
+            and earlier.objectuid = o.objectuid
+            and earlier.trackernotificationoutboxid < o.trackernotificationoutboxid
+            and earlier.nextattempt > now())
+          order by o.trackernotificationoutboxid
+          limit :limit
+          for update skip locked)
+        returning trackernotificationoutboxid, objecttype, objectuid, sideeffecttrigger,
+          accessedby, created, attempts
+        """;
+
+    MapSqlParameterSource parameters =
+        new MapSqlParameterSource().addValue("limit", limit).addValue("lease", leaseSeconds);
+
+    return jdbcTemplate.query(sql, parameters, ENTRY_ROW_MAPPER).stream()
+        .sorted(Comparator.comparingLong(TrackerNotificationOutboxEntry::id))
+        .toList();
+  }
+
+  /**
+   * Deletes the given notifications from the outbox.
+   *
+   * @param ids the ids of the notifications.
+   */
+  public void delete(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    jdbcTemplate.update(
+        "delete from trackernotificationoutbox where trackernotificationoutboxid in (:ids)",
+        new MapSqlParameterSource("ids", ids));
+  }
+
+  /**
+   * Releases the given taken notifications without counting the attempt, for notifications which
+   * were not attempted. They are taken again once the earlier notifications of their enrollment or
+   * event are sent or dropped. At least one attempt is kept, so the notifications are not coalesced
+   * with notifications added since they were taken.
+   *
+   * @param ids the ids of the notifications.
+   */
+  public void release(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    // language=SQL
+    String sql =
+        """
+        update trackernotificationoutbox
+        set attempts = greatest(attempts - 1, 1),
+            nextattempt = now()
+        where trackernotificationoutboxid in (:ids)
+        """;
+
+    jdbcTemplate.update(sql, new MapSqlParameterSource("ids", ids));
+  }
+
+  /** Returns the number of notifications waiting in the outbox. */
+  public long count() {
+    Long count =
+        jdbcTemplate.queryForObject(
+            "select count(*) from trackernotificationoutbox", Map.of(), Long.class);
+    return count == null ? 0 : count;
+  }
+}
@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.tracker.imports.job;
 
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.hisp.dhis.common.AsyncTaskExecutor;
 import org.hisp.dhis.scheduling.JobConfiguration;
@@ -35,7 +36,8 @@ import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.stereotype.Component;
 
 /**
- * Producer and consumer for handling tracker notifications.
+ * Producer and consumer for handling tracker notifications. Notifications are sent through the
+ * {@link TrackerNotificationOutbox} if enabled, and by a thread per bundle otherwise.
  *
  * @author Zubair Asghar
  */
@@ -44,12 +46,25 @@ import org.springframework.stereotype.Component;
 public class TrackerNotificationMessageManager {
   private final ObjectFactory<TrackerNotificationThread> trackerNotificationThreadObjectFactory;
   private final AsyncTaskExecutor taskExecutor;
+  private final TrackerNotificationOutbox outbox;
 
   public void sendNotifications(TrackerSideEffectDataBundle bundle) {
     if (bundle == null) {
       return;
     }
 
+    sendNotifications(List.of(bundle));
+  }
+
+  public void sendNotifications(List<TrackerSideEffectDataBundle> bundles) {
+    if (bundles.isEmpty() || outbox.enqueue(bundles)) {
+      return;
+    }
+
+    bundles.forEach(this::sendNotificationsAsync);
+  }
+
+  private void sendNotificationsAsync(TrackerSideEffectDataBundle bundle) {
     JobConfiguration jobConfiguration =
         new JobConfiguration("", JobType.TRACKER_IMPORT_NOTIFICATION_JOB, bundle.getAccessedBy());
 
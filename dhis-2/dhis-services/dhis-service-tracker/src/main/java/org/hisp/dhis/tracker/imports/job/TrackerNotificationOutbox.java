@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.job;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.TRACKER_IMPORT_NOTIFICATION_OUTBOX_BATCH_SIZE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.TRACKER_IMPORT_NOTIFICATION_OUTBOX_CONCURRENCY;
+import static org.hisp.dhis.external.conf.ConfigurationKey.TRACKER_IMPORT_NOTIFICATION_OUTBOX_ENABLED;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.feedback.NotFoundException;
+import org.hisp.dhis.program.notification.ProgramNotificationService;
+import org.hisp.dhis.user.AuthenticationService;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Outbox of the tracker notifications. Notifications are persisted by {@link #enqueue(List)} right
+ * after the import is committed, and sent by a fixed pool of threads. Notifications left in the
+ * outbox, for instance on a restart, are picked up by a poller on any server.
+ *
+ * <p>The notifications of an enrollment or event are sent in order by the same thread, with the
+ * authentication of the user who imported them. A notification which fails is retried after {@link
+ * #LEASE_SECONDS} and dropped after {@link #MAX_ATTEMPTS} attempts. The later notifications of the
+ * same enrollment or event wait until the failed notification is sent or dropped.
+ */
+@Slf4j
+@Component
+public class TrackerNotificationOutbox {
+  static final int MAX_ATTEMPTS = 5;
+
+  static final int LEASE_SECONDS = 600;
+
+  private static final int POLL_INTERVAL_SECONDS = 10;
+
+  private final JdbcTrackerNotificationOutboxStore store;
+
+  private final IdentifiableObjectManager manager;
+
+  private final UserService userService;
+
+  private final AuthenticationService authenticationService;
+
+  private final Map<SideEffectTrigger, Consumer<Long>> serviceMapper;
+
+  private final int batchSize;
+
+  private final ExecutorService workers;
+
+  private final ScheduledExecutorService poller;
+
+  private final AtomicBoolean drainPending = new AtomicBoolean();
+
+  private final LongAdder enqueued = new LongAdder();
+
+  private final LongAdder sent = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  private final LongAdder dropped = new LongAdder();
+
+  private final AtomicLong lagMillis = new AtomicLong();
+
+  @Autowired
+  public TrackerNotificationOutbox(
+      DhisConfigurationProvider config,
+      JdbcTrackerNotificationOutboxStore store,
+      ProgramNotificationService programNotificationService,
+      IdentifiableObjectManager manager,
+      UserService userService,
+      AuthenticationService authenticationService) {
+    this(
+        config.isEnabled(TRACKER_IMPORT_NOTIFICATION_OUTBOX_ENABLED),
+        NumberUtils.toInt(config.getProperty(TRACKER_IMPORT_NOTIFICATION_OUTBOX_CONCURRENCY), 2),
+        NumberUtils.toInt(config.getProperty(TRACKER_IMPORT_NOTIFICATION_OUTBOX_BATCH_SIZE), 100),
+        store,
+        programNotificationService,
+        manager,
+        userService,
+        authenticationService);
+  }
+
+  /**
+   * @param enabled whether notifications are sent through the outbox.
+   * @param concurrency the max number of notifications sent concurrently.
+   * @param batchSize the max number of notifications taken from the outbox at once.
+   */
+  TrackerNotificationOutbox(
+      boolean enabled,
+      int concurrency,
+      int batchSize,
+      JdbcTrackerNotificationOutboxStore store,
+      ProgramNotificationService programNotificationService,
+      IdentifiableObjectManager manager,
+      UserService userService,
+      AuthenticationService authenticationService) {
+    this.store = store;
+    this.manager = manager;
+    this.userService = userService;
+    this.authenticationService = authenticationService;
+    this.serviceMapper =
+        Map.of(
+            SideEffectTrigger.ENROLLMENT, programNotificationService::sendEnrollmentNotifications,
+            SideEffectTrigger.EVENT_COMPLETION,
+                programNotificationService::sendEventCompletionNotifications,
+            SideEffectTrigger.ENROLLMENT_COMPLETION,
+                programNotificationService::sendEnrollmentCompletionNotifications);
+    this.batchSize = Math.max(1, batchSize);
+    this.workers =
+        enabled
+            ? Executors.newFixedThreadPool(
+                Math.max(1, concurrency),
+                new ThreadFactoryBuilder()
+                    .setNameFormat("tracker-notification-%d")
+                    .setDaemon(true)
+                    .build())
+            : null;
+    this.poller =
+        enabled
+            ? Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                    .setNameFormat("tracker-notification-outbox")
+                    .setDaemon(true)
+                    .build())
+            : null;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (isEnabled()) {
+      poller.scheduleWithFixedDelay(
+          this::drain, POLL_INTERVAL_SECONDS, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+      log.info("Tracker notifications are sent through the outbox");
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (isEnabled()) {
+      poller.shutdownNow();
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Indicates whether tracker notifications are sent through the outbox.
+   *
+   * @return true if tracker notifications are sent through the outbox.
+   */
+  public boolean isEnabled() {
+    return workers != null;
+  }
+
+  /**
+   * Adds the notifications of the given side effect bundles to the outbox and wakes up the poller.
+   *
+   * @param bundles the side effect bundles of enrollments or events.
+   * @return true if the notifications were added to the outbox, false if the outbox is not enabled
+   *     or could not be written to, in which case the caller should send the notifications itself.
+   */
+  public boolean enqueue(List<TrackerSideEffectDataBundle> bundles) {
+    if (!isEnabled()) {
+      return false;
+    }
+
+    try {
+      enqueued.add(store.add(bundles));
+    } catch (RuntimeException ex) {
+      log.warn("Tracker notifications could not be added to the outbox", ex);
+      return false;
+    }
+
+    wakeUp();
+    return true;
+  }
+
+  /** Drains the outbox on the poller thread, unless a drain is already waiting to run. */
+  void wakeUp() {
+    if (drainPending.compareAndSet(false, true)) {
+      poller.execute(this::drain);
+    }
+  }
+
+  /** Sends the notifications due in the outbox, one batch at a time, until none is left. */
+  void drain() {
+    drainPending.set(false);
+
+    try {
+      List<TrackerNotificationOutboxEntry> entries;
+      do {
+        entries = store.take(batchSize, LEASE_SECONDS);
+        send(entries);
+      } while (entries.size() == batchSize && !Thread.currentThread().isInterrupted());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException ex) {
+      // an exception would cancel the scheduled polling
+      log.error("Error while draining the tracker notification outbox", ex);
+    }
+  }
+
+  /**
+   * Sends the given notifications on the worker threads, grouped by enrollment or event, and
+   * removes the ones sent or failed too often from the outbox.
+   */
+  private void send(List<TrackerNotificationOutboxEntry> entries) throws InterruptedException {
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    Map<String, List<TrackerNotificationOutboxEntry>> byObject = new LinkedHashMap<>();
+    for (TrackerNotificationOutboxEntry entry : entries) {
+      byObject
+          .computeIfAbsent(
+              entry.klass().getSimpleName() + ":" + entry.object(), k -> new ArrayList<>())
+          .add(entry);
+    }
+
+    List<Callable<GroupResult>> tasks = new ArrayList<>(byObject.size());
+    for (List<TrackerNotificationOutboxEntry> group : byObject.values()) {
+      tasks.add(() -> sendAll(group));
+    }
+
+    Set<Long> done = new HashSet<>();
+    Set<Long> skipped = new HashSet<>();
+    for (Future<GroupResult> future : workers.invokeAll(tasks)) {
+      try {
+        GroupResult result = future.get();
+        done.addAll(result.sent());
+        skipped.addAll(result.skipped());
+      } catch (ExecutionException ex) {
+        log.error("Error while sending tracker notifications", ex.getCause());
+      }
+    }
+
+    for (TrackerNotificationOutboxEntry entry : entries) {
+      if (!done.contains(entry.id())
+          && !skipped.contains(entry.id())
+          && entry.attempts() >= MAX_ATTEMPTS) {
+        log.error(
+            "Dropping tracker notification {} of {} {} after {} attempts",
+            entry.trigger(),
+            entry.klass().getSimpleName(),
+            entry.object(),
+            entry.attempts());
+        dropped.increment();
+        done.add(entry.id());
+      }
+    }
+
+    store.delete(done);
+    store.release(skipped);
+  }
+
+  /**
+   * Sends the given notifications of an enrollment or event in order, with the authentication of
+   * the user who imported them. Sending stops at the first notification which fails, so no
+   * notification is sent before an earlier one.
+   *
+   * @return the ids of the notifications sent and of the ones skipped after a failure.
+   */
+  private GroupResult sendAll(List<TrackerNotificationOutboxEntry> entries) {
+    Set<Long> sentIds = new HashSet<>();
+
+    for (int i = 0; i < entries.size(); i++) {
+      TrackerNotificationOutboxEntry entry = entries.get(i);
+
+      try {
+        authenticate(entry.accessedBy());
+        send(entry);
+        sentIds.add(entry.id());
+        sent.increment();
+        lagMillis.set(System.currentTimeMillis() - entry.created().getTime());
+      } catch (RuntimeException ex) {
+        failed.increment();
+        log.warn(
+            "Tracker notification {} of {} {} failed, attempt {} of {}",
+            entry.trigger(),
+            entry.klass().getSimpleName(),
+            entry.object(),
+            entry.attempts(),
+            MAX_ATTEMPTS,
+            ex);
+
+        Set<Long> skippedIds = new HashSet<>();
+        entries.subList(i + 1, entries.size()).forEach(e -> skippedIds.add(e.id()));
+        return new GroupResult(sentIds, skippedIds);
+      } finally {
+        authenticationService.clearAuthentication();
+      }
+    }
+
+    return new GroupResult(sentIds, Set.of());
+  }
+
+  /**
+   * The outcome of sending the notifications of an enrollment or event.
+   *
+   * @param sent the ids of the notifications sent.
+   * @param skipped the ids of the notifications not attempted because an earlier one failed.
+   */
+  private record GroupResult(Set<Long> sent, Set<Long> skipped) {}
+
+  private void send(TrackerNotificationOutboxEntry entry) {
+    Consumer<Long> service = serviceMapper.get(entry.trigger());
+    if (service == null) {
+      return;
+    }
+
+    BaseIdentifiableObject object = manager.get(entry.klass(), entry.object());
+    if (object != null) {
+      service.accept(object.getId());
+    }
+  }
+
+  private void authenticate(String username) {
+    User user = username == null ? null : userService.getUserByUsername(username);
+
+    if (user == null) {
+      authenticationService.obtainSystemAuthentication();
+      return;
+    }
+
+    try {
+      authenticationService.obtainAuthentication(user.getUid());
+    } catch (NotFoundException ex) {
+      authenticationService.obtainSystemAuthentication();
+    }
+  }
+
+  /** Returns the number of notifications added to the outbox. */
+  public long getEnqueuedCount() {
+    return enqueued.sum();
+  }
+
+  /** Returns the number of notifications sent. */
+  public long getSentCount() {
+    return sent.sum();
+  }
+
+  /** Returns the number of failed attempts to send a notification. */
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  /** Returns the number of notifications dropped after {@link #MAX_ATTEMPTS} failed attempts. */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Returns the time in milliseconds the last notification sent waited in the outbox, from being
+   * added to being sent.
+   */
+  public long getLagMillis() {
+    return lagMillis.get();
+  }
+
+  /** Returns the number of notifications waiting in the outbox. */
+  public long getPendingCount() {
+    return isEnabled() ? store.count() : 0;
+  }
+}
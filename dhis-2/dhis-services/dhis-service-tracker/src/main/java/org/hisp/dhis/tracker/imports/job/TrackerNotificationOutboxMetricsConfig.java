@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.job;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.MONITORING_TRACKER_NOTIFICATION_OUTBOX_ENABLED;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.monitoring.metrics.MetricsEnabler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+/** Exposes the throughput, lag and backlog of the {@link TrackerNotificationOutbox}. */
+@Configuration
+@Conditional(
+    TrackerNotificationOutboxMetricsConfig.TrackerNotificationOutboxMetricsEnabledCondition.class)
+public class TrackerNotificationOutboxMetricsConfig {
+  private static final String PREFIX = "tracker.notification.outbox";
+
+  @Autowired
+  public void bindToRegistry(MeterRegistry registry, TrackerNotificationOutbox outbox) {
+    FunctionCounter.builder(
+            PREFIX + ".enqueued", outbox, TrackerNotificationOutbox::getEnqueuedCount)
+        .description("Number of notifications added to the tracker notification outbox")
+        .register(registry);
+
+    FunctionCounter.builder(PREFIX + ".attempts", outbox, TrackerNotificationOutbox::getSentCount)
+        .tag("result", "sent")
+        .description("Number of tracker notifications sent from the outbox")
+        .register(registry);
+
+    FunctionCounter.builder(PREFIX + ".attempts", outbox, TrackerNotificationOutbox::getFailedCount)
+        .tag("result", "failed")
+        .description("Number of failed attempts to send a tracker notification from the outbox")
+        .register(registry);
+
+    FunctionCounter.builder(PREFIX + ".dropped", outbox, TrackerNotificationOutbox::getDroppedCount)
+        .description("Number of tracker notifications dropped after too many failed attempts")
+        .register(registry);
+
+    Gauge.builder(PREFIX + ".lag", outbox, TrackerNotificationOutbox::getLagMillis)
+        .baseUnit("milliseconds")
+        .description("Time the last tracker notification sent waited in the outbox")
+        .register(registry);
+
+    Gauge.builder(PREFIX + ".pending", outbox, TrackerNotificationOutbox::getPendingCount)
+        .description("Number of tracker notifications waiting in the outbox")
+        .register(registry);
+  }
+
+  static class TrackerNotificationOutboxMetricsEnabledCondition extends MetricsEnabler {
+    @Override
+    protected ConfigurationKey getConfigKey() {
+      return MONITORING_TRACKER_NOTIFICATION_OUTBOX_ENABLED;
+    }
+  }
+}
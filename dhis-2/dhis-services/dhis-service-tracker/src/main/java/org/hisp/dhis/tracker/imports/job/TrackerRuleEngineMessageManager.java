@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.tracker.imports.job;
 
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.hisp.dhis.common.AsyncTaskExecutor;
 import org.hisp.dhis.scheduling.JobConfiguration;
@@ -50,14 +51,27 @@ public class TrackerRuleEngineMessageManager {
       return;
     }
 
+    sendRuleEngineNotifications(List.of(bundle));
+  }
+
+  /**
+   * Implements the rule effects of the given bundles in a single task, rather than a task per
+   * bundle.
+   */
+  public void sendRuleEngineNotifications(List<TrackerSideEffectDataBundle> bundles) {
+    if (bundles.isEmpty()) {
+      return;
+    }
+
     JobConfiguration jobConfiguration =
-        new JobConfiguration("", JobType.TRACKER_IMPORT_RULE_ENGINE_JOB, bundle.getAccessedBy());
+        new JobConfiguration(
+            "", JobType.TRACKER_IMPORT_RULE_ENGINE_JOB, bundles.get(0).getAccessedBy());
 
-    bundle.setJobConfiguration(jobConfiguration);
+    bundles.forEach(bundle -> bundle.setJobConfiguration(jobConfiguration));
 
     TrackerRuleEngineThread notificationThread = trackerRuleEngineThreadObjectFactory.getObject();
 
-    notificationThread.setSideEffectDataBundle(bundle);
+    notificationThread.setSideEffectDataBundles(bundles);
 
     taskExecutor.executeTask(notificationThread);
   }
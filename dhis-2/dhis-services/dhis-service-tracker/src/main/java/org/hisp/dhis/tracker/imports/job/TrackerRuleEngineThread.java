@@ -29,6 +29,7 @@ package org.hisp.dhis.tracker.imports.job;
 
 import java.util.List;
 import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.program.Enrollment;
 import org.hisp.dhis.program.Event;
 import org.hisp.dhis.programrule.engine.RuleActionImplementer;
@@ -43,11 +44,16 @@ import org.springframework.stereotype.Component;
 
 /**
  * Class represents a thread which will be triggered as soon as tracker rule engine consumer
- * consumes a message from tracker rule engine queue. It loops through the list of rule effects and
- * implement it if it has an associated rule implementer class.
+ * consumes a message from tracker rule engine queue. It loops through the list of rule effects of
+ * each bundle and implement it if it has an associated rule implementer class. A bundle which fails
+ * is logged and does not prevent the remaining bundles from being implemented.
+ *
+ * <p>The rule effects are only held in memory, so the effects not implemented yet are lost on a
+ * restart, unlike notifications which are sent through the {@link TrackerNotificationOutbox}.
  *
  * @author Zubair Asghar
  */
+@Slf4j
 @Component
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class TrackerRuleEngineThread extends SecurityContextRunnable {
@@ -55,7 +61,7 @@ public class TrackerRuleEngineThread extends SecurityContextRunnable {
 
   private final Notifier notifier;
 
-  private TrackerSideEffectDataBundle sideEffectDataBundle;
+  private List<TrackerSideEffectDataBundle> sideEffectDataBundles = List.of();
 
   public TrackerRuleEngineThread(
       @Qualifier("org.hisp.dhis.programrule.engine.RuleActionSendMessageImplementer")
@@ -70,10 +76,41 @@ public class TrackerRuleEngineThread extends SecurityContextRunnable {
 
   @Override
   public void call() {
-    if (sideEffectDataBundle == null) {
+    if (sideEffectDataBundles.isEmpty()) {
       return;
     }
 
+    int failed = 0;
+
+    for (TrackerSideEffectDataBundle sideEffectDataBundle : sideEffectDataBundles) {
+      try {
+        implementRuleEffects(sideEffectDataBundle);
+      } catch (RuntimeException ex) {
+        failed++;
+        log.error(
+            "Failed to implement rule effects of {} {}",
+            sideEffectDataBundle.getKlass() == null
+                ? null
+                : sideEffectDataBundle.getKlass().getSimpleName(),
+            sideEffectDataBundle.getObject(),
+            ex);
+      }
+    }
+
+    if (failed == 0) {
+      notifier.notify(
+          sideEffectDataBundles.get(0).getJobConfiguration(),
+          NotificationLevel.DEBUG,
+          "Tracker Rule-engine side effects completed");
+    } else {
+      notifier.notify(
+          sideEffectDataBundles.get(0).getJobConfiguration(),
+          NotificationLevel.ERROR,
+          "Tracker Rule-engine side effects completed, " + failed + " failed");
+    }
+  }
+
+  private void implementRuleEffects(TrackerSideEffectDataBundle sideEffectDataBundle) {
     Map<String, List<RuleEffect>> enrollmentRuleEffects =
         sideEffectDataBundle.getEnrollmentRuleEffects();
     Map<String, List<RuleEffect>> eventRuleEffects = sideEffectDataBundle.getEventRuleEffects();
@@ -97,14 +134,14 @@ public class TrackerRuleEngineThread extends SecurityContextRunnable {
             .forEach(effect -> ruleActionImplementer.implement(effect, event));
       }
     }
-
-    notifier.notify(
-        sideEffectDataBundle.getJobConfiguration(),
-        NotificationLevel.DEBUG,
-        "Tracker Rule-engine side effects completed");
   }
 
   public void setSideEffectDataBundle(TrackerSideEffectDataBundle sideEffectDataBundle) {
-    this.sideEffectDataBundle = sideEffectDataBundle;
+    this.sideEffectDataBundles =
+        sideEffectDataBundle == null ? List.of() : List.of(sideEffectDataBundle);
+  }
+
+  public void setSideEffectDataBundles(List<TrackerSideEffectDataBundle> sideEffectDataBundles) {
+    this.sideEffectDataBundles = sideEffectDataBundles;
   }
 }
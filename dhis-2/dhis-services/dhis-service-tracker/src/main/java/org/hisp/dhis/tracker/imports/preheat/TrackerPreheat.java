@@ -389,6 +389,30 @@ public class TrackerPreheat {
         (Collection<? extends T>) map.getOrDefault(klass, new HashMap<>()).values());
   }
 
+  /**
+   * Fetch all the objects from the pre-heat, that is the user, metadata, defaults, periods, users
+   * and tracker objects.
+   *
+   * @return a List of all pre-heated objects
+   */
+  public List<Object> getAllObjects() {
+    List<Object> objects = new ArrayList<>();
+
+    if (user != null) {
+      objects.add(user);
+    }
+
+    map.values().forEach(objectMap -> objects.addAll(objectMap.values()));
+    objects.addAll(defaults.values());
+    objects.addAll(periodMap.values());
+    objects.addAll(users.values());
+    objects.addAll(trackedEntities.values());
+    objects.addAll(enrollments.values());
+    objects.addAll(events.values());
+    objects.addAll(relationships.values());
+    return objects;
+  }
+
   public boolean isEmpty() {
     return map.isEmpty();
   }
@@ -27,18 +27,48 @@
  */
 package org.hisp.dhis.tracker.imports.preheat.cache;
 
+import static java.util.Map.entry;
+
+import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
-import lombok.RequiredArgsConstructor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
+import org.cache2k.CacheEntry;
+import org.hisp.dhis.category.Category;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.category.CategoryOption;
+import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.option.Option;
+import org.hisp.dhis.option.OptionSet;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageDataElement;
+import org.hisp.dhis.program.ProgramTrackedEntityAttribute;
+import org.hisp.dhis.relationship.RelationshipConstraint;
+import org.hisp.dhis.relationship.RelationshipType;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityType;
+import org.hisp.dhis.trackedentity.TrackedEntityTypeAttribute;
 import org.hisp.dhis.tracker.imports.TrackerIdScheme;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
@@ -46,99 +76,278 @@ import org.springframework.stereotype.Service;
 /**
  * Pre-heat cache implementation for metadata objects.
  *
+ * <p>The cache is shared by all tracker imports. It holds detached copies of the metadata created
+ * by the preheat mappers, so cached objects never reference a Hibernate session. Entries do not
+ * expire: they are evicted when the metadata they were built from is changed, either on this server
+ * through {@link PreheatCacheInvalidationListener} or on another server through {@link
+ * CacheInvalidationEvent}.
+ *
  * @author Luciano Fiandesio
  */
-@RequiredArgsConstructor
+@Slf4j
 @Service
 public class DefaultPreheatCacheService implements PreheatCacheService {
+  /**
+   * The metadata embedded in the copies of each cached type. A change to one of these types evicts
+   * all the cached objects of the dependent type, as there is no cheap way of telling which copies
+   * reference the changed entity. A type depending on itself is always evicted as a whole, which is
+   * needed for types cached as a complete snapshot like {@link Period}.
+   */
+  private static final Map<Class<?>, Set<Class<?>>> DEPENDENCIES =
+      Map.ofEntries(
+          entry(
+              Program.class,
+              Set.of(
+                  ProgramStage.class,
+                  ProgramTrackedEntityAttribute.class,
+                  TrackedEntityAttribute.class,
+                  TrackedEntityType.class,
+                  TrackedEntityTypeAttribute.class,
+                  CategoryCombo.class,
+                  OptionSet.class,
+                  Option.class)),
+          entry(
+              ProgramStage.class,
+              Set.of(
+                  Program.class,
+                  ProgramStageDataElement.class,
+                  DataElement.class,
+                  TrackedEntityType.class,
+                  CategoryCombo.class,
+                  OptionSet.class,
+                  Option.class)),
+          entry(
+              RelationshipType.class,
+              Set.of(
+                  RelationshipConstraint.class,
+                  TrackedEntityType.class,
+                  Program.class,
+                  ProgramStage.class)),
+          entry(
+              TrackedEntityType.class,
+              Set.of(
+                  TrackedEntityTypeAttribute.class,
+                  TrackedEntityAttribute.class,
+                  OptionSet.class,
+                  Option.class)),
+          entry(
+              CategoryOptionCombo.class,
+              Set.of(CategoryOption.class, CategoryCombo.class, OrganisationUnit.class)),
+          entry(CategoryOption.class, Set.of(OrganisationUnit.class)),
+          entry(CategoryCombo.class, Set.of()),
+          entry(Category.class, Set.of()),
+          entry(OrganisationUnit.class, Set.of()),
+          entry(Period.class, Set.of(Period.class)));
+
+  private static final Set<Class<?>> CACHEABLE_TYPES =
+      DEPENDENCIES.entrySet().stream()
+          .flatMap(e -> Stream.concat(Stream.of(e.getKey()), e.getValue().stream()))
+          .collect(Collectors.toUnmodifiableSet());
+
   /**
    * Data structure to hold the metadata cache:
    *
-   * <p>- the key is the full class name of the metadata class getting cached (e.g.
-   * "org.hisp.dhis.program.Program")
+   * <p>- the key is the metadata class getting cached (e.g. "org.hisp.dhis.program.Program")
    *
    * <p>- the value is a Cache2K cache holding the objects to cache
    *
    * <p>Caveat: this data structure may reference multiple times the same objects, if different
    * {@link TrackerIdScheme} are used during different imports.
    */
-  private static final Map<String, Cache<String, IdentifiableObject>> cache = new HashMap<>();
+  private final Map<Class<?>, Cache<String, IdentifiableObject>> cache = new ConcurrentHashMap<>();
+
+  /**
+   * The default metadata objects by type. Held apart from {@link #cache}, as the capacity of a
+   * cache is set by the first object put into it and defaults must not fix or take up the capacity
+   * of the caches of their type.
+   */
+  private final Map<Class<?>, IdentifiableObject> defaults = new ConcurrentHashMap<>();
+
+  /**
+   * Incremented whenever cached metadata might have changed. Objects loaded before a change are not
+   * cached, as they could have been read before the change was committed.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder invalidations = new LongAdder();
+
+  private final boolean enabled;
+
+  public DefaultPreheatCacheService(DhisConfigurationProvider config) {
+    this.enabled = config.isEnabled(ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED);
+  }
 
   @Override
-  public Optional<IdentifiableObject> get(final String cacheKey, final String id) {
-    if (isCacheEnabled() && cache.containsKey(cacheKey)) {
-      return Optional.ofNullable(cache.get(cacheKey).get(id));
+  public Optional<IdentifiableObject> get(final Class<?> type, final String id) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+
+    Cache<String, IdentifiableObject> c = cache.get(type);
+    IdentifiableObject value = c == null ? null : c.peek(id);
+    if (value == null) {
+      misses.increment();
+    } else {
+      hits.increment();
     }
 
-    return Optional.empty();
+    return Optional.ofNullable(value);
   }
 
   @Override
   public Optional<IdentifiableObject> get(
-      String cacheKey,
+      Class<?> type,
       String id,
-      BiFunction<String, String, Optional<IdentifiableObject>> mappingFunction,
-      int cacheTTL,
+      BiFunction<Class<?>, String, Optional<IdentifiableObject>> mappingFunction,
       long capacity) {
     if (mappingFunction == null) {
       throw new IllegalArgumentException("MappingFunction cannot be null");
     }
 
-    Optional<IdentifiableObject> value = get(cacheKey, id);
+    Optional<IdentifiableObject> value = get(type, id);
     if (value.isPresent()) {
       return value;
     }
 
-    value = mappingFunction.apply(cacheKey, id);
-    if (value.isPresent()) {
-      put(cacheKey, id, value.get(), cacheTTL, capacity);
+    long loadedAt = getGeneration();
+    value = mappingFunction.apply(type, id);
+    value.ifPresent(o -> put(type, id, o, capacity, loadedAt));
+
+    return value;
+  }
+
+  @Override
+  public Optional<IdentifiableObject> getDefault(
+      Class<?> type, Function<Class<?>, Optional<IdentifiableObject>> mappingFunction) {
+    if (!enabled) {
+      return mappingFunction.apply(type);
+    }
+
+    IdentifiableObject cached = defaults.get(type);
+    if (cached != null) {
+      hits.increment();
+      return Optional.of(cached);
     }
 
+    misses.increment();
+    long loadedAt = getGeneration();
+    Optional<IdentifiableObject> value = mappingFunction.apply(type);
+    value.ifPresent(
+        o -> defaults.compute(type, (k, current) -> loadedAt == generation.get() ? o : current));
+
     return value;
   }
 
   @Override
-  public boolean hasKey(String cacheKey) {
-    return cache.containsKey(cacheKey);
+  public boolean hasKey(Class<?> type) {
+    return enabled && cache.containsKey(type);
   }
 
-  public List<IdentifiableObject> getAll(String cacheKey) {
+  @Override
+  public List<IdentifiableObject> getAll(Class<?> type) {
     List<IdentifiableObject> res = new ArrayList<>();
-    if (hasKey(cacheKey)) {
-      cache.get(cacheKey).keys().forEach(k -> res.add(cache.get(cacheKey).get(k)));
+    Cache<String, IdentifiableObject> c = cache.get(type);
+    if (enabled && c != null) {
+      c.entries().forEach(e -> res.add(e.getValue()));
     }
     return res;
   }
 
+  @Override
+  public long getGeneration() {
+    return generation.get();
+  }
+
   @Override
   public void put(
-      final String cacheKey,
+      final Class<?> type,
       final String id,
       IdentifiableObject object,
-      final int cacheTTL,
-      final long capacity) {
-    if (cacheKey == null || id == null || object == null) return;
-
-    if (isCacheEnabled()) {
-      if (cache.containsKey(cacheKey)) {
-        cache.get(cacheKey).put(id, object);
-      } else {
-        Cache<String, IdentifiableObject> c =
-            new Cache2kBuilder<String, IdentifiableObject>() {}.expireAfterWrite(
-                    cacheTTL, TimeUnit.MINUTES)
-                .name(cacheKey)
-                .permitNullValues(false)
-                .entryCapacity(capacity == -1 ? Long.MAX_VALUE : capacity)
-                .resilienceDuration(30, TimeUnit.SECONDS) // cope with at
-                // most 30
-                // seconds
-                // outage before propagating exceptions
-                .build();
-
-        c.put(id, object);
-
-        cache.put(cacheKey, c);
-      }
+      final long capacity,
+      final long loadedAt) {
+    if (!enabled || type == null || id == null || object == null) return;
+
+    // compare the generation within the compute of the cache, which invalidate also computes on,
+    // so an invalidation cannot slip in between the comparison and the put
+    cache.compute(
+        type,
+        (k, c) -> {
+          if (loadedAt != generation.get()) {
+            log.debug(
+                "Not caching {} {} as metadata changed while loading it", type.getSimpleName(), id);
+            return c;
+          }
+
+          Cache<String, IdentifiableObject> region = c == null ? buildCache(capacity) : c;
+          region.put(id, object);
+          return region;
+        });
+  }
+
+  @Override
+  public void putAll(
+      Class<?> type, Map<String, IdentifiableObject> objects, long capacity, long loadedAt) {
+    if (!enabled) {
+      return;
+    }
+
+    cache.compute(
+        type,
+        (k, current) -> {
+          if (loadedAt != generation.get()) {
+            return current;
+          }
+
+          Cache<String, IdentifiableObject> c = buildCache(capacity);
+          c.putAll(objects);
+          return c;
+        });
+  }
+
+  @Override
+  public void invalidate(Class<?> type, Serializable id) {
+    if (!enabled || !isCacheable(type)) {
+      return;
+    }
+
+    generation.incrementAndGet();
+
+    for (Class<?> cachedType : cache.keySet()) {
+      cache.computeIfPresent(
+          cachedType,
+          (k, c) -> {
+            if (dependsOn(cachedType, type)) {
+              invalidations.add(c.asMap().size());
+              return null;
+            }
+
+            if (cachedType == type) {
+              for (CacheEntry<String, IdentifiableObject> e : c.entries()) {
+                if (isSameId(e.getValue(), id) && c.removeIfEquals(e.getKey(), e.getValue())) {
+                  invalidations.increment();
+                }
+              }
+            }
+
+            return c;
+          });
+    }
+
+    for (Class<?> defaultType : defaults.keySet()) {
+      defaults.computeIfPresent(
+          defaultType,
+          (k, o) -> {
+            if (dependsOn(defaultType, type) || (defaultType == type && isSameId(o, id))) {
+              invalidations.increment();
+              return null;
+            }
+
+            return o;
+          });
     }
   }
 
@@ -148,19 +357,64 @@ public class DefaultPreheatCacheService implements PreheatCacheService {
     invalidateCache();
   }
 
+  @EventListener
+  @Override
+  public void handleCacheInvalidation(CacheInvalidationEvent event) {
+    invalidate(event.getEntityClass(), event.getEntityId());
+  }
+
   @Override
   public void invalidateCache() {
-    cache.values().forEach(Cache::removeAll);
+    generation.incrementAndGet();
+    cache.clear();
+    defaults.clear();
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
   }
 
-  private boolean isCacheEnabled() {
-    return false;
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public long getInvalidationCount() {
+    return invalidations.sum();
+  }
+
+  @Override
+  public long getSize() {
+    return cache.values().stream().mapToLong(c -> c.asMap().size()).sum() + defaults.size();
+  }
+
+  /**
+   * Whether objects of the given type are, or are embedded in, objects held by the cache. Most
+   * entities changed during a tracker import are not, so they must not disturb the cache.
+   */
+  private boolean isCacheable(Class<?> type) {
+    return CACHEABLE_TYPES.contains(type) || cache.containsKey(type);
+  }
+
+  private static boolean dependsOn(Class<?> cachedType, Class<?> type) {
+    return DEPENDENCIES.getOrDefault(cachedType, Set.of()).contains(type);
+  }
+
+  private static boolean isSameId(IdentifiableObject object, Serializable id) {
+    return id instanceof Number && object.getId() == ((Number) id).longValue();
+  }
 
-    // Due to concerns and issues with the current cache implementation, we
-    // decided to
-    // deactivate the cache in the preheat completely for now.
-    // return !isTestRun( this.environment.getActiveProfiles() )
-    // && config.isEnabled(
-    // ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED );
+  private static Cache<String, IdentifiableObject> buildCache(long capacity) {
+    return new Cache2kBuilder<String, IdentifiableObject>() {}.eternal(true)
+        .permitNullValues(false)
+        .entryCapacity(capacity == -1 ? Long.MAX_VALUE : capacity)
+        .build();
   }
 }
@@ -27,11 +27,15 @@
  */
 package org.hisp.dhis.tracker.imports.preheat.cache;
 
+import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
 
 /**
  * A DHIS2 metadata cache implementation to reduce db lookups during pre-heat
@@ -42,64 +46,128 @@ public interface PreheatCacheService {
   /**
    * Fetches an object from the pre-heat cache.
    *
-   * @param cacheKey the full class name of the object being cached
+   * @param type the metadata class of the object being cached
    * @param id the identifier of the object to retrieve
    */
-  Optional<IdentifiableObject> get(String cacheKey, String id);
+  Optional<IdentifiableObject> get(Class<?> type, String id);
 
   /**
-   * Returns the metadata value cached in {@code cacheKey} mapped to {@code id}, obtaining that
-   * value from the {@code mappingFunction} if necessary. This method provides a simple substitute
-   * for the conventional "if cached, return; otherwise create, cache and return" pattern. If
-   * metadata value is null, the given mapping function is evaluated and inserted into this cache
-   * unless {@code null}.
+   * Returns the metadata value cached in the cache of {@code type} mapped to {@code id}, obtaining
+   * that value from the {@code mappingFunction} if necessary. This method provides a simple
+   * substitute for the conventional "if cached, return; otherwise create, cache and return"
+   * pattern. If metadata value is null, the given mapping function is evaluated and inserted into
+   * this cache unless {@code null}.
    *
-   * @param cacheKey the cacheKey for retrieving the cache
+   * @param type the metadata class for retrieving the cache
    * @param id the identifier for retrieving the metadata value from the cache
    * @param mappingFunction the function to compute a value.
+   * @param capacity The maximum number of entries hold by the cache.
    * @return an optional containing current (existing or computed) value, or Optional.empty() if the
    *     computed value is null
    * @throws IllegalArgumentException if the specified mappingFunction is null
    */
   Optional<IdentifiableObject> get(
-      String cacheKey,
+      Class<?> type,
       String id,
-      BiFunction<String, String, Optional<IdentifiableObject>> mappingFunction,
-      int cacheTTL,
+      BiFunction<Class<?>, String, Optional<IdentifiableObject>> mappingFunction,
       long capacity);
 
+  /**
+   * Returns the cached default metadata object of the given type, obtaining it from the {@code
+   * mappingFunction} if necessary. Defaults are held apart from the other cached objects of their
+   * type, so they neither count towards nor are limited by the capacity of that type.
+   *
+   * @param type the metadata class of the default object
+   * @param mappingFunction the function to compute the default object.
+   * @return an optional containing the default object, or Optional.empty() if the computed value is
+   *     null
+   */
+  Optional<IdentifiableObject> getDefault(
+      Class<?> type, Function<Class<?>, Optional<IdentifiableObject>> mappingFunction);
+
   /**
    * Check whether a class type is part of the cache
    *
-   * @param cacheKey the full class name of a metadata object
+   * @param type the class of a metadata object
    */
-  boolean hasKey(String cacheKey);
+  boolean hasKey(Class<?> type);
 
   /**
-   * Fetch all the cached entries for the given class type key
+   * Fetch all the cached entries for the given class type
    *
-   * @param cacheKey the full class name of a metadata object
+   * @param type the class of a metadata object
    */
-  List<IdentifiableObject> getAll(String cacheKey);
+  List<IdentifiableObject> getAll(Class<?> type);
+
+  /**
+   * Returns the current generation of the cache, which changes whenever cached metadata might have
+   * changed. Must be taken before loading the objects passed to {@link #put}.
+   */
+  long getGeneration();
 
   /**
    * Adds an object to the pre-heat cache.
    *
-   * @param cacheKey the full class name of the object being cached
+   * @param type the metadata class of the object being cached
    * @param id the identifier of the object being cached, used as cache key
-   * @param object The object being cached
-   * @param cacheTTL The amount of **minutes**
-   * @param capacity The maximum number of entries hold by the cache.
+   * @param object The object being cached. Must be a detached copy, as it is shared by all imports
+   * @param capacity The maximum number of entries hold by the cache. -1 for no limit. Only applies
+   *     when the cache of the type is created, so it must be the same for all objects of a type.
+   * @param loadedAt the {@link #getGeneration() generation} before the object was loaded. The
+   *     object is not cached if the metadata changed since.
+   */
+  void put(Class<?> type, String id, IdentifiableObject object, long capacity, long loadedAt);
+
+  /**
+   * Replaces all the cached objects of the given type at once, so {@link #getAll} never returns a
+   * partially filled cache.
+   *
+   * @param type the metadata class of the objects being cached
+   * @param objects the objects being cached mapped by their identifier
+   * @param capacity The maximum number of entries hold by the cache. -1 for no limit.
+   * @param loadedAt the {@link #getGeneration() generation} before the objects were loaded.
    */
-  void put(String cacheKey, String id, IdentifiableObject object, int cacheTTL, long capacity);
+  void putAll(Class<?> type, Map<String, IdentifiableObject> objects, long capacity, long loadedAt);
+
+  /**
+   * Evicts the cached copies of the entity of the given type and database id, and every cached
+   * object embedding entities of that type.
+   *
+   * @param type the class of the changed entity
+   * @param id the database id of the changed entity
+   */
+  void invalidate(Class<?> type, Serializable id);
 
   /** Invalidates all caches. */
   void invalidateCache();
 
+  /** Whether the pre-heat cache is enabled. Nothing is cached if disabled. */
+  boolean isEnabled();
+
+  /** Number of lookups which found the object in the cache. */
+  long getHitCount();
+
+  /** Number of lookups which did not find the object in the cache. */
+  long getMissCount();
+
+  /** Number of entries evicted because the metadata they were built from changed. */
+  long getInvalidationCount();
+
+  /** Number of objects currently held by the cache. */
+  long getSize();
+
   /**
    * Event handler for {@link ApplicationCacheClearedEvent}.
    *
    * @param event the {@link ApplicationCacheClearedEvent}.
    */
   void handleApplicationCachesCleared(ApplicationCacheClearedEvent event);
+
+  /**
+   * Event handler for {@link CacheInvalidationEvent}, which is published when metadata changed on
+   * another server instance.
+   *
+   * @param event the {@link CacheInvalidationEvent}.
+   */
+  void handleCacheInvalidation(CacheInvalidationEvent event);
 }
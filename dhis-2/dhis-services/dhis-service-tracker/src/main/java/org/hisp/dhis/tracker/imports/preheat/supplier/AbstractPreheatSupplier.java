@@ -27,12 +27,13 @@
  */
 package org.hisp.dhis.tracker.imports.preheat.supplier;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.time.StopWatch;
 import org.hisp.dhis.common.IdentifiableObject;
-import org.hisp.dhis.hibernate.HibernateProxyUtils;
 import org.hisp.dhis.tracker.imports.domain.TrackerObjects;
 import org.hisp.dhis.tracker.imports.preheat.TrackerPreheat;
 import org.hisp.dhis.tracker.imports.preheat.cache.PreheatCacheService;
@@ -45,9 +46,8 @@ import org.hisp.dhis.tracker.imports.preheat.cache.PreheatCacheService;
  */
 @Slf4j
 public abstract class AbstractPreheatSupplier implements PreheatSupplier {
-  private final int CACHE_TTL = 60;
-
-  private final long CACHE_CAPACITY = 1000;
+  /** Objects added by suppliers are cached as a complete snapshot, which must not be truncated. */
+  private static final long CACHE_CAPACITY = -1;
 
   @Override
   public void add(TrackerObjects trackerObjects, TrackerPreheat preheat) {
@@ -74,14 +74,13 @@ public abstract class AbstractPreheatSupplier implements PreheatSupplier {
   /** Template method: executes preheat logic from the subclass */
   public abstract void preheatAdd(TrackerObjects trackerObjects, TrackerPreheat preheat);
 
-  protected void addToCache(PreheatCacheService cache, List<? extends IdentifiableObject> objects) {
-    objects.forEach(
-        rt ->
-            cache.put(
-                HibernateProxyUtils.getRealClass(rt).getName(),
-                rt.getUid(),
-                rt,
-                CACHE_TTL,
-                CACHE_CAPACITY));
+  protected void addToCache(
+      PreheatCacheService cache,
+      Class<?> type,
+      List<? extends IdentifiableObject> objects,
+      long loadedAt) {
+    Map<String, IdentifiableObject> byUid = new HashMap<>();
+    objects.forEach(o -> byUid.put(o.getUid(), o));
+    cache.putAll(type, byUid, CACHE_CAPACITY, loadedAt);
   }
 }
@@ -50,10 +50,6 @@ import org.springframework.stereotype.Component;
 @Component
 public class DefaultsSupplier extends AbstractPreheatSupplier {
 
-  private static final int CACHE_TTL = 720; // 12h
-
-  private static final long CACHE_CAPACITY = 10;
-
   @Nonnull private final IdentifiableObjectManager manager;
 
   @Nonnull private final PreheatCacheService cache;
@@ -87,12 +83,8 @@ public class DefaultsSupplier extends AbstractPreheatSupplier {
       TrackerPreheat preheat, Class<T> klass, PreheatMapper<T> mapper, String name) {
     Optional<T> metadata =
         (Optional<T>)
-            cache.get(
-                DefaultsSupplier.class.getName(),
-                klass.getName(),
-                (k, n) -> Optional.ofNullable(mapper.map(manager.getByName(klass, name))),
-                CACHE_TTL,
-                CACHE_CAPACITY);
+            cache.getDefault(
+                klass, k -> Optional.ofNullable(mapper.map(manager.getByName(klass, name))));
     metadata.ifPresent(t -> preheat.putDefault(klass, t));
   }
 }
@@ -52,11 +52,12 @@ public class PeriodTypeSupplier extends AbstractPreheatSupplier {
 
   @Override
   public void preheatAdd(TrackerObjects trackerObjects, TrackerPreheat preheat) {
-    if (cache.hasKey(Period.class.getName())) {
-      preheat.put(TrackerIdSchemeParam.UID, cache.getAll(Period.class.getName()));
+    if (cache.hasKey(Period.class)) {
+      preheat.put(TrackerIdSchemeParam.UID, cache.getAll(Period.class));
     } else {
+      long loadedAt = cache.getGeneration();
       final List<Period> periods = periodStore.getAll();
-      addToCache(cache, periods);
+      addToCache(cache, Period.class, periods, loadedAt);
       _addToPreheat(
           preheat, periods.stream().map(p -> (IdentifiableObject) p).collect(Collectors.toList()));
     }
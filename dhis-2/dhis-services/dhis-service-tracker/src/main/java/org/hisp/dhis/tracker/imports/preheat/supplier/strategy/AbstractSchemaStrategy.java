@@ -116,8 +116,12 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
     }
   }
 
-  private String buildCacheKey(Schema schema) {
-    return schema.getKlass().getSimpleName();
+  /**
+   * Objects are cached under the identifier of the scheme used to fetch them. The scheme is part of
+   * the key, so an object code can't be mistaken for the UID of another object.
+   */
+  private String buildCacheKey(TrackerIdScheme idScheme, String id) {
+    return idScheme.name() + ":" + id;
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -130,7 +134,7 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
     TrackerIdScheme idScheme = idSchemeParam.getIdScheme();
 
     List<IdentifiableObject> objects;
-    final String cacheKey = buildCacheKey(schema);
+    final Class<?> cacheKey = schema.getKlass();
 
     if (isCacheable()) // check if this strategy requires caching
     {
@@ -138,7 +142,7 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
       for (String id : ids) {
         // is the object reference by the given id in cache?
         cache
-            .get(cacheKey, id)
+            .get(cacheKey, buildCacheKey(idScheme, id))
             .ifPresent(identifiableObject -> foundInCache.put(id, identifiableObject));
       }
 
@@ -149,6 +153,7 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
 
         // execute the query, fetching only the ids which are not in
         // cache
+        long loadedAt = cache.getGeneration();
         objects =
             map(
                 (List<IdentifiableObject>)
@@ -156,12 +161,14 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
                 mapper);
 
         // put objects in query based on given scheme. If the key
-        // can't get resolved, send null to the
-        // cacheService, which will ignore the entry
+        // can't get resolved, do not cache the object
         objects.forEach(
-            o ->
-                cache.put(
-                    cacheKey, idSchemeParam.getIdentifier(o), o, getCacheTTL(), getCapacity()));
+            o -> {
+              String id = idSchemeParam.getIdentifier(o);
+              if (id != null) {
+                cache.put(cacheKey, buildCacheKey(idScheme, id), o, getCapacity(), loadedAt);
+              }
+            });
 
         // add back the cached objects to the final list
         objects.addAll(foundInCache.values());
@@ -222,10 +229,6 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
     return getClass().getAnnotation(StrategyFor.class).cache();
   }
 
-  private int getCacheTTL() {
-    return getClass().getAnnotation(StrategyFor.class).ttl();
-  }
-
   private long getCapacity() {
     return getClass().getAnnotation(StrategyFor.class).capacity();
   }
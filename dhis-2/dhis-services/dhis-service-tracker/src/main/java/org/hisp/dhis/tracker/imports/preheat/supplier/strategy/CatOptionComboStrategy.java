@@ -42,8 +42,7 @@ import org.springframework.stereotype.Component;
 @StrategyFor(
     value = CategoryOptionCombo.class,
     mapper = CategoryOptionComboMapper.class,
-    cache = true,
-    ttl = 5)
+    cache = true)
 public class CatOptionComboStrategy extends AbstractSchemaStrategy {
   public CatOptionComboStrategy(
       SchemaService schemaService,
@@ -43,7 +43,6 @@ import org.springframework.stereotype.Component;
     value = CategoryOption.class,
     mapper = CategoryOptionMapper.class,
     cache = true,
-    ttl = 30,
     capacity = 5)
 public class CatOptionStrategy extends AbstractSchemaStrategy {
   public CatOptionStrategy(
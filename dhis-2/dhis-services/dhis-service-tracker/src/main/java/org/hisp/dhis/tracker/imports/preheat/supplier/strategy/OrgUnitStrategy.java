@@ -43,7 +43,6 @@ import org.springframework.stereotype.Component;
     value = OrganisationUnit.class,
     mapper = OrganisationUnitMapper.class,
     cache = true,
-    ttl = 30,
     capacity = 100)
 public class OrgUnitStrategy extends AbstractSchemaStrategy {
   public OrgUnitStrategy(
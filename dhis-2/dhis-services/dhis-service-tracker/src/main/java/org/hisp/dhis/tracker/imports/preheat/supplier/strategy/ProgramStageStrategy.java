@@ -43,7 +43,6 @@ import org.springframework.stereotype.Component;
     value = ProgramStage.class,
     mapper = ProgramStageMapper.class,
     cache = true,
-    ttl = 20,
     capacity = 30)
 public class ProgramStageStrategy extends AbstractSchemaStrategy {
   public ProgramStageStrategy(
@@ -39,12 +39,7 @@ import org.springframework.stereotype.Component;
  * @author Luciano Fiandesio
  */
 @Component
-@StrategyFor(
-    value = Program.class,
-    mapper = ProgramMapper.class,
-    cache = true,
-    ttl = 20,
-    capacity = 10)
+@StrategyFor(value = Program.class, mapper = ProgramMapper.class, cache = true, capacity = 10)
 public class ProgramStrategy extends AbstractSchemaStrategy {
   public ProgramStrategy(
       SchemaService schemaService,
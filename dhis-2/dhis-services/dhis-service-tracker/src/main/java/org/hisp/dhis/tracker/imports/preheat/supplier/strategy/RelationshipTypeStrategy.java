@@ -43,7 +43,6 @@ import org.springframework.stereotype.Component;
     value = RelationshipType.class,
     mapper = RelationshipTypeMapper.class,
     cache = true,
-    ttl = 10,
     capacity = 10)
 public class RelationshipTypeStrategy extends AbstractSchemaStrategy {
   public RelationshipTypeStrategy(
@@ -50,12 +50,6 @@ public @interface StrategyFor {
   /** Whether the object used in this Strategy can be cached */
   boolean cache() default false;
 
-  /**
-   * The time-to-live for the type of object being cached The value is in **minutes**. Defaults to 5
-   * minutes
-   */
-  int ttl() default 5;
-
   /**
    * The maximum number of entries hold by the cache. Defaults to 5. The reason for the low default,
    * is that certain objects can contain a lot of references and quickly consume memory. For most
@@ -43,7 +43,6 @@ import org.springframework.stereotype.Component;
     value = TrackedEntityType.class,
     mapper = TrackedEntityTypeMapper.class,
     cache = true,
-    ttl = 10,
     capacity = 5)
 public class TrackedEntityTypeStrategy extends AbstractSchemaStrategy {
   public TrackedEntityTypeStrategy(
@@ -30,6 +30,9 @@ package org.hisp.dhis.tracker.imports.report;
 import static org.hisp.dhis.common.OpenApi.Shared.Pattern.TRACKER;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -154,6 +157,65 @@ public class ImportReport {
         .build();
   }
 
+  /**
+   * Merges the reports of imports which were run one after another, e.g. the chunks of a streamed
+   * import, into a single report.
+   *
+   * <p>The status is the most severe status of the given reports. Validation errors, warnings,
+   * statistics and persistence reports are combined. The message is the first message found.
+   *
+   * @param reports the reports to merge
+   */
+  public static ImportReport merge(List<ImportReport> reports) {
+    Status status = Status.OK;
+    List<Error> errors = new ArrayList<>();
+    List<Warning> warnings = new ArrayList<>();
+    Stats stats = Stats.builder().build();
+    Map<TrackerType, TrackerTypeReport> typeReportMap = new EnumMap<>(TrackerType.class);
+    String message = null;
+
+    for (ImportReport report : reports) {
+      if (report.getStatus() != null && report.getStatus().compareTo(status) > 0) {
+        status = report.getStatus();
+      }
+
+      if (report.getValidationReport() != null) {
+        errors.addAll(report.getValidationReport().getErrors());
+        warnings.addAll(report.getValidationReport().getWarnings());
+      }
+
+      if (report.getStats() != null) {
+        stats.merge(report.getStats());
+      }
+
+      if (report.getPersistenceReport() != null) {
+        for (TrackerTypeReport typeReport :
+            report.getPersistenceReport().getTypeReportMap().values()) {
+          TrackerTypeReport merged =
+              typeReportMap.computeIfAbsent(typeReport.getTrackerType(), TrackerTypeReport::new);
+          if (typeReport.getStats() != null) {
+            merged.getStats().merge(typeReport.getStats());
+          }
+          if (typeReport.getEntityReport() != null) {
+            merged.getEntityReport().addAll(typeReport.getEntityReport());
+          }
+        }
+      }
+
+      if (message == null) {
+        message = report.getMessage();
+      }
+    }
+
+    return builder()
+        .status(status)
+        .validationReport(new ValidationReport(errors, warnings))
+        .stats(stats)
+        .persistenceReport(new PersistenceReport(typeReportMap))
+        .message(message)
+        .build();
+  }
+
   /**
    * Calculates the 'ignored' value for each type of entity in the {@link PersistenceReport}.
    *
@@ -48,6 +48,6 @@ public class NotificationSideEffectHandlerService implements SideEffectHandlerSe
 
   @Override
   public void handleSideEffects(List<TrackerSideEffectDataBundle> sideEffectDataBundles) {
-    sideEffectDataBundles.forEach(this::handleSideEffect);
+    trackerNotificationMessageManager.sendNotifications(sideEffectDataBundles);
   }
 }
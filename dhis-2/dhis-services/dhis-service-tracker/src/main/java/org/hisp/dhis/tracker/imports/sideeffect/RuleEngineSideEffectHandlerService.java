@@ -48,6 +48,6 @@ public class RuleEngineSideEffectHandlerService implements SideEffectHandlerServ
 
   @Override
   public void handleSideEffects(List<TrackerSideEffectDataBundle> sideEffectDataBundles) {
-    sideEffectDataBundles.forEach(this::handleSideEffect);
+    trackerRuleEngineMessageManager.sendRuleEngineNotifications(sideEffectDataBundles);
   }
 }
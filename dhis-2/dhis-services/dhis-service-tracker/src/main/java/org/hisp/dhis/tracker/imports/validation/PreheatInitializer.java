@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.tracker.imports.preheat.TrackerPreheat;
+import org.springframework.stereotype.Component;
+
+/**
+ * Initializes the lazy associations of the objects of a {@link TrackerPreheat}, so that the preheat
+ * can be read by threads which do not own its Hibernate session. Associations are followed up to
+ * {@link #MAX_DEPTH} associations away from a pre-heated object.
+ *
+ * <p>The collections of an {@link OrganisationUnit} are not initialized, as the hierarchy is
+ * validated through the path of the organisation unit.
+ */
+@Slf4j
+@Component
+class PreheatInitializer {
+  static final int MAX_DEPTH = 2;
+
+  private final MetamodelImplementor metamodel;
+
+  PreheatInitializer(EntityManagerFactory entityManagerFactory) {
+    this.metamodel = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMetamodel();
+  }
+
+  /**
+   * Initializes the lazy associations of the objects of the given preheat. Must be called by the
+   * thread owning the Hibernate session the preheat was loaded in.
+   *
+   * @param preheat the {@link TrackerPreheat}.
+   */
+  void initialize(TrackerPreheat preheat) {
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Node> queue = new ArrayDeque<>();
+
+    for (Object object : preheat.getAllObjects()) {
+      if (visited.add(object)) {
+        queue.add(new Node(object, 0));
+      }
+    }
+
+    // breadth first, so that an object is walked from its shortest distance to the preheat
+    while (!queue.isEmpty()) {
+      Node node = queue.poll();
+
+      for (Object association : initialize(node.object(), node.depth() < MAX_DEPTH)) {
+        if (association != null && visited.add(association)) {
+          queue.add(new Node(association, node.depth() + 1));
+        }
+      }
+    }
+  }
+
+  /**
+   * Initializes the given object and, if the object is walked, its associations.
+   *
+   * @return the associated objects, empty if the object is not walked.
+   */
+  private List<Object> initialize(Object object, boolean walk) {
+    try {
+      Hibernate.initialize(object);
+    } catch (HibernateException ex) {
+      log.debug("Pre-heated object could not be initialized: {}", ex.getMessage());
+      return List.of();
+    }
+
+    EntityPersister persister =
+        metamodel.entityPersisters().get(Hibernate.getClass(object).getName());
+
+    if (!walk || persister == null) {
+      return List.of();
+    }
+
+    Object entity = Hibernate.unproxy(object);
+    boolean walkCollections = !(entity instanceof OrganisationUnit);
+    Object[] values = persister.getPropertyValues(entity);
+    Type[] types = persister.getPropertyTypes();
+    List<Object> associations = new ArrayList<>();
+
+    for (int i = 0; i < types.length; i++) {
+      if (values[i] == null) {
+        continue;
+      }
+
+      if (types[i].isEntityType()) {
+        associations.add(values[i]);
+      } else if (types[i].isCollectionType() && walkCollections) {
+        try {
+          Hibernate.initialize(values[i]);
+        } catch (HibernateException ex) {
+          log.debug("Pre-heated collection could not be initialized: {}", ex.getMessage());
+          continue;
+        }
+
+        if (values[i] instanceof Collection<?> collection) {
+          associations.addAll(collection);
+        } else if (values[i] instanceof Map<?, ?> map) {
+          associations.addAll(map.values());
+        }
+      }
+    }
+
+    return associations;
+  }
+
+  private record Node(Object object, int depth) {}
+}
@@ -184,6 +184,18 @@ public class Reporter {
     return true;
   }
 
+  /**
+   * Add the warnings and errors of given {@link Reporter} in the order they were reported. Warnings
+   * are added first, so that a {@link FailFastException} thrown on the first error leaves this
+   * {@link Reporter} in the same state as if the errors had been reported to it directly.
+   *
+   * @param other reporter to add warnings and errors from
+   */
+  public void addAll(Reporter other) {
+    other.getWarnings().forEach(this::addWarning);
+    other.getErrors().forEach(this::addError);
+  }
+
   public boolean hasWarnings() {
     return !this.warnings.isEmpty();
   }
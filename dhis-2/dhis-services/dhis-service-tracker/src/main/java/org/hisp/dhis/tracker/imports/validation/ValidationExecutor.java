@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.validation;
+
+import static org.hisp.dhis.external.conf.ConfigurationKey.TRACKER_IMPORT_VALIDATION_CONCURRENCY;
+import static org.hisp.dhis.external.conf.ConfigurationKey.TRACKER_IMPORT_VALIDATION_PARTITION_SIZE;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.tracker.imports.ValidationMode;
+import org.hisp.dhis.tracker.imports.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.imports.preheat.TrackerPreheat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Executor validating the tracker objects of a type in parallel. The objects are split into
+ * contiguous partitions which are validated on a fixed pool of threads shared across imports, each
+ * partition reporting to its own {@link Reporter}. The partition reporters are then added to the
+ * {@link Reporter} of the import in partition order, so errors and warnings are reported in the
+ * same order as if the objects were validated sequentially.
+ *
+ * <p>In {@link ValidationMode#FAIL_FAST} mode a partition only stops early once a partition before
+ * it has failed. The first error reported is therefore the same as in sequential validation.
+ *
+ * <p>The lazy associations of the preheat are initialized by the calling thread before fanning out,
+ * as the pre-heated objects belong to the Hibernate session of the calling thread. The calling
+ * thread then validates the first partition itself. The other partitions are validated on the pool,
+ * each in a read-only transaction of its own with the security context of the caller. As the pool
+ * is shared across imports, parallel validation holds at most as many extra database connections as
+ * the pool has threads. Validators run this way must only read from the {@link TrackerBundle}.
+ */
+@Slf4j
+@Component
+public class ValidationExecutor {
+  private static final ThreadLocal<Boolean> IN_PARTITION = ThreadLocal.withInitial(() -> false);
+
+  private final int concurrency;
+
+  private final int partitionSize;
+
+  private final TransactionOperations transactionOperations;
+
+  private final Consumer<TrackerPreheat> preheatInitializer;
+
+  private final ExecutorService executor;
+
+  @Autowired
+  public ValidationExecutor(
+      DhisConfigurationProvider config,
+      TransactionTemplate transactionTemplate,
+      PreheatInitializer preheatInitializer) {
+    this(
+        NumberUtils.toInt(config.getProperty(TRACKER_IMPORT_VALIDATION_CONCURRENCY), 1),
+        NumberUtils.toInt(config.getProperty(TRACKER_IMPORT_VALIDATION_PARTITION_SIZE), 500),
+        readOnly(transactionTemplate),
+        preheatInitializer::initialize);
+  }
+
+  /**
+   * @param concurrency the max number of partitions validated concurrently, where 1 or less
+   *     disables parallel validation.
+   * @param partitionSize the min number of objects in a partition.
+   * @param transactionOperations the {@link TransactionOperations} wrapping the validation of a
+   *     partition.
+   * @param preheatInitializer the initializer of the lazy associations of the {@link
+   *     TrackerPreheat}, called before fanning out.
+   */
+  ValidationExecutor(
+      int concurrency,
+      int partitionSize,
+      TransactionOperations transactionOperations,
+      Consumer<TrackerPreheat> preheatInitializer) {
+    this.concurrency = Math.max(1, concurrency);
+    this.partitionSize = Math.max(1, partitionSize);
+    this.transactionOperations = transactionOperations;
+    this.preheatInitializer = preheatInitializer;
+    this.executor =
+        this.concurrency > 1
+            ? Executors.newFixedThreadPool(
+                this.concurrency,
+                new ThreadFactoryBuilder()
+                    .setNameFormat("tracker-validation-%d")
+                    .setDaemon(true)
+                    .build())
+            : null;
+
+    if (this.executor != null) {
+      log.info("Tracker objects are validated in parallel: {}", this.concurrency);
+    }
+  }
+
+  /**
+   * Indicates whether tracker objects are validated in parallel.
+   *
+   * @return true if tracker objects are validated in parallel.
+   */
+  public boolean isEnabled() {
+    return executor != null;
+  }
+
+  /**
+   * Validates the given inputs with the given {@link Validator}. The inputs are validated by the
+   * calling thread if parallel validation is not enabled, if there are less than two partitions
+   * worth of inputs, or if called while validating a partition.
+   *
+   * @param <T> the type of input.
+   * @param reporter the {@link Reporter}.
+   * @param bundle the {@link TrackerBundle}.
+   * @param inputs the list of inputs, which must be independent of each other.
+   * @param validator the {@link Validator} validating a single input.
+   */
+  public <T> void validate(
+      Reporter reporter, TrackerBundle bundle, List<T> inputs, Validator<T> validator) {
+    if (!isEnabled() || IN_PARTITION.get() || inputs.size() < 2 * partitionSize) {
+      for (T input : inputs) {
+        validator.validate(reporter, bundle, input);
+      }
+
+      return;
+    }
+
+    if (bundle.getPreheat() != null) {
+      preheatInitializer.accept(bundle.getPreheat());
+    }
+
+    int size = Math.max(partitionSize, (inputs.size() + concurrency - 1) / concurrency);
+    List<List<T>> partitions = Lists.partition(inputs, size);
+    SecurityContext securityContext = SecurityContextHolder.getContext();
+    AtomicInteger firstFailedPartition = new AtomicInteger(Integer.MAX_VALUE);
+    List<Future<Reporter>> futures = new ArrayList<>(partitions.size() - 1);
+
+    try {
+      for (int i = 1; i < partitions.size(); i++) {
+        int index = i;
+        List<T> partition = partitions.get(i);
+
+        futures.add(
+            executor.submit(
+                () ->
+                    validatePartitionInTransaction(
+                        reporter,
+                        bundle,
+                        partition,
+                        validator,
+                        index,
+                        firstFailedPartition,
+                        securityContext)));
+      }
+
+      reporter.addAll(
+          validatePartition(
+              reporter, bundle, partitions.get(0), validator, 0, firstFailedPartition));
+
+      for (Future<Reporter> future : futures) {
+        reporter.addAll(future.get());
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Tracker validation was interrupted", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException runtimeEx) {
+        throw runtimeEx;
+      }
+
+      throw new IllegalStateException("Error during tracker validation", ex.getCause());
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Validates the inputs of a partition on a thread of the pool, in a read-only transaction and
+   * with the given security context.
+   *
+   * @return the {@link Reporter} of the partition.
+   */
+  private <T> Reporter validatePartitionInTransaction(
+      Reporter reporter,
+      TrackerBundle bundle,
+      List<T> partition,
+      Validator<T> validator,
+      int index,
+      AtomicInteger firstFailedPartition,
+      SecurityContext securityContext) {
+    try {
+      SecurityContextHolder.setContext(securityContext);
+
+      return transactionOperations.execute(
+          status ->
+              validatePartition(
+                  reporter, bundle, partition, validator, index, firstFailedPartition));
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+
+  /**
+   * Validates the inputs of a partition, stopping early if a partition before it failed fast.
+   *
+   * @return the {@link Reporter} of the partition.
+   */
+  private <T> Reporter validatePartition(
+      Reporter reporter,
+      TrackerBundle bundle,
+      List<T> partition,
+      Validator<T> validator,
+      int index,
+      AtomicInteger firstFailedPartition) {
+    Reporter partitionReporter = new Reporter(reporter.getIdSchemes(), reporter.isFailFast());
+
+    try {
+      IN_PARTITION.set(true);
+
+      for (T input : partition) {
+        if (firstFailedPartition.get() < index) {
+          break;
+        }
+
+        try {
+          validator.validate(partitionReporter, bundle, input);
+        } catch (FailFastException ex) {
+          firstFailedPartition.accumulateAndGet(index, Math::min);
+          break;
+        }
+      }
+    } finally {
+      IN_PARTITION.remove();
+    }
+
+    return partitionReporter;
+  }
+
+  private static TransactionOperations readOnly(TransactionTemplate transactionTemplate) {
+    TransactionTemplate readOnly =
+        new TransactionTemplate(transactionTemplate.getTransactionManager());
+    readOnly.setReadOnly(true);
+    return readOnly;
+  }
+}
@@ -27,7 +27,9 @@
  */
 package org.hisp.dhis.tracker.imports.validation.validator;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.Function;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -35,6 +37,7 @@ import org.hisp.dhis.tracker.imports.TrackerImportStrategy;
 import org.hisp.dhis.tracker.imports.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.imports.domain.TrackerDto;
 import org.hisp.dhis.tracker.imports.validation.Reporter;
+import org.hisp.dhis.tracker.imports.validation.ValidationExecutor;
 import org.hisp.dhis.tracker.imports.validation.Validator;
 
 /**
@@ -50,6 +53,8 @@ public class Each<T, R> implements Validator<T> {
 
   private final Validator<R> validator;
 
+  private final ValidationExecutor executor;
+
   /**
    * Create an {@link Each} that will apply given {@link Validator} of type R to each element in the
    * {@code Collection<R>}. The input to the returned {@code Validator} is of type T which is mapped
@@ -70,14 +75,46 @@ public class Each<T, R> implements Validator<T> {
    */
   public static <T, R> Each<T, R> each(
       Function<T, ? extends Collection<R>> map, Validator<R> validator) {
-    return new Each<>(map, validator);
+    return new Each<>(map, validator, null);
+  }
+
+  /**
+   * Create an {@link Each} like {@link #each(Function, Validator)}, which validates the elements in
+   * parallel using given {@link ValidationExecutor} if enabled. The elements must be independent of
+   * each other, meaning that the {@link Validator} must not depend on errors reported for other
+   * elements.
+   *
+   * @param map function taking type T to Collection of R
+   * @param validator validator validating a single element of type R
+   * @param executor executor validating the elements in parallel
+   * @return validator of type T
+   * @param <T> type of input to be mapped to a Collection of R
+   * @param <R> type of input to be validated by given validator
+   */
+  public static <T, R> Each<T, R> each(
+      Function<T, ? extends Collection<R>> map,
+      Validator<R> validator,
+      ValidationExecutor executor) {
+    return new Each<>(map, validator, executor);
   }
 
   @Override
   public void validate(Reporter reporter, TrackerBundle bundle, T input) {
+    if (executor != null && executor.isEnabled()) {
+      List<R> inputs = new ArrayList<>();
+
+      for (R in : map.apply(input)) {
+        if (needsToRun(bundle, in)) {
+          inputs.add(in);
+        }
+      }
+
+      executor.validate(reporter, bundle, inputs, validator);
+      return;
+    }
+
     for (R in : map.apply(input)) {
-      if ((in instanceof TrackerDto && !validator.needsToRun(bundle.getStrategy((TrackerDto) in)))
-          || (!(in instanceof TrackerDto) && !validator.needsToRun(bundle.getImportStrategy()))) {
+      if (!needsToRun(bundle, in)) {
         continue;
       }
 
@@ -85,6 +122,11 @@ public class Each<T, R> implements Validator<T> {
     }
   }
 
+  private boolean needsToRun(TrackerBundle bundle, R in) {
+    return (in instanceof TrackerDto && validator.needsToRun(bundle.getStrategy((TrackerDto) in)))
+        || (!(in instanceof TrackerDto) && validator.needsToRun(bundle.getImportStrategy()));
+  }
+
   @Override
   public boolean needsToRun(TrackerImportStrategy strategy) {
     return true; // Each is used to compose other Validators, so it should always run
@@ -35,6 +35,7 @@ import org.hisp.dhis.tracker.imports.TrackerImportStrategy;
 import org.hisp.dhis.tracker.imports.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.imports.domain.Enrollment;
 import org.hisp.dhis.tracker.imports.validation.Reporter;
+import org.hisp.dhis.tracker.imports.validation.ValidationExecutor;
 import org.hisp.dhis.tracker.imports.validation.Validator;
 import org.springframework.stereotype.Component;
 
@@ -45,7 +46,8 @@ public class EnrollmentValidator implements Validator<TrackerBundle> {
 
   public EnrollmentValidator(
       SecurityOwnershipValidator securityOwnershipValidator,
-      AttributeValidator attributeValidator) {
+      AttributeValidator attributeValidator,
+      ValidationExecutor validationExecutor) {
     validator =
         each(
             TrackerBundle::getEnrollments,
@@ -62,7 +64,8 @@ public class EnrollmentValidator implements Validator<TrackerBundle> {
                     new ExistingEnrollmentValidator(),
                     new GeoValidator(),
                     new DateValidator(),
-                    attributeValidator)));
+                    attributeValidator)),
+            validationExecutor);
   }
 
   @Override
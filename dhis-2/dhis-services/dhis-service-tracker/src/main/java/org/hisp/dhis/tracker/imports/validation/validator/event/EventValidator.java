@@ -37,6 +37,7 @@ import org.hisp.dhis.tracker.imports.TrackerImportStrategy;
 import org.hisp.dhis.tracker.imports.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.imports.domain.Event;
 import org.hisp.dhis.tracker.imports.validation.Reporter;
+import org.hisp.dhis.tracker.imports.validation.ValidationExecutor;
 import org.hisp.dhis.tracker.imports.validation.Validator;
 import org.springframework.stereotype.Component;
 
@@ -48,7 +49,8 @@ public class EventValidator implements Validator<TrackerBundle> {
   public EventValidator(
       SecurityOwnershipValidator securityOwnershipValidator,
       CategoryOptValidator categoryOptValidator,
-      OptionService optionService) {
+      OptionService optionService,
+      ValidationExecutor validationExecutor) {
     validator =
         all(
             each(
@@ -68,7 +70,8 @@ public class EventValidator implements Validator<TrackerBundle> {
                         new NoteValidator(),
                         new DataValuesValidator(optionService),
                         new StatusUpdateValidator(),
-                        new AssignedUserValidator()))),
+                        new AssignedUserValidator())),
+                validationExecutor),
             field(TrackerBundle::getEvents, new RepeatedEventsValidator()));
   }
 
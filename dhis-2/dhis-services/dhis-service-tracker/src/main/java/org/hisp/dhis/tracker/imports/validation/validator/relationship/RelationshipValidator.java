@@ -34,6 +34,7 @@ import org.hisp.dhis.tracker.imports.TrackerImportStrategy;
 import org.hisp.dhis.tracker.imports.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.imports.domain.Relationship;
 import org.hisp.dhis.tracker.imports.validation.Reporter;
+import org.hisp.dhis.tracker.imports.validation.ValidationExecutor;
 import org.hisp.dhis.tracker.imports.validation.Validator;
 import org.springframework.stereotype.Component;
 
@@ -42,7 +43,9 @@ import org.springframework.stereotype.Component;
 public class RelationshipValidator implements Validator<TrackerBundle> {
   private final Validator<TrackerBundle> validator;
 
-  public RelationshipValidator(SecurityOwnershipValidator securityOwnershipValidator) {
+  public RelationshipValidator(
+      SecurityOwnershipValidator securityOwnershipValidator,
+      ValidationExecutor validationExecutor) {
     validator =
         each(
             TrackerBundle::getRelationships,
@@ -54,7 +57,8 @@ public class RelationshipValidator implements Validator<TrackerBundle> {
                 new LinkValidator(),
                 new ConstraintValidator(),
                 securityOwnershipValidator,
-                new DuplicationValidator()));
+                new DuplicationValidator()),
+            validationExecutor);
   }
 
   @Override
@@ -35,6 +35,7 @@ import org.hisp.dhis.tracker.imports.TrackerImportStrategy;
 import org.hisp.dhis.tracker.imports.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.imports.domain.TrackedEntity;
 import org.hisp.dhis.tracker.imports.validation.Reporter;
+import org.hisp.dhis.tracker.imports.validation.ValidationExecutor;
 import org.hisp.dhis.tracker.imports.validation.Validator;
 import org.springframework.stereotype.Component;
 
@@ -46,7 +47,8 @@ public class TrackedEntityValidator implements Validator<TrackerBundle> {
 
   public TrackedEntityValidator(
       SecurityOwnershipValidator securityOwnershipValidator,
-      AttributeValidator attributeValidator) {
+      AttributeValidator attributeValidator,
+      ValidationExecutor validationExecutor) {
     validator =
         each(
             TrackerBundle::getTrackedEntities,
@@ -57,7 +59,8 @@ public class TrackedEntityValidator implements Validator<TrackerBundle> {
                 new MetaValidator(),
                 new UpdatableFieldsValidator(),
                 securityOwnershipValidator,
-                all(attributeValidator)));
+                all(attributeValidator)),
+            validationExecutor);
   }
 
   @Override
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.program.Enrollment;
+import org.hisp.dhis.program.notification.ProgramNotificationService;
+import org.hisp.dhis.user.AuthenticationService;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class TrackerNotificationOutboxTest {
+  private static final int BATCH_SIZE = 10;
+
+  @Mock private JdbcTrackerNotificationOutboxStore store;
+
+  @Mock private ProgramNotificationService programNotificationService;
+
+  @Mock private IdentifiableObjectManager manager;
+
+  @Mock private UserService userService;
+
+  @Mock private AuthenticationService authenticationService;
+
+  private TrackerNotificationOutbox outbox;
+
+  @BeforeEach
+  void setUp() {
+    outbox = outbox(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    outbox.shutdown();
+  }
+
+  @Test
+  void shouldSendNotificationsInOrderAndDeleteThem() {
+    Enrollment enrollment = enrollment();
+    User user = new User();
+    user.setUid("userUid0001");
+    when(store.take(BATCH_SIZE, TrackerNotificationOutbox.LEASE_SECONDS))
+        .thenReturn(
+            List.of(
+                entry(1, SideEffectTrigger.ENROLLMENT, 1),
+                entry(2, SideEffectTrigger.ENROLLMENT_COMPLETION, 1)));
+    when(manager.get(Enrollment.class, enrollment.getUid())).thenReturn(enrollment);
+    when(userService.getUserByUsername("admin")).thenReturn(user);
+
+    outbox.drain();
+
+    verify(programNotificationService).sendEnrollmentNotifications(enrollment.getId());
+    verify(programNotificationService).sendEnrollmentCompletionNotifications(enrollment.getId());
+    verify(store).delete(Set.of(1L, 2L));
+    assertEquals(2, outbox.getSentCount());
+    assertEquals(0, outbox.getFailedCount());
+  }
+
+  @Test
+  void shouldKeepFailedNotificationForRetry() {
+    Enrollment enrollment = enrollment();
+    when(store.take(BATCH_SIZE, TrackerNotificationOutbox.LEASE_SECONDS))
+        .thenReturn(List.of(entry(1, SideEffectTrigger.ENROLLMENT, 1)));
+    when(manager.get(Enrollment.class, enrollment.getUid())).thenReturn(enrollment);
+    doThrow(new IllegalStateException("smtp down"))
+        .when(programNotificationService)
+        .sendEnrollmentNotifications(enrollment.getId());
+
+    outbox.drain();
+
+    verify(store).delete(Set.of());
+    assertEquals(1, outbox.getFailedCount());
+    assertEquals(0, outbox.getDroppedCount());
+  }
+
+  @Test
+  void shouldDropNotificationAfterMaxAttempts() {
+    Enrollment enrollment = enrollment();
+    when(store.take(BATCH_SIZE, TrackerNotificationOutbox.LEASE_SECONDS))
+        .thenReturn(
+            List.of(
+                entry(1, SideEffectTrigger.ENROLLMENT, TrackerNotificationOutbox.MAX_ATTEMPTS)));
+    when(manager.get(Enrollment.class, enrollment.getUid())).thenReturn(enrollment);
+    doThrow(new IllegalStateException("smtp down"))
+        .when(programNotificationService)
+        .sendEnrollmentNotifications(enrollment.getId());
+
+    outbox.drain();
+
+    verify(store).delete(Set.of(1L));
+    assertEquals(1, outbox.getDroppedCount());
+  }
+
+  @Test
+  void shouldStopSendingNotificationsOfObjectAtFirstFailure() {
+    Enrollment enrollment = enrollment();
+    when(store.take(BATCH_SIZE, TrackerNotificationOutbox.LEASE_SECONDS))
+        .thenReturn(
+            List.of(
+                entry(1, SideEffectTrigger.ENROLLMENT, 1),
+                entry(
+                    2,
+                    SideEffectTrigger.ENROLLMENT_COMPLETION,
+                    TrackerNotificationOutbox.MAX_ATTEMPTS)));
+    when(manager.get(Enrollment.class, enrollment.getUid())).thenReturn(enrollment);
+    doThrow(new IllegalStateException("smtp down"))
+        .when(programNotificationService)
+        .sendEnrollmentNotifications(enrollment.getId());
+
+    outbox.drain();
+
+    verify(programNotificationService, never()).sendEnrollmentCompletionNotifications(anyLong());
+    verify(store).delete(Set.of());
+    verify(store).release(Set.of(2L));
+    assertEquals(1, outbox.getFailedCount());
+    assertEquals(0, outbox.getDroppedCount());
+  }
+
+  @Test
+  void shouldNotEnqueueWhenDisabled() {
+    outbox.shutdown();
+    outbox = outbox(false);
+
+    assertFalse(outbox.isEnabled());
+    assertFalse(outbox.enqueue(List.of(TrackerSideEffectDataBundle.builder().build())));
+    verifyNoInteractions(store);
+  }
+
+  @Test
+  void shouldNotEnqueueWhenOutboxCannotBeWritten() {
+    when(store.add(anyList())).thenThrow(new DataAccessResourceFailureException("db down"));
+
+    assertTrue(outbox.isEnabled());
+    assertFalse(outbox.enqueue(List.of(TrackerSideEffectDataBundle.builder().build())));
+    assertEquals(0, outbox.getEnqueuedCount());
+  }
+
+  private TrackerNotificationOutbox outbox(boolean enabled) {
+    return new TrackerNotificationOutbox(
+        enabled,
+        2,
+        BATCH_SIZE,
+        store,
+        programNotificationService,
+        manager,
+        userService,
+        authenticationService);
+  }
+
+  private static Enrollment enrollment() {
+    Enrollment enrollment = new Enrollment();
+    enrollment.setId(42);
+    enrollment.setUid("enrollment1");
+    return enrollment;
+  }
+
+  private static TrackerNotificationOutboxEntry entry(
+      long id, SideEffectTrigger trigger, int attempts) {
+    return new TrackerNotificationOutboxEntry(
+        id, Enrollment.class, "enrollment1", trigger, "admin", new Date(), attempts);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.job;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import org.hisp.dhis.program.Enrollment;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.programrule.ProgramRuleActionType;
+import org.hisp.dhis.programrule.engine.RuleActionImplementer;
+import org.hisp.dhis.rules.models.RuleAction;
+import org.hisp.dhis.rules.models.RuleEffect;
+import org.hisp.dhis.system.notification.NotificationLevel;
+import org.hisp.dhis.system.notification.Notifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TrackerRuleEngineThreadTest {
+  @Mock private RuleActionImplementer sendMessageImplementer;
+
+  @Mock private RuleActionImplementer scheduleMessageImplementer;
+
+  @Mock private Notifier notifier;
+
+  private TrackerRuleEngineThread thread;
+
+  @BeforeEach
+  void setUp() {
+    thread =
+        new TrackerRuleEngineThread(sendMessageImplementer, scheduleMessageImplementer, notifier);
+  }
+
+  @Test
+  void shouldImplementRemainingBundlesWhenBundleFails() {
+    RuleEffect effect =
+        new RuleEffect(
+            "ruleId",
+            new RuleAction(
+                "", ProgramRuleActionType.SENDMESSAGE.name(), Map.of("notification", "uid")),
+            "");
+    Enrollment failing = enrollment("enrollment1");
+    Enrollment succeeding = enrollment("enrollment2");
+    when(sendMessageImplementer.accept(any())).thenReturn(true);
+    doThrow(new IllegalStateException("template not found"))
+        .when(sendMessageImplementer)
+        .implement(effect, failing);
+
+    thread.setSideEffectDataBundles(List.of(bundle(failing, effect), bundle(succeeding, effect)));
+    thread.call();
+
+    verify(sendMessageImplementer).implement(effect, succeeding);
+    verify(notifier).notify(any(), eq(NotificationLevel.ERROR), any(String.class));
+  }
+
+  private static Enrollment enrollment(String uid) {
+    Enrollment enrollment = new Enrollment();
+    enrollment.setUid(uid);
+    return enrollment;
+  }
+
+  private static TrackerSideEffectDataBundle bundle(Enrollment enrollment, RuleEffect effect) {
+    return TrackerSideEffectDataBundle.builder()
+        .klass(Enrollment.class)
+        .object(enrollment.getUid())
+        .enrollment(enrollment)
+        .program(new Program())
+        .enrollmentRuleEffects(Map.of(enrollment.getUid(), List.of(effect)))
+        .build();
+  }
+}
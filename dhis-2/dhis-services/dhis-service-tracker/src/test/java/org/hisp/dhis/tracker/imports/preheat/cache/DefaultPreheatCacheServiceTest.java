@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.preheat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.category.CategoryOption;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.program.Event;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramStage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultPreheatCacheServiceTest {
+  @Mock private DhisConfigurationProvider config;
+
+  private PreheatCacheService cache;
+
+  @BeforeEach
+  void setUp() {
+    when(config.isEnabled(ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED)).thenReturn(true);
+    cache = new DefaultPreheatCacheService(config);
+  }
+
+  @Test
+  void shouldNotCacheObjectsWhenDisabled() {
+    when(config.isEnabled(ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED)).thenReturn(false);
+    cache = new DefaultPreheatCacheService(config);
+
+    cache.put(Program.class, "UID:p1", program(1, "p1"), 10, cache.getGeneration());
+
+    assertFalse(cache.get(Program.class, "UID:p1").isPresent());
+    assertEquals(0, cache.getMissCount());
+  }
+
+  @Test
+  void shouldCountHitsAndMisses() {
+    cache.put(Program.class, "UID:p1", program(1, "p1"), 10, cache.getGeneration());
+
+    assertTrue(cache.get(Program.class, "UID:p1").isPresent());
+    assertFalse(cache.get(Program.class, "UID:p2").isPresent());
+    assertFalse(cache.get(ProgramStage.class, "UID:ps1").isPresent());
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  void shouldLoadMissingObjectOnlyOnce() {
+    Program program = program(1, "p1");
+
+    cache.get(Program.class, "default", (k, id) -> Optional.of(program), 10);
+    Optional<IdentifiableObject> cached =
+        cache.get(
+            Program.class,
+            "default",
+            (k, id) -> {
+              throw new IllegalStateException("object must be cached");
+            },
+            10);
+
+    assertEquals(Optional.of(program), cached);
+  }
+
+  @Test
+  void shouldEvictAllEntriesOfChangedObject() {
+    cache.put(Program.class, "UID:p1", program(1, "p1"), 10, cache.getGeneration());
+    cache.put(Program.class, "CODE:c1", program(1, "p1"), 10, cache.getGeneration());
+    cache.put(Program.class, "UID:p2", program(2, "p2"), 10, cache.getGeneration());
+
+    cache.invalidate(Program.class, 1L);
+
+    assertFalse(cache.get(Program.class, "UID:p1").isPresent());
+    assertFalse(cache.get(Program.class, "CODE:c1").isPresent());
+    assertTrue(cache.get(Program.class, "UID:p2").isPresent());
+    assertEquals(2, cache.getInvalidationCount());
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldEvictObjectsEmbeddingChangedType() {
+    cache.put(Program.class, "UID:p1", program(1, "p1"), 10, cache.getGeneration());
+    cache.put(Program.class, "UID:p2", program(2, "p2"), 10, cache.getGeneration());
+
+    cache.invalidate(ProgramStage.class, 1L);
+
+    assertEquals(0, cache.getSize());
+    assertEquals(2, cache.getInvalidationCount());
+  }
+
+  @Test
+  void shouldIgnoreChangesToTypesUnrelatedToCachedMetadata() {
+    cache.put(Program.class, "UID:p1", program(1, "p1"), 10, cache.getGeneration());
+    long generation = cache.getGeneration();
+
+    cache.invalidate(Event.class, 1L);
+
+    assertEquals(generation, cache.getGeneration());
+    assertTrue(cache.get(Program.class, "UID:p1").isPresent());
+  }
+
+  @Test
+  void shouldNotCacheObjectLoadedBeforeMetadataChanged() {
+    long loadedAt = cache.getGeneration();
+
+    cache.invalidate(Program.class, 1L);
+    cache.put(Program.class, "UID:p1", program(1, "p1"), 10, loadedAt);
+
+    assertFalse(cache.get(Program.class, "UID:p1").isPresent());
+  }
+
+  @Test
+  void shouldEvictObjectChangedOnAnotherServer() {
+    cache.put(Program.class, "UID:p1", program(1, "p1"), 10, cache.getGeneration());
+
+    cache.handleCacheInvalidation(new CacheInvalidationEvent(this, Program.class, 1L));
+
+    assertFalse(cache.get(Program.class, "UID:p1").isPresent());
+  }
+
+  @Test
+  void shouldNotHoldMoreEntriesThanCapacity() {
+    for (int i = 0; i < 10; i++) {
+      cache.put(Program.class, "UID:p" + i, program(i, "p" + i), 5, cache.getGeneration());
+    }
+
+    assertTrue(cache.getSize() <= 5);
+  }
+
+  @Test
+  void shouldKeepDefaultsApartFromCapacityOfType() {
+    CategoryOption defaultOption = categoryOption(1, "default");
+    cache.getDefault(CategoryOption.class, k -> Optional.of(defaultOption));
+
+    for (int i = 2; i < 7; i++) {
+      cache.put(
+          CategoryOption.class,
+          "UID:co" + i,
+          categoryOption(i, "co" + i),
+          5,
+          cache.getGeneration());
+    }
+
+    for (int i = 2; i < 7; i++) {
+      assertTrue(cache.get(CategoryOption.class, "UID:co" + i).isPresent());
+    }
+    assertEquals(
+        Optional.of(defaultOption),
+        cache.getDefault(
+            CategoryOption.class,
+            k -> {
+              throw new IllegalStateException("default must be cached");
+            }));
+    assertEquals(6, cache.getSize());
+  }
+
+  @Test
+  void shouldEvictChangedDefault() {
+    cache.getDefault(CategoryOption.class, k -> Optional.of(categoryOption(1, "default")));
+    cache.getDefault(CategoryCombo.class, k -> Optional.of(new CategoryCombo()));
+
+    cache.invalidate(CategoryOption.class, 1L);
+
+    assertEquals(1, cache.getSize());
+    assertEquals(1, cache.getInvalidationCount());
+  }
+
+  @Test
+  void shouldNotCacheDefaultLoadedBeforeMetadataChanged() {
+    cache.getDefault(
+        CategoryOption.class,
+        k -> {
+          cache.invalidate(OrganisationUnit.class, 1L);
+          return Optional.of(categoryOption(1, "default"));
+        });
+
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldDropSnapshotWhenAnyOfItsObjectsChanges() {
+    Period period = new Period();
+    period.setId(1);
+    period.setUid("pe1");
+    cache.putAll(Period.class, Map.of("pe1", period), -1, cache.getGeneration());
+
+    assertTrue(cache.hasKey(Period.class));
+
+    cache.invalidate(Period.class, 2L);
+
+    assertFalse(cache.hasKey(Period.class));
+  }
+
+  @Test
+  void shouldClearAllEntriesWhenApplicationCachesAreCleared() {
+    cache.put(Program.class, "UID:p1", program(1, "p1"), 10, cache.getGeneration());
+    cache.put(ProgramStage.class, "UID:ps1", new ProgramStage(), 10, cache.getGeneration());
+
+    cache.handleApplicationCachesCleared(new ApplicationCacheClearedEvent());
+
+    assertEquals(0, cache.getSize());
+  }
+
+  private static CategoryOption categoryOption(long id, String uid) {
+    CategoryOption option = new CategoryOption();
+    option.setId(id);
+    option.setUid(uid);
+    return option;
+  }
+
+  private static Program program(long id, String uid) {
+    Program program = new Program();
+    program.setId(id);
+    program.setUid(uid);
+    return program;
+  }
+}
@@ -33,6 +33,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodStore;
 import org.hisp.dhis.random.BeanRandomizer;
@@ -58,10 +59,11 @@ class PeriodTypeSupplierTest {
   private final BeanRandomizer rnd = BeanRandomizer.create();
   private PeriodTypeSupplier supplier;
   @Mock private PeriodStore periodStore;
+  @Mock private DhisConfigurationProvider config;
 
   @BeforeEach
   public void setUp() {
-    final PreheatCacheService cache = new DefaultPreheatCacheService();
+    final PreheatCacheService cache = new DefaultPreheatCacheService(config);
     supplier = new PeriodTypeSupplier(periodStore, cache);
   }
 
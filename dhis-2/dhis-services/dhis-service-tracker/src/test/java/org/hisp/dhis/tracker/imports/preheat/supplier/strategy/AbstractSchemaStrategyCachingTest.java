@@ -31,6 +31,7 @@ import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
@@ -90,7 +91,7 @@ class AbstractSchemaStrategyCachingTest {
     String UID = CodeGenerator.generateUid();
 
     Program program = rnd.nextObject(Program.class);
-    when(cache.get(Program.class.getSimpleName(), UID)).thenReturn(Optional.of(program));
+    when(cache.get(Program.class, "UID:" + UID)).thenReturn(Optional.of(program));
 
     ProgramStrategy strategy = new ProgramStrategy(schemaService, queryService, manager, cache);
 
@@ -115,7 +116,7 @@ class AbstractSchemaStrategyCachingTest {
 
     Program program = rnd.nextObject(Program.class);
 
-    when(cache.get(Program.class.getSimpleName(), UID)).thenReturn(Optional.empty());
+    when(cache.get(Program.class, "UID:" + UID)).thenReturn(Optional.empty());
 
     doReturn(singletonList(program)).when(queryService).query(any(Query.class));
     ProgramStrategy strategy = new ProgramStrategy(schemaService, queryService, manager, cache);
@@ -131,6 +132,6 @@ class AbstractSchemaStrategyCachingTest {
     // Then
     assertThat(preheat.getAll(Program.class), hasSize(1));
 
-    verify(cache, times(1)).put(eq("Program"), anyString(), any(), eq(20), eq(10L));
+    verify(cache, times(1)).put(eq(Program.class), anyString(), any(), eq(10L), anyLong());
   }
 }
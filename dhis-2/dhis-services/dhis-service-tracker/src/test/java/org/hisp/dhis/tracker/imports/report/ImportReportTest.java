@@ -32,6 +32,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.hisp.dhis.random.BeanRandomizer;
@@ -79,6 +80,32 @@ class ImportReportTest {
     assertThat(getBundleReportStats(rep, TrackerType.ENROLLMENT).getIgnored(), is(2));
   }
 
+  @Test
+  void testMergeCombinesReports() {
+    ImportReport first =
+        ImportReport.withImportCompleted(
+            Status.OK,
+            new PersistenceReport(
+                new HashMap<>(
+                    Map.of(
+                        TrackerType.TRACKED_ENTITY,
+                        createTypeReport(TrackerType.TRACKED_ENTITY, 4, 1, 0)))),
+            ValidationReport.emptyReport(),
+            Map.of(TrackerType.TRACKED_ENTITY, 5));
+    ValidationReport validationReport = ValidationReport.emptyReport();
+    validationReport.addErrors(rnd.objects(Error.class, 2).collect(Collectors.toList()));
+    ImportReport second = ImportReport.withValidationErrors(validationReport, 6);
+
+    ImportReport rep = ImportReport.merge(List.of(first, second));
+
+    assertThat(rep.getStatus(), is(Status.ERROR));
+    assertThat(rep.getStats().getCreated(), is(4));
+    assertThat(rep.getStats().getUpdated(), is(1));
+    assertThat(rep.getStats().getIgnored(), is(6));
+    assertThat(rep.getValidationReport().getErrors().size(), is(2));
+    assertThat(getBundleReportStats(rep, TrackerType.TRACKED_ENTITY).getCreated(), is(4));
+  }
+
   private Stats getBundleReportStats(ImportReport importReport, TrackerType type) {
     return importReport.getPersistenceReport().getTypeReportMap().get(type).getStats();
   }
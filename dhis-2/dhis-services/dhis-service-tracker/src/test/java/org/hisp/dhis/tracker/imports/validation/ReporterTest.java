@@ -27,7 +27,9 @@
  */
 package org.hisp.dhis.tracker.imports.validation;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -75,6 +77,36 @@ class ReporterTest {
         reporter.hasWarningReport(r -> TrackerType.TRACKED_ENTITY.equals(r.getTrackerType())));
   }
 
+  @Test
+  void addAllAddsWarningsAndErrorsInOrder() {
+    Reporter other = new Reporter(TrackerIdSchemeParams.builder().build());
+    other.addWarning(eventWarning());
+    other.addError(eventError());
+    other.addError(
+        new Error(
+            "other error", ValidationCode.E1000, TrackerType.EVENT, "Kj6vYde4LHh", List.of()));
+
+    Reporter reporter = new Reporter(TrackerIdSchemeParams.builder().build());
+    reporter.addAll(other);
+
+    assertEquals(other.getErrors(), reporter.getErrors());
+    assertEquals(other.getWarnings(), reporter.getWarnings());
+    assertTrue(reporter.isInvalid(TrackerType.EVENT, "Kj6vYde4LHh"));
+  }
+
+  @Test
+  void addAllThrowsOnFirstErrorIfFailFast() {
+    Reporter other = new Reporter(TrackerIdSchemeParams.builder().build());
+    other.addWarning(eventWarning());
+    other.addError(eventError());
+
+    Reporter reporter = new Reporter(TrackerIdSchemeParams.builder().build(), true);
+
+    assertThrows(FailFastException.class, () -> reporter.addAll(other));
+    assertEquals(other.getErrors(), reporter.getErrors());
+    assertEquals(other.getWarnings(), reporter.getWarnings());
+  }
+
   private Error eventError() {
     return new Error(
         "some error", ValidationCode.E1000, TrackerType.EVENT, "JgDfHAGzzfS", List.of());
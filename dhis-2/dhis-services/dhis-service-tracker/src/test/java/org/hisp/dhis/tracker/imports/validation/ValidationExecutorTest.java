@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.hisp.dhis.tracker.TrackerType;
+import org.hisp.dhis.tracker.imports.TrackerIdSchemeParams;
+import org.hisp.dhis.tracker.imports.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.imports.preheat.TrackerPreheat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+
+class ValidationExecutorTest {
+  private ValidationExecutor executor;
+
+  @AfterEach
+  void tearDown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testReportsErrorsInInputOrder() {
+    executor =
+        new ValidationExecutor(4, 10, TransactionOperations.withoutTransaction(), preheat -> {});
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    Reporter reporter = new Reporter(TrackerIdSchemeParams.builder().build());
+
+    executor.validate(
+        reporter,
+        TrackerBundle.builder().build(),
+        inputs(100),
+        (r, b, input) -> {
+          threads.add(Thread.currentThread().getName());
+          addError(r, input);
+        });
+
+    assertEquals(inputs(100), errorMessages(reporter));
+    assertTrue(threads.size() > 1);
+  }
+
+  @Test
+  void testInitializesPreheatOnCallingThreadBeforeFanningOut() {
+    List<String> initializingThreads = new ArrayList<>();
+    executor =
+        new ValidationExecutor(
+            4,
+            10,
+            TransactionOperations.withoutTransaction(),
+            preheat -> initializingThreads.add(Thread.currentThread().getName()));
+    TrackerBundle bundle = TrackerBundle.builder().preheat(new TrackerPreheat()).build();
+
+    executor.validate(
+        new Reporter(TrackerIdSchemeParams.builder().build()),
+        bundle,
+        inputs(19),
+        (r, b, input) -> {});
+
+    assertTrue(initializingThreads.isEmpty());
+
+    executor.validate(
+        new Reporter(TrackerIdSchemeParams.builder().build()),
+        bundle,
+        inputs(100),
+        (r, b, input) -> assertEquals(1, initializingThreads.size()));
+
+    assertEquals(List.of(Thread.currentThread().getName()), initializingThreads);
+  }
+
+  @Test
+  void testFailFastReportsFirstErrorOfSequentialValidation() {
+    executor =
+        new ValidationExecutor(4, 10, TransactionOperations.withoutTransaction(), preheat -> {});
+    Reporter reporter = new Reporter(TrackerIdSchemeParams.builder().build(), true);
+
+    assertThrows(
+        FailFastException.class,
+        () ->
+            executor.validate(
+                reporter,
+                TrackerBundle.builder().build(),
+                inputs(100),
+                (r, b, input) -> {
+                  if (input.equals("33") || input.equals("87")) {
+                    addError(r, input);
+                  }
+                }));
+
+    assertEquals(List.of("33"), errorMessages(reporter));
+  }
+
+  @Test
+  void testValidatesSmallInputOnCallingThread() {
+    executor =
+        new ValidationExecutor(4, 10, TransactionOperations.withoutTransaction(), preheat -> {});
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    Reporter reporter = new Reporter(TrackerIdSchemeParams.builder().build());
+
+    executor.validate(
+        reporter,
+        TrackerBundle.builder().build(),
+        inputs(19),
+        (r, b, input) -> threads.add(Thread.currentThread().getName()));
+
+    assertEquals(Set.of(Thread.currentThread().getName()), threads);
+  }
+
+  @Test
+  void testDisabledWithConcurrencyOfOne() {
+    assertFalse(
+        new ValidationExecutor(1, 10, TransactionOperations.withoutTransaction(), preheat -> {})
+            .isEnabled());
+
+    executor =
+        new ValidationExecutor(2, 10, TransactionOperations.withoutTransaction(), preheat -> {});
+
+    assertTrue(executor.isEnabled());
+  }
+
+  private static List<String> inputs(int count) {
+    return IntStream.range(0, count).mapToObj(String::valueOf).toList();
+  }
+
+  private static void addError(Reporter reporter, String message) {
+    reporter.addError(
+        new Error(message, ValidationCode.E9999, TrackerType.EVENT, message, List.of()));
+  }
+
+  private static List<String> errorMessages(Reporter reporter) {
+    return reporter.getErrors().stream().map(Error::getMessage).toList();
+  }
+}
@@ -38,6 +38,7 @@ import org.hisp.dhis.cache.QueryCacheManager;
 import org.hisp.dhis.cacheinvalidation.BaseCacheEvictionService;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataset.CompleteDataSetRegistration;
 import org.hisp.dhis.dataset.DataSet;
@@ -51,6 +52,7 @@ import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
 import org.hisp.dhis.trackedentity.TrackedEntityService;
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
@@ -69,6 +71,8 @@ public class CacheInvalidationListener extends BaseCacheEvictionService
     implements RedisPubSubListener<String, String> {
   protected String serverInstanceId;
 
+  private final ApplicationEventPublisher eventPublisher;
+
   public CacheInvalidationListener(
       SessionFactory sessionFactory,
       PaginationCacheManager paginationCacheManager,
@@ -77,6 +81,7 @@ public class CacheInvalidationListener extends BaseCacheEvictionService
       TrackedEntityAttributeService trackedEntityAttributeService,
       TrackedEntityService trackedEntityService,
       PeriodService periodService,
+      ApplicationEventPublisher eventPublisher,
       @Qualifier("cacheInvalidationServerId") String serverInstanceId) {
     super(
         sessionFactory,
@@ -87,6 +92,7 @@ public class CacheInvalidationListener extends BaseCacheEvictionService
         trackedEntityService,
         periodService);
 
+    this.eventPublisher = eventPublisher;
     this.serverInstanceId = serverInstanceId;
   }
 
@@ -143,6 +149,9 @@ public class CacheInvalidationListener extends BaseCacheEvictionService
       paginationCacheManager.evictCache(entityClass.getName());
       sessionFactory.getCache().evict(entityClass, entityId);
     }
+
+    // Let application level caches outside Hibernate evict their copies as well.
+    eventPublisher.publishEvent(new CacheInvalidationEvent(this, entityClass, entityId));
   }
 
   private Serializable getEntityId(String message) throws ClassNotFoundException {
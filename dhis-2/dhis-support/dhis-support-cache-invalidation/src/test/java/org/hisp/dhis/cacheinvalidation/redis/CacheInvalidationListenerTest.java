@@ -39,6 +39,7 @@ import org.hibernate.service.spi.ServiceRegistryImplementor;
 import org.hisp.dhis.cache.PaginationCacheManager;
 import org.hisp.dhis.cache.QueryCacheManager;
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
 import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
 import org.hisp.dhis.trackedentity.TrackedEntityService;
@@ -48,6 +49,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 /**
  * @author Morten Svanæs <msvanaes@dhis2.org>
@@ -70,6 +72,8 @@ class CacheInvalidationListenerTest {
 
   @Mock protected DisabledCaching disabledCaching;
 
+  @Mock protected ApplicationEventPublisher eventPublisher;
+
   private CacheInvalidationListener cacheInvalidationListener;
 
   private AutoCloseable closeable;
@@ -89,6 +93,7 @@ class CacheInvalidationListenerTest {
             trackedEntityAttributeService,
             trackedEntityService,
             periodService,
+            eventPublisher,
             "SERVER_A");
 
     lenient().when(sessionFactory.getCache()).thenReturn(disabledCaching);
@@ -117,6 +122,7 @@ class CacheInvalidationListenerTest {
     verify(queryCacheManager, times(0)).evictQueryCache(any(), any());
     verify(sessionFactory.getCache(), times(1)).evictCollectionData(any(), any());
     verify(paginationCacheManager, times(0)).evictCache(anyString());
+    verify(eventPublisher, times(0)).publishEvent(any(CacheInvalidationEvent.class));
   }
 
   @Test
@@ -137,6 +143,7 @@ class CacheInvalidationListenerTest {
     cacheInvalidationListener.message(CacheInvalidationConfiguration.CHANNEL_NAME, message);
 
     verify(sessionFactory.getCache(), times(1)).evict(any(), any());
+    verify(eventPublisher, times(1)).publishEvent(any(CacheInvalidationEvent.class));
   }
 
   @Test
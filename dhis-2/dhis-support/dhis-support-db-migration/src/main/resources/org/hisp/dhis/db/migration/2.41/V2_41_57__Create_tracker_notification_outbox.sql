@@ -0,0 +1,25 @@
+-- outbox of tracker notifications waiting to be sent, one row per enrollment or event and trigger
+
+CREATE TABLE IF NOT EXISTS trackernotificationoutbox
+(
+    trackernotificationoutboxid bigserial       NOT NULL,
+    objecttype                  varchar(50)     NOT NULL,
+    objectuid                   varchar(11)     NOT NULL,
+    sideeffecttrigger           varchar(50)     NOT NULL,
+    accessedby                  varchar(255)    NULL,
+    created                     TIMESTAMP       NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    attempts                    integer         NOT NULL DEFAULT 0,
+    nextattempt                 TIMESTAMP       NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT trackernotificationoutbox_pkey PRIMARY KEY (trackernotificationoutboxid)
+);
+
+CREATE INDEX IF NOT EXISTS in_trackernotificationoutbox_nextattempt ON trackernotificationoutbox (nextattempt);
+
+-- coalesce tracker notifications with the ones not taken from the outbox yet only, so a notification
+-- added while an earlier one of the same enrollment or event and trigger is being sent or retried
+-- is kept
+CREATE UNIQUE INDEX IF NOT EXISTS in_trackernotificationoutbox_pending
+    ON trackernotificationoutbox (objecttype, objectuid, sideeffecttrigger) WHERE attempts = 0;
+
+-- index to find earlier notifications of the same enrollment or event, which later ones wait for
+CREATE INDEX IF NOT EXISTS in_trackernotificationoutbox_object ON trackernotificationoutbox (objecttype, objectuid);
@@ -394,6 +394,44 @@ public enum ConfigurationKey {
 
   PROGRAM_TEMPORARY_OWNERSHIP_TIMEOUT("tracker.temporary.ownership.timeout", "3", false),
 
+  /**
+   * Max number of threads validating the tracked entities, enrollments, events and relationships of
+   * a tracker import in parallel. Only bundles with at least twice the partition size of a type are
+   * split. Objects are validated sequentially if 1. (default: 1)
+   */
+  TRACKER_IMPORT_VALIDATION_CONCURRENCY("tracker.import.validation.concurrency", "1", false),
+
+  /**
+   * Min number of tracker objects of a type validated by a single thread when validation runs in
+   * parallel. (default: 500)
+   */
+  TRACKER_IMPORT_VALIDATION_PARTITION_SIZE(
+      "tracker.import.validation.partition_size", "500", false),
+
+  /**
+   * Keep detached copies of programs, program stages, category options, org units and other
+   * metadata referenced by tracker imports in memory between imports. Entries are evicted when the
+   * underlying metadata changes. (default: off)
+   */
+  TRACKER_IMPORT_PREHEAT_CACHE_ENABLED(
+      "tracker.import.preheat.cache.enabled", Constants.OFF, false),
+
+  /**
+   * Store tracker notifications in an outbox table which is drained by a pool of background
+   * threads, so that notifications are not lost on restart. Notifications are sent directly after
+   * the import if off. (default: on)
+   */
+  TRACKER_IMPORT_NOTIFICATION_OUTBOX_ENABLED(
+      "tracker.import.notification.outbox.enabled", Constants.ON, false),
+
+  /** Max number of threads sending tracker notifications from the outbox. (default: 2) */
+  TRACKER_IMPORT_NOTIFICATION_OUTBOX_CONCURRENCY(
+      "tracker.import.notification.outbox.concurrency", "2", false),
+
+  /** Max number of tracker notifications taken from the outbox at once. (default: 100) */
+  TRACKER_IMPORT_NOTIFICATION_OUTBOX_BATCH_SIZE(
+      "tracker.import.notification.outbox.batch_size", "100", false),
+
   /** Use unlogged tables during analytics export. (default: ON) */
   ANALYTICS_TABLE_UNLOGGED("analytics.table.unlogged", Constants.ON),
 
@@ -409,6 +447,86 @@ public enum ConfigurationKey {
    */
   ANALYTICS_TABLE_SKIP_COLUMN("analytics.table.skip_column", "", false),
 
+  /**
+   * Build indexes only for the data element, attribute and dimension columns of event and
+   * enrollment analytics tables which were used in queries within the column usage window, as
+   * recorded by query column usage telemetry. (default: off) Experimental.
+   */
+  ANALYTICS_TABLE_INDEX_USED_COLUMNS_ONLY(
+      "analytics.table.index_used_columns_only", Constants.OFF, false),
+
+  /**
+   * Number of days of query column usage telemetry considered when building indexes for used
+   * columns only. (default: 90)
+   */
+  ANALYTICS_TABLE_COLUMN_USAGE_DAYS("analytics.table.column_usage_days", "90", false),
+
+  /**
+   * Comma-separated list of program indicator identifiers for which values are computed as columns
+   * of event and enrollment analytics tables during table generation, instead of being computed as
+   * sub-queries at query time. Experimental.
+   */
+  ANALYTICS_TABLE_MATERIALIZED_PROGRAM_INDICATORS(
+      "analytics.table.materialized_program_indicators", "", false),
+
+  /**
+   * Max number of analytics sub-queries executed concurrently across all requests. (default: 20)
+   */
+  ANALYTICS_QUERY_MAX_CONCURRENCY("analytics.query.max_concurrency", "20", false),
+
+  /** Max number of analytics sub-queries executed concurrently for a single user. (default: 8) */
+  ANALYTICS_QUERY_USER_CONCURRENCY("analytics.query.user_concurrency", "8", false),
+
+  /**
+   * Max number of analytics sub-queries executed concurrently for a single request. (default: 8)
+   */
+  ANALYTICS_QUERY_REQUEST_CONCURRENCY("analytics.query.request_concurrency", "8", false),
+
+  /**
+   * Max number of yearly partitions scanned concurrently for a single analytics sub-query, where
+   * each partition is scanned by a separate statement and the results are merged. Limited to half
+   * the max size of the analytics connection pool. Partitions are scanned by a single statement if
+   * 1. (default: 1)
+   */
+  ANALYTICS_QUERY_PARTITION_CONCURRENCY("analytics.query.partition_concurrency", "1", false),
+
+  /**
+   * Execution time in milliseconds above which analytics queries are considered slow, and have
+   * their execution plan logged. Slow queries are not logged if 0. (default: 5000)
+   */
+  ANALYTICS_QUERY_SLOW_THRESHOLD("analytics.query.slow_threshold", "5000", false),
+
+  /**
+   * Fraction between 0 and 1 of slow analytics queries for which the execution plan is logged.
+   * (default: 0.1)
+   */
+  ANALYTICS_QUERY_SLOW_SAMPLE_RATE("analytics.query.slow_sample_rate", "0.1", false),
+
+  /**
+   * Comma-separated list of organisation unit levels for which to generate pre-aggregated rollup
+   * tables after analytics table generation. Rollup tables are not generated if blank.
+   * Experimental.
+   */
+  ANALYTICS_ROLLUP_LEVELS("analytics.rollup.levels", "", false),
+
+  /**
+   * Comma-separated list of period type names for which to generate rollup tables. (default:
+   * Yearly,Quarterly)
+   */
+  ANALYTICS_ROLLUP_PERIOD_TYPES("analytics.rollup.period_types", "Yearly,Quarterly", false),
+
+  /**
+   * Identifier of the data element group with the data elements to include in rollup tables. All
+   * numeric data elements with sum aggregation are included if blank.
+   */
+  ANALYTICS_ROLLUP_DATA_ELEMENT_GROUP("analytics.rollup.data_element_group", "", false),
+
+  /**
+   * Number of zoom levels of the pre-computed event cluster tables generated after event analytics
+   * table generation. Event cluster tables are not generated if 0. (default: 0) Experimental.
+   */
+  ANALYTICS_EVENT_CLUSTER_LEVELS("analytics.event_cluster.levels", "0", false),
+
   /**
    * Artemis support mode, 2 modes supported: EMBEDDED (starts up an embedded Artemis which lives in
    * the same process as your DHIS2 instance), NATIVE (connects to an external Artemis instance,
@@ -498,6 +616,14 @@ public enum ConfigurationKey {
   /** CPU monitoring. (default: off) */
   MONITORING_CPU_ENABLED("monitoring.cpu.enabled", Constants.OFF, false),
 
+  /** Tracker import preheat cache monitoring. (default: off) */
+  MONITORING_TRACKER_PREHEAT_CACHE_ENABLED(
+      "monitoring.tracker.preheat.cache.enabled", Constants.OFF, false),
+
+  /** Tracker notification outbox monitoring. (default: off) */
+  MONITORING_TRACKER_NOTIFICATION_OUTBOX_ENABLED(
+      "monitoring.tracker.notification.outbox.enabled", Constants.OFF, false),
+
   /** AppHub base URL. (default: https://apps.dhis2.org). */
   APPHUB_BASE_URL("apphub.base.url", "https://apps.dhis2.org", false),
 
@@ -85,6 +85,7 @@ public class DefaultCacheProvider implements CacheProvider {
   @SuppressWarnings("squid:S115") // allow non enum-ish names
   private enum Region {
     analyticsResponse,
+    analyticsSubQuery,
     defaultObjectCache,
     isDataApproved,
     allConstantsCache,
@@ -187,6 +188,16 @@ public class DefaultCacheProvider implements CacheProvider {
             .withMaximumSize(orZeroInTestRun(getActualSize(SIZE_10K))));
   }
 
+  @Override
+  public <V> Cache<V> createAnalyticsSubQueryCache() {
+    return registerCache(
+        this.<V>newBuilder()
+            .forRegion(Region.analyticsSubQuery.name())
+            .expireAfterWrite(12, TimeUnit.HOURS)
+            .forceInMemory()
+            .withMaximumSize(orZeroInTestRun(getActualSize(SIZE_10K))));
+  }
+
   /**
    * Cache for default objects such as default category combination and default category option
    * combination which are permanent and will never change.
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import java.io.IOException;
+import java.util.List;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+
+/**
+ * Writes the content of a {@link StreamingGrid} to an output format as the grid is populated.
+ * Headers are written first, followed by each row as it is completed, and finally any content which
+ * is only known after all rows are written, such as meta data.
+ */
+public interface GridRowWriter {
+  /**
+   * Writes the given headers. Invoked once, before any rows are written.
+   *
+   * @param headers the list of {@link GridHeader}.
+   */
+  void writeHeaders(List<GridHeader> headers) throws IOException;
+
+  /**
+   * Writes the given row.
+   *
+   * @param row the row values.
+   */
+  void writeRow(List<Object> row) throws IOException;
+
+  /**
+   * Writes the trailing content of the grid and flushes the underlying output.
+   *
+   * @param grid the {@link Grid}.
+   */
+  void writeEnd(Grid grid) throws IOException;
+}
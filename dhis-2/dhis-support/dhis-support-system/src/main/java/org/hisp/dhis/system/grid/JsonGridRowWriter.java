@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.hisp.dhis.common.adapter.OutputFormatter.maybeFormat;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+
+/**
+ * {@link GridRowWriter} which writes JSON with the same properties as the serialized {@link
+ * ListGrid}. Rows are written as string values like {@link
+ * org.hisp.dhis.common.adapter.JacksonRowDataSerializer} does. The meta data and the dimensions of
+ * the grid are written after the rows.
+ */
+public class JsonGridRowWriter implements GridRowWriter {
+  private final JsonGenerator generator;
+
+  public JsonGridRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+    this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+  }
+
+  @Override
+  public void writeHeaders(List<GridHeader> headers) throws IOException {
+    generator.writeStartObject();
+    generator.writeObjectField("headers", headers);
+    generator.writeFieldName("rows");
+    generator.writeStartArray();
+  }
+
+  @Override
+  public void writeRow(List<Object> row) throws IOException {
+    generator.writeStartArray();
+
+    for (Object value : row) {
+      generator.writeString(value != null ? String.valueOf(maybeFormat(value)) : StringUtils.EMPTY);
+    }
+
+    generator.writeEndArray();
+  }
+
+  @Override
+  public void writeEnd(Grid grid) throws IOException {
+    generator.writeEndArray();
+    generator.writeObjectField("metaData", grid.getMetaData());
+
+    if (grid.getRowContext() != null && !grid.getRowContext().isEmpty()) {
+      generator.writeObjectField("rowContext", grid.getRowContext());
+    }
+
+    generator.writeNumberField("headerWidth", grid.getHeaderWidth());
+    generator.writeNumberField("width", grid.getWidth());
+    generator.writeNumberField("height", grid.getHeight());
+    generator.writeEndObject();
+    generator.flush();
+  }
+}
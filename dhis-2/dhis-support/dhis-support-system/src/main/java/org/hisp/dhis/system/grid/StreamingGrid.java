@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.hisp.dhis.common.Grid;
+
+/**
+ * {@link ListGrid} which does not retain its rows. Each row is passed to a {@link GridRowWriter}
+ * once the next row is started, so that only a single row is held in memory regardless of the size
+ * of the result. Headers are written when the first row is started and must be complete at that
+ * point. Meta data can be set after the rows are written and is written by {@link #finish()}.
+ *
+ * <p>Operations which read or modify previously added rows, such as sorting, limiting or retaining
+ * columns, see an empty grid and must not be used with this grid.
+ */
+public class StreamingGrid extends ListGrid {
+  private final transient GridRowWriter writer;
+
+  /** The row currently being populated, null before the first row is added. */
+  private List<Object> currentRow;
+
+  private boolean headersWritten;
+
+  private int height;
+
+  private int width;
+
+  public StreamingGrid(GridRowWriter writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  public Grid addRow() {
+    writeCurrentRow();
+
+    currentRow = new ArrayList<>();
+
+    return this;
+  }
+
+  @Override
+  public Grid addRows(Grid grid) {
+    for (List<Object> row : grid.getRows()) {
+      addRow();
+      currentRow.addAll(row);
+    }
+
+    return this;
+  }
+
+  @Override
+  public Grid addValue(Object value) {
+    currentRow.add(value);
+
+    return this;
+  }
+
+  @Override
+  public Grid addValues(Object[] values) {
+    currentRow.addAll(Arrays.asList(values));
+
+    return this;
+  }
+
+  @Override
+  public int getHeight() {
+    return currentRow != null ? height + 1 : height;
+  }
+
+  @Override
+  public int getWidth() {
+    return currentRow != null && height == 0 ? currentRow.size() : width;
+  }
+
+  /**
+   * Writes the last row and the trailing content of the grid. Must be invoked once after the grid
+   * is fully populated, also when no rows were added.
+   */
+  public void finish() {
+    writeCurrentRow();
+
+    try {
+      writeHeaders();
+      writer.writeEnd(this);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /** Writes the headers unless already written. */
+  private void writeHeaders() throws IOException {
+    if (!headersWritten) {
+      writer.writeHeaders(getHeaders());
+      headersWritten = true;
+    }
+  }
+
+  /** Writes and releases the row currently being populated, if any. */
+  private void writeCurrentRow() {
+    try {
+      writeHeaders();
+
+      if (currentRow != null) {
+        writer.writeRow(currentRow);
+
+        if (height == 0) {
+          width = currentRow.size();
+        }
+
+        height++;
+        currentRow = null;
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+}
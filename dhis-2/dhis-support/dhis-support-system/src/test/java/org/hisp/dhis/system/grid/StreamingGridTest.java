@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.system.grid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link StreamingGrid}. */
+class StreamingGridTest {
+  @Test
+  void testRowsAreWrittenWhenNextRowIsStarted() {
+    List<List<Object>> rows = new ArrayList<>();
+    StreamingGrid grid = new StreamingGrid(new CollectingRowWriter(rows));
+    grid.addHeader(new GridHeader("a", "A"));
+
+    grid.addRow().addValue("1");
+    assertEquals(0, rows.size());
+
+    grid.addRow().addValue("2");
+    assertEquals(1, rows.size());
+    assertEquals(2, grid.getHeight());
+    assertTrue(grid.getRows().isEmpty());
+
+    grid.finish();
+    assertEquals(List.of(List.of("1"), List.of("2")), rows);
+    assertEquals(2, grid.getHeight());
+    assertEquals(1, grid.getWidth());
+  }
+
+  @Test
+  void testToCsv() {
+    StringWriter writer = new StringWriter();
+    StreamingGrid grid = new StreamingGrid(new CsvGridRowWriter(writer));
+    grid.addHeader(new GridHeader("a", "A")).addHeader(new GridHeader("b", "B"));
+
+    grid.addRow().addValue("x").addValue(1);
+    grid.addRow().addValue("y").addValue(null);
+    grid.finish();
+
+    assertEquals("A,B\nx,1\ny,\n", writer.toString().replace("\r\n", "\n"));
+  }
+
+  @Test
+  void testToJson() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    StreamingGrid grid = new StreamingGrid(new JsonGridRowWriter(mapper, out));
+    grid.addHeader(new GridHeader("a", "A"));
+
+    grid.addRow().addValue("x");
+    grid.addRow().addValue(2);
+    grid.addMetaData("key", "value");
+    grid.finish();
+
+    JsonNode json = mapper.readTree(out.toByteArray());
+    assertEquals("a", json.get("headers").get(0).get("name").asText());
+    assertEquals("x", json.get("rows").get(0).get(0).asText());
+    assertEquals("2", json.get("rows").get(1).get(0).asText());
+    assertEquals("value", json.get("metaData").get("key").asText());
+    assertEquals(2, json.get("height").asInt());
+  }
+
+  @Test
+  void testHeadersAreWrittenWithoutRows() {
+    StringWriter writer = new StringWriter();
+    StreamingGrid grid = new StreamingGrid(new CsvGridRowWriter(writer));
+    grid.addHeader(new GridHeader("a", "A"));
+    grid.finish();
+
+    assertEquals("A\n", writer.toString().replace("\r\n", "\n"));
+  }
+
+  private record CollectingRowWriter(List<List<Object>> rows) implements GridRowWriter {
+    @Override
+    public void writeHeaders(List<GridHeader> headers) {}
+
+    @Override
+    public void writeRow(List<Object> row) {
+      rows.add(row);
+    }
+
+    @Override
+    public void writeEnd(Grid grid) {}
+  }
+}
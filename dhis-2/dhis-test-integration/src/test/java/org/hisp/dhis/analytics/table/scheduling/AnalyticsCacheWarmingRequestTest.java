@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.table.scheduling;
+
+import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
+import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+import org.hisp.dhis.analytics.DataQueryService;
+import org.hisp.dhis.common.AggregateAnalyticsQueryCriteria;
+import org.hisp.dhis.common.DataQueryRequest;
+import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementService;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.test.integration.SingleSetupIntegrationTestBase;
+import org.hisp.dhis.user.UserService;
+import org.hisp.dhis.visualization.Visualization;
+import org.hisp.dhis.visualization.VisualizationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Tests that the analytics cache warming job replays visualizations with the cache key of the
+ * analytics web request.
+ */
+class AnalyticsCacheWarmingRequestTest extends SingleSetupIntegrationTestBase {
+  @Autowired private DataQueryService dataQueryService;
+
+  @Autowired private DataElementService dataElementService;
+
+  @Autowired private OrganisationUnitService organisationUnitService;
+
+  @Autowired private UserService internalUserService;
+
+  private DataElement deA;
+
+  private DataElement deB;
+
+  private OrganisationUnit ouA;
+
+  @Override
+  public void setUpTest() {
+    super.userService = internalUserService;
+
+    deA = createDataElement('A');
+    deB = createDataElement('B');
+    dataElementService.addDataElement(deA);
+    dataElementService.addDataElement(deB);
+
+    ouA = createOrganisationUnit('A');
+    organisationUnitService.addOrganisationUnit(ouA);
+  }
+
+  @Test
+  void testReplayedKeyEqualsWebRequestKey() {
+    Visualization visualization = new Visualization();
+    visualization.setType(VisualizationType.PIVOT_TABLE);
+    visualization.addDataDimensionItem(deA);
+    visualization.addDataDimensionItem(deB);
+    visualization.setRawPeriods(List.of("LAST_12_MONTHS", "202401"));
+    visualization.getOrganisationUnits().add(ouA);
+    visualization.setColumnDimensions(List.of(DATA_X_DIM_ID));
+    visualization.setRowDimensions(List.of(PERIOD_DIM_ID));
+    visualization.setFilterDimensions(List.of(ORGUNIT_DIM_ID));
+
+    // Request as sent by the apps for the visualization
+
+    AggregateAnalyticsQueryCriteria criteria = new AggregateAnalyticsQueryCriteria();
+    criteria.setDimension(
+        Set.of("dx:" + deA.getUid() + ";" + deB.getUid(), "pe:LAST_12_MONTHS;202401"));
+    criteria.setFilter(Set.of("ou:" + ouA.getUid()));
+    criteria.setDisplayProperty(DisplayProperty.NAME);
+    criteria.setIncludeNumDen(true);
+
+    DataQueryRequest webRequest =
+        DataQueryRequest.newBuilder().fromCriteria(criteria).apiVersion(DhisApiVersion.V41).build();
+
+    DataQueryRequest replayRequest =
+        AnalyticsCacheWarmingJob.getDataQueryRequest(visualization, DisplayProperty.NAME);
+
+    assertEquals(
+        dataQueryService.getFromRequest(webRequest).getKey(),
+        dataQueryService.getFromRequest(replayRequest).getKey());
+  }
+}
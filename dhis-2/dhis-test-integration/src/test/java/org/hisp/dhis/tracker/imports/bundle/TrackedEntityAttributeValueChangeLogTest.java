@@ -43,6 +43,7 @@ import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueChan
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueChangeLogService;
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueService;
 import org.hisp.dhis.tracker.TrackerTest;
+import org.hisp.dhis.tracker.imports.FlushMode;
 import org.hisp.dhis.tracker.imports.TrackerImportParams;
 import org.hisp.dhis.tracker.imports.TrackerImportService;
 import org.hisp.dhis.tracker.imports.TrackerImportStrategy;
@@ -74,9 +75,28 @@ class TrackedEntityAttributeValueChangeLogTest extends TrackerTest {
 
   @Test
   void testTrackedEntityAttributeValueAuditCreate() throws IOException {
+    assertCreateChangeLogs(new TrackerImportParams());
+  }
+
+  @Test
+  void testTrackedEntityAttributeValueAuditCreateWithBatchFlushMode() throws IOException {
+    assertCreateChangeLogs(TrackerImportParams.builder().flushMode(FlushMode.BATCH).build());
+  }
+
+  @Test
+  void testTrackedEntityAttributeValueAuditDelete() throws IOException {
+    assertDeleteChangeLogs(new TrackerImportParams());
+  }
+
+  @Test
+  void testTrackedEntityAttributeValueAuditDeleteWithBatchFlushMode() throws IOException {
+    assertDeleteChangeLogs(TrackerImportParams.builder().flushMode(FlushMode.BATCH).build());
+  }
+
+  private void assertCreateChangeLogs(TrackerImportParams params) throws IOException {
     assertNoErrors(
         trackerImportService.importTracker(
-            new TrackerImportParams(), fromJson("tracker/te_program_with_tea_data.json")));
+            params, fromJson("tracker/te_program_with_tea_data.json")));
 
     List<TrackedEntity> trackedEntities = manager.getAll(TrackedEntity.class);
     assertEquals(1, trackedEntities.size());
@@ -98,11 +118,9 @@ class TrackedEntityAttributeValueChangeLogTest extends TrackerTest {
     assertEquals(5, attributeValueAudits.size());
   }
 
-  @Test
-  void testTrackedEntityAttributeValueAuditDelete() throws IOException {
+  private void assertDeleteChangeLogs(TrackerImportParams params) throws IOException {
     TrackerObjects trackerObjects = fromJson("tracker/te_program_with_tea_data.json");
 
-    TrackerImportParams params = new TrackerImportParams();
     ImportReport importReport = trackerImportService.importTracker(params, trackerObjects);
     assertNoErrors(importReport);
     List<TrackedEntityAttributeValue> attributeValues1 =
@@ -43,6 +43,7 @@ import org.hisp.dhis.trackedentity.TrackedEntityDataValueChangeLogQueryParams;
 import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueChangeLog;
 import org.hisp.dhis.trackedentitydatavalue.TrackedEntityDataValueChangeLogService;
 import org.hisp.dhis.tracker.TrackerTest;
+import org.hisp.dhis.tracker.imports.FlushMode;
 import org.hisp.dhis.tracker.imports.TrackerImportParams;
 import org.hisp.dhis.tracker.imports.TrackerImportService;
 import org.hisp.dhis.user.UserService;
@@ -82,7 +83,15 @@ public class TrackedEntityDataValueChangeLogTest extends TrackerTest {
 
   @Test
   void testTrackedEntityDataValueAuditCreate() throws IOException {
-    TrackerImportParams params = new TrackerImportParams();
+    assertChangeLogs(new TrackerImportParams());
+  }
+
+  @Test
+  void testTrackedEntityDataValueAuditCreateWithBatchFlushMode() throws IOException {
+    assertChangeLogs(TrackerImportParams.builder().flushMode(FlushMode.BATCH).build());
+  }
+
+  private void assertChangeLogs(TrackerImportParams params) throws IOException {
     assertNoErrors(
         trackerImportService.importTracker(
             params, fromJson("tracker/event_and_enrollment_with_data_values.json")));
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.program.Enrollment;
+import org.hisp.dhis.program.Event;
+import org.hisp.dhis.test.integration.IntegrationTestBase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Tests the SQL of {@link JdbcTrackerNotificationOutboxStore} against PostgreSQL. */
+class JdbcTrackerNotificationOutboxStoreTest extends IntegrationTestBase {
+  private static final int LEASE_SECONDS = 600;
+
+  @Autowired private JdbcTrackerNotificationOutboxStore store;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Override
+  protected void tearDownTest() {
+    jdbcTemplate.execute("delete from trackernotificationoutbox");
+  }
+
+  @Test
+  void shouldCoalesceNotificationsNotTakenYet() {
+    assertEquals(1, store.add(List.of(bundle(Enrollment.class, "enrollment1"))));
+    assertEquals(0, store.add(List.of(bundle(Enrollment.class, "enrollment1"))));
+    assertEquals(1, store.add(List.of(bundle(Event.class, "event000001"))));
+
+    assertEquals(2, store.count());
+  }
+
+  @Test
+  void shouldNotCoalesceWithTakenNotifications() {
+    store.add(List.of(bundle(Enrollment.class, "enrollment1")));
+    assertEquals(1, store.take(10, LEASE_SECONDS).size());
+
+    assertEquals(1, store.add(List.of(bundle(Enrollment.class, "enrollment1"))));
+
+    assertEquals(2, store.count());
+  }
+
+  @Test
+  void shouldTakeDueNotificationsInOrderAndLeaseThem() {
+    store.add(List.of(bundle(Enrollment.class, "enrollment1")));
+    store.add(List.of(bundle(Event.class, "event000001")));
+
+    List<TrackerNotificationOutboxEntry> entries = store.take(10, LEASE_SECONDS);
+
+    assertEquals(2, entries.size());
+    assertEquals(Enrollment.class, entries.get(0).klass());
+    assertEquals("enrollment1", entries.get(0).object());
+    assertEquals(SideEffectTrigger.ENROLLMENT, entries.get(0).trigger());
+    assertEquals("admin", entries.get(0).accessedBy());
+    assertEquals(1, entries.get(0).attempts());
+    assertEquals(Event.class, entries.get(1).klass());
+    assertTrue(store.take(10, LEASE_SECONDS).isEmpty());
+  }
+
+  @Test
+  void shouldTakeExpiredLeaseAgain() {
+    store.add(List.of(bundle(Enrollment.class, "enrollment1")));
+    store.take(10, 0);
+
+    List<TrackerNotificationOutboxEntry> entries = store.take(10, LEASE_SECONDS);
+
+    assertEquals(1, entries.size());
+    assertEquals(2, entries.get(0).attempts());
+  }
+
+  @Test
+  void shouldNotTakeNotificationBehindLeasedNotificationOfSameObject() {
+    store.add(List.of(bundle(Enrollment.class, "enrollment1")));
+    TrackerNotificationOutboxEntry leased = store.take(10, LEASE_SECONDS).get(0);
+    store.add(List.of(bundle(Enrollment.class, "enrollment1")));
+    store.add(List.of(bundle(Enrollment.class, "enrollment2")));
+
+    List<TrackerNotificationOutboxEntry> entries = store.take(10, LEASE_SECONDS);
+    assertEquals(1, entries.size());
+    assertEquals("enrollment2", entries.get(0).object());
+
+    store.delete(List.of(leased.id()));
+
+    entries = store.take(10, LEASE_SECONDS);
+    assertEquals(1, entries.size());
+    assertEquals("enrollment1", entries.get(0).object());
+  }
+
+  @Test
+  void shouldTakeReleasedNotificationAgain() {
+    store.add(List.of(bundle(Enrollment.class, "enrollment1")));
+    TrackerNotificationOutboxEntry taken = store.take(10, LEASE_SECONDS).get(0);
+
+    store.release(List.of(taken.id()));
+
+    List<TrackerNotificationOutboxEntry> entries = store.take(10, LEASE_SECONDS);
+    assertEquals(1, entries.size());
+    assertEquals(taken.id(), entries.get(0).id());
+    assertEquals(1, store.add(List.of(bundle(Enrollment.class, "enrollment1"))));
+  }
+
+  @Test
+  void shouldSkipNotificationsLockedByAnotherTransaction() throws Exception {
+    store.add(List.of(bundle(Enrollment.class, "enrollment1")));
+
+    transactionTemplate.execute(
+        status -> {
+          assertEquals(1, store.take(10, LEASE_SECONDS).size());
+
+          List<TrackerNotificationOutboxEntry> concurrent =
+              CompletableFuture.supplyAsync(() -> store.take(10, LEASE_SECONDS))
+                  .orTimeout(30, TimeUnit.SECONDS)
+                  .join();
+
+          assertTrue(concurrent.isEmpty());
+          return null;
+        });
+  }
+
+  private static TrackerSideEffectDataBundle bundle(
+      Class<? extends BaseIdentifiableObject> klass, String uid) {
+    return TrackerSideEffectDataBundle.builder()
+        .klass(klass)
+        .object(uid)
+        .triggers(
+            List.of(
+                klass == Event.class
+                    ? SideEffectTrigger.EVENT_COMPLETION
+                    : SideEffectTrigger.ENROLLMENT))
+        .accessedBy("admin")
+        .build();
+  }
+}
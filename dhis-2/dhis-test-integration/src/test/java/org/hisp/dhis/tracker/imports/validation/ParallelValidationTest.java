@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.imports.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.Hibernate;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.trackedentity.TrackedEntityType;
+import org.hisp.dhis.trackedentity.TrackedEntityTypeAttribute;
+import org.hisp.dhis.tracker.TrackerTest;
+import org.hisp.dhis.tracker.imports.TrackerImportParams;
+import org.hisp.dhis.tracker.imports.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.imports.bundle.TrackerBundleService;
+import org.hisp.dhis.tracker.imports.domain.TrackedEntity;
+import org.hisp.dhis.tracker.imports.domain.TrackerObjects;
+import org.hisp.dhis.user.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionOperations;
+
+class ParallelValidationTest extends TrackerTest {
+  @Autowired private TrackerBundleService trackerBundleService;
+
+  @Autowired private PreheatInitializer preheatInitializer;
+
+  @Autowired protected UserService _userService;
+
+  private ValidationExecutor executor;
+
+  @Override
+  protected void initTest() throws IOException {
+    userService = _userService;
+    setUpMetadata("tracker/tracker_basic_metadata.json");
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void shouldInitializeLazyAssociationsOfPreheatBeforeValidatingInParallel() throws IOException {
+    manager.flush();
+    manager.clear();
+
+    TrackerObjects trackerObjects = fromJson("tracker/trackedentity_basic_data.json");
+    TrackerBundle bundle =
+        trackerBundleService.create(
+            new TrackerImportParams(), trackerObjects, userService.getUser(ADMIN_USER_UID));
+
+    // workers without a session of their own must not need to load anything lazily
+    executor =
+        new ValidationExecutor(
+            4, 2, TransactionOperations.withoutTransaction(), preheatInitializer::initialize);
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    List<String> uninitialized = new CopyOnWriteArrayList<>();
+
+    executor.validate(
+        new Reporter(bundle.getPreheat().getIdSchemes()),
+        bundle,
+        bundle.getTrackedEntities(),
+        (reporter, b, te) -> {
+          threads.add(Thread.currentThread().getName());
+          assertInitialized(b, te, uninitialized);
+        });
+
+    assertTrue(threads.size() > 1);
+    assertEquals(List.of(), uninitialized);
+  }
+
+  private static void assertInitialized(
+      TrackerBundle bundle, TrackedEntity te, List<String> uninitialized) {
+    TrackedEntityType type = bundle.getPreheat().getTrackedEntityType(te.getTrackedEntityType());
+    OrganisationUnit orgUnit = bundle.getPreheat().getOrganisationUnit(te.getOrgUnit());
+
+    if (!Hibernate.isInitialized(orgUnit)) {
+      uninitialized.add(te.getUid() + ": organisation unit");
+    }
+
+    if (!Hibernate.isInitialized(type.getTrackedEntityTypeAttributes())) {
+      uninitialized.add(te.getUid() + ": tracked entity type attributes");
+      return;
+    }
+
+    for (TrackedEntityTypeAttribute typeAttribute : type.getTrackedEntityTypeAttributes()) {
+      if (!Hibernate.isInitialized(typeAttribute.getTrackedEntityAttribute())) {
+        uninitialized.add(te.getUid() + ": tracked entity attribute");
+      }
+    }
+  }
+}
@@ -33,7 +33,11 @@ import static org.hisp.dhis.common.RequestTypeAware.EndpointAction.OTHER;
 import static org.hisp.dhis.common.RequestTypeAware.EndpointAction.QUERY;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import javax.annotation.Nonnull;
 import javax.servlet.http.HttpServletResponse;
@@ -62,7 +66,11 @@ import org.hisp.dhis.feedback.ErrorMessage;
 import org.hisp.dhis.period.RelativePeriodEnum;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.grid.CsvGridRowWriter;
+import org.hisp.dhis.system.grid.GridRowWriter;
 import org.hisp.dhis.system.grid.GridUtils;
+import org.hisp.dhis.system.grid.JsonGridRowWriter;
+import org.hisp.dhis.system.grid.StreamingGrid;
 import org.hisp.dhis.util.PeriodCriteriaUtils;
 import org.hisp.dhis.webapi.dimension.DimensionFilteringAndPagingService;
 import org.hisp.dhis.webapi.dimension.DimensionMapperService;
@@ -105,6 +113,8 @@ public class EventAnalyticsController {
 
   @Nonnull private final SystemSettingManager systemSettingManager;
 
+  @Nonnull private final ObjectMapper jsonMapper;
+
   // -------------------------------------------------------------------------
   // Aggregate
   // -------------------------------------------------------------------------
@@ -321,11 +331,17 @@ public class EventAnalyticsController {
       @PathVariable String program,
       EventsAnalyticsQueryCriteria criteria,
       DhisApiVersion apiVersion,
-      HttpServletResponse response) {
+      HttpServletResponse response)
+      throws IOException {
     EventQueryParams params = getEventQueryParams(program, criteria, apiVersion, false, QUERY);
 
     configResponseForJson(response);
 
+    if (params.isStreamable()) {
+      streamEvents(params, new JsonGridRowWriter(jsonMapper, response.getOutputStream()));
+      return null;
+    }
+
     return analyticsService.getEvents(params);
   }
 
@@ -374,16 +390,24 @@ public class EventAnalyticsController {
       DhisApiVersion apiVersion,
       HttpServletResponse response)
       throws Exception {
-    GridUtils.toCsv(
-        getListGridWithAttachment(
-            criteria,
-            program,
-            apiVersion,
-            ContextUtils.CONTENT_TYPE_CSV,
-            "events.csv",
-            true,
-            response),
-        response.getWriter());
+    EventQueryParams params = getEventQueryParams(program, criteria, apiVersion, false, QUERY);
+
+    contextUtils.configureResponse(
+        response,
+        ContextUtils.CONTENT_TYPE_CSV,
+        CacheStrategy.RESPECT_SYSTEM_SETTING,
+        "events.csv",
+        true);
+
+    if (params.isStreamable()) {
+      // not the writer, so that an error raised before the first row can still be rendered
+      streamEvents(
+          params,
+          new CsvGridRowWriter(
+              new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)));
+    } else {
+      GridUtils.toCsv(analyticsService.getEvents(params), response.getWriter());
+    }
   }
 
   @GetMapping(value = RESOURCE_PATH + "/query/{program}.html")
@@ -489,6 +513,21 @@ public class EventAnalyticsController {
     return analyticsService.getEvents(params);
   }
 
+  /**
+   * Writes the events of the given query to the given writer as they are read, without holding the
+   * full result in memory. Headers are written first and meta data last.
+   *
+   * @param params the {@link EventQueryParams}.
+   * @param writer the {@link GridRowWriter}.
+   */
+  private void streamEvents(EventQueryParams params, GridRowWriter writer) {
+    StreamingGrid grid = new StreamingGrid(writer);
+
+    analyticsService.getEvents(params, grid);
+
+    grid.finish();
+  }
+
   private EventQueryParams getEventQueryParams(
       String program,
       EventsAnalyticsQueryCriteria criteria,
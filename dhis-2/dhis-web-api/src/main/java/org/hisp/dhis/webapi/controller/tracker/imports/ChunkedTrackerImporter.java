@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.webapi.controller.tracker.imports;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hisp.dhis.feedback.ConflictException;
+import org.hisp.dhis.fileresource.FileResource;
+import org.hisp.dhis.fileresource.FileResourceService;
+import org.hisp.dhis.scheduling.JobProgress;
+import org.hisp.dhis.tracker.imports.AtomicMode;
+import org.hisp.dhis.tracker.imports.TrackerImportParams;
+import org.hisp.dhis.tracker.imports.TrackerImportService;
+import org.hisp.dhis.tracker.imports.domain.TrackerObjects;
+import org.hisp.dhis.tracker.imports.report.ImportReport;
+import org.hisp.dhis.tracker.imports.report.Status;
+import org.hisp.dhis.tracker.imports.report.ValidationReport;
+import org.hisp.dhis.webapi.controller.tracker.view.Enrollment;
+import org.hisp.dhis.webapi.controller.tracker.view.Event;
+import org.hisp.dhis.webapi.controller.tracker.view.Relationship;
+import org.hisp.dhis.webapi.controller.tracker.view.TrackedEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports a tracker payload in chunks of {@link TrackerImportParams#getChunkSize()} objects. The
+ * payload is the raw request body stored as job data, which is parsed incrementally, so that memory
+ * use is bounded by the chunk size rather than the payload size.
+ *
+ * <p>The payload is read once per section, so that tracked entities are imported before
+ * enrollments, events and relationships regardless of the order of the payload properties.
+ * Relationships nested in tracked entities, enrollments and events are imported after the top level
+ * relationships, in a further pass over the payload once all objects they may refer to exist.
+ *
+ * <p>Each chunk is preheated, validated and committed on its own. With {@link AtomicMode#ALL}, the
+ * import stops at the first chunk which fails.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class ChunkedTrackerImporter {
+  private static final List<Section<?>> SECTIONS =
+      List.of(
+          new Section<>(
+              "trackedEntities",
+              "tracked entities",
+              TrackedEntity.class,
+              list -> Body.builder().trackedEntities(list).build()),
+          new Section<>(
+              "enrollments",
+              "enrollments",
+              Enrollment.class,
+              list -> Body.builder().enrollments(list).build()),
+          new Section<>(
+              "events", "events", Event.class, list -> Body.builder().events(list).build()));
+
+  private static final Section<Relationship> RELATIONSHIPS =
+      new Section<>(
+          "relationships",
+          "relationships",
+          Relationship.class,
+          list -> Body.builder().relationships(list).build());
+
+  private final TrackerImportService trackerImportService;
+
+  private final FileResourceService fileResourceService;
+
+  private final ObjectMapper jsonMapper;
+
+  private final BodyConverter bodyConverter = new BodyConverter();
+
+  /**
+   * Imports the payload stored in the given job data in chunks.
+   *
+   * @param params the {@link TrackerImportParams}.
+   * @param data the {@link FileResource} holding the payload.
+   * @param progress the {@link JobProgress}.
+   * @return the merged {@link ImportReport} of all imported chunks.
+   */
+  ImportReport importTracker(TrackerImportParams params, FileResource data, JobProgress progress)
+      throws IOException, ConflictException {
+    ChunkImport chunkImport = new ChunkImport(params, progress);
+    int chunkSize = params.getChunkSize();
+
+    for (Section<?> section : SECTIONS) {
+      if (!importSection(data, section, chunkSize, chunkImport::importChunk)) {
+        return ImportReport.merge(chunkImport.reports);
+      }
+    }
+
+    if (!importSection(data, RELATIONSHIPS, chunkSize, chunkImport::importChunk)) {
+      return ImportReport.merge(chunkImport.reports);
+    }
+
+    for (Section<?> section : SECTIONS) {
+      if (!importSection(data, section, chunkSize, chunkImport::importNestedRelationships)) {
+        return ImportReport.merge(chunkImport.reports);
+      }
+    }
+
+    chunkImport.importPendingRelationships(true);
+
+    return ImportReport.merge(chunkImport.reports);
+  }
+
+  /**
+   * Streams the array of the given section of the payload and passes it in chunks to the given
+   * chunk handler.
+   *
+   * @return false if the import should stop.
+   */
+  private <T> boolean importSection(
+      FileResource data, Section<T> section, int chunkSize, ChunkHandler<T> chunkHandler)
+      throws IOException, ConflictException {
+    try (InputStream input = fileResourceService.getFileResourceContent(data);
+        JsonParser parser = jsonMapper.getFactory().createParser(input)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(parser, "Tracker payload must be a JSON object");
+      }
+
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String property = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+
+        if (!section.property().equals(property) || token != JsonToken.START_ARRAY) {
+          parser.skipChildren();
+          continue;
+        }
+
+        List<T> chunk = new ArrayList<>(chunkSize);
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          chunk.add(jsonMapper.readValue(parser, section.type()));
+
+          if (chunk.size() == chunkSize) {
+            if (!chunkHandler.handle(section, chunk)) {
+              return false;
+            }
+
+            chunk = new ArrayList<>(chunkSize);
+          }
+        }
+
+        if (!chunk.isEmpty() && !chunkHandler.handle(section, chunk)) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Section of the tracker payload.
+   *
+   * @param property the name of the payload property.
+   * @param description the description used for job progress.
+   * @param type the view type of the section objects.
+   * @param toBody function creating a {@link Body} from a chunk of objects.
+   */
+  private record Section<T>(
+      String property, String description, Class<T> type, Function<List<T>, Body> toBody) {}
+
+  /** Handler of a chunk of objects of a section. */
+  @FunctionalInterface
+  private interface ChunkHandler<T> {
+    /**
+     * @return false if the import should stop.
+     */
+    boolean handle(Section<T> section, List<T> chunk);
+  }
+
+  /** State of an ongoing chunked import. */
+  @RequiredArgsConstructor
+  private class ChunkImport {
+    private final TrackerImportParams params;
+
+    private final JobProgress progress;
+
+    private final List<ImportReport> reports = new ArrayList<>();
+
+    /** Nested relationships not imported yet, bounded by those of one chunk of objects. */
+    private final List<Relationship> pendingRelationships = new ArrayList<>();
+
+    private int chunkNumber = 0;
+
+    /**
+     * Imports the given chunk of objects without their nested relationships.
+     *
+     * @return false if the import should stop.
+     */
+    <T> boolean importChunk(Section<T> section, List<T> chunk) {
+      Body body = bodyConverter.convert(section.toBody().apply(chunk));
+
+      if (section != RELATIONSHIPS) {
+        body =
+            Body.builder()
+                .trackedEntities(body.getTrackedEntities())
+                .enrollments(body.getEnrollments())
+                .events(body.getEvents())
+                .build();
+      }
+
+      return importBody(section, chunk.size(), body);
+    }
+
+    /**
+     * Imports the relationships nested in the given chunk of objects in chunks of the chunk size.
+     * The objects themselves must already have been imported.
+     *
+     * @return false if the import should stop.
+     */
+    <T> boolean importNestedRelationships(Section<T> section, List<T> chunk) {
+      pendingRelationships.addAll(
+          bodyConverter.convert(section.toBody().apply(chunk)).getRelationships());
+
+      return importPendingRelationships(false);
+    }
+
+    /**
+     * Imports the pending nested relationships in chunks of the chunk size.
+     *
+     * @param all whether to also import the last, incomplete chunk.
+     * @return false if the import should stop.
+     */
+    boolean importPendingRelationships(boolean all) {
+      int chunkSize = params.getChunkSize();
+
+      while (pendingRelationships.size() >= chunkSize || (all && !pendingRelationships.isEmpty())) {
+        List<Relationship> chunk =
+            new ArrayList<>(
+                pendingRelationships.subList(0, Math.min(chunkSize, pendingRelationships.size())));
+        pendingRelationships.subList(0, chunk.size()).clear();
+
+        if (!importChunk(RELATIONSHIPS, chunk)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    private boolean importBody(Section<?> section, int size, Body body) {
+      TrackerObjects trackerObjects =
+          TrackerImportParamsMapper.trackerObjects(body, params.getIdSchemes());
+
+      progress.startingStage(
+          "Importing chunk %d with %d %s".formatted(++chunkNumber, size, section.description()));
+      ImportReport report =
+          progress.runStage(
+              ImportReport.withError(
+                  "Import of chunk %d failed".formatted(chunkNumber),
+                  ValidationReport.emptyReport()),
+              () -> trackerImportService.importTracker(params, trackerObjects));
+
+      reports.add(report);
+
+      if (progress.isCancelled()) {
+        log.info("Chunked tracker import cancelled after chunk {}", chunkNumber);
+        return false;
+      }
+
+      return report.getStatus() != Status.ERROR || params.getAtomicMode() != AtomicMode.ALL;
+    }
+  }
+}
@@ -48,6 +48,8 @@ import org.hisp.dhis.tracker.imports.bundle.TrackerBundleMode;
 @AllArgsConstructor
 @Builder
 public class ImportRequestParams {
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
+
   /** Should import be imported or just validated. */
   @JsonProperty @Builder.Default private TrackerBundleMode importMode = TrackerBundleMode.COMMIT;
 
@@ -100,4 +102,10 @@ public class ImportRequestParams {
 
   /** Specific identifier to match category option on. */
   @JsonProperty private TrackerIdSchemeParam categoryOptionIdScheme;
+
+  /**
+   * Number of objects to import per chunk for streamed imports. Tracked entities are imported
+   * first, followed by enrollments, events and relationships. The atomic mode applies per chunk.
+   */
+  @JsonProperty @Builder.Default private int chunkSize = DEFAULT_CHUNK_SIZE;
 }
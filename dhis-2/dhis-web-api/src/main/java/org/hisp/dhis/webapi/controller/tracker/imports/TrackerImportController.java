@@ -46,6 +46,7 @@ import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.common.OpenApi;
 import org.hisp.dhis.commons.util.StreamUtils;
 import org.hisp.dhis.dxf2.webmessage.WebMessage;
+import org.hisp.dhis.feedback.BadRequestException;
 import org.hisp.dhis.feedback.ConflictException;
 import org.hisp.dhis.feedback.NotFoundException;
 import org.hisp.dhis.jsontree.JsonValue;
@@ -129,6 +130,39 @@ public class TrackerImportController {
         request);
   }
 
+  /**
+   * Starts an asynchronous import which stores the request body as is and imports it in chunks of
+   * {@link ImportRequestParams#getChunkSize()} objects, parsing the payload incrementally. Meant
+   * for very large payloads which do not fit in memory as a whole.
+   */
+  @PostMapping(
+      value = "",
+      consumes = APPLICATION_JSON_VALUE,
+      produces = APPLICATION_JSON_VALUE,
+      params = {"streaming=true", "async!=false"})
+  @ResponseBody
+  public WebMessage asyncPostJsonTrackerStreaming(
+      HttpServletRequest request, ImportRequestParams importRequestParams)
+      throws BadRequestException, ConflictException, NotFoundException, IOException {
+    if (importRequestParams.getChunkSize() <= 0) {
+      throw new BadRequestException("Chunk size must be greater than zero");
+    }
+
+    User currentUser = userService.getUserByUsername(CurrentUserUtil.getCurrentUsername());
+    String userUid = currentUser == null ? null : currentUser.getUid();
+
+    TrackerImportParams trackerImportParams =
+        TrackerImportParamsMapper.trackerImportParams(userUid, importRequestParams);
+    trackerImportParams.setChunkSize(importRequestParams.getChunkSize());
+
+    return startAsyncTracker(
+        trackerImportParams,
+        MimeType.valueOf("application/json"),
+        request.getInputStream(),
+        userUid,
+        request);
+  }
+
   private WebMessage startAsyncTracker(
       TrackerImportParams params,
       MimeType contentType,
@@ -136,14 +170,24 @@ public class TrackerImportController {
       String userUid,
       HttpServletRequest request)
       throws IOException, ConflictException, NotFoundException {
+    byte[] jsonInput = jsonMapper.writeValueAsBytes(trackerObjects);
+
+    return startAsyncTracker(
+        params, contentType, new ByteArrayInputStream(jsonInput), userUid, request);
+  }
+
+  private WebMessage startAsyncTracker(
+      TrackerImportParams params,
+      MimeType contentType,
+      InputStream content,
+      String userUid,
+      HttpServletRequest request)
+      throws ConflictException, NotFoundException {
     JobConfiguration config = new JobConfiguration(JobType.TRACKER_IMPORT_JOB);
     config.setExecutedBy(userUid);
     config.setJobParameters(params);
 
-    byte[] jsonInput = jsonMapper.writeValueAsBytes(trackerObjects);
-
-    jobSchedulerService.executeNow(
-        jobConfigurationService.create(config, contentType, new ByteArrayInputStream(jsonInput)));
+    jobSchedulerService.executeNow(jobConfigurationService.create(config, contentType, content));
     String jobId = config.getUid();
     String location = ContextUtils.getRootPath(request) + "/tracker/jobs/" + jobId;
     return ok(TRACKER_JOB_ADDED)
@@ -57,6 +57,7 @@ public class TrackerImportJob implements Job {
   private final FileResourceService fileResourceService;
   private final Notifier notifier;
   private final ObjectMapper jsonMapper;
+  private final ChunkedTrackerImporter chunkedTrackerImporter;
 
   @Override
   public JobType getJobType() {
@@ -70,11 +71,11 @@ public class TrackerImportJob implements Job {
     progress.startingStage("Loading file resource");
     FileResource data =
         progress.runStage(() -> fileResourceService.getExistingFileResource(config.getUid()));
-    progress.startingStage("Loading file content");
-    try (InputStream input =
-        progress.runStage(() -> fileResourceService.getFileResourceContent(data))) {
+    try {
       ImportReport report =
-          trackerImportService.importTracker(params, toTrackerObjects(input), progress);
+          params.isChunked()
+              ? chunkedTrackerImporter.importTracker(params, data, progress)
+              : importTracker(params, data, progress);
       if (report == null) {
         progress.failedProcess("Import failed, no summary available");
         return;
@@ -110,6 +111,15 @@ public class TrackerImportJob implements Job {
     }
   }
 
+  private ImportReport importTracker(
+      TrackerImportParams params, FileResource data, JobProgress progress) throws IOException {
+    progress.startingStage("Loading file content");
+    try (InputStream input =
+        progress.runStage(() -> fileResourceService.getFileResourceContent(data))) {
+      return trackerImportService.importTracker(params, toTrackerObjects(input), progress);
+    }
+  }
+
   private TrackerObjects toTrackerObjects(InputStream input) throws IOException {
     return jsonMapper.readValue(input, TrackerObjects.class);
   }
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.webapi.controller.tracker.imports;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.hisp.dhis.fileresource.FileResource;
+import org.hisp.dhis.fileresource.FileResourceService;
+import org.hisp.dhis.scheduling.NoopJobProgress;
+import org.hisp.dhis.tracker.imports.AtomicMode;
+import org.hisp.dhis.tracker.imports.TrackerImportParams;
+import org.hisp.dhis.tracker.imports.TrackerImportService;
+import org.hisp.dhis.tracker.imports.domain.TrackerObjects;
+import org.hisp.dhis.tracker.imports.report.ImportReport;
+import org.hisp.dhis.tracker.imports.report.PersistenceReport;
+import org.hisp.dhis.tracker.imports.report.Status;
+import org.hisp.dhis.tracker.imports.report.ValidationReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedTrackerImporterTest {
+  private static final String PAYLOAD =
+      """
+      {
+        "events": [{"event": "EvtUid00001"}, {"event": "EvtUid00002"}],
+        "trackedEntities": [
+          {
+            "trackedEntity": "TeUid000001",
+            "enrollments": [
+              {
+                "enrollment": "EnrUid00001",
+                "relationships": [{"relationship": "RelUid00001"}]
+              }
+            ]
+          }
+        ],
+        "relationships": [{"relationship": "RelUid00002"}]
+      }""";
+
+  @Mock private TrackerImportService trackerImportService;
+
+  @Mock private FileResourceService fileResourceService;
+
+  private final FileResource data = new FileResource();
+
+  private String payload = PAYLOAD;
+
+  private ChunkedTrackerImporter importer;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    importer =
+        new ChunkedTrackerImporter(trackerImportService, fileResourceService, new ObjectMapper());
+
+    when(fileResourceService.getFileResourceContent(data))
+        .thenAnswer(
+            invocation -> new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void testImportTrackerInOrderedChunks() throws Exception {
+    when(trackerImportService.importTracker(any(), any())).thenReturn(report(Status.OK));
+
+    TrackerImportParams params = TrackerImportParams.builder().chunkSize(1).build();
+
+    ImportReport report = importer.importTracker(params, data, NoopJobProgress.INSTANCE);
+
+    ArgumentCaptor<TrackerObjects> captor = ArgumentCaptor.forClass(TrackerObjects.class);
+    verify(trackerImportService, times(5)).importTracker(any(), captor.capture());
+
+    List<TrackerObjects> chunks = captor.getAllValues();
+    assertEquals(1, chunks.get(0).getTrackedEntities().size());
+    assertEquals(1, chunks.get(0).getEnrollments().size());
+    assertEquals(0, chunks.get(0).getRelationships().size());
+    assertEquals("EvtUid00001", chunks.get(1).getEvents().get(0).getUid());
+    assertEquals("EvtUid00002", chunks.get(2).getEvents().get(0).getUid());
+    assertEquals("RelUid00002", chunks.get(3).getRelationships().get(0).getUid());
+    assertEquals("RelUid00001", chunks.get(4).getRelationships().get(0).getUid());
+    assertEquals(Status.OK, report.getStatus());
+  }
+
+  @Test
+  void testImportTrackerStopsOnErrorWithAtomicModeAll() throws Exception {
+    when(trackerImportService.importTracker(any(), any())).thenReturn(report(Status.ERROR));
+
+    TrackerImportParams params =
+        TrackerImportParams.builder().chunkSize(1).atomicMode(AtomicMode.ALL).build();
+
+    ImportReport report = importer.importTracker(params, data, NoopJobProgress.INSTANCE);
+
+    verify(trackerImportService, times(1)).importTracker(any(), any());
+    assertEquals(Status.ERROR, report.getStatus());
+  }
+
+  @Test
+  void testImportTrackerContinuesOnErrorWithAtomicModeObject() throws Exception {
+    when(trackerImportService.importTracker(any(), any())).thenReturn(report(Status.ERROR));
+
+    TrackerImportParams params =
+        TrackerImportParams.builder().chunkSize(2).atomicMode(AtomicMode.OBJECT).build();
+
+    importer.importTracker(params, data, NoopJobProgress.INSTANCE);
+
+    verify(trackerImportService, times(4)).importTracker(any(), any());
+  }
+
+  @Test
+  void testImportTrackerImportsNestedRelationshipsInChunks() throws Exception {
+    payload =
+        """
+        {
+          "events": [
+            {"event": "EvtUid00001", "relationships": [{"relationship": "RelUid00001"}]},
+            {"event": "EvtUid00002", "relationships": [{"relationship": "RelUid00002"}]},
+            {"event": "EvtUid00003", "relationships": [{"relationship": "RelUid00003"}]}
+          ]
+        }""";
+    when(trackerImportService.importTracker(any(), any())).thenReturn(report(Status.OK));
+
+    TrackerImportParams params = TrackerImportParams.builder().chunkSize(2).build();
+
+    importer.importTracker(params, data, NoopJobProgress.INSTANCE);
+
+    ArgumentCaptor<TrackerObjects> captor = ArgumentCaptor.forClass(TrackerObjects.class);
+    verify(trackerImportService, times(4)).importTracker(any(), captor.capture());
+
+    List<TrackerObjects> chunks = captor.getAllValues();
+    assertEquals(2, chunks.get(0).getEvents().size());
+    assertEquals(0, chunks.get(0).getRelationships().size());
+    assertEquals(1, chunks.get(1).getEvents().size());
+    assertEquals(2, chunks.get(2).getRelationships().size());
+    assertEquals("RelUid00003", chunks.get(3).getRelationships().get(0).getUid());
+  }
+
+  private static ImportReport report(Status status) {
+    return status == Status.ERROR
+        ? ImportReport.withValidationErrors(ValidationReport.emptyReport(), 1)
+        : ImportReport.withImportCompleted(
+            status, PersistenceReport.emptyReport(), ValidationReport.emptyReport(), Map.of());
+  }
+}
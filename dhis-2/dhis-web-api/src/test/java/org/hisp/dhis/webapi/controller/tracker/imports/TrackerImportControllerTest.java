@@ -34,6 +34,7 @@ import static org.hisp.dhis.webapi.controller.tracker.imports.TrackerImportContr
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -59,6 +60,7 @@ import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.system.notification.Notification;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.tracker.imports.DefaultTrackerImportService;
+import org.hisp.dhis.tracker.imports.TrackerImportParams;
 import org.hisp.dhis.tracker.imports.report.ImportReport;
 import org.hisp.dhis.tracker.imports.report.PersistenceReport;
 import org.hisp.dhis.tracker.imports.report.Status;
@@ -140,6 +142,41 @@ class TrackerImportControllerTest {
         .andExpect(content().contentType("application/json"));
   }
 
+  @Test
+  void verifyAsyncStreaming() throws Exception {
+
+    // Then
+    mockMvc
+        .perform(
+            post(ENDPOINT + "?streaming=true&chunkSize=50")
+                .content("{}")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message").value(TRACKER_JOB_ADDED))
+        .andExpect(content().contentType("application/json"));
+
+    verify(jobConfigurationService)
+        .create(
+            argThat(
+                config -> ((TrackerImportParams) config.getJobParameters()).getChunkSize() == 50),
+            any(),
+            any());
+  }
+
+  @Test
+  void verifyAsyncStreamingWithInvalidChunkSize() throws Exception {
+
+    // Then
+    mockMvc
+        .perform(
+            post(ENDPOINT + "?streaming=true&chunkSize=0")
+                .content("{}")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void verifyAsyncForCsv() throws Exception {
 